@@ -0,0 +1,55 @@
+package azhukov.service.transcription;
+
+import azhukov.config.TranscriptionProperties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Бенчмарк локального форматирования транскрипта вместе с решением политики. Запуск: {@code
+ * ./gradlew jmh}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TranscriptFormattingBenchmark {
+
+  @Param({"SHORT", "TYPICAL", "MESSY"})
+  public String sample;
+
+  private LocalTranscriptFormatter formatter;
+  private TranscriptFormattingPolicy policy;
+  private String text;
+
+  @Setup
+  public void setUp() {
+    formatter = new LocalTranscriptFormatter();
+    policy = new TranscriptFormattingPolicy(new TranscriptionProperties());
+    text =
+        switch (sample) {
+          case "SHORT" -> "да";
+          case "TYPICAL" ->
+              "я работал с java и spring boot около трёх лет, в основном писал rest сервисы"
+                  + " и интеграции с kafka";
+          default ->
+              "э-э ну я я работал в компании э-э как её там да в общем м-м занимался разработкой"
+                  + " на java и э-э postgresql ну и kubernetes немного немного";
+        };
+  }
+
+  @Benchmark
+  public LocalTranscriptFormatter.Result format() {
+    return formatter.format(text);
+  }
+
+  @Benchmark
+  public boolean formatAndDecide() {
+    return policy.requiresLlm(text, formatter.format(text));
+  }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Конфигурационные свойства приложения. Использует @ConfigurationProperties для автоматического
@@ -22,6 +23,10 @@ public class ApplicationProperties {
   private Ai ai = new Ai();
   private Anthropic anthropic = new Anthropic();
   private OpenAi openai = new OpenAi();
+  private Webhook webhook = new Webhook();
+  private Monitoring monitoring = new Monitoring();
+  private Reports reports = new Reports();
+  private Activity activity = new Activity();
 
   // Константы для магических чисел
   public static final class Constants {
@@ -78,6 +83,8 @@ public class ApplicationProperties {
   @Data
   public static class File {
     private Upload upload = new Upload();
+    private Audio audio = new Audio();
+    private Resumable resumable = new Resumable();
 
     @Data
     public static class Upload {
@@ -85,6 +92,29 @@ public class ApplicationProperties {
       private List<String> allowedTypes =
           List.of("jpg", "jpeg", "png", "gif", "pdf", "doc", "docx", "mp3", "wav", "mp4");
     }
+
+    /** Хранилище записей ответов */
+    @Data
+    public static class Audio {
+      private boolean enabled = true;
+      private String directory = "uploads/audio";
+
+      /** Расписание очистки записей по сроку хранения вакансии */
+      private String retentionCron = "0 30 3 * * *";
+    }
+
+    /** Докачиваемые загрузки записей ответов */
+    @Data
+    public static class Resumable {
+      private String directory = "uploads/resumable";
+      private DataSize maxSize = DataSize.ofMegabytes(50);
+      private DataSize maxChunkSize = DataSize.ofMegabytes(8);
+
+      /** Через сколько после последней принятой части незавершённая загрузка удаляется */
+      private Duration expiration = Duration.ofHours(24);
+
+      private String cleanupCron = "0 */15 * * * *";
+    }
   }
 
   @Data
@@ -123,4 +153,108 @@ public class ApplicationProperties {
     private int maxTokens = Constants.DEFAULT_MAX_TOKENS;
     private double temperature = Constants.DEFAULT_TEMPERATURE;
   }
+
+  @Data
+  public static class Webhook {
+    private Inbox inbox = new Inbox();
+
+    /** Асинхронная обработка входящих webhook событий */
+    @Data
+    public static class Inbox {
+      /** Число очередей: события одного интервью всегда попадают в одну очередь */
+      private int workers = 4;
+
+      /** После стольких неудачных попыток событие получает статус DEAD */
+      private int maxAttempts = 5;
+
+      /** Событие в обработке дольше этого считается зависшим и обрабатывается повторно */
+      private Duration claimTimeout = Duration.ofMinutes(5);
+
+      /** Период повторной обработки неудачных и потерянных событий */
+      private Duration replayInterval = Duration.ofSeconds(30);
+
+      private int replayBatchSize = 100;
+    }
+  }
+
+  /** Живой мониторинг интервью через WebSocket */
+  @Data
+  public static class Monitoring {
+    /** Рассылка событий через Redis pub/sub, чтобы дашборд получал события с любого узла */
+    private boolean redisEnabled = true;
+
+    private String redisChannel = "interviews:live";
+  }
+
+  /**
+   * Лента активности. Записи пишутся в фоне JDBC-пачками: по batchSize записей или раз в
+   * flushInterval
+   */
+  @Data
+  public static class Activity {
+    private int batchSize = 200;
+
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /** Сколько записей может ждать в очереди */
+    private int capacity = 10_000;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+    /** Сколько месяцев хранится лента: партиции старше удаляются целиком. 0 — хранить бессрочно */
+    private int retentionMonths = 12;
+
+    /** На сколько месяцев вперёд заранее создаются партиции activity_log */
+    private int partitionsAhead = 3;
+
+    private String partitionMaintenanceCron = "0 10 2 * * *";
+
+    /** Что делать с записью, когда очередь заполнена */
+    public enum OverflowPolicy {
+      /** Отбросить новую запись */
+      DROP_NEWEST,
+      /** Вытеснить самую старую запись из очереди */
+      DROP_OLDEST,
+      /** Записать синхронно в потоке вызывающего — замедляет его, но ничего не теряет */
+      CALLER_RUNS
+    }
+  }
+
+  /** Аналитические отчёты */
+  @Data
+  public static class Reports {
+    /**
+     * Месячные отчёты читаются из суточных агрегатов interview_daily_stats; false — агрегатным
+     * запросом по таблице интервью
+     */
+    private boolean rollupEnabled = true;
+
+    /** Сколько последних суток пересчитывает сверка агрегатов */
+    private int reconcileDays = 3;
+
+    private String reconcileCron = "0 15 * * * *";
+
+    /**
+     * Сколько живут закэшированные счётчики дашборда. Кэш сбрасывается при изменении кандидатов,
+     * интервью и вакансий, TTL лишь ограничивает устаревание при изменениях в обход JPA
+     */
+    private Duration statsCacheTtl = Duration.ofMinutes(10);
+
+    private String statsCacheKeyPrefix = "dashboard:stats:";
+
+    /** Сверка воронок найма всех вакансий */
+    private String funnelReconcileCron = "0 45 3 * * *";
+
+    /** Как часто накопленные оценки ответов вливаются в гистограммы score_sketches */
+    private Duration sketchFlushInterval = Duration.ofSeconds(5);
+
+    /** Сброс гистограмм оценок: они перестраиваются по ответам при следующем чтении */
+    private String sketchResetCron = "0 30 4 * * *";
+
+    /**
+     * Таймаут асинхронной записи потоковой выгрузки. Задаётся только для выгрузок: остальные
+     * асинхронные запросы живут с таймаутом по умолчанию
+     */
+    private Duration exportTimeout = Duration.ofMinutes(30);
+  }
 }
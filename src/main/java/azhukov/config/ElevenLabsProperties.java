@@ -113,6 +113,24 @@ public class ElevenLabsProperties {
   /** Минимальный порог confidence для принятия ответа */
   private double minConfidenceThreshold = 0.7;
 
+  /** Пул агентов Conversational AI */
+  private AgentPool agentPool = new AgentPool();
+
+  /** Заблаговременная подготовка голосовых сессий */
+  private Prewarm prewarm = new Prewarm();
+
+  /** Состояние активных голосовых сессий */
+  private SessionState sessionState = new SessionState();
+
+  /** Буфер записи расшифровки разговоров */
+  private Transcript transcript = new Transcript();
+
+  /** Завершение брошенных голосовых сессий */
+  private Reaper reaper = new Reaper();
+
+  /** Ограничение числа одновременных голосовых сессий */
+  private Admission admission = new Admission();
+
   /** Проверяет, что конфигурация корректна */
   public boolean isValid() {
     return apiKey != null && !apiKey.trim().isEmpty();
@@ -142,4 +160,95 @@ public class ElevenLabsProperties {
   public ElevenLabsModel getModelId() {
     return modelId;
   }
+
+  /**
+   * Агенты с одинаковой конфигурацией переиспользуются между интервью. Агент удаляется, если его не
+   * выдавали дольше idleTtl, а после изменения вакансии — как только завершились его сессии
+   */
+  @Data
+  public static class AgentPool {
+    private boolean enabled = true;
+    private Duration idleTtl = Duration.ofDays(7);
+    private String collectCron = "0 15 * * * *";
+  }
+
+  /**
+   * Агент и сессия готовятся в фоне, когда кандидат открывает приглашение и есть свободный слот
+   * допуска. Неиспользованная подготовка отбрасывается через ttl, сессия при этом завершается в
+   * ElevenLabs
+   */
+  @Data
+  public static class Prewarm {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofMinutes(10);
+    private int poolSize = 2;
+
+    /** Сколько старт интервью ждёт подготовку, которая ещё идёт */
+    private Duration waitTimeout = Duration.ofSeconds(15);
+
+    /** Открытие приглашения запускает подготовку одного интервью не чаще раза в viewInterval */
+    private Duration viewInterval = Duration.ofMinutes(30);
+
+    private String cleanupCron = "0 * * * * *";
+  }
+
+  /** Снимок вопросов и счётчик ответов активной сессии; в Redis — общий для всех узлов */
+  @Data
+  public static class SessionState {
+    private boolean redisEnabled = true;
+    private String redisKeyPrefix = "voice:session:";
+    private Duration ttl = Duration.ofHours(2);
+  }
+
+  /**
+   * Сообщения разговора копятся в памяти и пишутся в БД пачками: по достижении batchSize или раз в
+   * flushInterval. При остановке приложения буфер сбрасывается полностью
+   */
+  @Data
+  public static class Transcript {
+    private int batchSize = 100;
+    private Duration flushInterval = Duration.ofSeconds(2);
+
+    /** Если БД недоступна и буфер заполнен, новые сообщения отклоняются */
+    private int maxBufferedMessages = 10_000;
+  }
+
+  /**
+   * Сессия завершается, если длится дольше maxSessionDurationMinutes или кандидат не отвечал дольше
+   * idleTimeout
+   */
+  @Data
+  public static class Reaper {
+    private boolean enabled = true;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Активность сессии пишется в БД не чаще раза в activityWriteInterval на узел, поэтому
+     * брошенная сессия завершается через idleTimeout + activityWriteInterval
+     */
+    private Duration activityWriteInterval = Duration.ofMinutes(2);
+    private String cron = "30 * * * * *";
+  }
+
+  /**
+   * Одновременно живёт не больше maxConcurrentSessions сессий (лимит тарифа ElevenLabs). Остальные
+   * запросы встают в очередь и получают позицию и ожидаемое время ожидания. Резервы и очередь — в
+   * Redis, общие для всех узлов
+   */
+  @Data
+  public static class Admission {
+    private boolean enabled = true;
+    private int maxConcurrentSessions = 10;
+    private boolean redisEnabled = true;
+    private String redisKeyPrefix = "voice:admission:";
+
+    /** Типичная длительность сессии, по ней оценивается время ожидания */
+    private Duration expectedSessionDuration = Duration.ofMinutes(20);
+
+    /** Кандидат выбывает из очереди, если не повторял запрос дольше этого */
+    private Duration queueTtl = Duration.ofMinutes(2);
+
+    /** Сколько слот держится за допущенной сессией до её активации */
+    private Duration reservationTtl = Duration.ofMinutes(1);
+  }
 }
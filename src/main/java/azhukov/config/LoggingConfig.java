@@ -46,9 +46,10 @@ public class LoggingConfig {
       HttpServletRequest httpRequest = (HttpServletRequest) request;
       HttpServletResponse httpResponse = (HttpServletResponse) response;
 
-      // Пропускаем статические ресурсы и health checks
+      // Пропускаем статические ресурсы и health checks. Записи ответов и части загрузок не
+      // оборачиваем: обёртки копируют тело в память
       String requestURI = httpRequest.getRequestURI();
-      if (shouldSkipLogging(requestURI)) {
+      if (shouldSkipLogging(requestURI) || isAudioTransfer(httpRequest.getServletPath())) {
         chain.doFilter(request, response);
         return;
       }
@@ -86,6 +87,10 @@ public class LoggingConfig {
           || requestURI.startsWith("/v3/api-docs");
     }
 
+    private boolean isAudioTransfer(String servletPath) {
+      return servletPath.startsWith("/audio/") || servletPath.startsWith("/ai/uploads/");
+    }
+
     private void logIncomingRequest(HttpServletRequest request, String requestId) {
       String method = request.getMethod();
       String uri = request.getRequestURI();
@@ -0,0 +1,39 @@
+package azhukov.config;
+
+import java.io.IOException;
+import java.util.List;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Читает тело application/offset+octet-stream (части докачиваемых загрузок) как поток. Стандартный
+ * ResourceHttpMessageConverter для параметра типа Resource копирует всё тело в память, а части
+ * должны идти из запроса прямо в файл загрузки. Конвертер только читает: запись ответов остаётся
+ * стандартным конвертерам. Spring Boot ставит конвертеры-бины перед стандартными.
+ */
+@Component
+public class OffsetOctetStreamHttpMessageConverter extends ResourceHttpMessageConverter {
+
+  public static final MediaType OFFSET_OCTET_STREAM =
+      MediaType.parseMediaType("application/offset+octet-stream");
+
+  public OffsetOctetStreamHttpMessageConverter() {
+    super(true);
+    setSupportedMediaTypes(List.of(OFFSET_OCTET_STREAM));
+  }
+
+  @Override
+  public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected Resource readInternal(Class<? extends Resource> clazz, HttpInputMessage inputMessage)
+      throws IOException {
+    return new InputStreamResource(inputMessage.getBody());
+  }
+}
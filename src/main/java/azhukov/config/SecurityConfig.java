@@ -76,6 +76,9 @@ public class SecurityConfig {
                     .permitAll()
                     .requestMatchers("/h2-console/**")
                     .permitAll()
+                    // WebSocket: JWT проверяется при рукопожатии (JwtHandshakeInterceptor)
+                    .requestMatchers("/ws/**")
+                    .permitAll()
 
                     // Все API эндпоинты требуют аутентификации
                     .requestMatchers("/**")
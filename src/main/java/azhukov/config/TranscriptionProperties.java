@@ -1,10 +1,13 @@
 package azhukov.config;
 
 import azhukov.service.TranscriptionProvider;
+import java.time.Duration;
+import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 @Getter
 @Setter
@@ -13,4 +16,166 @@ import org.springframework.context.annotation.Configuration;
 public class TranscriptionProperties {
   private TranscriptionProvider provider = TranscriptionProvider.ELEVENLABS;
   private boolean enabled = true;
+  private Chunking chunking = new Chunking();
+  private Cache cache = new Cache();
+  private Routing routing = new Routing();
+  private Formatting formatting = new Formatting();
+  private Normalization normalization = new Normalization();
+  private Silence silence = new Silence();
+  private Streaming streaming = new Streaming();
+
+  /** Настройки параллельной транскрибации длинных записей по фрагментам */
+  @Data
+  public static class Chunking {
+    private boolean enabled = true;
+
+    /** Максимальная длина фрагмента в секундах */
+    private double maxChunkSeconds = 30;
+
+    /** Интервал перед границей фрагмента, в котором ищется пауза */
+    private double silenceSearchSeconds = 5;
+
+    /** Перекрытие фрагментов, если паузу найти не удалось */
+    private double overlapSeconds = 1;
+
+    /** Порог RMS (0..1), ниже которого окно считается тишиной */
+    private double silenceThreshold = 0.01;
+
+    /** Максимальное число слов, сравниваемых на стыке фрагментов */
+    private int maxOverlapWords = 8;
+
+    /** Число одновременных запросов к провайдеру */
+    private int parallelism = 4;
+
+    /** Таймаут транскрибации одной записи в секундах */
+    private int timeoutSeconds = 180;
+  }
+
+  /** Кэш результатов транскрибации по хэшу содержимого аудио */
+  @Data
+  public static class Cache {
+    private boolean enabled = true;
+
+    /** Каталог дискового уровня кэша */
+    private String directory = System.getProperty("java.io.tmpdir") + "/recruiter/stt-cache";
+
+    /** Время жизни записи на диске */
+    private Duration diskTtl = Duration.ofDays(7);
+
+    /** Максимальный суммарный размер дискового кэша */
+    private DataSize maxDiskSize = DataSize.ofMegabytes(256);
+
+    /** Использовать Redis как общий уровень кэша между узлами */
+    private boolean redisEnabled = false;
+
+    /** Время жизни записи в Redis */
+    private Duration redisTtl = Duration.ofDays(1);
+
+    private String redisKeyPrefix = "stt:transcription:";
+  }
+
+  /** Маршрутизация запросов между провайдерами STT */
+  @Data
+  public static class Routing {
+    /** Переключаться на другой провайдер при ошибке или таймауте */
+    private boolean failoverEnabled = true;
+
+    /** Отправлять дублирующий запрос второму провайдеру, если первый отвечает долго */
+    private boolean hedgingEnabled = false;
+
+    /** Задержка перед дублирующим запросом */
+    private Duration hedgeDelay = Duration.ofSeconds(8);
+
+    /** Таймаут одного запроса к провайдеру */
+    private Duration attemptTimeout = Duration.ofSeconds(90);
+
+    /** Число ошибок подряд, после которого провайдер временно исключается */
+    private int failureThreshold = 3;
+
+    /** На сколько провайдер исключается из маршрутизации после серии ошибок */
+    private Duration circuitOpenDuration = Duration.ofSeconds(60);
+
+    /**
+     * Во сколько раз основной провайдер должен быть медленнее резервного (по скользящей средней),
+     * чтобы первым выбирался резервный
+     */
+    private double latencyBias = 1.5;
+
+    /** Коэффициент сглаживания скользящей средней задержки и доли ошибок */
+    private double ewmaAlpha = 0.2;
+
+    /** Размер пула потоков для запросов к провайдерам */
+    private int poolSize = 16;
+  }
+
+  /** Выбор между локальным форматированием транскрипта и проходом LLM */
+  @Data
+  public static class Formatting {
+    /** LLM — всегда LLM, LOCAL — только локальные правила, AUTO — решает политика */
+    private Mode mode = Mode.AUTO;
+
+    /** Транскрипты длиннее этого числа слов форматируются через LLM */
+    private int maxLocalWords = 25;
+
+    /** Доля слов-паразитов, начиная с которой текст считается «грязным» */
+    private double maxFillerRatio = 0.2;
+
+    /** Число повторов слов, начиная с которого текст считается «грязным» */
+    private int maxRepeats = 2;
+
+    /** Длина текста без знаков препинания, после которой нужна расстановка пунктуации LLM */
+    private int maxUnpunctuatedWords = 12;
+
+    public enum Mode {
+      LLM,
+      LOCAL,
+      AUTO
+    }
+  }
+
+  /** Приведение PCM WAV к моно 16 бит 16 кГц перед отправкой в STT */
+  @Data
+  public static class Normalization {
+    private boolean enabled = true;
+
+    /** Целевая частота дискретизации; записи с меньшей частотой не передискретизируются */
+    private int targetSampleRate = 16000;
+  }
+
+  @Data
+  public static class Silence {
+    private boolean enabled = true;
+
+    /** Порог RMS (0..1) окна 20 мс, выше которого окно считается речью */
+    private double speechThreshold = 0.02;
+
+    /** Записи с меньшей суммарной длительностью речи отклоняются без вызова STT */
+    private double minSpeechSeconds = 0.5;
+
+    /** Запас тишины, оставляемый вокруг речи при обрезке */
+    private double paddingSeconds = 0.3;
+  }
+
+  @Data
+  public static class Streaming {
+    private boolean enabled = true;
+
+    /** Длина фрагмента, после набора которой он отправляется в STT не дожидаясь конца записи */
+    private double chunkSeconds = 10;
+
+    /** Интервал поиска паузы перед границей фрагмента */
+    private double silenceSearchSeconds = 3;
+
+    /** Перекрытие фрагментов, если паузу найти не удалось */
+    private double overlapSeconds = 0.5;
+
+    /** Максимальная длина одной потоковой записи */
+    private int maxSessionSeconds = 900;
+
+    /** Сколько ждать транскрибации хвоста после окончания записи */
+    private int finishTimeoutSeconds = 90;
+
+    /** Размер пула для транскрибации фрагментов всех потоковых сессий */
+    private int parallelism = 8;
+  }
 }
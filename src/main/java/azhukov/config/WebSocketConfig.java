@@ -0,0 +1,38 @@
+package azhukov.config;
+
+import azhukov.websocket.InterviewMonitorWebSocketHandler;
+import azhukov.websocket.JwtHandshakeInterceptor;
+import azhukov.websocket.TranscriptionWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/** Конфигурация WebSocket эндпоинтов. Аутентификация выполняется при рукопожатии по JWT. */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+  private final ApplicationProperties applicationProperties;
+  private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+  private final TranscriptionWebSocketHandler transcriptionWebSocketHandler;
+  private final InterviewMonitorWebSocketHandler interviewMonitorWebSocketHandler;
+
+  @Override
+  public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+    String[] allowedOrigins =
+        applicationProperties.getCors().getAllowedOrigins().toArray(String[]::new);
+
+    registry
+        .addHandler(transcriptionWebSocketHandler, "/ws/transcription")
+        .addInterceptors(jwtHandshakeInterceptor)
+        .setAllowedOriginPatterns(allowedOrigins);
+
+    registry
+        .addHandler(interviewMonitorWebSocketHandler, "/ws/interviews/live")
+        .addInterceptors(jwtHandshakeInterceptor)
+        .setAllowedOriginPatterns(allowedOrigins);
+  }
+}
@@ -1,6 +1,7 @@
 package azhukov.controller;
 
 import azhukov.api.AiApi;
+import azhukov.exception.ValidationException;
 import azhukov.model.PositionAiGenerationRequest;
 import azhukov.model.PositionAiGenerationResponse;
 import azhukov.model.PositionDataGenerationRequest;
@@ -122,6 +123,9 @@ public class AiController extends BaseController implements AiApi {
       TranscribeAudio200Response response = new TranscribeAudio200Response();
       response.setTranscript(transcription);
       return ResponseEntity.ok(response);
+    } catch (ValidationException e) {
+      // Обрабатывается GlobalExceptionHandler (400 с сообщением для пользователя)
+      throw e;
     } catch (Exception e) {
       log.error("Error in transcribe endpoint", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -151,6 +155,8 @@ public class AiController extends BaseController implements AiApi {
           questionId,
           interviewAnswerId);
       return ResponseEntity.ok(response);
+    } catch (ValidationException e) {
+      throw e;
     } catch (IllegalArgumentException e) {
       log.warn("Invalid request parameters: {}", e.getMessage());
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -0,0 +1,116 @@
+package azhukov.controller;
+
+import azhukov.api.AnswerUploadsApi;
+import azhukov.model.AnswerUpload;
+import azhukov.model.AnswerUploadCreateRequest;
+import azhukov.model.TranscribeAnswerWithAI200Response;
+import azhukov.service.TranscriptionService;
+import azhukov.service.audio.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.ZoneOffset;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Докачиваемая загрузка записей ответов по частям */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AnswerUploadController extends BaseController implements AnswerUploadsApi {
+
+  private static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+
+  private final ResumableUploadService resumableUploadService;
+  private final TranscriptionService transcriptionService;
+
+  /** Прокси текущего запроса: нужен объявленный Content-Length части */
+  private final HttpServletRequest request;
+
+  @Override
+  public ResponseEntity<AnswerUpload> createAnswerUpload(AnswerUploadCreateRequest request) {
+    try {
+      ResumableUploadService.UploadState state =
+          resumableUploadService.create(
+              request.getInterviewId(),
+              request.getQuestionId(),
+              request.getLength(),
+              request.getContentType(),
+              request.getFileName());
+      return ResponseEntity.created(URI.create("/ai/uploads/" + state.upload().id()))
+          .header(UPLOAD_OFFSET_HEADER, "0")
+          .body(toModel(state));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create upload", e);
+    }
+  }
+
+  @Override
+  public ResponseEntity<AnswerUpload> getAnswerUpload(String uploadId) {
+    try {
+      return withOffset(resumableUploadService.get(uploadId));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read upload " + uploadId, e);
+    }
+  }
+
+  @Override
+  public ResponseEntity<AnswerUpload> appendAnswerUploadChunk(
+      String uploadId, Long uploadOffset, Resource body) {
+    // body — поток запроса (OffsetOctetStreamHttpMessageConverter), часть не буферизуется в памяти
+    try (InputStream in = body.getInputStream()) {
+      return withOffset(
+          resumableUploadService.append(
+              uploadId, uploadOffset, request.getContentLengthLong(), in));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append to upload " + uploadId, e);
+    }
+  }
+
+  @Override
+  public ResponseEntity<Void> cancelAnswerUpload(String uploadId) {
+    try {
+      resumableUploadService.cancel(uploadId);
+      return ResponseEntity.noContent().build();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to cancel upload " + uploadId, e);
+    }
+  }
+
+  @Override
+  public ResponseEntity<TranscribeAnswerWithAI200Response> completeAnswerUpload(String uploadId) {
+    try {
+      Long interviewAnswerId = resumableUploadService.complete(uploadId);
+      TranscribeAnswerWithAI200Response response = new TranscribeAnswerWithAI200Response();
+      response.setSuccess(true);
+      response.setFormattedText(transcriptionService.getFormattedTranscription(interviewAnswerId));
+      response.setInterviewAnswerId(interviewAnswerId);
+      return ResponseEntity.ok(response);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to complete upload " + uploadId, e);
+    }
+  }
+
+  private static ResponseEntity<AnswerUpload> withOffset(ResumableUploadService.UploadState state) {
+    return ResponseEntity.ok()
+        .header(UPLOAD_OFFSET_HEADER, String.valueOf(state.offset()))
+        .body(toModel(state));
+  }
+
+  private static AnswerUpload toModel(ResumableUploadService.UploadState state) {
+    AnswerUpload upload = new AnswerUpload();
+    upload.setUploadId(state.upload().id());
+    upload.setOffset(state.offset());
+    upload.setLength(state.upload().length());
+    upload.setMaxChunkSize(state.maxChunkSize());
+    upload.setExpiresAt(state.expiresAt().atOffset(ZoneOffset.UTC));
+    return upload;
+  }
+}
@@ -0,0 +1,49 @@
+package azhukov.controller;
+
+import azhukov.api.AudioApi;
+import azhukov.service.audio.AudioStore;
+import java.nio.file.Path;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Воспроизведение записей ответов. Файл отдаётся как {@link FileSystemResource}, без чтения в heap:
+ * заголовок Range (перемотка в плеере браузера) Spring MVC превращает в ResourceRegion и отвечает
+ * 206 или 416, а If-None-Match по ETag — в 304.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasRole('ADMIN')")
+public class AudioController extends BaseController implements AudioApi {
+
+  private static final String CACHE_CONTROL = "private, max-age=31536000, immutable";
+
+  private final AudioStore audioStore;
+
+  /** Заголовок Range разбирает Spring MVC по запросу, параметр range нужен только спецификации */
+  @Override
+  public ResponseEntity<Resource> getAudio(String fileName, String range) {
+    Optional<Path> file = audioStore.resolve(fileName);
+    if (file.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+
+    // Имя файла — хэш содержимого, поэтому он же служит ETag
+    String etag = "\"" + fileName.substring(0, fileName.indexOf('.')) + "\"";
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+        .contentType(MediaType.parseMediaType(AudioStore.contentType(fileName)))
+        .body(new FileSystemResource(file.get()));
+  }
+}
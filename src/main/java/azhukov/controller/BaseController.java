@@ -21,6 +21,14 @@ public abstract class BaseController {
     return authentication.getName();
   }
 
+  /** Проверяет, что запрос пришёл от кандидата (по ссылке-приглашению) */
+  protected boolean isCurrentUserCandidate() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication != null
+        && authentication.getAuthorities().stream()
+            .anyMatch(authority -> "ROLE_CANDIDATE".equals(authority.getAuthority()));
+  }
+
   /** Обрабатывает общие исключения и возвращает соответствующий HTTP статус */
   protected ResponseEntity<Void> handleException(Exception e, String operation) {
     if (e instanceof ResourceNotFoundException) {
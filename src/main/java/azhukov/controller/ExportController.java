@@ -0,0 +1,70 @@
+package azhukov.controller;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.service.export.ExportFormat;
+import azhukov.service.export.InterviewExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Потоковые выгрузки. Не входит в OpenAPI-интерфейсы: сгенерированные методы возвращают Resource,
+ * а выгрузка пишется в ответ асинхронно, после выхода из контроллера. Выгрузка идёт дольше
+ * обычного асинхронного запроса, поэтому её таймаут задаётся через WebAsyncTask только здесь.
+ */
+@RestController
+@RequestMapping("/exports")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController extends BaseController {
+
+  private final InterviewExportService interviewExportService;
+  private final ApplicationProperties applicationProperties;
+
+  @GetMapping("/interviews")
+  public WebAsyncTask<Void> exportInterviews(
+      @RequestParam(defaultValue = "csv") String format,
+      @RequestParam(required = false) Long positionId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate to,
+      HttpServletResponse response) {
+    log.info(
+        "Exporting interviews as {} (position: {}, from: {}, to: {}) for {}",
+        format,
+        positionId,
+        from,
+        to,
+        getCurrentUserEmail());
+
+    ExportFormat exportFormat = ExportFormat.parse(format);
+    StreamingResponseBody body =
+        interviewExportService.exportInterviews(exportFormat, positionId, from, to);
+    String fileName = "interviews-" + LocalDate.now() + "." + exportFormat.getExtension();
+
+    response.setContentType(exportFormat.getContentType());
+    response.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION,
+        ContentDisposition.attachment().filename(fileName).build().toString());
+    return new WebAsyncTask<>(
+        applicationProperties.getReports().getExportTimeout().toMillis(),
+        () -> {
+          body.writeTo(response.getOutputStream());
+          response.flushBuffer();
+          return null;
+        });
+  }
+}
@@ -2,11 +2,12 @@ package azhukov.controller;
 
 import azhukov.api.InterviewsApi;
 import azhukov.model.*;
-import azhukov.service.ElevenLabsAgentService;
 import azhukov.service.InterviewService;
 import azhukov.service.PositionService;
 import azhukov.service.QuestionService;
 import azhukov.service.VoiceInterviewService;
+import azhukov.service.VoiceSessionAdmissionService;
+import azhukov.service.VoiceSessionPrewarmService;
 import azhukov.util.PaginationUtils;
 import java.util.List;
 import java.util.Optional;
@@ -30,7 +31,8 @@ public class InterviewsApiController extends BaseController implements Interview
 
   private final InterviewService interviewService;
   private final VoiceInterviewService voiceInterviewService;
-  private final ElevenLabsAgentService elevenLabsAgentService;
+  private final VoiceSessionPrewarmService voiceSessionPrewarmService;
+  private final VoiceSessionAdmissionService admissionService;
   private final PositionService positionService;
   private final QuestionService questionService;
 
@@ -48,6 +50,12 @@ public class InterviewsApiController extends BaseController implements Interview
   public ResponseEntity<GetInterview200Response> getInterview(Long id) {
     log.info("Getting interview information: {}", id);
     GetInterview200Response response = interviewService.getInterviewDetails(id);
+    // Кандидат открыл приглашение — готовим голосовую сессию, пока он читает инструкции. Создание
+    // интервью и просмотр администратором сессию не готовят: она заняла бы слот допуска зря
+    if (response.getInterview().getStatus() == InterviewStatusEnum.NOT_STARTED
+        && isCurrentUserCandidate()) {
+      voiceSessionPrewarmService.prewarmOnView(id);
+    }
     return ResponseEntity.ok(response);
   }
 
@@ -126,45 +134,34 @@ public class InterviewsApiController extends BaseController implements Interview
 
     InterviewStartResponse response = new InterviewStartResponse();
     response.setInterviewId(id);
+    boolean voiceMode =
+        interviewStartRequest.map(req -> Boolean.TRUE.equals(req.getVoiceMode())).orElse(false);
+
+    // Голосовое интервью начинается, только если есть свободный слот ElevenLabs
+    if (voiceMode) {
+      VoiceSessionAdmissionService.Admission admission = admissionService.tryAdmit(id);
+      if (!admission.admitted()) {
+        response.setStatus(InterviewStartStatusEnum.QUEUED);
+        response.setMessage("All voice sessions are busy, retry later");
+        response.setQueuePosition(admission.queuePosition());
+        response.setEstimatedWaitSeconds(admission.estimatedWait().toSeconds());
+        return ResponseEntity.ok(response);
+      }
+    }
 
-    // Запускаем интервью
-    interviewService.startInterview(id);
-
-    // Обрабатываем голосовой режим
-    if (interviewStartRequest.isPresent() && interviewStartRequest.get().getVoiceMode()) {
-      // Создаем агента ElevenLabs если нужно
-      String agentId = null;
-      if (interviewStartRequest.get().getAutoCreateAgent() != null
-          && interviewStartRequest.get().getAutoCreateAgent()) {
-        try {
-          var agent = elevenLabsAgentService.createAgentForInterview(id);
-          agentId = agent.getElevenLabsAgentId();
-          log.info("Created ElevenLabs agent: {} for interview: {}", agentId, id);
-        } catch (Exception e) {
-          log.error("Failed to create ElevenLabs agent for interview: {}", id, e);
-          // Продолжаем без агента, используем дефолтный
-        }
+    try {
+      // Запускаем интервью
+      interviewService.startInterview(id);
+      if (voiceMode) {
+        startVoiceSession(id, interviewStartRequest.get(), response);
+      }
+    } finally {
+      if (voiceMode) {
+        admissionService.release(id);
       }
+    }
 
-      // Создаем голосовую сессию
-      VoiceSessionCreateRequest voiceRequest = new VoiceSessionCreateRequest();
-      voiceRequest.setVoiceMode(true);
-      voiceRequest.setAgentConfig(interviewStartRequest.get().getAgentConfig());
-      voiceRequest.setVoiceSettings(interviewStartRequest.get().getVoiceSettings());
-      voiceRequest.setAutoCreateAgent(interviewStartRequest.get().getAutoCreateAgent());
-
-      VoiceSessionResponse voiceSession =
-          voiceInterviewService.createVoiceSession(id, voiceRequest);
-
-      response.setAgentId(agentId != null ? agentId : voiceSession.getAgentId());
-      response.setSessionId(voiceSession.getSessionId());
-      response.setStatus(InterviewStartStatusEnum.AGENT_CREATED);
-      response.setMessage("Voice session created successfully");
-      response.setWebhookUrl(
-          voiceSession.getWebhookUrl() != null
-              ? voiceSession.getWebhookUrl()
-              : "/api/v1/webhooks/elevenlabs/events");
-    } else {
+    if (!voiceMode) {
       response.setStatus(InterviewStartStatusEnum.STARTED);
       response.setMessage("Interview started successfully");
     }
@@ -180,6 +177,26 @@ public class InterviewsApiController extends BaseController implements Interview
     return ResponseEntity.ok(response);
   }
 
+  /** Привязывает к интервью голосовую сессию; обычно она уже подготовлена в фоне */
+  private void startVoiceSession(
+      Long id, InterviewStartRequest request, InterviewStartResponse response) {
+    boolean useInterviewAgent = Boolean.TRUE.equals(request.getAutoCreateAgent());
+    VoiceSessionPrewarmService.PreparedVoiceSession prepared =
+        voiceSessionPrewarmService.take(id, useInterviewAgent);
+    VoiceSessionResponse voiceSession =
+        voiceInterviewService.activateVoiceSession(id, prepared.session());
+
+    String agentId = prepared.agentId();
+    response.setAgentId(agentId != null ? agentId : voiceSession.getAgentId());
+    response.setSessionId(voiceSession.getSessionId());
+    response.setStatus(InterviewStartStatusEnum.AGENT_CREATED);
+    response.setMessage("Voice session created successfully");
+    response.setWebhookUrl(
+        voiceSession.getWebhookUrl() != null
+            ? voiceSession.getWebhookUrl()
+            : "/api/v1/webhooks/elevenlabs/events");
+  }
+
   @Override
   @PreAuthorize("hasAnyRole('ADMIN', 'CANDIDATE')")
   public ResponseEntity<azhukov.model.Interview> submitInterviewAnswer(
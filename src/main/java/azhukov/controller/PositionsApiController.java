@@ -1,9 +1,9 @@
 package azhukov.controller;
 
 import azhukov.api.PositionsApi;
-import azhukov.mapper.PositionMapper;
 import azhukov.model.*;
 import azhukov.service.PositionService;
+import azhukov.service.ScoreDistributionService;
 import azhukov.util.PaginationUtils;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
@@ -25,7 +25,7 @@ import org.springframework.web.bind.annotation.*;
 public class PositionsApiController extends BaseController implements PositionsApi {
 
   private final PositionService positionService;
-  private final PositionMapper positionMapper;
+  private final ScoreDistributionService scoreDistributionService;
 
   @Override
   @PreAuthorize("hasRole('ADMIN')")
@@ -84,10 +84,15 @@ public class PositionsApiController extends BaseController implements PositionsA
   public ResponseEntity<PositionStats> getPositionStats(Long id) {
     log.debug("Getting stats for position with id: {}", id);
 
-    azhukov.entity.Position position = positionService.getPositionStats(id);
-    PositionStats stats = positionMapper.calculatePositionStats(position);
+    return ResponseEntity.ok(positionService.getPositionStats(id));
+  }
+
+  @Override
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<ScoreDistribution> getPositionScoreDistribution(Long id) {
+    log.debug("Getting score distribution for position with id: {}", id);
 
-    return ResponseEntity.ok(stats);
+    return ResponseEntity.ok(scoreDistributionService.getPositionDistribution(id));
   }
 
   @Override
@@ -6,7 +6,9 @@ import azhukov.model.ListPositionQuestions200Response;
 import azhukov.model.PaginatedResponse;
 import azhukov.model.PositionQuestionsResponse;
 import azhukov.model.QuestionCreateRequest;
+import azhukov.model.ScoreDistribution;
 import azhukov.service.QuestionService;
+import azhukov.service.ScoreDistributionService;
 import azhukov.util.PaginationUtils;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +31,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class QuestionsApiController extends BaseController implements QuestionsApi {
 
   private final QuestionService questionService;
+  private final ScoreDistributionService scoreDistributionService;
 
   @Override
   public ResponseEntity<PaginatedResponse> getAllQuestions(
@@ -51,6 +54,12 @@ public class QuestionsApiController extends BaseController implements QuestionsA
     return ResponseEntity.ok(question);
   }
 
+  @Override
+  public ResponseEntity<ScoreDistribution> getQuestionScoreDistribution(Long id) {
+    log.debug("Получение распределения оценок по вопросу: {}", id);
+    return ResponseEntity.ok(scoreDistributionService.getQuestionDistribution(id));
+  }
+
   @Override
   public ResponseEntity<azhukov.model.Question> updateQuestion(Long id, BaseQuestionFields body) {
     log.debug("Обновление вопроса по ID: {}", id);
@@ -8,9 +8,13 @@ import azhukov.model.InterviewAnswer;
 import azhukov.model.VoiceMessage;
 import azhukov.model.VoiceSessionResponse;
 import azhukov.model.VoiceSessionStatus;
+import azhukov.model.VoiceSessionStatusEnum;
+import azhukov.service.ConversationTranscriptService;
 import azhukov.service.VoiceInterviewService;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
 public class VoiceInterviewController extends BaseController implements VoiceInterviewsApi {
 
   private final VoiceInterviewService voiceInterviewService;
+  private final ConversationTranscriptService transcriptService;
   private final InterviewAnswerMapper interviewAnswerMapper;
 
   @Override
@@ -40,6 +45,14 @@ public class VoiceInterviewController extends BaseController implements VoiceInt
       VoiceSessionResponse response =
           voiceInterviewService.createVoiceSession(
               interviewId, voiceSessionCreateRequest.orElse(null));
+      if (response.getStatus() == VoiceSessionStatusEnum.QUEUED) {
+        // Все слоты ElevenLabs заняты: клиент повторит запрос, место в очереди сохраняется
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .header(
+                HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, Math.min(response.getEstimatedWaitSeconds(), 30))))
+            .body(response);
+      }
       return ResponseEntity.status(HttpStatus.CREATED).body(response);
     } catch (ResourceNotFoundException e) {
       log.warn("Interview not found: {}", interviewId);
@@ -160,4 +173,24 @@ public class VoiceInterviewController extends BaseController implements VoiceInt
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
     }
   }
+
+  @Override
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<List<VoiceMessage>> getVoiceTranscript(Long interviewId) {
+    log.info("Getting voice transcript for interview: {}", interviewId);
+
+    if (interviewId == null || interviewId <= 0) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    try {
+      return ResponseEntity.ok(transcriptService.getTimeline(interviewId));
+    } catch (ResourceNotFoundException e) {
+      log.warn("Interview not found: {}", interviewId);
+      return ResponseEntity.notFound().build();
+    } catch (Exception e) {
+      log.error("Error getting voice transcript for interview: {}", interviewId, e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
 }
@@ -2,7 +2,7 @@ package azhukov.controller;
 
 import azhukov.api.WebhooksApi;
 import azhukov.model.ElevenLabsWebhookEvent;
-import azhukov.service.VoiceInterviewService;
+import azhukov.service.WebhookInboxService;
 import azhukov.service.WebhookService;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.Map;
@@ -10,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -22,8 +23,10 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class WebhookController implements WebhooksApi {
 
+  private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   private final WebhookService webhookService;
-  private final VoiceInterviewService voiceInterviewService;
+  private final WebhookInboxService webhookInboxService;
 
   @Override
   public ResponseEntity<Void> handleElevenLabsWebhook(ElevenLabsWebhookEvent event) {
@@ -63,37 +66,21 @@ public class WebhookController implements WebhooksApi {
         }
       }
 
-      // Обработка события в зависимости от типа
-      switch (event.getType()) {
-        case AGENT_MESSAGE:
-          webhookService.handleAgentMessage(event);
-          break;
-        case AGENT_TOOL_CALL:
-          webhookService.handleAgentToolCall(event);
-          break;
-        case CONVERSATION_STARTED:
-          webhookService.handleConversationStarted(event);
-          break;
-        case CONVERSATION_ENDED:
-          webhookService.handleConversationEnded(event);
-          break;
-        case ERROR:
-          webhookService.handleError(event);
-          break;
-        default:
-          log.warn("Unknown webhook event type: {} from {}", event.getType(), clientIp);
-          return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-      }
+      // Событие только сохраняется: обработка идёт в фоне, подтверждение не ждёт БД
+      String idempotencyKey =
+          getRequest().map(request -> request.getHeader(IDEMPOTENCY_KEY_HEADER)).orElse(null);
+      boolean accepted = webhookInboxService.accept(event, idempotencyKey);
 
       log.info(
-          "Successfully processed ElevenLabs webhook: type={}, interviewId={}",
+          "ElevenLabs webhook {}: type={}, interviewId={}",
+          accepted ? "accepted" : "already received",
           event.getType(),
           event.getInterviewId());
       return ResponseEntity.ok().build();
 
     } catch (Exception e) {
       log.error(
-          "Error processing ElevenLabs webhook from {}: type={}, interviewId={}, error={}",
+          "Error storing ElevenLabs webhook from {}: type={}, interviewId={}, error={}",
           clientIp,
           event.getType(),
           event.getInterviewId(),
@@ -103,6 +90,14 @@ public class WebhookController implements WebhooksApi {
     }
   }
 
+  @Override
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<Void> replayWebhookEvent(Long eventId) {
+    log.info("Replaying webhook event: {}", eventId);
+    webhookInboxService.replay(eventId);
+    return ResponseEntity.accepted().build();
+  }
+
   /** Health check endpoint для webhook */
   @GetMapping("/elevenlabs/health")
   public ResponseEntity<Map<String, String>> webhookHealth() {
@@ -47,6 +47,13 @@ public class Agent {
   @Column(name = "position_id")
   private Long positionId;
 
+  /** SHA-256 конфигурации; агенты с хэшем входят в пул и переиспользуются между интервью */
+  @Column(name = "config_hash", length = 64)
+  private String configHash;
+
+  @Column(name = "last_used_at")
+  private LocalDateTime lastUsedAt;
+
   @CreationTimestamp
   @Column(name = "created_at", nullable = false, updatable = false)
   private LocalDateTime createdAt;
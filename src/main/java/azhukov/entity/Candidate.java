@@ -1,5 +1,6 @@
 package azhukov.entity;
 
+import azhukov.service.StatsEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -13,6 +14,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 /** Сущность кандидата в системе. Представляет человека, проходящего собеседование на вакансию. */
 @Entity
+@EntityListeners(StatsEntityListener.class)
 @Table(
     name = "candidates",
     indexes = {
@@ -0,0 +1,41 @@
+package azhukov.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.*;
+
+/**
+ * Сообщение голосового разговора. Записи только добавляются пачками через {@code
+ * ConversationTranscriptBuffer}, сущность используется для чтения ленты
+ */
+@Entity
+@Table(name = "conversation_transcript")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class ConversationTranscriptEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "interview_id", nullable = false)
+  private Long interviewId;
+
+  @Column(name = "message_type", nullable = false, length = 32)
+  private String messageType; // VoiceMessageTypeEnum
+
+  @Column(name = "text", nullable = false, columnDefinition = "TEXT")
+  private String text;
+
+  @Column(name = "agent_id")
+  private String agentId;
+
+  @Column(name = "occurred_at", nullable = false)
+  private LocalDateTime occurredAt;
+
+  @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+  private LocalDateTime createdAt;
+}
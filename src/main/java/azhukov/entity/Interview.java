@@ -1,5 +1,6 @@
 package azhukov.entity;
 
+import azhukov.service.StatsEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
@@ -11,6 +12,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 /** Сущность собеседования в системе. Связывает кандидата с вакансией и содержит результаты. */
 @Entity
+@EntityListeners(StatsEntityListener.class)
 @Table(
     name = "interviews",
     indexes = {
@@ -87,6 +89,9 @@ public class Interview {
   @Column(name = "voice_finished_at")
   private LocalDateTime voiceFinishedAt; // Время завершения голосовой сессии
 
+  @Column(name = "voice_last_activity_at")
+  private LocalDateTime voiceLastActivityAt; // Последний вопрос или ответ голосовой сессии
+
   @Column(name = "voice_total_duration")
   private Long voiceTotalDuration; // Общая длительность голосового интервью в секундах
 
@@ -1,5 +1,6 @@
 package azhukov.entity;
 
+import azhukov.service.StatsEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,6 +13,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 /** JPA сущность вакансии. Использует JSON для хранения массивов и современные типы данных. */
 @Entity
+@EntityListeners(StatsEntityListener.class)
 @Table(
     name = "positions",
     indexes = {
@@ -60,7 +62,8 @@ public class Position {
   @Column(name = "min_score")
   private Double minScore;
 
-  @Column(name = "avg_score")
+  /** Поддерживается PositionFunnelService по оценкам интервью, JPA его не записывает */
+  @Column(name = "avg_score", insertable = false, updatable = false)
   private Double avgScore;
 
   // Настройки проведения собеседования
@@ -80,6 +83,9 @@ public class Position {
   @Column(name = "save_audio")
   private Boolean saveAudio;
 
+  @Column(name = "audio_retention_days")
+  private Integer audioRetentionDays; // срок хранения записей ответов, null — бессрочно
+
   @Column(name = "save_video")
   private Boolean saveVideo;
 
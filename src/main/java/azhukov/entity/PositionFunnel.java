@@ -0,0 +1,78 @@
+package azhukov.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Воронка найма по вакансии. Строка пересчитывается {@code PositionFunnelService} при изменении
+ * кандидатов и интервью вакансии, сущность используется только для чтения
+ */
+@Entity
+@Immutable
+@Table(name = "position_funnel")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "positionId")
+public class PositionFunnel {
+
+  @Id
+  @Column(name = "position_id")
+  private Long positionId;
+
+  @Column(name = "candidates_total", nullable = false)
+  private long candidatesTotal;
+
+  @Column(name = "candidates_new", nullable = false)
+  private long candidatesNew;
+
+  @Column(name = "candidates_in_progress", nullable = false)
+  private long candidatesInProgress;
+
+  @Column(name = "candidates_finished", nullable = false)
+  private long candidatesFinished;
+
+  @Column(name = "candidates_hired", nullable = false)
+  private long candidatesHired;
+
+  @Column(name = "candidates_rejected", nullable = false)
+  private long candidatesRejected;
+
+  @Column(name = "interviews_total", nullable = false)
+  private long interviewsTotal;
+
+  @Column(name = "interviews_not_started", nullable = false)
+  private long interviewsNotStarted;
+
+  @Column(name = "interviews_in_progress", nullable = false)
+  private long interviewsInProgress;
+
+  @Column(name = "interviews_finished", nullable = false)
+  private long interviewsFinished;
+
+  @Column(name = "interviews_successful", nullable = false)
+  private long interviewsSuccessful;
+
+  @Column(name = "interviews_unsuccessful", nullable = false)
+  private long interviewsUnsuccessful;
+
+  @Column(name = "score_sum", nullable = false)
+  private double scoreSum;
+
+  @Column(name = "score_count", nullable = false)
+  private long scoreCount;
+
+  @Column(name = "last_activity_at")
+  private LocalDateTime lastActivityAt;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt;
+
+  /** Средний балл оценённых интервью или null, если оценок нет */
+  public Double getAvgScore() {
+    return scoreCount > 0 ? scoreSum / scoreCount : null;
+  }
+}
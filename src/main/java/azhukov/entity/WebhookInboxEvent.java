@@ -0,0 +1,68 @@
+package azhukov.entity;
+
+import azhukov.config.JsonbConverter;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.*;
+
+/** Входящее webhook событие. Записи не изменяются, кроме статуса обработки */
+@Entity
+@Table(name = "webhook_inbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = {"payload"})
+public class WebhookInboxEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "provider", nullable = false, length = 32)
+  private String provider;
+
+  @Column(name = "idempotency_key", nullable = false, length = 128)
+  private String idempotencyKey;
+
+  @Column(name = "event_type", nullable = false, length = 50)
+  private String eventType;
+
+  @Column(name = "interview_id", length = 64)
+  private String interviewId;
+
+  @Convert(converter = JsonbConverter.class)
+  @Column(name = "payload", columnDefinition = "jsonb", nullable = false)
+  private String payload; // JSON события как пришло от провайдера
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 20)
+  @Builder.Default
+  private Status status = Status.RECEIVED;
+
+  @Column(name = "attempts", nullable = false)
+  @Builder.Default
+  private Integer attempts = 0;
+
+  @Column(name = "last_error", columnDefinition = "TEXT")
+  private String lastError;
+
+  @Column(name = "received_at", nullable = false)
+  private LocalDateTime receivedAt;
+
+  @Column(name = "claimed_at")
+  private LocalDateTime claimedAt;
+
+  @Column(name = "processed_at")
+  private LocalDateTime processedAt;
+
+  /** Статусы обработки */
+  public enum Status {
+    RECEIVED,
+    PROCESSING,
+    PROCESSED,
+    FAILED,
+    DEAD
+  }
+}
@@ -28,6 +28,8 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+  private static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+
   /** Обработка исключений валидации */
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ErrorResponse> handleValidationExceptions(
@@ -144,6 +146,28 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
   }
 
+  /** Обработка рассинхронизации смещения докачиваемой загрузки */
+  @ExceptionHandler(UploadOffsetConflictException.class)
+  public ResponseEntity<ErrorResponse> handleUploadOffsetConflictException(
+      UploadOffsetConflictException ex) {
+
+    log.warn("Upload offset conflict: {}", ex.getMessage());
+
+    ErrorResponse errorResponse =
+        ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.CONFLICT.value())
+            .error("Conflict")
+            .message(ex.getMessage())
+            .details(Map.of("offset", String.valueOf(ex.getOffset())))
+            .build();
+
+    // Клиент продолжает загрузку с этого смещения
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .header(UPLOAD_OFFSET_HEADER, String.valueOf(ex.getOffset()))
+        .body(errorResponse);
+  }
+
   /** Обработка исключений нечитаемых HTTP сообщений */
   @ExceptionHandler(HttpMessageNotReadableException.class)
   public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(
@@ -0,0 +1,15 @@
+package azhukov.exception;
+
+import java.util.Locale;
+
+/** Запись не содержит речи — транскрибировать нечего */
+public class SilentRecordingException extends ValidationException {
+
+  public SilentRecordingException(double speechSeconds) {
+    super(
+        String.format(
+            Locale.ROOT,
+            "В записи не обнаружена речь (%.1f с). Проверьте микрофон и запишите ответ ещё раз",
+            speechSeconds));
+  }
+}
@@ -0,0 +1,17 @@
+package azhukov.exception;
+
+/** Часть докачиваемой загрузки пришла не с того смещения или загрузка занята другим запросом */
+public class UploadOffsetConflictException extends RuntimeException {
+
+  private final long offset;
+
+  public UploadOffsetConflictException(String message, long offset) {
+    super(message);
+    this.offset = offset;
+  }
+
+  /** Сколько байт загрузки принято на самом деле */
+  public long getOffset() {
+    return offset;
+  }
+}
@@ -47,6 +47,7 @@ public interface PositionMapper extends CommonMapper {
   @Mapping(target = "answerTime", source = "answerTime")
   @Mapping(target = "level", source = "level")
   @Mapping(target = "saveAudio", source = "saveAudio")
+  @Mapping(target = "audioRetentionDays", source = "audioRetentionDays")
   @Mapping(target = "saveVideo", source = "saveVideo")
   @Mapping(target = "randomOrder", source = "randomOrder")
   @Mapping(target = "questionType", source = "questionType")
@@ -70,6 +71,7 @@ public interface PositionMapper extends CommonMapper {
   @Mapping(target = "answerTime", source = "answerTime")
   @Mapping(target = "level", source = "level")
   @Mapping(target = "saveAudio", source = "saveAudio")
+  @Mapping(target = "audioRetentionDays", source = "audioRetentionDays")
   @Mapping(target = "saveVideo", source = "saveVideo")
   @Mapping(target = "randomOrder", source = "randomOrder")
   @Mapping(target = "questionType", source = "questionType")
@@ -94,6 +96,7 @@ public interface PositionMapper extends CommonMapper {
   @Mapping(target = "answerTime", source = "answerTime")
   @Mapping(target = "level", source = "level")
   @Mapping(target = "saveAudio", source = "saveAudio")
+  @Mapping(target = "audioRetentionDays", source = "audioRetentionDays")
   @Mapping(target = "saveVideo", source = "saveVideo")
   @Mapping(target = "randomOrder", source = "randomOrder")
   @Mapping(target = "questionType", source = "questionType")
@@ -155,46 +158,6 @@ public interface PositionMapper extends CommonMapper {
     return createdBy != null ? createdBy.getId() : null;
   }
 
-  /** Вычисляет статистику позиции на основе интервью */
-  default azhukov.model.PositionStats calculatePositionStats(Position entity) {
-    if (entity == null || entity.getInterviews() == null) {
-      return null;
-    }
-
-    azhukov.model.PositionStats stats = new azhukov.model.PositionStats();
-    stats.setPositionId(entity.getId());
-
-    long total = entity.getInterviews().size();
-
-    // Успешные - результат SUCCESSFUL
-    long successful =
-        entity.getInterviews().stream()
-            .filter(
-                interview -> interview.getResult() == azhukov.entity.Interview.Result.SUCCESSFUL)
-            .count();
-
-    // В процессе - статус IN_PROGRESS
-    long inProgress =
-        entity.getInterviews().stream()
-            .filter(
-                interview -> interview.getStatus() == azhukov.entity.Interview.Status.IN_PROGRESS)
-            .count();
-
-    // Неуспешные - результат UNSUCCESSFUL
-    long unsuccessful =
-        entity.getInterviews().stream()
-            .filter(
-                interview -> interview.getResult() == azhukov.entity.Interview.Result.UNSUCCESSFUL)
-            .count();
-
-    stats.setInterviewsTotal(total);
-    stats.setInterviewsSuccessful(successful);
-    stats.setInterviewsInProgress(inProgress);
-    stats.setInterviewsUnsuccessful(unsuccessful);
-
-    return stats;
-  }
-
   // Методы для работы с Map (для API совместимости)
   /** Преобразует Position entity в Map */
   default Map<String, Object> toMap(Position entity) {
@@ -2,14 +2,17 @@ package azhukov.repository;
 
 import azhukov.entity.Agent;
 import azhukov.model.AgentStatusEnum;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /** Репозиторий для работы с AI-агентами */
 @Repository
@@ -34,6 +37,32 @@ public interface AgentRepository extends JpaRepository<Agent, Long> {
   @Query("SELECT a FROM Agent a WHERE a.status = :status")
   List<Agent> findActiveAgents(@Param("status") AgentStatusEnum status);
 
+  /** Найти агента пула по хэшу конфигурации */
+  Optional<Agent> findFirstByConfigHashAndStatus(String configHash, AgentStatusEnum status);
+
+  /** Агенты пула вакансии в заданном статусе */
+  List<Agent> findByPositionIdAndStatusAndConfigHashIsNotNull(
+      Long positionId, AgentStatusEnum status);
+
+  /** Отметить, что агент выдан для интервью (вызывается вне транзакции сервиса) */
+  @Modifying
+  @Transactional
+  @Query("UPDATE Agent a SET a.lastUsedAt = :usedAt WHERE a.id = :id")
+  int touch(@Param("id") Long id, @Param("usedAt") LocalDateTime usedAt);
+
+  /**
+   * Агенты пула для удаления: активные, которые не выдавались с idleBefore, и выведенные из пула
+   * после изменения вакансии, которые не выдавались с retiredBefore (их сессии уже завершились)
+   */
+  @Query(
+      "SELECT a FROM Agent a WHERE a.configHash IS NOT NULL AND ("
+          + "(a.status = azhukov.model.AgentStatusEnum.ACTIVE AND a.lastUsedAt < :idleBefore)"
+          + " OR (a.status = azhukov.model.AgentStatusEnum.INACTIVE"
+          + " AND a.lastUsedAt < :retiredBefore))")
+  List<Agent> findPooledAgentsToCollect(
+      @Param("idleBefore") LocalDateTime idleBefore,
+      @Param("retiredBefore") LocalDateTime retiredBefore);
+
   /** Найти агентов по названию (поиск) */
   @Query("SELECT a FROM Agent a WHERE LOWER(a.name) LIKE LOWER(CONCAT('%', :name, '%'))")
   Page<Agent> findByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
@@ -88,6 +88,32 @@ public interface CandidateRepository extends BaseRepository<Candidate, Long> {
   /** Подсчитывает количество кандидатов по статусу */
   long countByStatus(Candidate.Status status);
 
+  /** Количество кандидатов по статусам одним проходом по таблице */
+  @Query(
+      "SELECT COUNT(c) AS total,"
+          + " COUNT(c) FILTER (WHERE c.status = azhukov.entity.Candidate.Status.IN_PROGRESS)"
+          + " AS inProgress,"
+          + " COUNT(c) FILTER (WHERE c.status = azhukov.entity.Candidate.Status.FINISHED)"
+          + " AS finished,"
+          + " COUNT(c) FILTER (WHERE c.status = azhukov.entity.Candidate.Status.HIRED) AS hired,"
+          + " COUNT(c) FILTER (WHERE c.status = azhukov.entity.Candidate.Status.REJECTED)"
+          + " AS rejected"
+          + " FROM Candidate c")
+  StatusCounts countAllByStatus();
+
+  /** Количество кандидатов по статусам */
+  interface StatusCounts {
+    long getTotal();
+
+    long getInProgress();
+
+    long getFinished();
+
+    long getHired();
+
+    long getRejected();
+  }
+
   /** Подсчитывает количество кандидатов по вакансии */
   long countByPosition(Position position);
 
@@ -0,0 +1,15 @@
+package azhukov.repository;
+
+import azhukov.entity.ConversationTranscriptEntry;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/** Репозиторий для чтения расшифровки голосовых интервью */
+@Repository
+public interface ConversationTranscriptRepository
+    extends JpaRepository<ConversationTranscriptEntry, Long> {
+
+  /** Лента разговора в хронологическом порядке */
+  List<ConversationTranscriptEntry> findByInterviewIdOrderByOccurredAtAscIdAsc(Long interviewId);
+}
@@ -1,7 +1,9 @@
 package azhukov.repository;
 
 import azhukov.entity.InterviewAnswer;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -93,4 +95,34 @@ public interface InterviewAnswerRepository extends BaseRepository<InterviewAnswe
    * @return true если ответ существует
    */
   boolean existsByInterviewIdAndQuestionId(Long interviewId, Long questionId);
+
+  /**
+   * Находит ссылки на записи из хранилища (audioUrl вида /audio/...) по вакансии, созданные раньше
+   * указанного момента
+   *
+   * @param positionId ID вакансии
+   * @param cutoff граница срока хранения
+   * @return уникальные audioUrl
+   */
+  @Query(
+      "SELECT DISTINCT ia.audioUrl FROM InterviewAnswer ia WHERE ia.interview.position.id = :positionId"
+          + " AND ia.audioUrl LIKE '/audio/%' AND ia.createdAt < :cutoff")
+  List<String> findAudioUrlsCreatedBefore(
+      @Param("positionId") Long positionId, @Param("cutoff") LocalDateTime cutoff);
+
+  /**
+   * Удаляет ссылки на записи из хранилища по вакансии, созданные раньше указанного момента
+   *
+   * @return количество обновлённых ответов
+   */
+  @Modifying
+  @Query(
+      "UPDATE InterviewAnswer ia SET ia.audioUrl = NULL WHERE ia.audioUrl LIKE '/audio/%'"
+          + " AND ia.createdAt < :cutoff"
+          + " AND ia.interview.id IN (SELECT i.id FROM Interview i WHERE i.position.id = :positionId)")
+  int clearAudioUrlsCreatedBefore(
+      @Param("positionId") Long positionId, @Param("cutoff") LocalDateTime cutoff);
+
+  /** Проверяет, ссылается ли ещё какой-либо ответ на запись */
+  boolean existsByAudioUrl(String audioUrl);
 }
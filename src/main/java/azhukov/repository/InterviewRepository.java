@@ -3,11 +3,16 @@ package azhukov.repository;
 import azhukov.entity.Candidate;
 import azhukov.entity.Interview;
 import azhukov.entity.Position;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -166,6 +171,103 @@ public interface InterviewRepository extends BaseRepository<Interview, Long> {
   @Query("SELECT COUNT(i) FROM Interview i WHERE i.result = 'UNSUCCESSFUL'")
   long countUnsuccessful();
 
+  /** Количество собеседований по статусам и результатам одним проходом по таблице */
+  @Query(
+      "SELECT COUNT(i) AS total,"
+          + " COUNT(i) FILTER (WHERE i.result = azhukov.entity.Interview.Result.SUCCESSFUL)"
+          + " AS successful,"
+          + " COUNT(i) FILTER (WHERE i.result = azhukov.entity.Interview.Result.UNSUCCESSFUL)"
+          + " AS unsuccessful,"
+          + " COUNT(i) FILTER (WHERE i.status = azhukov.entity.Interview.Status.IN_PROGRESS)"
+          + " AS inProgress,"
+          + " COUNT(i) FILTER (WHERE i.status = azhukov.entity.Interview.Status.NOT_STARTED)"
+          + " AS notStarted,"
+          + " COUNT(i) FILTER (WHERE i.status = azhukov.entity.Interview.Status.FINISHED)"
+          + " AS finished"
+          + " FROM Interview i")
+  StatusCounts countAllByStatus();
+
+  /** Количество собеседований по статусам и результатам */
+  interface StatusCounts {
+    long getTotal();
+
+    long getSuccessful();
+
+    long getUnsuccessful();
+
+    long getInProgress();
+
+    long getNotStarted();
+
+    long getFinished();
+  }
+
+  /**
+   * Строки выгрузки: собеседование с каждым из его ответов (без ответов — одна строка). Результат
+   * читается курсором порциями по fetch size и не попадает в контекст персистентности, поэтому
+   * вызывать внутри транзакции и закрывать поток
+   */
+  @Query(
+      "SELECT i.id AS interviewId, p.id AS positionId, p.title AS positionTitle,"
+          + " c.firstName AS candidateFirstName, c.lastName AS candidateLastName,"
+          + " c.email AS candidateEmail, i.status AS status, i.result AS result,"
+          + " i.aiScore AS aiScore, i.createdAt AS createdAt, i.startedAt AS startedAt,"
+          + " i.finishedAt AS finishedAt, q.id AS questionId, q.text AS questionText,"
+          + " a.answerText AS answerText, a.formattedTranscription AS transcription,"
+          + " a.score AS answerScore, a.durationSeconds AS durationSeconds"
+          + " FROM Interview i JOIN i.position p JOIN i.candidate c"
+          + " LEFT JOIN i.answers a LEFT JOIN a.question q"
+          + " WHERE (:positionId IS NULL OR p.id = :positionId)"
+          + " AND i.createdAt >= :from AND i.createdAt < :to"
+          + " ORDER BY i.id, a.id")
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  Stream<ExportRow> streamExportRows(
+      @Param("positionId") Long positionId,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
+
+  /** Строка выгрузки собеседований; поля ответа пусты у собеседований без ответов */
+  interface ExportRow {
+    Long getInterviewId();
+
+    Long getPositionId();
+
+    String getPositionTitle();
+
+    String getCandidateFirstName();
+
+    String getCandidateLastName();
+
+    String getCandidateEmail();
+
+    Interview.Status getStatus();
+
+    Interview.Result getResult();
+
+    Double getAiScore();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getStartedAt();
+
+    LocalDateTime getFinishedAt();
+
+    Long getQuestionId();
+
+    String getQuestionText();
+
+    String getAnswerText();
+
+    String getTranscription();
+
+    Double getAnswerScore();
+
+    Integer getDurationSeconds();
+  }
+
   /** Находит среднюю оценку по всем собеседованиям */
   @Query("SELECT AVG(i.aiScore) FROM Interview i WHERE i.aiScore IS NOT NULL")
   Double findAverageScore();
@@ -182,4 +284,46 @@ public interface InterviewRepository extends BaseRepository<Interview, Long> {
   /** Восстановление собеседования (устанавливает статус NOT_STARTED и убирает результат) */
   @Query("UPDATE Interview i SET i.status = 'NOT_STARTED', i.result = NULL WHERE i.id = :id")
   void restore(@Param("id") Long id);
+
+  /** Число живых голосовых сессий (занятые слоты ElevenLabs) */
+  @Query(
+      "SELECT COUNT(i) FROM Interview i WHERE i.status = 'IN_PROGRESS' AND i.voiceEnabled = true"
+          + " AND i.voiceStartedAt IS NOT NULL AND i.voiceFinishedAt IS NULL")
+  long countLiveVoiceSessions();
+
+  /** Время старта живых голосовых сессий, начиная с самой старой */
+  @Query(
+      "SELECT i.voiceStartedAt FROM Interview i WHERE i.status = 'IN_PROGRESS'"
+          + " AND i.voiceEnabled = true AND i.voiceStartedAt IS NOT NULL"
+          + " AND i.voiceFinishedAt IS NULL ORDER BY i.voiceStartedAt")
+  List<LocalDateTime> findLiveVoiceSessionStarts(Pageable pageable);
+
+  /**
+   * Живые голосовые сессии, которые длятся дольше startedBefore или без вопросов и ответов с
+   * idleBefore
+   */
+  @Query(
+      "SELECT i.id FROM Interview i WHERE i.status = 'IN_PROGRESS' AND i.voiceEnabled = true"
+          + " AND i.voiceStartedAt IS NOT NULL AND i.voiceFinishedAt IS NULL"
+          + " AND (i.voiceStartedAt < :startedBefore"
+          + " OR COALESCE(i.voiceLastActivityAt, i.voiceStartedAt) < :idleBefore)")
+  List<Long> findStaleVoiceSessionIds(
+      @Param("startedBefore") LocalDateTime startedBefore,
+      @Param("idleBefore") LocalDateTime idleBefore);
+
+  /** Отмечает активность голосовой сессии */
+  @Modifying
+  @Query("UPDATE Interview i SET i.voiceLastActivityAt = :now WHERE i.id = :id")
+  void touchVoiceActivity(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+  /**
+   * Отмечает голосовую сессию завершённой, если её ещё не завершили
+   *
+   * @return 1, если сессию завершил этот вызов
+   */
+  @Modifying
+  @Query(
+      "UPDATE Interview i SET i.voiceFinishedAt = :now"
+          + " WHERE i.id = :id AND i.status = 'IN_PROGRESS' AND i.voiceFinishedAt IS NULL")
+  int claimVoiceSessionEnd(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,15 @@
+package azhukov.repository;
+
+import azhukov.entity.PositionFunnel;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/** Репозиторий для чтения воронки найма по вакансиям */
+@Repository
+public interface PositionFunnelRepository extends JpaRepository<PositionFunnel, Long> {
+
+  /** Воронки нескольких вакансий одним запросом, например для страницы списка */
+  List<PositionFunnel> findByPositionIdIn(Collection<Long> positionIds);
+}
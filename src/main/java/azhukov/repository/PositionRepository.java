@@ -133,6 +133,39 @@ public interface PositionRepository extends BaseRepository<Position, Long> {
   /** Подсчитывает количество вакансий по статусу */
   long countByStatus(Position.Status status);
 
+  /** Количество вакансий по статусам и уровням одним проходом по таблице */
+  @Query(
+      "SELECT COUNT(p) AS total,"
+          + " COUNT(p) FILTER (WHERE p.status = azhukov.entity.Position.Status.ACTIVE) AS active,"
+          + " COUNT(p) FILTER (WHERE p.status = azhukov.entity.Position.Status.PAUSED) AS paused,"
+          + " COUNT(p) FILTER (WHERE p.status = azhukov.entity.Position.Status.ARCHIVED)"
+          + " AS archived,"
+          + " COUNT(p) FILTER (WHERE p.level = azhukov.entity.Position.Level.JUNIOR) AS junior,"
+          + " COUNT(p) FILTER (WHERE p.level = azhukov.entity.Position.Level.MIDDLE) AS middle,"
+          + " COUNT(p) FILTER (WHERE p.level = azhukov.entity.Position.Level.SENIOR) AS senior,"
+          + " COUNT(p) FILTER (WHERE p.level = azhukov.entity.Position.Level.LEAD) AS lead"
+          + " FROM Position p")
+  StatusCounts countAllByStatusAndLevel();
+
+  /** Количество вакансий по статусам и уровням */
+  interface StatusCounts {
+    long getTotal();
+
+    long getActive();
+
+    long getPaused();
+
+    long getArchived();
+
+    long getJunior();
+
+    long getMiddle();
+
+    long getSenior();
+
+    long getLead();
+  }
+
   /** Подсчитывает количество вакансий по компании */
   long countByCompany(String company);
 
@@ -148,25 +181,6 @@ public interface PositionRepository extends BaseRepository<Position, Long> {
   @Query("SELECT p FROM Position p LEFT JOIN FETCH p.interviews WHERE p.publicLink IS NOT NULL")
   List<Position> findByPublicLinkIsNotNull();
 
-  /** Подсчитывает общее количество интервью по позиции */
-  @Query("SELECT COUNT(i) FROM Interview i WHERE i.position.id = :positionId")
-  long countInterviewsByPosition(@Param("positionId") Long positionId);
-
-  /** Подсчитывает количество успешных интервью по позиции */
-  @Query(
-      "SELECT COUNT(i) FROM Interview i WHERE i.position.id = :positionId AND i.result = 'SUCCESSFUL'")
-  long countSuccessfulInterviewsByPosition(@Param("positionId") Long positionId);
-
-  /** Подсчитывает количество интервью в процессе по позиции */
-  @Query(
-      "SELECT COUNT(i) FROM Interview i WHERE i.position.id = :positionId AND i.status = 'IN_PROGRESS'")
-  long countInProgressInterviewsByPosition(@Param("positionId") Long positionId);
-
-  /** Подсчитывает количество неуспешных интервью по позиции */
-  @Query(
-      "SELECT COUNT(i) FROM Interview i WHERE i.position.id = :positionId AND i.result = 'UNSUCCESSFUL'")
-  long countUnsuccessfulInterviewsByPosition(@Param("positionId") Long positionId);
-
   /** Мягкое удаление вакансии (устанавливает статус ARCHIVED) */
   @Query("UPDATE Position p SET p.status = 'ARCHIVED' WHERE p.id = :id")
   void softDelete(@Param("id") Long id);
@@ -200,4 +214,10 @@ public interface PositionRepository extends BaseRepository<Position, Long> {
 
   /** Подсчитывает количество вакансий по статусу и уровню */
   long countByStatusAndLevel(Position.Status status, Position.Level level);
+
+  /** Находит вакансии с заданным названием */
+  List<Position> findByTitle(String title);
+
+  /** Находит вакансии с ограниченным сроком хранения записей ответов */
+  List<Position> findByAudioRetentionDaysIsNotNull();
 }
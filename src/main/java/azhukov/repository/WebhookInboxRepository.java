@@ -0,0 +1,115 @@
+package azhukov.repository;
+
+import azhukov.entity.WebhookInboxEvent;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Репозиторий входящих webhook событий */
+@Repository
+public interface WebhookInboxRepository extends JpaRepository<WebhookInboxEvent, Long> {
+
+  /**
+   * Сохраняет событие, если события с таким ключом идемпотентности ещё нет
+   *
+   * @return 1 — событие сохранено, 0 — дубликат
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "INSERT INTO webhook_inbox (provider, idempotency_key, event_type, interview_id, payload)"
+              + " VALUES (:provider, :key, :eventType, :interviewId, CAST(:payload AS jsonb))"
+              + " ON CONFLICT (provider, idempotency_key) DO NOTHING",
+      nativeQuery = true)
+  int insertIfAbsent(
+      @Param("provider") String provider,
+      @Param("key") String idempotencyKey,
+      @Param("eventType") String eventType,
+      @Param("interviewId") String interviewId,
+      @Param("payload") String payload);
+
+  Optional<WebhookInboxEvent> findByProviderAndIdempotencyKey(
+      String provider, String idempotencyKey);
+
+  /** Необработанные события интервью в порядке поступления */
+  @Query(
+      "SELECT e.id FROM WebhookInboxEvent e WHERE e.interviewId = :interviewId"
+          + " AND e.status IN (azhukov.entity.WebhookInboxEvent.Status.RECEIVED,"
+          + " azhukov.entity.WebhookInboxEvent.Status.FAILED) ORDER BY e.id")
+  List<Long> findPendingIds(@Param("interviewId") String interviewId);
+
+  /**
+   * Захватывает событие для обработки. Событие интервью захватывается, только когда все более
+   * ранние события этого интервью обработаны или признаны DEAD — так порядок сохраняется и между
+   * узлами
+   *
+   * @return 1 — событие захвачено, 0 — уже обрабатывается, обработано или ждёт более ранних
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE webhook_inbox w SET status = 'PROCESSING', claimed_at = NOW(),"
+              + " attempts = w.attempts + 1"
+              + " WHERE w.id = :id AND w.status IN ('RECEIVED', 'FAILED')"
+              + " AND (w.interview_id IS NULL OR NOT EXISTS (SELECT 1 FROM webhook_inbox p"
+              + " WHERE p.interview_id = w.interview_id AND p.id < w.id"
+              + " AND p.status IN ('RECEIVED', 'PROCESSING', 'FAILED')))",
+      nativeQuery = true)
+  int claim(@Param("id") Long id);
+
+  @Modifying
+  @Query(
+      "UPDATE WebhookInboxEvent e SET e.status = azhukov.entity.WebhookInboxEvent.Status.PROCESSED,"
+          + " e.processedAt = :processedAt, e.lastError = NULL WHERE e.id = :id")
+  int markProcessed(@Param("id") Long id, @Param("processedAt") LocalDateTime processedAt);
+
+  /** Отмечает неудачную попытку; после maxAttempts попыток событие больше не повторяется */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE webhook_inbox SET last_error = :error,"
+              + " status = CASE WHEN attempts >= :maxAttempts THEN 'DEAD' ELSE 'FAILED' END"
+              + " WHERE id = :id",
+      nativeQuery = true)
+  int markFailed(
+      @Param("id") Long id, @Param("error") String error, @Param("maxAttempts") int maxAttempts);
+
+  /** Возвращает в очередь события, обработка которых прервалась (например, падением узла) */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE WebhookInboxEvent e SET e.status = azhukov.entity.WebhookInboxEvent.Status.FAILED,"
+          + " e.lastError = 'Processing timed out'"
+          + " WHERE e.status = azhukov.entity.WebhookInboxEvent.Status.PROCESSING"
+          + " AND e.claimedAt < :claimedBefore")
+  int releaseStale(@Param("claimedBefore") LocalDateTime claimedBefore);
+
+  /** Возвращает событие в очередь с обнулённым счётчиком попыток */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE WebhookInboxEvent e SET e.status = azhukov.entity.WebhookInboxEvent.Status.RECEIVED,"
+          + " e.attempts = 0 WHERE e.id = :id"
+          + " AND e.status IN (azhukov.entity.WebhookInboxEvent.Status.FAILED,"
+          + " azhukov.entity.WebhookInboxEvent.Status.DEAD)")
+  int resetForReplay(@Param("id") Long id);
+
+  /** События для повторной обработки: неудачные и не подхваченные после получения */
+  @Query(
+      "SELECT e FROM WebhookInboxEvent e WHERE e.status IN"
+          + " (azhukov.entity.WebhookInboxEvent.Status.RECEIVED,"
+          + " azhukov.entity.WebhookInboxEvent.Status.FAILED)"
+          + " AND e.receivedAt < :receivedBefore ORDER BY e.id")
+  List<WebhookInboxEvent> findReplayable(
+      @Param("receivedBefore") LocalDateTime receivedBefore, Pageable pageable);
+}
@@ -0,0 +1,109 @@
+package azhukov.service;
+
+import azhukov.config.ApplicationProperties;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Обслуживание партиций activity_log: заранее создаёт партиции на partitionsAhead месяцев вперёд и
+ * удаляет партиции старше retentionMonths. Удаление партиции — DROP TABLE вместо DELETE по
+ * миллионам строк: без раздувания таблицы и без нагрузки на VACUUM.
+ *
+ * <p>Партиция activity_log_pYYYY_MM покрывает календарный месяц по UTC.
+ */
+@Service
+@Slf4j
+public class ActivityLogPartitionService {
+
+  static final String LIST_PARTITIONS_SQL =
+      "SELECT c.relname FROM pg_inherits i"
+          + " JOIN pg_class c ON c.oid = i.inhrelid"
+          + " JOIN pg_class p ON p.oid = i.inhparent"
+          + " WHERE p.relname = 'activity_log'";
+
+  private static final String PARTITION_PREFIX = "activity_log_p";
+
+  private static final Pattern PARTITION_NAME =
+      Pattern.compile(PARTITION_PREFIX + "(\\d{4})_(\\d{2})");
+
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ApplicationProperties.Activity properties;
+
+  public ActivityLogPartitionService(
+      JdbcTemplate jdbcTemplate, ApplicationProperties applicationProperties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = applicationProperties.getActivity();
+  }
+
+  @Scheduled(cron = "${app.activity.partition-maintenance-cron:0 10 2 * * *}")
+  public void maintainPartitions() {
+    try {
+      YearMonth current = YearMonth.now(ZoneOffset.UTC);
+      createPartitions(current);
+      dropExpiredPartitions(current);
+    } catch (Exception e) {
+      log.error("Failed to maintain activity_log partitions", e);
+    }
+  }
+
+  /** Создаёт недостающие партиции с текущего месяца по partitionsAhead месяцев вперёд */
+  void createPartitions(YearMonth current) {
+    for (int i = 0; i <= properties.getPartitionsAhead(); i++) {
+      YearMonth month = current.plusMonths(i);
+      jdbcTemplate.execute(
+          "CREATE TABLE IF NOT EXISTS "
+              + partitionName(month)
+              + " PARTITION OF activity_log FOR VALUES FROM ('"
+              + bound(month)
+              + "') TO ('"
+              + bound(month.plusMonths(1))
+              + "')");
+    }
+  }
+
+  /** Удаляет партиции, целиком лежащие раньше окна хранения */
+  void dropExpiredPartitions(YearMonth current) {
+    if (properties.getRetentionMonths() <= 0) {
+      return;
+    }
+    YearMonth oldestKept = current.minusMonths(properties.getRetentionMonths() - 1L);
+    List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+    for (String partition : partitions) {
+      YearMonth month = monthOf(partition);
+      if (month != null && month.isBefore(oldestKept)) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        log.info(
+            "Dropped activity_log partition {} (retention {} months)",
+            partition,
+            properties.getRetentionMonths());
+      }
+    }
+  }
+
+  static String partitionName(YearMonth month) {
+    return PARTITION_PREFIX + month.format(SUFFIX);
+  }
+
+  /** Месяц партиции по её имени; null для таблиц, созданных не этим сервисом */
+  static YearMonth monthOf(String partition) {
+    Matcher matcher = PARTITION_NAME.matcher(partition);
+    if (!matcher.matches()) {
+      return null;
+    }
+    return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+  }
+
+  private static String bound(YearMonth month) {
+    return month.atDay(1) + " 00:00:00+00";
+  }
+}
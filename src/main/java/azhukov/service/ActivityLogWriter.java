@@ -0,0 +1,269 @@
+package azhukov.service;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.entity.ActivityLog;
+import azhukov.util.JdbcBatchUtils;
+import azhukov.util.JdbcBatchUtils.BatchResult;
+import azhukov.util.TransactionUtils;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Фоновая запись ленты активности. Вызывающий поток только кладёт запись в неблокирующую очередь;
+ * записи пишутся JDBC-пачками — когда набралось batchSize записей или прошёл flushInterval. Очередь
+ * ограничена capacity, при переполнении действует overflowPolicy. Записи, которые БД отвергла
+ * окончательно, отбрасываются и учитываются в activity.log.dropped вместе с потерянными при
+ * переполнении. При штатной остановке приложения очередь сбрасывается полностью.
+ *
+ * <p>Порядок записей в ленте задаёт created_at, зафиксированный в момент события, поэтому пачки
+ * можно писать в любом порядке.
+ */
+@Service
+@Slf4j
+public class ActivityLogWriter {
+
+  static final String INSERT_SQL =
+      "INSERT INTO activity_log (user_id, activity_type, title, description, entity_id,"
+          + " entity_type, metadata, created_at) VALUES (?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?)";
+
+  /** Запись, ожидающая вставки; metadata — готовый JSON */
+  record PendingActivity(
+      ActivityLog.ActivityType activityType,
+      String title,
+      String description,
+      Long userId,
+      Long entityId,
+      ActivityLog.EntityType entityType,
+      String metadata,
+      Instant createdAt) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ApplicationProperties.Activity properties;
+  private final ExecutorService flusher;
+  private final Counter droppedActivities;
+
+  /** Запись идёт и после коммита вызывающего, поэтому — в собственной транзакции */
+  private final TransactionTemplate writeTransaction;
+
+  private final Queue<PendingActivity> queue = new ConcurrentLinkedQueue<>();
+
+  /** Размер очереди: ConcurrentLinkedQueue.size() обходит всю очередь */
+  private final AtomicInteger queued = new AtomicInteger();
+
+  /** Сбросы выполняются по одному, чтобы не дробить пачки */
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+  public ActivityLogWriter(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ApplicationProperties applicationProperties,
+      MeterRegistry registry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = applicationProperties.getActivity();
+    this.writeTransaction = new TransactionTemplate(transactionManager);
+    this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.flusher =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("activity-log-flush").setDaemon(true).build());
+    this.droppedActivities = Counter.builder("activity.log.dropped").register(registry);
+    Gauge.builder("activity.log.queued", queued, AtomicInteger::get).register(registry);
+  }
+
+  /** Останавливает фоновый сброс и записывает всё, что осталось в очереди */
+  @PreDestroy
+  public void shutdown() {
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    int lost = queued.get();
+    if (lost > 0) {
+      log.error("{} activity log entries were not written before shutdown", lost);
+    }
+  }
+
+  /**
+   * Ставит запись в очередь. Внутри транзакции — после коммита, чтобы в ленту не попали действия
+   * отменённой транзакции
+   */
+  public void submit(PendingActivity activity) {
+    TransactionUtils.afterCommit(() -> enqueue(activity));
+  }
+
+  /** Периодический сброс очереди, чтобы записи не ждали заполнения пачки */
+  @Scheduled(
+      fixedDelayString = "${app.activity.flush-interval:1s}",
+      initialDelayString = "${app.activity.flush-interval:1s}")
+  public void flushPending() {
+    // Сброс идёт в собственном потоке и не занимает общий планировщик
+    requestFlush();
+  }
+
+  /** Записывает все записи из очереди */
+  void flush() {
+    flushLock.lock();
+    try {
+      int batchSize = Math.max(1, properties.getBatchSize());
+      while (true) {
+        List<PendingActivity> batch = new ArrayList<>(batchSize);
+        PendingActivity activity;
+        while (batch.size() < batchSize && (activity = queue.poll()) != null) {
+          batch.add(activity);
+        }
+        queued.addAndGet(-batch.size());
+        if (batch.isEmpty() || !write(batch)) {
+          return;
+        }
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  int queuedCount() {
+    return queued.get();
+  }
+
+  private void enqueue(PendingActivity activity) {
+    if (queued.incrementAndGet() > properties.getCapacity()) {
+      queued.decrementAndGet();
+      if (!handleOverflow(activity)) {
+        return;
+      }
+      queued.incrementAndGet();
+    }
+    queue.offer(activity);
+    if (queued.get() >= properties.getBatchSize()) {
+      requestFlush();
+    }
+  }
+
+  /**
+   * Применяет политику переполнения
+   *
+   * @return true, если запись всё же нужно поставить в очередь
+   */
+  private boolean handleOverflow(PendingActivity activity) {
+    switch (properties.getOverflowPolicy()) {
+      case DROP_OLDEST -> {
+        if (queue.poll() != null) {
+          queued.decrementAndGet();
+        }
+        recordDrop();
+        return true;
+      }
+      case CALLER_RUNS -> {
+        write(List.of(activity));
+        return false;
+      }
+      default -> {
+        recordDrop();
+        return false;
+      }
+    }
+  }
+
+  private void recordDrop() {
+    droppedActivities.increment();
+    long dropped = (long) droppedActivities.count();
+    if (dropped == 1 || dropped % 1000 == 0) {
+      log.warn(
+          "Activity log queue is full ({} entries), {} entries dropped so far",
+          properties.getCapacity(),
+          dropped);
+    }
+  }
+
+  private void requestFlush() {
+    if (!flushRequested.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      flusher.execute(
+          () -> {
+            flushRequested.set(false);
+            flush();
+          });
+    } catch (RejectedExecutionException e) {
+      // Приложение останавливается — очередь сбросит shutdown()
+      flushRequested.set(false);
+    }
+  }
+
+  /**
+   * Вставляет пачку одним JDBC batch. Записи, которые БД отвергла окончательно (нет пользователя,
+   * слишком длинный заголовок, нет секции на created_at), отбрасываются; после временной ошибки
+   * незаписанные записи возвращаются в очередь, пока в ней есть место
+   *
+   * @return true, если пачка обработана полностью
+   */
+  private boolean write(List<PendingActivity> batch) {
+    BatchResult<PendingActivity> result =
+        JdbcBatchUtils.insert(
+            jdbcTemplate, writeTransaction, INSERT_SQL, batch, ActivityLogWriter::toArgs);
+    if (!result.rejected().isEmpty()) {
+      droppedActivities.increment(result.rejected().size());
+      log.warn(
+          "{} activity log entries rejected by database and dropped",
+          result.rejected().size());
+    }
+    if (result.unwritten().isEmpty()) {
+      log.debug("Written {} activity log entries", batch.size() - result.rejected().size());
+      return true;
+    }
+    log.warn(
+        "Failed to write {} activity log entries, will retry: {}",
+        result.unwritten().size(),
+        result.failure().getMessage());
+    for (PendingActivity activity : result.unwritten()) {
+      if (queued.incrementAndGet() > properties.getCapacity()) {
+        queued.decrementAndGet();
+        recordDrop();
+      } else {
+        queue.offer(activity);
+      }
+    }
+    return false;
+  }
+
+  private static Object[] toArgs(PendingActivity activity) {
+    return new Object[] {
+      activity.userId(),
+      activity.activityType().name(),
+      activity.title(),
+      activity.description(),
+      activity.entityId(),
+      activity.entityType() != null ? activity.entityType().name() : null,
+      activity.metadata(),
+      Timestamp.from(activity.createdAt())
+    };
+  }
+}
@@ -4,7 +4,9 @@ import azhukov.entity.ActivityLog;
 import azhukov.model.ActivityItem;
 import azhukov.model.PaginatedResponse;
 import azhukov.repository.ActivityLogRepository;
-import azhukov.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
@@ -25,7 +27,9 @@ import org.springframework.stereotype.Service;
 public class ActivityService {
 
   private final ActivityLogRepository activityLogRepository;
-  private final UserRepository userRepository;
+  private final UserNameCache userNameCache;
+  private final ActivityLogWriter activityLogWriter;
+  private final ObjectMapper objectMapper;
 
   /** Получить ленту активности с пагинацией */
   public PaginatedResponse getActivityFeed(
@@ -44,10 +48,7 @@ public class ActivityService {
         activityLogRepository.findRecentActivity(activityType, pageable);
 
     // Преобразуем в DTO
-    List<ActivityItem> activityItems =
-        activityPage.getContent().stream()
-            .map(this::convertToActivityItem)
-            .collect(Collectors.toList());
+    List<ActivityItem> activityItems = convertToActivityItems(activityPage.getContent());
 
     // Создаем ответ
     PaginatedResponse response = new PaginatedResponse();
@@ -67,7 +68,10 @@ public class ActivityService {
     return response;
   }
 
-  /** Логировать активность */
+  /**
+   * Логировать активность. Запись пишется в фоне пачками, вызывающий не ждёт вставки; внутри
+   * транзакции запись попадает в очередь после коммита
+   */
   public void logActivity(
       ActivityLog.ActivityType activityType,
       String title,
@@ -77,19 +81,17 @@ public class ActivityService {
       ActivityLog.EntityType entityType,
       Map<String, Object> metadata) {
 
-    ActivityLog activityLog =
-        ActivityLog.builder()
-            .activityType(activityType)
-            .title(title)
-            .description(description)
-            .userId(userId)
-            .entityId(entityId)
-            .entityType(entityType)
-            .metadata(metadata != null ? metadata.toString() : null)
-            .build();
-
-    activityLogRepository.save(activityLog);
-    log.info("Logged activity: {} - {}", activityType, title);
+    activityLogWriter.submit(
+        new ActivityLogWriter.PendingActivity(
+            activityType,
+            title,
+            description,
+            userId,
+            entityId,
+            entityType,
+            toJson(metadata),
+            Instant.now()));
+    log.debug("Queued activity: {} - {}", activityType, title);
   }
 
   /** Логировать активность (упрощенная версия) */
@@ -108,16 +110,14 @@ public class ActivityService {
     Pageable pageable = PageRequest.of(0, limit);
     Page<ActivityLog> activityPage = activityLogRepository.findByUserId(userId, pageable);
 
-    return activityPage.getContent().stream()
-        .map(this::convertToActivityItem)
-        .collect(Collectors.toList());
+    return convertToActivityItems(activityPage.getContent());
   }
 
   /** Получить активность по сущности */
   public List<ActivityItem> getEntityActivity(ActivityLog.EntityType entityType, Long entityId) {
     List<ActivityLog> activities = activityLogRepository.findByEntity(entityType, entityId);
 
-    return activities.stream().map(this::convertToActivityItem).collect(Collectors.toList());
+    return convertToActivityItems(activities);
   }
 
   /** Получить статистику активности */
@@ -145,11 +145,20 @@ public class ActivityService {
     LocalDateTime since = LocalDateTime.now().minusDays(days);
     List<ActivityLog> activities = activityLogRepository.findActivitySince(since);
 
-    return activities.stream().map(this::convertToActivityItem).collect(Collectors.toList());
+    return convertToActivityItems(activities);
+  }
+
+  /** Преобразовать записи в ActivityItem; имена пользователей загружаются одним запросом */
+  private List<ActivityItem> convertToActivityItems(List<ActivityLog> activities) {
+    Map<Long, String> userNames =
+        userNameCache.getNames(activities.stream().map(ActivityLog::getUserId).toList());
+    return activities.stream()
+        .map(activityLog -> convertToActivityItem(activityLog, userNames))
+        .collect(Collectors.toList());
   }
 
   /** Преобразовать ActivityLog в ActivityItem */
-  private ActivityItem convertToActivityItem(ActivityLog activityLog) {
+  private ActivityItem convertToActivityItem(ActivityLog activityLog, Map<Long, String> userNames) {
     ActivityItem item = new ActivityItem();
     item.setId(activityLog.getId());
     item.setType(
@@ -169,16 +178,27 @@ public class ActivityService {
       item.setCreatedAt(activityLog.getCreatedAt().atOffset(ZoneOffset.UTC));
     }
 
-    // Получаем имя пользователя
+    // Имя пользователя из загруженных для всей страницы
     if (activityLog.getUserId() != null) {
-      userRepository
-          .findById(activityLog.getUserId())
-          .ifPresent(user -> item.setUserName(user.getFirstName() + " " + user.getLastName()));
+      item.setUserName(userNames.get(activityLog.getUserId()));
     }
 
     return item;
   }
 
+  /** Сериализовать metadata в JSON; несериализуемые данные не мешают записи активности */
+  private String toJson(Map<String, Object> metadata) {
+    if (metadata == null || metadata.isEmpty()) {
+      return null;
+    }
+    try {
+      return objectMapper.writeValueAsString(metadata);
+    } catch (JsonProcessingException e) {
+      log.warn("Failed to serialize activity metadata: {}", e.getMessage());
+      return null;
+    }
+  }
+
   /** Парсить тип активности из строки */
   private ActivityLog.ActivityType parseActivityType(String type) {
     try {
@@ -0,0 +1,309 @@
+package azhukov.service;
+
+import azhukov.config.ElevenLabsProperties;
+import azhukov.entity.ConversationTranscriptEntry;
+import azhukov.exception.ResourceNotFoundException;
+import azhukov.model.VoiceMessage;
+import azhukov.model.VoiceMessageTypeEnum;
+import azhukov.repository.ConversationTranscriptRepository;
+import azhukov.repository.InterviewRepository;
+import azhukov.util.JdbcBatchUtils;
+import azhukov.util.JdbcBatchUtils.BatchResult;
+import azhukov.util.TransactionUtils;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Расшифровка голосовых интервью. Сообщения не пишутся в БД по одному: они копятся в памяти,
+ * сгруппированные по интервью, и сбрасываются JDBC-пачками — когда набралось batchSize сообщений
+ * или прошёл flushInterval. Пачка пишется одной транзакцией; сообщения, которые БД отвергла
+ * окончательно (например, интервью удалено), отбрасываются и учитываются в transcript.dropped. При
+ * временной ошибке сообщения возвращаются в начало буфера и будут записаны при следующем сбросе.
+ * При штатной остановке приложения буфер сбрасывается полностью.
+ *
+ * <p>Порядок сообщений одного интервью сохраняется: сбросы выполняются по одному, а лента читается
+ * по времени сообщения и порядку вставки.
+ */
+@Service
+@Slf4j
+public class ConversationTranscriptService {
+
+  static final String INSERT_SQL =
+      "INSERT INTO conversation_transcript"
+          + " (interview_id, message_type, text, agent_id, occurred_at) VALUES (?, ?, ?, ?, ?)";
+
+  /** Сообщение, ожидающее записи */
+  record PendingMessage(
+      Long interviewId,
+      VoiceMessageTypeEnum type,
+      String text,
+      String agentId,
+      LocalDateTime occurredAt) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ConversationTranscriptRepository transcriptRepository;
+  private final InterviewRepository interviewRepository;
+  private final ElevenLabsProperties.Transcript properties;
+  private final ExecutorService flusher;
+
+  /** Сообщения, окончательно отвергнутые БД */
+  private final Counter droppedMessages;
+
+  /** Сообщения по интервью в порядке поступления; доступ под монитором самой карты */
+  private final Map<Long, List<PendingMessage>> pending = new LinkedHashMap<>();
+
+  private int pendingCount;
+
+  /** Сбросы выполняются по одному, чтобы пачки одного интервью не обгоняли друг друга */
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+  public ConversationTranscriptService(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      ConversationTranscriptRepository transcriptRepository,
+      InterviewRepository interviewRepository,
+      ElevenLabsProperties elevenLabsProperties,
+      MeterRegistry registry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.transcriptRepository = transcriptRepository;
+    this.interviewRepository = interviewRepository;
+    this.properties = elevenLabsProperties.getTranscript();
+    this.flusher =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("transcript-flush").setDaemon(true).build());
+    this.droppedMessages = Counter.builder("transcript.dropped").register(registry);
+  }
+
+  /** Останавливает фоновый сброс и записывает всё, что осталось в буфере */
+  @PreDestroy
+  public void shutdown() {
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    int lost = pendingCount();
+    if (lost > 0) {
+      log.error("{} transcript messages were not written before shutdown", lost);
+    }
+  }
+
+  /**
+   * Добавляет сообщение в расшифровку. Внутри транзакции сообщение попадает в буфер после коммита,
+   * чтобы повторная обработка отменённого события не задвоила его
+   *
+   * @param occurredAt время сообщения в UTC; если не передано — текущее
+   * @throws IllegalStateException если буфер переполнен (БД долго недоступна)
+   */
+  public void append(
+      Long interviewId,
+      VoiceMessageTypeEnum type,
+      String text,
+      String agentId,
+      LocalDateTime occurredAt) {
+    if (text == null || text.isBlank()) {
+      return;
+    }
+    if (pendingCount() >= properties.getMaxBufferedMessages()) {
+      throw new IllegalStateException(
+          "Transcript buffer is full, message for interview " + interviewId + " rejected");
+    }
+    PendingMessage message =
+        new PendingMessage(
+            interviewId,
+            type,
+            text,
+            agentId,
+            occurredAt != null ? occurredAt : LocalDateTime.now(ZoneOffset.UTC));
+    TransactionUtils.afterCommit(() -> enqueue(message));
+  }
+
+  /** Лента разговора интервью, включая ещё не записанные сообщения */
+  public List<VoiceMessage> getTimeline(Long interviewId) {
+    if (!interviewRepository.existsById(interviewId)) {
+      throw new ResourceNotFoundException("Interview", "id", interviewId);
+    }
+    flush(interviewId);
+    return transcriptRepository.findByInterviewIdOrderByOccurredAtAscIdAsc(interviewId).stream()
+        .map(ConversationTranscriptService::toVoiceMessage)
+        .toList();
+  }
+
+  /** Периодический сброс буфера, чтобы сообщения не ждали заполнения пачки */
+  @Scheduled(
+      fixedDelayString = "${app.ai.transcription.elevenlabs.transcript.flush-interval:PT2S}",
+      initialDelayString = "${app.ai.transcription.elevenlabs.transcript.flush-interval:PT2S}")
+  public void flushPending() {
+    // Сброс идёт в собственном потоке и не занимает общий планировщик
+    requestFlush();
+  }
+
+  /** Записывает все сообщения из буфера */
+  void flush() {
+    flushLock.lock();
+    try {
+      List<PendingMessage> messages;
+      synchronized (pending) {
+        messages = new ArrayList<>(pendingCount);
+        pending.values().forEach(messages::addAll);
+        pending.clear();
+        pendingCount = 0;
+      }
+      write(messages);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /** Записывает сообщения одного интервью */
+  void flush(Long interviewId) {
+    flushLock.lock();
+    try {
+      List<PendingMessage> messages;
+      synchronized (pending) {
+        messages = pending.remove(interviewId);
+        if (messages == null) {
+          return;
+        }
+        pendingCount -= messages.size();
+      }
+      write(messages);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void enqueue(PendingMessage message) {
+    boolean batchReady;
+    synchronized (pending) {
+      pending.computeIfAbsent(message.interviewId(), id -> new ArrayList<>()).add(message);
+      pendingCount++;
+      batchReady = pendingCount >= properties.getBatchSize();
+    }
+    if (batchReady) {
+      requestFlush();
+    }
+  }
+
+  int pendingCount() {
+    synchronized (pending) {
+      return pendingCount;
+    }
+  }
+
+  private void requestFlush() {
+    if (!flushRequested.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      flusher.execute(
+          () -> {
+            flushRequested.set(false);
+            flush();
+          });
+    } catch (RejectedExecutionException e) {
+      // Приложение останавливается — буфер сбросит shutdown()
+      flushRequested.set(false);
+    }
+  }
+
+  private void write(List<PendingMessage> messages) {
+    int batchSize = Math.max(1, properties.getBatchSize());
+    int written = 0;
+    for (int from = 0; from < messages.size(); from += batchSize) {
+      List<PendingMessage> batch =
+          messages.subList(from, Math.min(from + batchSize, messages.size()));
+      BatchResult<PendingMessage> result =
+          JdbcBatchUtils.insert(
+              jdbcTemplate,
+              transactionTemplate,
+              INSERT_SQL,
+              batch,
+              ConversationTranscriptService::toArgs);
+      if (!result.rejected().isEmpty()) {
+        droppedMessages.increment(result.rejected().size());
+        log.warn(
+            "{} transcript messages rejected by database and dropped (interviews {})",
+            result.rejected().size(),
+            result.rejected().stream().map(PendingMessage::interviewId).distinct().toList());
+      }
+      written += batch.size() - result.rejected().size() - result.unwritten().size();
+      if (!result.unwritten().isEmpty()) {
+        List<PendingMessage> unwritten = new ArrayList<>(result.unwritten());
+        unwritten.addAll(messages.subList(from + batch.size(), messages.size()));
+        log.warn(
+            "Failed to write {} transcript messages, will retry: {}",
+            unwritten.size(),
+            result.failure().getMessage());
+        requeue(unwritten);
+        return;
+      }
+    }
+    if (written > 0) {
+      log.debug("Written {} transcript messages", written);
+    }
+  }
+
+  /** Возвращает незаписанные сообщения в начало очередей их интервью */
+  private void requeue(List<PendingMessage> messages) {
+    Map<Long, List<PendingMessage>> byInterview = new LinkedHashMap<>();
+    for (PendingMessage message : messages) {
+      byInterview.computeIfAbsent(message.interviewId(), id -> new ArrayList<>()).add(message);
+    }
+    synchronized (pending) {
+      byInterview.forEach(
+          (interviewId, unwritten) -> {
+            List<PendingMessage> newer = pending.remove(interviewId);
+            if (newer != null) {
+              unwritten.addAll(newer);
+            }
+            pending.put(interviewId, unwritten);
+          });
+      pendingCount += messages.size();
+    }
+  }
+
+  private static Object[] toArgs(PendingMessage message) {
+    return new Object[] {
+      message.interviewId(),
+      message.type().name(),
+      message.text(),
+      message.agentId(),
+      Timestamp.valueOf(message.occurredAt())
+    };
+  }
+
+  private static VoiceMessage toVoiceMessage(ConversationTranscriptEntry entry) {
+    VoiceMessage message = new VoiceMessage();
+    message.setText(entry.getText());
+    message.setType(VoiceMessageTypeEnum.valueOf(entry.getMessageType()));
+    message.setTimestamp(entry.getOccurredAt().atOffset(ZoneOffset.UTC));
+    return message;
+  }
+}
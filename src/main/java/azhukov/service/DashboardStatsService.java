@@ -0,0 +1,201 @@
+package azhukov.service;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.model.CandidateStats;
+import azhukov.model.InterviewStats;
+import azhukov.model.PositionStats;
+import azhukov.model.PositionStatsByLevel;
+import azhukov.repository.CandidateRepository;
+import azhukov.repository.InterviewRepository;
+import azhukov.repository.PositionRepository;
+import azhukov.util.TransactionUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Счётчики дашборда. Каждый раздел считается одним агрегатным запросом с COUNT(*) FILTER и
+ * кэшируется в Redis (без Redis — в памяти узла). Изменение кандидата, интервью или вакансии
+ * сбрасывает кэш своего раздела после коммита, поэтому повторные загрузки дашборда не обращаются к
+ * БД, пока данные не изменились.
+ */
+@Service
+@Slf4j
+public class DashboardStatsService {
+
+  /** Раздел дашборда, кэшируемый отдельно */
+  public enum Scope {
+    CANDIDATES,
+    INTERVIEWS,
+    POSITIONS
+  }
+
+  private record LocalEntry(String json, Instant expiresAt) {}
+
+  private final CandidateRepository candidateRepository;
+  private final InterviewRepository interviewRepository;
+  private final PositionRepository positionRepository;
+  private final ObjectMapper objectMapper;
+  private final ApplicationProperties.Reports properties;
+  private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+  private final Map<Scope, LocalEntry> local = new ConcurrentHashMap<>();
+
+  public DashboardStatsService(
+      CandidateRepository candidateRepository,
+      InterviewRepository interviewRepository,
+      PositionRepository positionRepository,
+      ObjectMapper objectMapper,
+      ApplicationProperties applicationProperties,
+      ObjectProvider<StringRedisTemplate> redisTemplateProvider) {
+    this.candidateRepository = candidateRepository;
+    this.interviewRepository = interviewRepository;
+    this.positionRepository = positionRepository;
+    this.objectMapper = objectMapper;
+    this.properties = applicationProperties.getReports();
+    this.redisTemplateProvider = redisTemplateProvider;
+  }
+
+  public CandidateStats getCandidateStats() {
+    return cached(Scope.CANDIDATES, CandidateStats.class, this::loadCandidateStats);
+  }
+
+  public InterviewStats getInterviewStats() {
+    return cached(Scope.INTERVIEWS, InterviewStats.class, this::loadInterviewStats);
+  }
+
+  /**
+   * Статистика вакансий. Счётчики интервью берутся из раздела INTERVIEWS, поэтому изменение
+   * интервью не сбрасывает кэш вакансий
+   *
+   * @param includeDetails включить группировку по уровням
+   */
+  public PositionStats getPositionStats(boolean includeDetails) {
+    PositionStats stats = cached(Scope.POSITIONS, PositionStats.class, this::loadPositionStats);
+    InterviewStats interviews = getInterviewStats();
+    stats.setInterviewsTotal(interviews.getTotal());
+    stats.setInterviewsSuccessful(interviews.getSuccessful());
+    stats.setInterviewsUnsuccessful(interviews.getUnsuccessful());
+    stats.setInterviewsInProgress(interviews.getInProgress());
+    if (!includeDetails) {
+      stats.setByLevel(null);
+    }
+    return stats;
+  }
+
+  /** Сбрасывает кэш раздела; внутри транзакции — после коммита */
+  public void evict(Scope scope) {
+    TransactionUtils.afterCommit(() -> evictNow(scope));
+  }
+
+  private void evictNow(Scope scope) {
+    local.remove(scope);
+    StringRedisTemplate redis = redisTemplateProvider.getIfAvailable();
+    if (redis == null) {
+      return;
+    }
+    try {
+      redis.delete(key(scope));
+    } catch (Exception e) {
+      log.warn("Failed to evict dashboard stats {} from Redis: {}", scope, e.getMessage());
+    }
+  }
+
+  /**
+   * Значение из кэша или результат loader. Значения хранятся в JSON, чтобы каждый вызов получал
+   * собственный экземпляр DTO
+   */
+  private <T> T cached(Scope scope, Class<T> type, Supplier<T> loader) {
+    String json = readCache(scope);
+    if (json != null) {
+      try {
+        return objectMapper.readValue(json, type);
+      } catch (Exception e) {
+        log.warn("Failed to read cached dashboard stats {}: {}", scope, e.getMessage());
+      }
+    }
+
+    T value = loader.get();
+    try {
+      writeCache(scope, objectMapper.writeValueAsString(value));
+    } catch (Exception e) {
+      log.warn("Failed to cache dashboard stats {}: {}", scope, e.getMessage());
+    }
+    return value;
+  }
+
+  private String readCache(Scope scope) {
+    StringRedisTemplate redis = redisTemplateProvider.getIfAvailable();
+    if (redis != null) {
+      try {
+        return redis.opsForValue().get(key(scope));
+      } catch (Exception e) {
+        log.warn("Failed to read dashboard stats from Redis: {}", e.getMessage());
+      }
+    }
+    LocalEntry entry = local.get(scope);
+    return entry != null && entry.expiresAt().isAfter(Instant.now()) ? entry.json() : null;
+  }
+
+  private void writeCache(Scope scope, String json) {
+    StringRedisTemplate redis = redisTemplateProvider.getIfAvailable();
+    if (redis != null) {
+      try {
+        redis.opsForValue().set(key(scope), json, properties.getStatsCacheTtl());
+        return;
+      } catch (Exception e) {
+        log.warn("Failed to write dashboard stats to Redis: {}", e.getMessage());
+      }
+    }
+    local.put(scope, new LocalEntry(json, Instant.now().plus(properties.getStatsCacheTtl())));
+  }
+
+  private String key(Scope scope) {
+    return properties.getStatsCacheKeyPrefix() + scope.name().toLowerCase();
+  }
+
+  private CandidateStats loadCandidateStats() {
+    CandidateRepository.StatusCounts counts = candidateRepository.countAllByStatus();
+    CandidateStats stats = new CandidateStats();
+    stats.setTotal(counts.getTotal());
+    stats.setInProgress(counts.getInProgress());
+    stats.setFinished(counts.getFinished());
+    stats.setHired(counts.getHired());
+    stats.setRejected(counts.getRejected());
+    return stats;
+  }
+
+  private InterviewStats loadInterviewStats() {
+    InterviewRepository.StatusCounts counts = interviewRepository.countAllByStatus();
+    InterviewStats stats = new InterviewStats();
+    stats.setTotal(counts.getTotal());
+    stats.setSuccessful(counts.getSuccessful());
+    stats.setUnsuccessful(counts.getUnsuccessful());
+    stats.setInProgress(counts.getInProgress());
+    stats.setNotStarted(counts.getNotStarted());
+    stats.setCancelled(counts.getFinished() - counts.getSuccessful() - counts.getUnsuccessful());
+    return stats;
+  }
+
+  private PositionStats loadPositionStats() {
+    PositionRepository.StatusCounts counts = positionRepository.countAllByStatusAndLevel();
+    PositionStats stats = new PositionStats();
+    stats.setTotal(counts.getTotal());
+    stats.setActive(counts.getActive());
+    stats.setPaused(counts.getPaused());
+    stats.setArchived(counts.getArchived());
+
+    PositionStatsByLevel byLevel = new PositionStatsByLevel();
+    byLevel.setJunior(counts.getJunior());
+    byLevel.setMiddle(counts.getMiddle());
+    byLevel.setSenior(counts.getSenior());
+    byLevel.setLead(counts.getLead());
+    stats.setByLevel(byLevel);
+    return stats;
+  }
+}
@@ -7,6 +7,7 @@ import azhukov.entity.Position;
 import azhukov.exception.ResourceNotFoundException;
 import azhukov.exception.ValidationException;
 import azhukov.model.AgentConfig;
+import azhukov.model.AgentStatusEnum;
 import azhukov.repository.AgentRepository;
 import azhukov.repository.InterviewRepository;
 import azhukov.repository.PositionRepository;
@@ -14,19 +15,29 @@ import azhukov.service.ai.elevenlabs.dto.CreateAgentRequest;
 import azhukov.service.ai.elevenlabs.dto.CreateAgentResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.Striped;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 /**
- * Сервис для автоматического создания и управления агентами ElevenLabs Создает агентов на основе
- * позиций и интервью
+ * Сервис для автоматического создания и управления агентами ElevenLabs. Агенты создаются на основе
+ * вакансий и переиспользуются между интервью через пул, ключ которого — хэш конфигурации агента
  */
 @Service
 @Slf4j
@@ -34,6 +45,8 @@ import org.springframework.web.client.RestTemplate;
 @Transactional
 public class ElevenLabsAgentService {
 
+  private static final String AGENT_NAME_PREFIX = "Interview Agent - ";
+
   private final AgentRepository agentRepository;
   private final InterviewRepository interviewRepository;
   private final PositionRepository positionRepository;
@@ -43,10 +56,19 @@ public class ElevenLabsAgentService {
   @Qualifier("elevenLabsRestTemplate")
   private final RestTemplate elevenLabsRestTemplate;
 
-  /** Создает агента для интервью на основе позиции */
+  // Блокировка по хэшу: параллельный старт интервью одной вакансии создаёт одного агента
+  private final Striped<Lock> agentLocks = Striped.lock(64);
+
+  /**
+   * Возвращает агента для интервью. Конфигурация агента зависит только от вакансии, поэтому агент
+   * берётся из пула по хэшу конфигурации и создаётся в ElevenLabs, только если подходящего нет.
+   * Данные конкретного интервью передаются при создании сессии.
+   *
+   * <p>Метод выполняется вне транзакции: запись о новом агенте должна быть видна другим потокам
+   * сразу после снятия блокировки по хэшу.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public Agent createAgentForInterview(Long interviewId) {
-    log.info("Creating ElevenLabs agent for interview: {}", interviewId);
-
     Interview interview =
         interviewRepository
             .findById(interviewId)
@@ -61,6 +83,98 @@ public class ElevenLabsAgentService {
                     new ResourceNotFoundException(
                         "Position not found: " + interview.getPosition().getId()));
 
+    if (!properties.getAgentPool().isEnabled()) {
+      return createDedicatedAgent(interviewId, position);
+    }
+    return acquirePooledAgent(position);
+  }
+
+  /** Агент из пула для вакансии; создаётся при первом обращении и после изменения вакансии */
+  private Agent acquirePooledAgent(Position position) {
+    AgentConfig config = buildAgentConfig(position);
+    String configHash = configHash(config);
+
+    Lock lock = agentLocks.get(configHash);
+    lock.lock();
+    try {
+      Optional<Agent> pooled =
+          agentRepository.findFirstByConfigHashAndStatus(configHash, AgentStatusEnum.ACTIVE);
+      if (pooled.isPresent()) {
+        Agent agent = pooled.get();
+        agentRepository.touch(agent.getId(), LocalDateTime.now());
+        log.info(
+            "Reusing ElevenLabs agent {} for position {}",
+            agent.getElevenLabsAgentId(),
+            position.getId());
+        return agent;
+      }
+
+      log.info("Creating pooled ElevenLabs agent for position: {}", position.getId());
+      String elevenLabsAgentId = createElevenLabsAgent(config);
+      Agent agent = newAgent(config, position, elevenLabsAgentId);
+      agent.setConfigHash(configHash);
+      agent.setLastUsedAt(LocalDateTime.now());
+      Agent savedAgent;
+      try {
+        savedAgent = agentRepository.save(agent);
+      } catch (DataIntegrityViolationException e) {
+        // Другой узел создал агента для той же конфигурации раньше: уникальный индекс пропустил
+        // только его строку. Свой агент в ElevenLabs удаляем, чтобы он не остался без записи
+        log.info(
+            "ElevenLabs agent for position {} was created concurrently, deleting duplicate {}",
+            position.getId(),
+            elevenLabsAgentId);
+        deleteElevenLabsAgent(elevenLabsAgentId);
+        return agentRepository
+            .findFirstByConfigHashAndStatus(configHash, AgentStatusEnum.ACTIVE)
+            .orElseThrow(() -> e);
+      }
+      retireSupersededAgents(position, configHash);
+      return savedAgent;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Выводит из пула агентов, созданных для вакансии со старой конфигурацией. Агент общий для всех
+   * вакансий с тем же хэшем, поэтому он выводится, только если ни одна вакансия больше не даёт его
+   * хэш. Сразу удалять агентов нельзя: по ним могут идти сессии, поэтому они удаляются сборщиком
+   * после maxSessionDurationMinutes
+   */
+  private void retireSupersededAgents(Position position, String currentHash) {
+    for (Agent agent :
+        agentRepository.findByPositionIdAndStatusAndConfigHashIsNotNull(
+            position.getId(), AgentStatusEnum.ACTIVE)) {
+      if (currentHash.equals(agent.getConfigHash()) || isConfigInUse(agent)) {
+        continue;
+      }
+      agent.setStatus(AgentStatusEnum.INACTIVE);
+      agentRepository.save(agent);
+      log.info(
+          "ElevenLabs agent {} retired: position {} configuration changed",
+          agent.getElevenLabsAgentId(),
+          position.getId());
+    }
+  }
+
+  /**
+   * Есть ли вакансия, чья текущая конфигурация совпадает с конфигурацией агента. Название вакансии
+   * входит в конфигурацию, поэтому проверяются только вакансии с тем же названием
+   */
+  private boolean isConfigInUse(Agent agent) {
+    String name = agent.getName();
+    if (name == null || !name.startsWith(AGENT_NAME_PREFIX)) {
+      return false;
+    }
+    return positionRepository.findByTitle(name.substring(AGENT_NAME_PREFIX.length())).stream()
+        .anyMatch(other -> agent.getConfigHash().equals(configHash(buildAgentConfig(other))));
+  }
+
+  /** Отдельный агент на каждое интервью (пул выключен) */
+  private Agent createDedicatedAgent(Long interviewId, Position position) {
+    log.info("Creating ElevenLabs agent for interview: {}", interviewId);
+
     // Проверяем, не создан ли уже агент для этого интервью
     if (agentRepository.existsByInterviewId(interviewId)) {
       log.warn("Agent already exists for interview: {}", interviewId);
@@ -71,33 +185,10 @@ public class ElevenLabsAgentService {
     }
 
     try {
-      // Создаем конфигурацию агента
-      AgentConfig config = buildAgentConfig(position, interview);
-
-      // Создаем агента в ElevenLabs
+      AgentConfig config = buildAgentConfig(position);
       String elevenLabsAgentId = createElevenLabsAgent(config);
-
-      // Сохраняем в базу данных
-      Agent agent =
-          Agent.builder()
-              .interviewId(interviewId)
-              .positionId(position.getId())
-              .elevenLabsAgentId(elevenLabsAgentId)
-              .name("Interview Agent - " + position.getTitle())
-              .description("AI interviewer for " + position.getTitle() + " position")
-              .status(azhukov.model.AgentStatusEnum.ACTIVE)
-              .createdAt(LocalDateTime.now())
-              .updatedAt(LocalDateTime.now())
-              .build();
-
-      // Сериализуем конфигурацию в JSON
-      try {
-        agent.setConfig(objectMapper.writeValueAsString(config));
-      } catch (JsonProcessingException e) {
-        log.error("Failed to serialize agent config", e);
-        throw new RuntimeException("Failed to serialize agent config", e);
-      }
-
+      Agent agent = newAgent(config, position, elevenLabsAgentId);
+      agent.setInterviewId(interviewId);
       Agent savedAgent = agentRepository.save(agent);
 
       log.info(
@@ -113,14 +204,71 @@ public class ElevenLabsAgentService {
     }
   }
 
+  /**
+   * Удаляет агентов пула, которые давно не выдавались, и выведенных из пула агентов, чьи сессии уже
+   * завершились
+   */
+  @Scheduled(cron = "${app.ai.transcription.elevenlabs.agent-pool.collect-cron:0 15 * * * *}")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void collectIdleAgents() {
+    if (!properties.getAgentPool().isEnabled()) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    List<Agent> agents =
+        agentRepository.findPooledAgentsToCollect(
+            now.minus(properties.getAgentPool().getIdleTtl()),
+            now.minusMinutes(properties.getMaxSessionDurationMinutes()));
+    for (Agent agent : agents) {
+      deleteElevenLabsAgent(agent.getElevenLabsAgentId());
+      agent.setStatus(AgentStatusEnum.DELETED);
+      agentRepository.save(agent);
+    }
+    if (!agents.isEmpty()) {
+      log.info("Collected {} idle ElevenLabs agents", agents.size());
+    }
+  }
+
+  private Agent newAgent(AgentConfig config, Position position, String elevenLabsAgentId) {
+    Agent agent =
+        Agent.builder()
+            .positionId(position.getId())
+            .elevenLabsAgentId(elevenLabsAgentId)
+            .name(config.getName())
+            .description(config.getDescription())
+            .status(AgentStatusEnum.ACTIVE)
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .build();
+
+    // Сериализуем конфигурацию в JSON
+    try {
+      agent.setConfig(objectMapper.writeValueAsString(config));
+    } catch (JsonProcessingException e) {
+      log.error("Failed to serialize agent config", e);
+      throw new RuntimeException("Failed to serialize agent config", e);
+    }
+    return agent;
+  }
+
+  /** SHA-256 конфигурации агента: одинаковые вакансии получают одного агента */
+  private String configHash(AgentConfig config) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(config);
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Failed to hash agent config", e);
+    }
+  }
+
   /** Строит конфигурацию агента на основе позиции */
-  private AgentConfig buildAgentConfig(Position position, Interview interview) {
+  private AgentConfig buildAgentConfig(Position position) {
     String prompt = buildInterviewPrompt(position);
     String voiceId = selectVoiceForPosition(position);
-    String webhookUrl = buildWebhookUrl(interview.getId());
+    String webhookUrl = buildWebhookUrl();
 
     AgentConfig config = new AgentConfig();
-    config.setName("Interview Agent - " + position.getTitle());
+    config.setName(AGENT_NAME_PREFIX + position.getTitle());
     config.setDescription("AI interviewer for " + position.getTitle() + " position");
     config.setPrompt(prompt);
     config.setVoiceId(voiceId);
@@ -180,8 +328,8 @@ public class ElevenLabsAgentService {
     }
   }
 
-  /** Создает URL для webhook событий */
-  private String buildWebhookUrl(Long interviewId) {
+  /** Создает URL для webhook событий (общий для всех интервью) */
+  private String buildWebhookUrl() {
     // В продакшене должен быть полный URL
     return "/api/v1/webhooks/elevenlabs/events";
   }
@@ -335,7 +483,7 @@ public class ElevenLabsAgentService {
   }
 
   /** Обновляет статус агента */
-  public void updateAgentStatus(Long agentId, azhukov.model.AgentStatusEnum status) {
+  public void updateAgentStatus(Long agentId, AgentStatusEnum status) {
     Agent agent =
         agentRepository
             .findById(agentId)
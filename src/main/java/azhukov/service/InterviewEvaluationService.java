@@ -7,8 +7,11 @@ import azhukov.entity.Position;
 import azhukov.repository.InterviewAnswerRepository;
 import azhukov.repository.InterviewRepository;
 import azhukov.service.ai.AIService;
+import azhukov.service.live.InterviewLiveEvent;
+import azhukov.service.live.InterviewLiveEventPublisher;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -24,6 +27,8 @@ public class InterviewEvaluationService {
   private final InterviewRepository interviewRepository;
   private final InterviewAnswerRepository interviewAnswerRepository;
   private final AIService aiService;
+  private final InterviewLiveEventPublisher liveEventPublisher;
+  private final ScoreDistributionService scoreDistributionService;
 
   /** Фоновая задача - оценивает завершенные собеседования каждую 1 минуту */
   @Scheduled(fixedRate = 60000) // 1 минута
@@ -127,6 +132,10 @@ public class InterviewEvaluationService {
 
       // Сохраняем результат в базу данных
       interviewRepository.save(interview);
+      liveEventPublisher.publish(
+          InterviewLiveEvent.Type.SCORE_READY,
+          interview.getId(),
+          Map.of("score", averageScore, "result", result.name()));
 
       log.info(
           "Interview {} successfully evaluated: average score = {}/10, result = {}, min required = {}",
@@ -187,12 +196,14 @@ public class InterviewEvaluationService {
       String detailedFeedback = aiService.generateText(feedbackPrompt);
 
       // Сохраняем оценку и детальное обоснование
+      Double previousScore = answer.getScore();
       answer.setScore(score);
       answer.setFeedback(detailedFeedback);
       answer.setScoreJustification(scoreResponse); // Сохраняем исходный ответ с оценкой
 
       // Сохраняем в базу данных
       interviewAnswerRepository.save(answer);
+      recordScore(answer, position, previousScore, score);
 
       log.info(
           "Answer {} successfully evaluated: score = {}/10 (question: {})",
@@ -216,15 +227,27 @@ public class InterviewEvaluationService {
           e.getMessage());
 
       // Устанавливаем оценку 0 и сохраняем информацию об ошибке
+      Double previousScore = answer.getScore();
       answer.setScore(0.0);
       answer.setFeedback("Ошибка оценки: " + e.getMessage());
       answer.setScoreJustification("Не удалось получить оценку из-за технической ошибки");
       interviewAnswerRepository.save(answer);
+      recordScore(answer, position, previousScore, 0.0);
 
       return 0.0;
     }
   }
 
+  /** Учитывает оценку в распределениях оценок вакансии и вопроса */
+  private void recordScore(
+      InterviewAnswer answer, Position position, Double previousScore, double score) {
+    scoreDistributionService.recordScore(
+        position != null ? position.getId() : null,
+        answer.getQuestion().getId(),
+        previousScore,
+        score);
+  }
+
   /** Строит промпт для оценки ответа */
   private String buildEvaluationPrompt(
       String answerText, Position position, azhukov.entity.Question question) {
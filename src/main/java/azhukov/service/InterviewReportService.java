@@ -0,0 +1,199 @@
+package azhukov.service;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.entity.Interview;
+import azhukov.model.MonthlyReport;
+import azhukov.util.TransactionUtils;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Месячные отчёты по интервью. Отчёт читается из суточных агрегатов interview_daily_stats одним
+ * запросом, поэтому его стоимость зависит от числа месяцев, а не от размера таблицы интервью.
+ *
+ * <p>Агрегат суток пересчитывается целиком, когда интервью этих суток начинается, завершается или
+ * получает оценку — повторная оценка или смена результата не приводят к двойному учёту. Сверка по
+ * расписанию пересчитывает последние сутки на случай изменений в обход сервисов.
+ */
+@Service
+@Slf4j
+public class InterviewReportService {
+
+  static final String REFRESH_DAY_SQL =
+      "INSERT INTO interview_daily_stats"
+          + " (day, total, successful, unsuccessful, score_sum, score_count, updated_at)"
+          + " SELECT ?, COUNT(*),"
+          + " COUNT(*) FILTER (WHERE result = 'SUCCESSFUL'),"
+          + " COUNT(*) FILTER (WHERE result = 'UNSUCCESSFUL'),"
+          + " COALESCE(SUM(ai_score), 0), COUNT(ai_score), NOW()"
+          + " FROM interviews WHERE started_at >= ? AND started_at < ?"
+          + " ON CONFLICT (day) DO UPDATE SET total = EXCLUDED.total,"
+          + " successful = EXCLUDED.successful, unsuccessful = EXCLUDED.unsuccessful,"
+          + " score_sum = EXCLUDED.score_sum, score_count = EXCLUDED.score_count,"
+          + " updated_at = EXCLUDED.updated_at";
+
+  static final String ROLLUP_REPORT_SQL =
+      "SELECT date_trunc('month', CAST(day AS TIMESTAMP)) AS month, SUM(total) AS total,"
+          + " SUM(successful) AS successful, SUM(unsuccessful) AS unsuccessful,"
+          + " SUM(score_sum) AS score_sum, SUM(score_count) AS score_count"
+          + " FROM interview_daily_stats WHERE day >= ? AND day < ? GROUP BY 1";
+
+  static final String FALLBACK_REPORT_SQL =
+      "SELECT date_trunc('month', started_at) AS month, COUNT(*) AS total,"
+          + " COUNT(*) FILTER (WHERE result = 'SUCCESSFUL') AS successful,"
+          + " COUNT(*) FILTER (WHERE result = 'UNSUCCESSFUL') AS unsuccessful,"
+          + " COALESCE(SUM(ai_score), 0) AS score_sum, COUNT(ai_score) AS score_count"
+          + " FROM interviews WHERE started_at >= ? AND started_at < ? GROUP BY 1";
+
+  private static final DateTimeFormatter MONTH_FORMATTER =
+      DateTimeFormatter.ofPattern("MMMM yyyy", new Locale("ru"));
+
+  /** Итоги месяца */
+  record MonthTotals(
+      long total, long successful, long unsuccessful, double scoreSum, long scoreCount) {
+
+    static final MonthTotals EMPTY = new MonthTotals(0, 0, 0, 0, 0);
+
+    double avgScore() {
+      return scoreCount > 0 ? scoreSum / scoreCount : 0.0;
+    }
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ApplicationProperties.Reports properties;
+
+  /**
+   * Пересчёт выполняется в собственной транзакции: после коммита ресурсы исходной транзакции ещё
+   * привязаны к потоку, и без неё запись могла бы остаться незафиксированной
+   */
+  private final TransactionTemplate refreshTransaction;
+
+  public InterviewReportService(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ApplicationProperties applicationProperties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.properties = applicationProperties.getReports();
+    this.refreshTransaction = new TransactionTemplate(transactionManager);
+    this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Отчёты за последние months месяцев, включая текущий, в хронологическом порядке
+   *
+   * @param months число месяцев
+   */
+  public List<MonthlyReport> getMonthlyReports(int months) {
+    YearMonth last = YearMonth.now();
+    YearMonth first = last.minusMonths(months - 1L);
+    Map<YearMonth, MonthTotals> totals = loadMonthTotals(first, last.plusMonths(1));
+
+    List<MonthlyReport> reports = new ArrayList<>(months);
+    MonthTotals previous = null;
+    for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+      MonthTotals current = totals.getOrDefault(month, MonthTotals.EMPTY);
+
+      // Динамика (рост/падение по сравнению с предыдущим месяцем), для первого месяца — 0
+      long dynamics =
+          previous != null && previous.total() > 0
+              ? ((current.total() - previous.total()) * 100) / previous.total()
+              : 0;
+
+      MonthlyReport report = new MonthlyReport();
+      report.setMonth(month.atDay(1).format(MONTH_FORMATTER));
+      report.setTotalInterviews(current.total());
+      report.setSuccessful(current.successful());
+      report.setUnsuccessful(current.unsuccessful());
+      report.setAvgScore((float) current.avgScore());
+      report.setDynamics(dynamics);
+      reports.add(report);
+      previous = current;
+    }
+    return reports;
+  }
+
+  /**
+   * Отмечает, что интервью изменилось: агрегат суток его начала пересчитывается после коммита,
+   * чтобы отчёт не учёл откаченные изменения
+   */
+  public void recordChange(Interview interview) {
+    if (interview.getStartedAt() == null) {
+      return;
+    }
+    LocalDate day = interview.getStartedAt().toLocalDate();
+    TransactionUtils.afterCommit(() -> refreshDay(day));
+  }
+
+  /** Пересчитывает агрегат суток по таблице интервью */
+  public void refreshDay(LocalDate day) {
+    try {
+      refreshTransaction.executeWithoutResult(
+          status ->
+              jdbcTemplate.update(
+                  REFRESH_DAY_SQL,
+                  Date.valueOf(day),
+                  Timestamp.valueOf(day.atStartOfDay()),
+                  Timestamp.valueOf(day.plusDays(1).atStartOfDay())));
+    } catch (Exception e) {
+      // Отчёт временно устарел; сверка по расписанию пересчитает эти сутки
+      log.warn("Failed to refresh interview stats for {}: {}", day, e.getMessage());
+    }
+  }
+
+  /** Сверка агрегатов последних суток */
+  @Scheduled(cron = "${app.reports.reconcile-cron:0 15 * * * *}")
+  public void reconcileRecentDays() {
+    if (!properties.isRollupEnabled()) {
+      return;
+    }
+    LocalDate today = LocalDate.now();
+    for (int i = 0; i < properties.getReconcileDays(); i++) {
+      refreshDay(today.minusDays(i));
+    }
+  }
+
+  private Map<YearMonth, MonthTotals> loadMonthTotals(YearMonth from, YearMonth to) {
+    LocalDate start = from.atDay(1);
+    LocalDate end = to.atDay(1);
+    Map<YearMonth, MonthTotals> totals = new HashMap<>();
+    RowCallbackHandler collector =
+        rs -> totals.put(YearMonth.from(rs.getTimestamp("month").toLocalDateTime()), toTotals(rs));
+    if (properties.isRollupEnabled()) {
+      jdbcTemplate.query(ROLLUP_REPORT_SQL, collector, Date.valueOf(start), Date.valueOf(end));
+    } else {
+      jdbcTemplate.query(
+          FALLBACK_REPORT_SQL,
+          collector,
+          Timestamp.valueOf(start.atStartOfDay()),
+          Timestamp.valueOf(end.atStartOfDay()));
+    }
+    return totals;
+  }
+
+  private static MonthTotals toTotals(ResultSet rs) throws SQLException {
+    return new MonthTotals(
+        rs.getLong("total"),
+        rs.getLong("successful"),
+        rs.getLong("unsuccessful"),
+        rs.getDouble("score_sum"),
+        rs.getLong("score_count"));
+  }
+}
@@ -17,8 +17,11 @@ import azhukov.repository.InterviewAnswerRepository;
 import azhukov.repository.InterviewRepository;
 import azhukov.repository.PositionRepository;
 import azhukov.repository.QuestionRepository;
+import azhukov.service.live.InterviewLiveEvent;
+import azhukov.service.live.InterviewLiveEventPublisher;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -43,6 +46,7 @@ public class InterviewService extends BaseService<Interview, Long, InterviewRepo
   private final CandidateMapper candidateMapper;
   private final PositionMapper positionMapper;
   private final QuestionMapper questionMapper;
+  private final InterviewLiveEventPublisher liveEventPublisher;
 
   public InterviewService(
       InterviewRepository interviewRepository,
@@ -53,7 +57,8 @@ public class InterviewService extends BaseService<Interview, Long, InterviewRepo
       InterviewMapper interviewMapper,
       CandidateMapper candidateMapper,
       PositionMapper positionMapper,
-      QuestionMapper questionMapper) {
+      QuestionMapper questionMapper,
+      InterviewLiveEventPublisher liveEventPublisher) {
     super(interviewRepository);
     this.candidateRepository = candidateRepository;
     this.positionRepository = positionRepository;
@@ -63,6 +68,7 @@ public class InterviewService extends BaseService<Interview, Long, InterviewRepo
     this.candidateMapper = candidateMapper;
     this.positionMapper = positionMapper;
     this.questionMapper = questionMapper;
+    this.liveEventPublisher = liveEventPublisher;
   }
 
   /** Создает новое собеседование для кандидата и возвращает DTO */
@@ -200,6 +206,8 @@ public class InterviewService extends BaseService<Interview, Long, InterviewRepo
       interview.setResult(Interview.Result.ERROR);
       interview.setFinishedAt(LocalDateTime.now());
       Interview savedInterview = repository.save(interview);
+      liveEventPublisher.publish(
+          InterviewLiveEvent.Type.SESSION_ENDED, interviewId, Map.of("reason", "finished"));
       log.info("Interview finished with ERROR result: {}", interviewId);
       return savedInterview;
     }
@@ -209,6 +217,8 @@ public class InterviewService extends BaseService<Interview, Long, InterviewRepo
     interview.finish(result);
     updateCandidateStatus(interview.getCandidate(), result);
     Interview savedInterview = repository.save(interview);
+    liveEventPublisher.publish(
+        InterviewLiveEvent.Type.SESSION_ENDED, interviewId, Map.of("reason", "finished"));
     log.info("Interview finished: {} with result: {}", interviewId, result);
     return savedInterview;
   }
@@ -257,6 +267,10 @@ public class InterviewService extends BaseService<Interview, Long, InterviewRepo
     int answeredQuestions = interview.getAnswers().size();
 
     Interview savedInterview = repository.save(interview);
+    liveEventPublisher.publish(
+        InterviewLiveEvent.Type.ANSWER_SAVED,
+        interviewId,
+        Map.of("questionId", questionId, "answered", answeredQuestions));
     log.info(
         "Answer submitted for interview: {} question: {} (answered: {}/{})",
         interviewId,
@@ -0,0 +1,190 @@
+package azhukov.service;
+
+import azhukov.entity.PositionFunnel;
+import azhukov.model.PositionStats;
+import azhukov.repository.PositionFunnelRepository;
+import azhukov.util.TransactionUtils;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Воронка найма по вакансиям. Строка position_funnel и positions.avg_score пересчитываются целиком
+ * по кандидатам и интервью вакансии после коммита изменения — повторная оценка или смена статуса
+ * не приводят к двойному учёту. Списки и карточки вакансий читают готовую строку вместо агрегатов
+ * по интервью.
+ *
+ * <p>Ночная сверка пересчитывает все вакансии на случай изменений в обход JPA и переноса кандидата
+ * между вакансиями.
+ */
+@Service
+@Slf4j
+public class PositionFunnelService {
+
+  private static final String FUNNEL_SELECT =
+      "SELECT p.id, c.total, c.new, c.in_progress, c.finished, c.hired, c.rejected,"
+          + " i.total, i.not_started, i.in_progress, i.finished, i.successful, i.unsuccessful,"
+          + " i.score_sum, i.score_count, GREATEST(c.last_activity_at, i.last_activity_at), NOW()"
+          + " FROM positions p"
+          + " CROSS JOIN LATERAL (SELECT COUNT(*) AS total,"
+          + " COUNT(*) FILTER (WHERE status = 'NEW') AS new,"
+          + " COUNT(*) FILTER (WHERE status = 'IN_PROGRESS') AS in_progress,"
+          + " COUNT(*) FILTER (WHERE status = 'FINISHED') AS finished,"
+          + " COUNT(*) FILTER (WHERE status = 'HIRED') AS hired,"
+          + " COUNT(*) FILTER (WHERE status = 'REJECTED') AS rejected,"
+          + " MAX(updated_at) AS last_activity_at"
+          + " FROM candidates WHERE position_id = p.id) c"
+          + " CROSS JOIN LATERAL (SELECT COUNT(*) AS total,"
+          + " COUNT(*) FILTER (WHERE status = 'NOT_STARTED') AS not_started,"
+          + " COUNT(*) FILTER (WHERE status = 'IN_PROGRESS') AS in_progress,"
+          + " COUNT(*) FILTER (WHERE status = 'FINISHED') AS finished,"
+          + " COUNT(*) FILTER (WHERE result = 'SUCCESSFUL') AS successful,"
+          + " COUNT(*) FILTER (WHERE result = 'UNSUCCESSFUL') AS unsuccessful,"
+          + " COALESCE(SUM(ai_score), 0) AS score_sum, COUNT(ai_score) AS score_count,"
+          + " MAX(updated_at) AS last_activity_at"
+          + " FROM interviews WHERE position_id = p.id) i";
+
+  private static final String FUNNEL_UPSERT =
+      "INSERT INTO position_funnel (position_id,"
+          + " candidates_total, candidates_new, candidates_in_progress,"
+          + " candidates_finished, candidates_hired, candidates_rejected,"
+          + " interviews_total, interviews_not_started, interviews_in_progress,"
+          + " interviews_finished, interviews_successful, interviews_unsuccessful,"
+          + " score_sum, score_count, last_activity_at, updated_at) ";
+
+  private static final String FUNNEL_ON_CONFLICT =
+      " ON CONFLICT (position_id) DO UPDATE SET"
+          + " candidates_total = EXCLUDED.candidates_total,"
+          + " candidates_new = EXCLUDED.candidates_new,"
+          + " candidates_in_progress = EXCLUDED.candidates_in_progress,"
+          + " candidates_finished = EXCLUDED.candidates_finished,"
+          + " candidates_hired = EXCLUDED.candidates_hired,"
+          + " candidates_rejected = EXCLUDED.candidates_rejected,"
+          + " interviews_total = EXCLUDED.interviews_total,"
+          + " interviews_not_started = EXCLUDED.interviews_not_started,"
+          + " interviews_in_progress = EXCLUDED.interviews_in_progress,"
+          + " interviews_finished = EXCLUDED.interviews_finished,"
+          + " interviews_successful = EXCLUDED.interviews_successful,"
+          + " interviews_unsuccessful = EXCLUDED.interviews_unsuccessful,"
+          + " score_sum = EXCLUDED.score_sum, score_count = EXCLUDED.score_count,"
+          + " last_activity_at = EXCLUDED.last_activity_at, updated_at = EXCLUDED.updated_at";
+
+  static final String REFRESH_SQL =
+      FUNNEL_UPSERT + FUNNEL_SELECT + " WHERE p.id = ?" + FUNNEL_ON_CONFLICT;
+
+  static final String REFRESH_ALL_SQL = FUNNEL_UPSERT + FUNNEL_SELECT + FUNNEL_ON_CONFLICT;
+
+  private static final String AVG_SCORE_UPDATE =
+      "UPDATE positions p SET avg_score ="
+          + " CASE WHEN f.score_count > 0 THEN f.score_sum / f.score_count END"
+          + " FROM position_funnel f WHERE f.position_id = p.id"
+          + " AND p.avg_score IS DISTINCT FROM"
+          + " CASE WHEN f.score_count > 0 THEN f.score_sum / f.score_count END";
+
+  static final String UPDATE_AVG_SCORE_SQL = AVG_SCORE_UPDATE + " AND p.id = ?";
+
+  static final String UPDATE_ALL_AVG_SCORES_SQL = AVG_SCORE_UPDATE;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final PositionFunnelRepository funnelRepository;
+
+  /** Пересчёт выполняется после коммита, поэтому — в собственной транзакции */
+  private final TransactionTemplate refreshTransaction;
+
+  public PositionFunnelService(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      PositionFunnelRepository funnelRepository) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.funnelRepository = funnelRepository;
+    this.refreshTransaction = new TransactionTemplate(transactionManager);
+    this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Отмечает изменение кандидата или интервью вакансии: воронка пересчитывается после коммита,
+   * чтобы не учесть откаченные изменения
+   */
+  public void recordChange(Long positionId) {
+    if (positionId == null) {
+      return;
+    }
+    TransactionUtils.afterCommit(() -> refresh(positionId));
+  }
+
+  /** Пересчитывает воронку и средний балл вакансии */
+  public void refresh(Long positionId) {
+    try {
+      refreshTransaction.executeWithoutResult(
+          status -> {
+            jdbcTemplate.update(REFRESH_SQL, positionId);
+            jdbcTemplate.update(UPDATE_AVG_SCORE_SQL, positionId);
+          });
+    } catch (Exception e) {
+      // Воронка временно устарела; ночная сверка пересчитает вакансию
+      log.warn("Failed to refresh funnel for position {}: {}", positionId, e.getMessage());
+    }
+  }
+
+  /** Сверка воронок всех вакансий */
+  @Scheduled(cron = "${app.reports.funnel-reconcile-cron:0 45 3 * * *}")
+  public void reconcileAll() {
+    try {
+      int positions =
+          refreshTransaction.execute(
+              status -> {
+                int refreshed = jdbcTemplate.update(REFRESH_ALL_SQL);
+                jdbcTemplate.update(UPDATE_ALL_AVG_SCORES_SQL);
+                return refreshed;
+              });
+      log.info("Reconciled hiring funnel for {} positions", positions);
+    } catch (Exception e) {
+      log.error("Failed to reconcile position funnels", e);
+    }
+  }
+
+  public Optional<PositionFunnel> getFunnel(Long positionId) {
+    return funnelRepository.findById(positionId);
+  }
+
+  /** Воронки вакансий по ID; вакансии без строки в результат не попадают */
+  public Map<Long, PositionFunnel> getFunnels(Collection<Long> positionIds) {
+    if (positionIds.isEmpty()) {
+      return Map.of();
+    }
+    List<PositionFunnel> funnels = funnelRepository.findByPositionIdIn(positionIds);
+    return funnels.stream()
+        .collect(Collectors.toMap(PositionFunnel::getPositionId, Function.identity()));
+  }
+
+  /** Статистика вакансии из строки воронки */
+  public static PositionStats toStats(PositionFunnel funnel) {
+    PositionStats stats = new PositionStats();
+    stats.setPositionId(funnel.getPositionId());
+    stats.setInterviewsTotal(funnel.getInterviewsTotal());
+    stats.setInterviewsSuccessful(funnel.getInterviewsSuccessful());
+    stats.setInterviewsInProgress(funnel.getInterviewsInProgress());
+    stats.setInterviewsUnsuccessful(funnel.getInterviewsUnsuccessful());
+    stats.setCandidatesTotal(funnel.getCandidatesTotal());
+    stats.setCandidatesInProgress(funnel.getCandidatesInProgress());
+    stats.setCandidatesHired(funnel.getCandidatesHired());
+    stats.setCandidatesRejected(funnel.getCandidatesRejected());
+    stats.setAvgScore(funnel.getAvgScore() != null ? funnel.getAvgScore().floatValue() : null);
+    stats.setLastActivityAt(
+        funnel.getLastActivityAt() != null
+            ? funnel.getLastActivityAt().atOffset(ZoneOffset.UTC)
+            : null);
+    return stats;
+  }
+}
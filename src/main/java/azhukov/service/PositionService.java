@@ -1,6 +1,7 @@
 package azhukov.service;
 
 import azhukov.entity.Position;
+import azhukov.entity.PositionFunnel;
 import azhukov.entity.UserEntity;
 import azhukov.exception.ResourceNotFoundException;
 import azhukov.mapper.PositionMapper;
@@ -8,6 +9,7 @@ import azhukov.model.*;
 import azhukov.repository.PositionRepository;
 import azhukov.repository.UserRepository;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -22,14 +24,17 @@ public class PositionService extends BaseService<Position, Long, PositionReposit
 
   private final PositionMapper positionMapper;
   private final UserRepository userRepository;
+  private final PositionFunnelService funnelService;
 
   public PositionService(
       PositionRepository positionRepository,
       PositionMapper positionMapper,
-      UserRepository userRepository) {
+      UserRepository userRepository,
+      PositionFunnelService funnelService) {
     super(positionRepository);
     this.positionMapper = positionMapper;
     this.userRepository = userRepository;
+    this.funnelService = funnelService;
   }
 
   /** Создает новую вакансию */
@@ -106,7 +111,9 @@ public class PositionService extends BaseService<Position, Long, PositionReposit
     // Вручную инициализируем team (одна коллекция, не вызывает MultipleBagFetchException)
     org.hibernate.Hibernate.initialize(position.getTeam());
 
-    return positionMapper.toDto(position);
+    azhukov.model.Position dto = positionMapper.toDto(position);
+    dto.setStats(PositionFunnelService.toStats(funnelOf(id)));
+    return dto;
   }
 
   /** Получает все вакансии */
@@ -125,10 +132,26 @@ public class PositionService extends BaseService<Position, Long, PositionReposit
     return positionMapper.toDtoPage(positions);
   }
 
-  /** Получает вакансии с фильтрацией и пагинацией */
+  /** Получает вакансии с фильтрацией и пагинацией, воронки страницы читаются одним запросом */
   @Transactional(readOnly = true)
   public Page<azhukov.model.Position> getPositionsPage(
       PositionStatusEnum status, String search, String owner, String userEmail, Pageable pageable) {
+    Page<azhukov.model.Position> page =
+        findPositionsPage(status, search, owner, userEmail, pageable);
+    Map<Long, PositionFunnel> funnels =
+        funnelService.getFunnels(page.map(azhukov.model.Position::getId).getContent());
+    page.forEach(
+        position -> {
+          PositionFunnel funnel = funnels.get(position.getId());
+          if (funnel != null) {
+            position.setStats(PositionFunnelService.toStats(funnel));
+          }
+        });
+    return page;
+  }
+
+  private Page<azhukov.model.Position> findPositionsPage(
+      PositionStatusEnum status, String search, String owner, String userEmail, Pageable pageable) {
     log.debug(
         "Getting positions with filters: status={}, search={}, owner={}", status, search, owner);
 
@@ -333,10 +356,20 @@ public class PositionService extends BaseService<Position, Long, PositionReposit
     return position.getPublicLink();
   }
 
-  /** Получает статистику по вакансии */
+  /** Получает статистику по вакансии из её воронки найма */
   @Transactional(readOnly = true)
-  public Position getPositionStats(Long positionId) {
+  public PositionStats getPositionStats(Long positionId) {
     log.debug("Getting stats for position: {}", positionId);
-    return findByIdOrThrow(positionId);
+    if (!repository.existsById(positionId)) {
+      throw new ResourceNotFoundException("Position not found with id: " + positionId);
+    }
+    return PositionFunnelService.toStats(funnelOf(positionId));
+  }
+
+  /** Воронка вакансии; у вакансии без кандидатов и интервью строки ещё нет — воронка пустая */
+  private PositionFunnel funnelOf(Long positionId) {
+    return funnelService
+        .getFunnel(positionId)
+        .orElseGet(() -> PositionFunnel.builder().positionId(positionId).build());
   }
 }
@@ -0,0 +1,340 @@
+package azhukov.service;
+
+import azhukov.exception.ResourceNotFoundException;
+import azhukov.model.ScoreDistribution;
+import azhukov.model.ScoreHistogramBin;
+import azhukov.repository.PositionRepository;
+import azhukov.repository.QuestionRepository;
+import azhukov.util.TransactionUtils;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Распределение оценок ответов по вакансиям и вопросам. Для каждой вакансии и вопроса хранится
+ * {@link ScoreHistogram} в score_sketches: перцентили читаются одной строкой по ключу вместо
+ * сортировки всех ответов.
+ *
+ * <p>Новые оценки копятся в памяти узла и раз в несколько секунд вливаются в строки под блокировкой
+ * строки, поэтому узлы не теряют приращения друг друга. Отсутствующая строка строится из
+ * interview_answers при первом чтении; ночной сброс заставляет перестроить все строки и убирает
+ * расхождения из-за удалений в обход JPA.
+ *
+ * <p>Строка строится по interview_answers в транзакции REPEATABLE READ и хранит её снимок
+ * (pg_current_snapshot). Каждое приращение помнит транзакцию, в которой сохранена оценка: если эта
+ * транзакция видна в снимке строки, оценка уже учтена при построении и не вливается, иначе
+ * вливается ровно один раз — каким бы узлом и когда бы строка ни была перестроена.
+ */
+@Service
+@Slf4j
+public class ScoreDistributionService {
+
+  /** Разрез распределения */
+  enum Scope {
+    POSITION,
+    QUESTION
+  }
+
+  private record SketchKey(Scope scope, Long id) {}
+
+  /** Невлитое приращение; xid — транзакция, сохранившая оценку */
+  private record PendingDelta(long xid, ScoreHistogram histogram) {}
+
+  /** Строка score_sketches */
+  private record StoredSketch(ScoreHistogram histogram, TransactionSnapshot snapshot) {}
+
+  /** Снимок транзакций PostgreSQL в текстовом виде pg_snapshot: xmin:xmax:xip,... */
+  record TransactionSnapshot(long xmin, long xmax, Set<Long> inProgress) {
+
+    static TransactionSnapshot parse(String text) {
+      String[] parts = text.split(":", -1);
+      Set<Long> inProgress =
+          parts[2].isEmpty()
+              ? Set.of()
+              : Arrays.stream(parts[2].split(",")).map(Long::valueOf).collect(Collectors.toSet());
+      return new TransactionSnapshot(
+          Long.parseLong(parts[0]), Long.parseLong(parts[1]), inProgress);
+    }
+
+    /** Видны ли в снимке изменения закоммиченной транзакции */
+    boolean isVisible(long xid) {
+      return xid < xmin || (xid < xmax && !inProgress.contains(xid));
+    }
+  }
+
+  static final String POSITION_SCORES_SQL =
+      "SELECT ROUND(CAST(a.score AS NUMERIC), 1), COUNT(*) FROM interview_answers a"
+          + " JOIN interviews i ON i.id = a.interview_id"
+          + " WHERE i.position_id = ? AND a.score IS NOT NULL GROUP BY 1";
+
+  static final String QUESTION_SCORES_SQL =
+      "SELECT ROUND(CAST(a.score AS NUMERIC), 1), COUNT(*) FROM interview_answers a"
+          + " WHERE a.question_id = ? AND a.score IS NOT NULL GROUP BY 1";
+
+  static final String CURRENT_XID_SQL = "SELECT CAST(pg_current_xact_id() AS TEXT)";
+
+  static final String CURRENT_SNAPSHOT_SQL = "SELECT CAST(pg_current_snapshot() AS TEXT)";
+
+  static final String SELECT_SKETCH_SQL =
+      "SELECT sketch, source_snapshot FROM score_sketches WHERE scope = ? AND scope_id = ?";
+
+  static final String LOCK_SKETCH_SQL = SELECT_SKETCH_SQL + " FOR UPDATE";
+
+  static final String INSERT_SKETCH_SQL =
+      "INSERT INTO score_sketches (scope, scope_id, sketch, total, source_snapshot, updated_at)"
+          + " VALUES (?, ?, ?, ?, ?, NOW()) ON CONFLICT (scope, scope_id) DO NOTHING";
+
+  static final String UPDATE_SKETCH_SQL =
+      "UPDATE score_sketches SET sketch = ?, total = ?, updated_at = NOW()"
+          + " WHERE scope = ? AND scope_id = ?";
+
+  static final String RESET_SQL = "DELETE FROM score_sketches";
+
+  /** Границы корзин гистограммы в ответе API, по одному баллу */
+  private static final int HISTOGRAM_BINS = ScoreHistogram.MAX_SCORE;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final PositionRepository positionRepository;
+  private final QuestionRepository questionRepository;
+
+  /** Запись выполняется после коммита и по расписанию, поэтому — в собственной транзакции */
+  private final TransactionTemplate writeTransaction;
+
+  /** Построение строки: снимок и выборка ответов в одной транзакции */
+  private final TransactionTemplate snapshotTransaction;
+
+  /** Приращения, ещё не влитые в score_sketches */
+  private final Map<SketchKey, List<PendingDelta>> pending = new ConcurrentHashMap<>();
+
+  public ScoreDistributionService(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      PositionRepository positionRepository,
+      QuestionRepository questionRepository) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.positionRepository = positionRepository;
+    this.questionRepository = questionRepository;
+    this.writeTransaction = new TransactionTemplate(transactionManager);
+    this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    this.snapshotTransaction.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    this.snapshotTransaction.setReadOnly(true);
+  }
+
+  /**
+   * Учитывает оценку ответа после коммита. Прежняя оценка при повторной оценке ответа снимается.
+   * Вызывается в транзакции, которая сохраняет оценку: приращение помечается её номером
+   *
+   * @param previous оценка ответа до изменения или null
+   */
+  public void recordScore(Long positionId, Long questionId, Double previous, double score) {
+    if (previous != null && previous == score) {
+      return;
+    }
+    ScoreHistogram delta = new ScoreHistogram();
+    delta.add(score, 1);
+    if (previous != null) {
+      delta.add(previous, -1);
+    }
+    long xid = Long.parseLong(jdbcTemplate.queryForObject(CURRENT_XID_SQL, String.class));
+    TransactionUtils.afterCommit(() -> addPending(positionId, questionId, xid, delta));
+  }
+
+  public ScoreDistribution getPositionDistribution(Long positionId) {
+    if (!positionRepository.existsById(positionId)) {
+      throw new ResourceNotFoundException("Position", "id", positionId);
+    }
+    return toDistribution(load(new SketchKey(Scope.POSITION, positionId)));
+  }
+
+  public ScoreDistribution getQuestionDistribution(Long questionId) {
+    if (!questionRepository.existsById(questionId)) {
+      throw new ResourceNotFoundException("Question", "id", questionId);
+    }
+    return toDistribution(load(new SketchKey(Scope.QUESTION, questionId)));
+  }
+
+  /** Вливает накопленные приращения в score_sketches */
+  @Scheduled(fixedDelayString = "${app.reports.sketch-flush-interval:PT5S}")
+  public void flush() {
+    for (SketchKey key : List.copyOf(pending.keySet())) {
+      List<PendingDelta> deltas = pending.remove(key);
+      if (deltas == null) {
+        continue;
+      }
+      try {
+        writeTransaction.executeWithoutResult(status -> mergeInto(key, deltas));
+      } catch (Exception e) {
+        // Приращение потеряно; ночной сброс перестроит строку по ответам
+        log.warn("Failed to flush score sketch {} {}: {}", key.scope(), key.id(), e.getMessage());
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  /** Сбрасывает все гистограммы: при следующем чтении они строятся заново по ответам */
+  @Scheduled(cron = "${app.reports.sketch-reset-cron:0 30 4 * * *}")
+  public void resetAll() {
+    try {
+      int removed = writeTransaction.execute(status -> jdbcTemplate.update(RESET_SQL));
+      log.info("Reset {} score sketches", removed);
+    } catch (Exception e) {
+      log.error("Failed to reset score sketches", e);
+    }
+  }
+
+  private void addPending(Long positionId, Long questionId, long xid, ScoreHistogram delta) {
+    if (positionId != null) {
+      addPending(new SketchKey(Scope.POSITION, positionId), new PendingDelta(xid, delta));
+    }
+    if (questionId != null) {
+      addPending(new SketchKey(Scope.QUESTION, questionId), new PendingDelta(xid, delta));
+    }
+  }
+
+  private void addPending(SketchKey key, PendingDelta delta) {
+    pending.compute(
+        key,
+        (k, current) -> {
+          List<PendingDelta> deltas = current != null ? current : new ArrayList<>();
+          deltas.add(delta);
+          return deltas;
+        });
+  }
+
+  /**
+   * Строки нет — приращения не нужны: все они закоммичены и попадут в снимок, по которому строка
+   * будет построена при первом чтении. Иначе вливаются приращения транзакций, не видных в снимке
+   * строки
+   */
+  private void mergeInto(SketchKey key, List<PendingDelta> deltas) {
+    StoredSketch stored = select(LOCK_SKETCH_SQL, key);
+    if (stored == null) {
+      return;
+    }
+    ScoreHistogram unseen = unseen(deltas, stored.snapshot());
+    if (unseen.isEmpty()) {
+      return;
+    }
+    ScoreHistogram sketch = stored.histogram();
+    sketch.merge(unseen);
+    jdbcTemplate.update(
+        UPDATE_SKETCH_SQL, sketch.toBytes(), sketch.count(), key.scope().name(), key.id());
+  }
+
+  /** Гистограмма из score_sketches с учётом невлитых приращений узла */
+  private ScoreHistogram load(SketchKey key) {
+    StoredSketch stored = select(SELECT_SKETCH_SQL, key);
+    if (stored == null) {
+      stored = rebuild(key);
+    }
+    ScoreHistogram sketch = stored.histogram();
+    TransactionSnapshot snapshot = stored.snapshot();
+    // Слияние под блокировкой ключа: список приращений не потокобезопасен
+    pending.computeIfPresent(
+        key,
+        (k, current) -> {
+          sketch.merge(unseen(current, snapshot));
+          return current;
+        });
+    return sketch;
+  }
+
+  /** Сумма приращений транзакций, не видных в снимке */
+  private static ScoreHistogram unseen(List<PendingDelta> deltas, TransactionSnapshot snapshot) {
+    ScoreHistogram unseen = new ScoreHistogram();
+    for (PendingDelta delta : deltas) {
+      if (!snapshot.isVisible(delta.xid())) {
+        unseen.addAll(delta.histogram());
+      }
+    }
+    return unseen;
+  }
+
+  private StoredSketch select(String sql, SketchKey key) {
+    List<StoredSketch> rows =
+        jdbcTemplate.query(
+            sql,
+            (rs, rowNum) ->
+                new StoredSketch(
+                    ScoreHistogram.fromBytes(rs.getBytes(1)),
+                    TransactionSnapshot.parse(rs.getString(2))),
+            key.scope().name(),
+            key.id());
+    return rows.isEmpty() ? null : rows.get(0);
+  }
+
+  /** Строит гистограмму по interview_answers и сохраняет её, если строку не создал другой узел */
+  private StoredSketch rebuild(SketchKey key) {
+    ScoreHistogram sketch = new ScoreHistogram();
+    // В REPEATABLE READ выборка видит ровно транзакции снимка, полученного первым запросом
+    String snapshot =
+        snapshotTransaction.execute(
+            status -> {
+              String current = jdbcTemplate.queryForObject(CURRENT_SNAPSHOT_SQL, String.class);
+              jdbcTemplate.query(
+                  key.scope() == Scope.POSITION ? POSITION_SCORES_SQL : QUESTION_SCORES_SQL,
+                  (RowCallbackHandler) rs -> sketch.add(rs.getDouble(1), rs.getLong(2)),
+                  key.id());
+              return current;
+            });
+    byte[] bytes = sketch.toBytes();
+    try {
+      writeTransaction.executeWithoutResult(
+          status ->
+              jdbcTemplate.update(
+                  INSERT_SKETCH_SQL,
+                  key.scope().name(),
+                  key.id(),
+                  bytes,
+                  sketch.count(),
+                  snapshot));
+    } catch (Exception e) {
+      log.warn("Failed to store score sketch {} {}: {}", key.scope(), key.id(), e.getMessage());
+    }
+    return new StoredSketch(sketch, TransactionSnapshot.parse(snapshot));
+  }
+
+  private static ScoreDistribution toDistribution(ScoreHistogram sketch) {
+    ScoreDistribution distribution = new ScoreDistribution();
+    distribution.setCount(sketch.count());
+    if (!sketch.isEmpty()) {
+      distribution.setMin((float) sketch.min());
+      distribution.setMax((float) sketch.max());
+      distribution.setMean((float) sketch.mean());
+      distribution.setP50((float) sketch.quantile(0.5));
+      distribution.setP75((float) sketch.quantile(0.75));
+      distribution.setP90((float) sketch.quantile(0.9));
+      distribution.setP95((float) sketch.quantile(0.95));
+    }
+    List<ScoreHistogramBin> bins = new ArrayList<>(HISTOGRAM_BINS);
+    for (int from = 0; from < HISTOGRAM_BINS; from++) {
+      ScoreHistogramBin bin = new ScoreHistogramBin();
+      bin.setFrom((float) from);
+      bin.setTo((float) (from + 1));
+      bin.setCount(sketch.countBetween(from, from + 1));
+      bins.add(bin);
+    }
+    distribution.setHistogram(bins);
+    return distribution;
+  }
+}
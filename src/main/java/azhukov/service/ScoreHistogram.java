@@ -0,0 +1,180 @@
+package azhukov.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Гистограмма оценок ответов — сливаемый скетч распределения фиксированного размера. Шкала оценок
+ * ограничена (0–10), поэтому вместо t-digest используются корзины шагом 0.1 балла: перцентили
+ * точны до шага шкалы, слияние — сложение счётчиков, а повторная оценка ответа вычитается без
+ * потери точности.
+ *
+ * <p>Не потокобезопасна.
+ */
+public final class ScoreHistogram {
+
+  /** Корзин на один балл */
+  static final int RESOLUTION = 10;
+
+  static final int MAX_SCORE = 10;
+
+  static final int BUCKETS = MAX_SCORE * RESOLUTION + 1;
+
+  private static final byte FORMAT_VERSION = 1;
+
+  private final long[] counts = new long[BUCKETS];
+  private long total;
+
+  /**
+   * Учитывает оценку. Оценки вне шкалы прижимаются к её границам
+   *
+   * @param count число оценок; отрицательное — снять ранее учтённые
+   */
+  public void add(double score, long count) {
+    int bucket = (int) Math.round(Math.max(0, Math.min(MAX_SCORE, score)) * RESOLUTION);
+    counts[bucket] += count;
+    total += count;
+  }
+
+  /** Прибавляет счётчики другой гистограммы как есть — для накопления приращений */
+  public void addAll(ScoreHistogram other) {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] += other.counts[i];
+    }
+    total += other.total;
+  }
+
+  /** Добавляет счётчики другой гистограммы; отрицательные остатки обнуляются */
+  public void merge(ScoreHistogram other) {
+    total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = Math.max(0, counts[i] + other.counts[i]);
+      total += counts[i];
+    }
+  }
+
+  public long count() {
+    return total;
+  }
+
+  public boolean isEmpty() {
+    return total <= 0;
+  }
+
+  /**
+   * Квантиль по методу ближайшего ранга
+   *
+   * @param q доля от 0 до 1
+   * @return оценка или NaN для пустой гистограммы
+   */
+  public double quantile(double q) {
+    if (isEmpty()) {
+      return Double.NaN;
+    }
+    long rank = Math.max(1, (long) Math.ceil(q * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return value(i);
+      }
+    }
+    return MAX_SCORE;
+  }
+
+  public double min() {
+    for (int i = 0; i < BUCKETS; i++) {
+      if (counts[i] > 0) {
+        return value(i);
+      }
+    }
+    return Double.NaN;
+  }
+
+  public double max() {
+    for (int i = BUCKETS - 1; i >= 0; i--) {
+      if (counts[i] > 0) {
+        return value(i);
+      }
+    }
+    return Double.NaN;
+  }
+
+  public double mean() {
+    if (isEmpty()) {
+      return Double.NaN;
+    }
+    double sum = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      sum += counts[i] * value(i);
+    }
+    return sum / total;
+  }
+
+  /**
+   * Число оценок в интервале [from, to); для интервала, заканчивающегося верхней границей шкалы,
+   * граница включается
+   */
+  public long countBetween(double from, double to) {
+    int first = (int) Math.ceil(from * RESOLUTION - 1e-9);
+    int last = to >= MAX_SCORE ? BUCKETS - 1 : (int) Math.ceil(to * RESOLUTION - 1e-9) - 1;
+    long sum = 0;
+    for (int i = Math.max(0, first); i <= Math.min(BUCKETS - 1, last); i++) {
+      sum += counts[i];
+    }
+    return sum;
+  }
+
+  /** Компактное представление: версия формата и счётчики корзин в varint (zigzag) */
+  public byte[] toBytes() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(BUCKETS + 1);
+    out.write(FORMAT_VERSION);
+    for (long count : counts) {
+      long value = (count << 1) ^ (count >> 63);
+      while ((value & ~0x7FL) != 0) {
+        out.write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      out.write((int) value);
+    }
+    return out.toByteArray();
+  }
+
+  public static ScoreHistogram fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    byte version = buffer.get();
+    if (version != FORMAT_VERSION) {
+      throw new IllegalArgumentException("Unsupported score histogram format: " + version);
+    }
+    ScoreHistogram histogram = new ScoreHistogram();
+    for (int i = 0; i < BUCKETS; i++) {
+      long value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer.get();
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      long count = (value >>> 1) ^ -(value & 1);
+      histogram.counts[i] = count;
+      histogram.total += count;
+    }
+    return histogram;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof ScoreHistogram other && Arrays.equals(counts, other.counts);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(counts);
+  }
+
+  private static double value(int bucket) {
+    return (double) bucket / RESOLUTION;
+  }
+}
@@ -0,0 +1,74 @@
+package azhukov.service;
+
+import azhukov.entity.Candidate;
+import azhukov.entity.Interview;
+import azhukov.entity.Position;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обновляет агрегаты при создании, изменении и удалении кандидатов, интервью и вакансий — на каком
+ * бы пути ни менялся их статус: сбрасывает кэш счётчиков дашборда, пересчитывает воронку вакансии и
+ * суточный агрегат месячных отчётов. Сервисы получаются лениво: слушатель создаётся вместе с
+ * EntityManagerFactory, раньше репозиториев
+ */
+@Component
+public class StatsEntityListener {
+
+  private final ObjectProvider<DashboardStatsService> statsServiceProvider;
+  private final ObjectProvider<PositionFunnelService> funnelServiceProvider;
+  private final ObjectProvider<InterviewReportService> reportServiceProvider;
+
+  public StatsEntityListener(
+      ObjectProvider<DashboardStatsService> statsServiceProvider,
+      ObjectProvider<PositionFunnelService> funnelServiceProvider,
+      ObjectProvider<InterviewReportService> reportServiceProvider) {
+    this.statsServiceProvider = statsServiceProvider;
+    this.funnelServiceProvider = funnelServiceProvider;
+    this.reportServiceProvider = reportServiceProvider;
+  }
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void onChange(Object entity) {
+    DashboardStatsService.Scope scope = scopeOf(entity);
+    if (scope != null) {
+      statsServiceProvider.ifAvailable(service -> service.evict(scope));
+    }
+    Position position = positionOf(entity);
+    if (position != null) {
+      funnelServiceProvider.ifAvailable(service -> service.recordChange(position.getId()));
+    }
+    if (entity instanceof Interview interview) {
+      reportServiceProvider.ifAvailable(service -> service.recordChange(interview));
+    }
+  }
+
+  private static DashboardStatsService.Scope scopeOf(Object entity) {
+    if (entity instanceof Candidate) {
+      return DashboardStatsService.Scope.CANDIDATES;
+    }
+    if (entity instanceof Interview) {
+      return DashboardStatsService.Scope.INTERVIEWS;
+    }
+    if (entity instanceof Position) {
+      return DashboardStatsService.Scope.POSITIONS;
+    }
+    return null;
+  }
+
+  /** Вакансия, чью воронку затрагивает изменение; сама вакансия воронку не меняет */
+  private static Position positionOf(Object entity) {
+    if (entity instanceof Candidate candidate) {
+      return candidate.getPosition();
+    }
+    if (entity instanceof Interview interview) {
+      return interview.getPosition();
+    }
+    return null;
+  }
+}
@@ -5,6 +5,8 @@ import azhukov.entity.Interview;
 import azhukov.entity.InterviewAnswer;
 import azhukov.entity.Position;
 import azhukov.entity.Question;
+import azhukov.exception.SilentRecordingException;
+import azhukov.exception.ValidationException;
 import azhukov.repository.InterviewAnswerRepository;
 import azhukov.repository.InterviewRepository;
 import azhukov.repository.QuestionRepository;
@@ -12,8 +14,24 @@ import azhukov.service.ai.AIService;
 import azhukov.service.ai.AIServiceException;
 import azhukov.service.ai.elevenlabs.ElevenLabsService;
 import azhukov.service.ai.openai.OpenAiSttService;
+import azhukov.service.audio.AudioNormalizer;
+import azhukov.service.audio.AudioStore;
+import azhukov.service.audio.AudioUpload;
+import azhukov.service.audio.SpeechActivityAnalyzer;
+import azhukov.service.audio.SpooledAudioFile;
+import azhukov.service.transcription.ChunkedTranscriptionService;
+import azhukov.service.transcription.LocalTranscriptFormatter;
+import azhukov.service.transcription.TranscriptFormattingPolicy;
+import azhukov.service.transcription.TranscriptionCache;
+import azhukov.service.transcription.TranscriptionMetrics;
+import azhukov.service.transcription.TranscriptionMetrics.Stage;
+import azhukov.service.transcription.TranscriptionProviderRouter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -36,6 +54,21 @@ public class TranscriptionService {
   private final InterviewRepository interviewRepository;
   private final QuestionRepository questionRepository;
   private final InterviewAnswerRepository interviewAnswerRepository;
+  private final ChunkedTranscriptionService chunkedTranscriptionService;
+  private final TranscriptionCache transcriptionCache;
+  private final TranscriptionProviderRouter transcriptionProviderRouter;
+  private final LocalTranscriptFormatter localTranscriptFormatter;
+  private final TranscriptFormattingPolicy formattingPolicy;
+  private final AudioNormalizer audioNormalizer;
+  private final AudioStore audioStore;
+  private final TranscriptionMetrics transcriptionMetrics;
+
+  /**
+   * Расшифровка записи
+   *
+   * @param providers провайдеры, ответившие на фрагменты записи
+   */
+  private record Transcript(String text, Set<TranscriptionProvider> providers) {}
 
   private static final String FORMATTING_PROMPT =
       """
@@ -96,6 +129,9 @@ public class TranscriptionService {
     }
 
     long startTime = System.currentTimeMillis();
+    TranscriptionMetrics.Recording metrics =
+        transcriptionMetrics.start(
+            TranscriptionMetrics.Pipeline.UPLOAD, transcriptionProperties.getProvider());
 
     try {
       log.info(
@@ -106,32 +142,75 @@ public class TranscriptionService {
           audioFile.getSize());
 
       // Валидация файла
+      metrics.stage(Stage.VALIDATION);
       validateAudioFile(audioFile);
       log.info("Audio file validation passed");
 
-      // Выбор провайдера транскрибации
+      // Читаем запись один раз: SHA-256, детектор речи и копия в хранилище — по ходу чтения
+      metrics.stage(Stage.UPLOAD);
+      metrics.bytes(audioFile.getSize());
+      AudioUpload upload;
+      String audioUrl = null;
+      if (shouldStoreAudio(questionId) && audioFile instanceof SpooledAudioFile spooled) {
+        // Собранная докачиваемая загрузка уже на диске — в хранилище ставится ссылка на файл
+        upload = readUpload(audioFile, null);
+        audioUrl = audioStore.store(spooled.getFile(), audioFile, upload.getSha256());
+      } else if (shouldStoreAudio(questionId)) {
+        try (AudioStore.Staged staged = audioStore.stage(audioFile)) {
+          upload = readUpload(audioFile, staged.output());
+          audioUrl = audioStore.commit(staged, upload.getSha256());
+        }
+      } else {
+        upload = readUpload(audioFile, null);
+      }
+      recordAudioSeconds(metrics, upload);
+      String cacheKey = cacheKey(upload, transcriptionProperties.getProvider());
+      TranscriptionCache.Entry cached = transcriptionCache.get(cacheKey).orElse(null);
+
       String rawTranscription;
-      switch (transcriptionProperties.getProvider()) {
-        case ELEVENLABS -> {
-          log.info("Using ElevenLabs for transcription");
-          rawTranscription = elevenLabsService.transcribeAudio(audioFile);
+      String formattedText;
+      if (cached != null && cached.formattedTranscription() != null) {
+        // Повторная отправка той же записи — ни STT, ни LLM не вызываются
+        metrics.cached();
+        rawTranscription = cached.rawTranscription();
+        formattedText = cached.formattedTranscription();
+      } else {
+        // Транскрибация (длинные записи — параллельно по фрагментам)
+        String entryKey = cacheKey;
+        if (cached != null) {
+          rawTranscription = cached.rawTranscription();
+        } else {
+          metrics.stage(Stage.STT);
+          Transcript transcript = transcribe(upload);
+          rawTranscription = transcript.text();
+          entryKey = transcriptCacheKey(upload, transcript);
         }
-        case OPENAI -> {
-          log.info("Using OpenAI Whisper for transcription");
-          rawTranscription = openAiSttService.transcribeAudio(audioFile);
+
+        // Форматирование: локальные правила или LLM; неудачное форматирование не кэшируем
+        metrics.stage(Stage.FORMATTING);
+        LocalTranscriptFormatter.Result localFormatted =
+            localTranscriptFormatter.format(rawTranscription);
+        formattedText = formatTranscription(rawTranscription, localFormatted);
+        if (entryKey != null) {
+          transcriptionCache.put(
+              entryKey, new TranscriptionCache.Entry(rawTranscription, formattedText));
+        }
+        if (formattedText == null) {
+          formattedText = localFormatted.text();
         }
-        default ->
-            throw new IllegalStateException(
-                "Unknown transcription provider: " + transcriptionProperties.getProvider());
       }
 
-      // Форматирование текста через AI
-      String formattedText = formatTranscription(rawTranscription);
-
       // Шаг 3: Создание InterviewAnswer и сохранение в БД
+      metrics.stage(Stage.PERSIST);
       long dbStart = System.currentTimeMillis();
       Long interviewAnswerId =
-          createAndSaveInterviewAnswer(interviewId, questionId, rawTranscription, formattedText);
+          createAndSaveInterviewAnswer(
+              interviewId,
+              questionId,
+              rawTranscription,
+              formattedText,
+              durationSeconds(upload),
+              audioUrl);
       long dbTime = System.currentTimeMillis() - dbStart;
 
       log.info(
@@ -147,9 +226,14 @@ public class TranscriptionService {
           transcriptionProperties.getProvider(),
           dbTime);
 
+      metrics.success();
       return interviewAnswerId;
 
+    } catch (ValidationException e) {
+      metrics.failure(e);
+      throw e;
     } catch (Exception e) {
+      metrics.failure(e);
       long totalTime = System.currentTimeMillis() - startTime;
 
       log.error(
@@ -164,6 +248,36 @@ public class TranscriptionService {
     }
   }
 
+  /**
+   * Форматирует уже распознанный текст и сохраняет его как ответ на вопрос интервью. Используется
+   * потоковой транскрибацией, где STT выполняется во время записи ответа.
+   *
+   * @param interviewId ID интервью
+   * @param questionId ID вопроса
+   * @param rawTranscription сырой транскрибированный текст
+   * @param durationSeconds длительность речи в ответе
+   * @param metrics замер запроса потоковой транскрибации
+   * @return ID созданного InterviewAnswer
+   */
+  @Transactional
+  public Long saveTranscription(
+      Long interviewId,
+      Long questionId,
+      String rawTranscription,
+      Integer durationSeconds,
+      TranscriptionMetrics.Recording metrics) {
+    metrics.stage(Stage.FORMATTING);
+    LocalTranscriptFormatter.Result localFormatted =
+        localTranscriptFormatter.format(rawTranscription);
+    String formattedText = formatTranscription(rawTranscription, localFormatted);
+    if (formattedText == null) {
+      formattedText = localFormatted.text();
+    }
+    metrics.stage(Stage.PERSIST);
+    return createAndSaveInterviewAnswer(
+        interviewId, questionId, rawTranscription, formattedText, durationSeconds, null);
+  }
+
   /**
    * Получает отформатированный текст из InterviewAnswer
    *
@@ -203,19 +317,133 @@ public class TranscriptionService {
     log.info("Audio file validation passed: {} ({})", audioFile.getOriginalFilename(), contentType);
   }
 
+  /** Нужно ли сохранять запись ответа: хранилище включено и вакансия требует сохранять аудио */
+  private boolean shouldStoreAudio(Long questionId) {
+    return audioStore.isEnabled()
+        && questionRepository
+            .findById(questionId)
+            .map(Question::getPosition)
+            .map(position -> Boolean.TRUE.equals(position.getSaveAudio()))
+            .orElse(false);
+  }
+
   /**
-   * Форматирует транскрибированный текст через Claude
+   * Читает запись в память. Для PCM WAV по ходу чтения работает детектор речи: запись без речи
+   * отклоняется сразу, до обращения к кэшу и STT.
+   *
+   * @param copyTo поток хранилища записей или null
+   */
+  private AudioUpload readUpload(MultipartFile audioFile, OutputStream copyTo)
+      throws IOException {
+    TranscriptionProperties.Silence silence = transcriptionProperties.getSilence();
+    if (!silence.isEnabled()) {
+      return AudioUpload.read(audioFile, null, copyTo);
+    }
+
+    AudioUpload upload =
+        AudioUpload.read(
+            audioFile, new SpeechActivityAnalyzer(silence.getSpeechThreshold()), copyTo);
+    SpeechActivityAnalyzer.SpeechActivity activity = upload.getSpeechActivity();
+    if (activity.analyzed()) {
+      log.info(
+          "Speech activity: {} s of speech in {} s of audio",
+          String.format("%.2f", activity.speechSeconds()),
+          String.format("%.2f", activity.totalSeconds()));
+      if (activity.speechSeconds() < silence.getMinSpeechSeconds()) {
+        throw new SilentRecordingException(activity.speechSeconds());
+      }
+    }
+    return upload;
+  }
+
+  /** Длительность записи для real-time factor; известна только для проанализированных WAV */
+  private static void recordAudioSeconds(
+      TranscriptionMetrics.Recording metrics, AudioUpload upload) {
+    SpeechActivityAnalyzer.SpeechActivity activity = upload.getSpeechActivity();
+    if (activity.analyzed()) {
+      metrics.audioSeconds(activity.totalSeconds());
+    }
+  }
+
+  /** Длительность речи в секундах (округление вверх) или null, если запись не анализировалась */
+  private static Integer durationSeconds(AudioUpload upload) {
+    SpeechActivityAnalyzer.SpeechActivity activity = upload.getSpeechActivity();
+    if (!activity.analyzed()) {
+      return null;
+    }
+    return Math.max(1, (int) Math.ceil(activity.speechSeconds()));
+  }
+
+  /**
+   * Транскрибирует аудио через маршрутизатор провайдеров. Тишина по краям обрезается, PCM WAV
+   * приводится к моно 16 кГц, длинные записи делятся на фрагменты, которые транскрибируются
+   * параллельно. Запоминается, какие провайдеры ответили на фрагменты
+   */
+  private Transcript transcribe(AudioUpload upload) throws IOException {
+    MultipartFile trimmed =
+        SpeechActivityAnalyzer.trimSilence(
+            upload,
+            upload.getSpeechActivity(),
+            transcriptionProperties.getSilence().getPaddingSeconds());
+    MultipartFile normalized = audioNormalizer.normalize(trimmed);
+    Set<TranscriptionProvider> providers = ConcurrentHashMap.newKeySet();
+    String text =
+        chunkedTranscriptionService.transcribe(
+            normalized,
+            chunk -> {
+              TranscriptionProviderRouter.Result result =
+                  transcriptionProviderRouter.transcribeWithProvider(chunk);
+              providers.add(result.provider());
+              return result.text();
+            });
+    return new Transcript(text, Set.copyOf(providers));
+  }
+
+  /**
+   * Ключ, под которым кэшируется свежая расшифровка: по провайдеру, который её сделал, а не по
+   * настроенному — иначе после переключения результат резервного провайдера отдавался бы как
+   * результат основного. Расшифровка, фрагменты которой сделали разные провайдеры, не кэшируется
+   *
+   * @return ключ кэша или null
+   */
+  private String transcriptCacheKey(AudioUpload upload, Transcript transcript) {
+    if (transcript.providers().size() != 1) {
+      return null;
+    }
+    return cacheKey(upload, transcript.providers().iterator().next());
+  }
+
+  /** Ключ кэша: содержимое записи, провайдер и его язык распознавания */
+  private String cacheKey(AudioUpload upload, TranscriptionProvider provider) {
+    String language =
+        switch (provider) {
+          case ELEVENLABS -> elevenLabsService.getLanguageCode();
+          case OPENAI -> openAiSttService.getLanguageCode();
+        };
+    return TranscriptionCache.key(upload.getSha256(), provider, language);
+  }
+
+  /**
+   * Форматирует транскрибированный текст. Короткие и чистые ответы форматируются локально, остальные
+   * — через Claude
    *
    * @param rawTranscription сырой транскрибированный текст
-   * @return отформатированный текст
+   * @param localFormatted результат локального форматирования
+   * @return отформатированный текст или null, если форматирование через AI не удалось
    */
-  private String formatTranscription(String rawTranscription) {
+  private String formatTranscription(
+      String rawTranscription, LocalTranscriptFormatter.Result localFormatted) {
+    if (!formattingPolicy.requiresLlm(rawTranscription, localFormatted)) {
+      log.info("Transcription formatted locally ({} words)", localFormatted.wordCount());
+      return localFormatted.text();
+    }
+
     try {
       String prompt = FORMATTING_PROMPT + "\n\n" + rawTranscription;
       return aiService.generateText(prompt);
     } catch (AIServiceException e) {
       log.error("Failed to format transcription with AI", e);
-      return rawTranscription;
+      return null;
     }
   }
 
@@ -243,10 +471,17 @@ public class TranscriptionService {
    * @param questionId ID вопроса
    * @param rawTranscription сырой транскрибированный текст
    * @param formattedText отформатированный текст
+   * @param durationSeconds длительность речи в ответе или null, если неизвестна
+   * @param audioUrl ссылка на сохранённую запись или null
    * @return ID созданного InterviewAnswer
    */
   private Long createAndSaveInterviewAnswer(
-      Long interviewId, Long questionId, String rawTranscription, String formattedText) {
+      Long interviewId,
+      Long questionId,
+      String rawTranscription,
+      String formattedText,
+      Integer durationSeconds,
+      String audioUrl) {
     try {
       // Находим вопрос и получаем все связанные данные
       Question question =
@@ -291,6 +526,8 @@ public class TranscriptionService {
               .rawTranscription(rawTranscription)
               .formattedTranscription(formattedText)
               .answerText(formattedText)
+              .durationSeconds(durationSeconds)
+              .audioUrl(audioUrl)
               .build();
 
       interviewAnswerRepository.save(answer);
@@ -334,6 +571,9 @@ public class TranscriptionService {
     }
 
     long startTime = System.currentTimeMillis();
+    TranscriptionMetrics.Recording metrics =
+        transcriptionMetrics.start(
+            TranscriptionMetrics.Pipeline.TRANSCRIBE_ONLY, transcriptionProperties.getProvider());
 
     try {
       log.info(
@@ -342,24 +582,31 @@ public class TranscriptionService {
           audioFile.getSize());
 
       // Валидация файла
+      metrics.stage(Stage.VALIDATION);
       validateAudioFile(audioFile);
       log.info("Audio file validation passed");
 
-      // Выбор провайдера транскрибации
       log.info("Current transcription provider: {}", transcriptionProperties.getProvider());
-      String transcription;
-      switch (transcriptionProperties.getProvider()) {
-        case ELEVENLABS -> {
-          log.info("Using ElevenLabs for transcription");
-          transcription = elevenLabsService.transcribeAudio(audioFile);
-        }
-        case OPENAI -> {
-          log.info("Using OpenAI Whisper for transcription");
-          transcription = openAiSttService.transcribeAudio(audioFile);
+      metrics.stage(Stage.UPLOAD);
+      metrics.bytes(audioFile.getSize());
+      AudioUpload upload = readUpload(audioFile, null);
+      recordAudioSeconds(metrics, upload);
+      String cacheKey = cacheKey(upload, transcriptionProperties.getProvider());
+      String transcription =
+          transcriptionCache
+              .get(cacheKey)
+              .map(TranscriptionCache.Entry::rawTranscription)
+              .orElse(null);
+      if (transcription == null) {
+        metrics.stage(Stage.STT);
+        Transcript transcript = transcribe(upload);
+        transcription = transcript.text();
+        String entryKey = transcriptCacheKey(upload, transcript);
+        if (entryKey != null) {
+          transcriptionCache.put(entryKey, new TranscriptionCache.Entry(transcription, null));
         }
-        default ->
-            throw new IllegalStateException(
-                "Unknown transcription provider: " + transcriptionProperties.getProvider());
+      } else {
+        metrics.cached();
       }
 
       long totalTime = System.currentTimeMillis() - startTime;
@@ -369,9 +616,14 @@ public class TranscriptionService {
           totalTime,
           transcriptionProperties.getProvider());
 
+      metrics.success();
       return transcription;
 
+    } catch (ValidationException e) {
+      metrics.failure(e);
+      throw e;
     } catch (Exception e) {
+      metrics.failure(e);
       long totalTime = System.currentTimeMillis() - startTime;
 
       log.error(
@@ -0,0 +1,66 @@
+package azhukov.service;
+
+import azhukov.entity.UserEntity;
+import azhukov.repository.UserRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Отображаемые имена пользователей для лент активности. Недостающие имена догружаются одним
+ * запросом с IN по всем ID страницы. Кэш ограничен по размеру; UserService сбрасывает запись при
+ * изменении пользователя, а TTL ограничивает устаревание на остальных узлах
+ */
+@Component
+public class UserNameCache {
+
+  private static final int MAX_SIZE = 10_000;
+
+  private final UserRepository userRepository;
+  private final Cache<Long, String> names;
+
+  public UserNameCache(
+      UserRepository userRepository, @Value("${app.cache.ttl.user:1800}") long ttlSeconds) {
+    this.userRepository = userRepository;
+    this.names =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+  }
+
+  /** Имена пользователей по ID; отсутствующие пользователи в результат не попадают */
+  public Map<Long, String> getNames(Collection<Long> userIds) {
+    List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().toList();
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    Map<Long, String> result = new HashMap<>(names.getAllPresent(ids));
+    List<Long> missing = ids.stream().filter(id -> !result.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      for (UserEntity user : userRepository.findByIds(missing)) {
+        String name = displayName(user);
+        names.put(user.getId(), name);
+        result.put(user.getId(), name);
+      }
+    }
+    return result;
+  }
+
+  public void evict(Long userId) {
+    if (userId != null) {
+      names.invalidate(userId);
+    }
+  }
+
+  static String displayName(UserEntity user) {
+    return user.getFirstName() + " " + user.getLastName();
+  }
+}
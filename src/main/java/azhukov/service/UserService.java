@@ -21,12 +21,17 @@ public class UserService extends BaseService<UserEntity, Long, UserRepository> {
 
   private final UserMapper userMapper;
   private final PasswordEncoder passwordEncoder;
+  private final UserNameCache userNameCache;
 
   public UserService(
-      UserRepository userRepository, UserMapper userMapper, PasswordEncoder passwordEncoder) {
+      UserRepository userRepository,
+      UserMapper userMapper,
+      PasswordEncoder passwordEncoder,
+      UserNameCache userNameCache) {
     super(userRepository);
     this.userMapper = userMapper;
     this.passwordEncoder = passwordEncoder;
+    this.userNameCache = userNameCache;
   }
 
   /** Создает нового пользователя */
@@ -55,6 +60,7 @@ public class UserService extends BaseService<UserEntity, Long, UserRepository> {
     userMapper.updateEntityFromRequest(request, user);
 
     UserEntity updatedUser = repository.save(user);
+    userNameCache.evict(id);
     return userMapper.toDto(updatedUser);
   }
 
@@ -102,6 +108,7 @@ public class UserService extends BaseService<UserEntity, Long, UserRepository> {
     userMapper.updateEntityFromRequest(request, user);
 
     UserEntity updatedUser = repository.save(user);
+    userNameCache.evict(updatedUser.getId());
     return userMapper.toDto(updatedUser);
   }
 
@@ -218,6 +225,7 @@ public class UserService extends BaseService<UserEntity, Long, UserRepository> {
     }
 
     repository.deleteById(id);
+    userNameCache.evict(id);
     log.info("Deleted user with ID: {}", id);
   }
 
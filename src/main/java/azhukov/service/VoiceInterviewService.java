@@ -15,9 +15,13 @@ import azhukov.repository.QuestionRepository;
 import azhukov.service.ai.elevenlabs.ElevenLabsService;
 import azhukov.service.ai.elevenlabs.dto.VoiceMessage.MessageType;
 import azhukov.service.ai.elevenlabs.dto.VoiceSessionRequest;
+import azhukov.service.live.InterviewLiveEvent;
+import azhukov.service.live.InterviewLiveEventPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -38,15 +42,59 @@ public class VoiceInterviewService {
   private final InterviewAnswerRepository interviewAnswerRepository;
   private final ElevenLabsService elevenLabsService;
   private final ElevenLabsProperties properties;
+  private final VoiceSessionStateStore sessionStateStore;
+  private final VoiceSessionAdmissionService admissionService;
+  private final InterviewLiveEventPublisher liveEventPublisher;
 
   @Qualifier("elevenLabsRestTemplate")
   private final RestTemplate elevenLabsRestTemplate;
 
   private final ObjectMapper objectMapper;
 
-  /** Создает голосовую сессию для интервью */
+  /** Создает голосовую сессию для интервью с агентом по умолчанию */
   public VoiceSessionResponse createVoiceSession(
       Long interviewId, azhukov.model.VoiceSessionCreateRequest voiceSessionCreateRequest) {
+    Interview interview =
+        interviewRepository
+            .findById(interviewId)
+            .orElseThrow(
+                () -> new ResourceNotFoundException("Interview not found: " + interviewId));
+
+    // Проверяем, что интервью еще не началось
+    if (interview.getStatus() != Interview.Status.NOT_STARTED) {
+      throw new ValidationException("Interview already started or finished");
+    }
+
+    VoiceSessionAdmissionService.Admission admission = admissionService.tryAdmit(interviewId);
+    if (!admission.admitted()) {
+      return queuedResponse(admission);
+    }
+    try {
+      return activateVoiceSession(interviewId, prepareVoiceSession(interviewId, null));
+    } finally {
+      admissionService.release(interviewId);
+    }
+  }
+
+  /** Ответ для сессии, которая ждёт свободного слота ElevenLabs */
+  public static VoiceSessionResponse queuedResponse(
+      VoiceSessionAdmissionService.Admission admission) {
+    VoiceSessionResponse response = new VoiceSessionResponse();
+    response.setStatus(VoiceSessionStatusEnum.QUEUED);
+    response.setQueuePosition(admission.queuePosition());
+    response.setEstimatedWaitSeconds(admission.estimatedWait().toSeconds());
+    return response;
+  }
+
+  /**
+   * Создает сессию в ElevenLabs, не меняя состояние интервью. Используется для заблаговременной
+   * подготовки: сессия привязывается к интервью только в {@link #activateVoiceSession}
+   *
+   * @param agentId ID агента ElevenLabs (из пула вакансии); null — агент по умолчанию
+   */
+  @Transactional(readOnly = true)
+  public azhukov.service.ai.elevenlabs.dto.VoiceSessionResponse prepareVoiceSession(
+      Long interviewId, String agentId) {
     log.info("Creating voice session for interview: {}", interviewId);
 
     // Проверяем конфигурацию ElevenLabs
@@ -54,7 +102,9 @@ public class VoiceInterviewService {
       throw new ValidationException("ElevenLabs configuration is invalid: API key is required");
     }
 
-    if (properties.getDefaultAgentId() == null || properties.getDefaultAgentId().trim().isEmpty()) {
+    if (agentId == null
+        && (properties.getDefaultAgentId() == null
+            || properties.getDefaultAgentId().trim().isEmpty())) {
       throw new ValidationException("ElevenLabs agent ID is not configured");
     }
 
@@ -64,9 +114,8 @@ public class VoiceInterviewService {
             .orElseThrow(
                 () -> new ResourceNotFoundException("Interview not found: " + interviewId));
 
-    // Проверяем, что интервью еще не началось
-    if (interview.getStatus() != Interview.Status.NOT_STARTED) {
-      throw new ValidationException("Interview already started or finished");
+    if (interview.getStatus() == Interview.Status.FINISHED) {
+      throw new ValidationException("Interview already finished");
     }
 
     // Проверяем, что у позиции есть вопросы
@@ -78,76 +127,83 @@ public class VoiceInterviewService {
 
     try {
       // Создаем сессию в ElevenLabs
-      VoiceSessionRequest request = buildVoiceSessionRequest(interview, questions);
-      azhukov.service.ai.elevenlabs.dto.VoiceSessionResponse response =
-          createElevenLabsSession(request);
-
-      // Маппинг ElevenLabs DTO -> openapi-модель
-      VoiceSessionResponse apiResponse = new VoiceSessionResponse();
-      apiResponse.setSessionId(response.getSessionId());
-      apiResponse.setStatus(VoiceSessionStatusEnum.fromValue(response.getStatus()));
-      apiResponse.setAgentId(response.getAgentId());
-      apiResponse.setWebhookUrl("/api/v1/webhooks/elevenlabs/events");
-      apiResponse.setCreatedAt(java.time.OffsetDateTime.now());
-
-      // Обновляем интервью
-      interview.setVoiceEnabled(true);
-      interview.setVoiceSessionId(response.getSessionId());
-      interview.setVoiceAgentId(response.getAgentId());
-      interview.setVoiceVoiceId(response.getVoiceId());
-      interview.setVoiceLanguage(properties.getDefaultLanguage());
-      interview.setVoiceStartedAt(LocalDateTime.now());
-      interview.setStatus(Interview.Status.IN_PROGRESS);
-      interview.start();
-
-      interviewRepository.save(interview);
-
-      log.info(
-          "Voice session created successfully: {} for interview: {}",
-          response.getSessionId(),
-          interviewId);
-
-      return apiResponse;
-
+      VoiceSessionRequest request = buildVoiceSessionRequest(interview, questions, agentId);
+      return createElevenLabsSession(request);
     } catch (Exception e) {
       log.error("Failed to create voice session for interview: {}", interviewId, e);
       throw new RuntimeException("Failed to create voice session: " + e.getMessage(), e);
     }
   }
 
-  /** Получает следующий вопрос для голосовой сессии */
-  public VoiceMessage getNextQuestion(Long interviewId) {
-    log.info("Getting next question for voice session: {}", interviewId);
-
+  /** Привязывает подготовленную сессию ElevenLabs к интервью и запускает интервью */
+  public VoiceSessionResponse activateVoiceSession(
+      Long interviewId, azhukov.service.ai.elevenlabs.dto.VoiceSessionResponse session) {
     Interview interview =
         interviewRepository
             .findById(interviewId)
             .orElseThrow(
                 () -> new ResourceNotFoundException("Interview not found: " + interviewId));
 
-    if (!interview.getVoiceEnabled()) {
-      throw new ValidationException("Voice interview not enabled for this interview");
+    // Маппинг ElevenLabs DTO -> openapi-модель
+    VoiceSessionResponse apiResponse = new VoiceSessionResponse();
+    apiResponse.setSessionId(session.getSessionId());
+    apiResponse.setStatus(VoiceSessionStatusEnum.fromValue(session.getStatus()));
+    apiResponse.setAgentId(session.getAgentId());
+    apiResponse.setWebhookUrl("/api/v1/webhooks/elevenlabs/events");
+    apiResponse.setCreatedAt(java.time.OffsetDateTime.now());
+
+    // Обновляем интервью
+    interview.setVoiceEnabled(true);
+    interview.setVoiceSessionId(session.getSessionId());
+    interview.setVoiceAgentId(session.getAgentId());
+    interview.setVoiceVoiceId(session.getVoiceId());
+    interview.setVoiceLanguage(properties.getDefaultLanguage());
+    interview.setVoiceStartedAt(LocalDateTime.now());
+    interview.setVoiceLastActivityAt(interview.getVoiceStartedAt());
+    if (interview.getStatus() == Interview.Status.NOT_STARTED) {
+      interview.start();
     }
 
-    // Получаем вопросы для позиции
-    List<Question> questions =
-        questionRepository.findByPositionOrderByOrderAsc(interview.getPosition());
+    interviewRepository.save(interview);
+    liveEventPublisher.publish(
+        InterviewLiveEvent.Type.SESSION_STARTED,
+        interviewId,
+        Map.of("sessionId", String.valueOf(session.getSessionId())));
 
-    // Находим следующий вопрос (который еще не задавался)
-    List<InterviewAnswer> existingAnswers =
-        interviewAnswerRepository.findByInterviewId(interviewId);
-    int nextQuestionIndex = existingAnswers.size();
+    log.info(
+        "Voice session created successfully: {} for interview: {}",
+        session.getSessionId(),
+        interviewId);
+
+    return apiResponse;
+  }
+
+  /** Получает следующий вопрос для голосовой сессии */
+  public VoiceMessage getNextQuestion(Long interviewId) {
+    log.info("Getting next question for voice session: {}", interviewId);
 
-    if (nextQuestionIndex >= questions.size()) {
+    VoiceSessionStateStore.State state = sessionState(interviewId);
+    Optional<VoiceSessionStateStore.QuestionRef> nextQuestion = state.nextQuestion();
+    touchActivity(interviewId);
+
+    if (nextQuestion.isEmpty()) {
       // Все вопросы заданы, завершаем интервью
       log.info("All questions completed for interview: {}, finishing interview", interviewId);
+      Interview interview =
+          interviewRepository
+              .findById(interviewId)
+              .orElseThrow(
+                  () -> new ResourceNotFoundException("Interview not found: " + interviewId));
       // Завершаем интервью
       interview.finish(Interview.Result.SUCCESSFUL);
       interviewRepository.save(interview);
+      sessionStateStore.evict(interviewId);
+      liveEventPublisher.publish(
+          InterviewLiveEvent.Type.SESSION_ENDED, interviewId, Map.of("reason", "completed"));
       azhukov.service.ai.elevenlabs.dto.VoiceMessage serviceMsg =
           azhukov.service.ai.elevenlabs.dto.VoiceMessage.builder()
               .type(MessageType.SESSION_END)
-              .sessionId(interview.getVoiceSessionId())
+              .sessionId(state.snapshot().sessionId())
               .text("Спасибо за участие в собеседовании! Интервью завершено.")
               .timestamp(System.currentTimeMillis())
               .build();
@@ -155,13 +211,16 @@ public class VoiceInterviewService {
       apiMsg.setText(serviceMsg.getText());
       return apiMsg;
     }
-    Question nextQuestion = questions.get(nextQuestionIndex);
+    liveEventPublisher.publish(
+        InterviewLiveEvent.Type.QUESTION_ASKED,
+        interviewId,
+        Map.of("questionId", nextQuestion.get().id(), "text", nextQuestion.get().text()));
     azhukov.service.ai.elevenlabs.dto.VoiceMessage serviceMsg =
         azhukov.service.ai.elevenlabs.dto.VoiceMessage.builder()
             .type(MessageType.AGENT_QUESTION)
-            .sessionId(interview.getVoiceSessionId())
-            .questionId(nextQuestion.getId())
-            .text(nextQuestion.getText())
+            .sessionId(state.snapshot().sessionId())
+            .questionId(nextQuestion.get().id())
+            .text(nextQuestion.get().text())
             .timestamp(System.currentTimeMillis())
             .build();
     VoiceMessage apiMsg = new VoiceMessage();
@@ -174,25 +233,17 @@ public class VoiceInterviewService {
       Long interviewId, Long questionId, VoiceMessage voiceMessage) {
     log.info("Saving voice answer for interview: {}, question: {}", interviewId, questionId);
 
-    Interview interview =
-        interviewRepository
-            .findById(interviewId)
-            .orElseThrow(
-                () -> new ResourceNotFoundException("Interview not found: " + interviewId));
-
-    Question question =
-        questionRepository
-            .findById(questionId)
-            .orElseThrow(() -> new ResourceNotFoundException("Question not found: " + questionId));
-
-    if (!interview.getVoiceEnabled()) {
-      throw new ValidationException("Voice interview not enabled for this interview");
+    // Состояние есть только у голосовых интервью, вопросы берём из снимка сессии
+    VoiceSessionStateStore.State state = sessionState(interviewId);
+    if (!state.containsQuestion(questionId)) {
+      throw new ResourceNotFoundException("Question not found: " + questionId);
     }
 
     // Преобразование openapi VoiceMessage -> ElevenLabs DTO
     azhukov.service.ai.elevenlabs.dto.VoiceMessage serviceMsg =
         azhukov.service.ai.elevenlabs.dto.VoiceMessage.builder()
             .type(MessageType.CANDIDATE_ANSWER)
+            .sessionId(state.snapshot().sessionId())
             .text(voiceMessage.getText())
             // остальные поля по необходимости
             .build();
@@ -200,6 +251,53 @@ public class VoiceInterviewService {
     return saveVoiceAnswerInternal(interviewId, questionId, serviceMsg);
   }
 
+  /** Сохраняет ответ, переданный агентом через инструмент saveAnswer */
+  public InterviewAnswer saveAgentAnswer(Long interviewId, Long questionId, String answerText) {
+    if (!interviewRepository.existsById(interviewId)) {
+      throw new ResourceNotFoundException("Interview not found: " + interviewId);
+    }
+    if (!questionRepository.existsById(questionId)) {
+      throw new ResourceNotFoundException("Question not found: " + questionId);
+    }
+    azhukov.service.ai.elevenlabs.dto.VoiceMessage serviceMsg =
+        azhukov.service.ai.elevenlabs.dto.VoiceMessage.builder()
+            .type(MessageType.CANDIDATE_ANSWER)
+            .text(answerText)
+            .build();
+    return saveVoiceAnswerInternal(interviewId, questionId, serviceMsg);
+  }
+
+  /** Состояние сессии из хранилища; при первом обращении читается из БД */
+  private VoiceSessionStateStore.State sessionState(Long interviewId) {
+    return sessionStateStore.getOrLoad(interviewId, () -> loadSessionState(interviewId));
+  }
+
+  private VoiceSessionStateStore.State loadSessionState(Long interviewId) {
+    Interview interview =
+        interviewRepository
+            .findById(interviewId)
+            .orElseThrow(
+                () -> new ResourceNotFoundException("Interview not found: " + interviewId));
+
+    if (!interview.getVoiceEnabled()) {
+      throw new ValidationException("Voice interview not enabled for this interview");
+    }
+
+    // Получаем вопросы для позиции
+    List<VoiceSessionStateStore.QuestionRef> questions =
+        questionRepository.findByPositionOrderByOrderAsc(interview.getPosition()).stream()
+            .map(
+                question ->
+                    new VoiceSessionStateStore.QuestionRef(question.getId(), question.getText()))
+            .toList();
+
+    // Следующий вопрос — тот, на который еще нет ответа
+    int answered = (int) interviewAnswerRepository.countByInterviewId(interviewId);
+    return new VoiceSessionStateStore.State(
+        new VoiceSessionStateStore.Snapshot(interviewId, interview.getVoiceSessionId(), questions),
+        answered);
+  }
+
   // Внутренний метод для работы с ElevenLabs DTO
   private InterviewAnswer saveVoiceAnswerInternal(
       Long interviewId,
@@ -208,8 +306,9 @@ public class VoiceInterviewService {
     // Создаем ответ
     InterviewAnswer answer =
         InterviewAnswer.builder()
-            .interview(interviewRepository.findById(interviewId).orElseThrow())
-            .question(questionRepository.findById(questionId).orElseThrow())
+            // Ссылки без загрузки: существование уже проверено вызывающим методом
+            .interview(interviewRepository.getReferenceById(interviewId))
+            .question(questionRepository.getReferenceById(questionId))
             .answerText(voiceMessage.getText())
             .voiceSessionId(voiceMessage.getSessionId())
             .voiceConfidence(voiceMessage.getConfidence())
@@ -244,9 +343,12 @@ public class VoiceInterviewService {
     }
 
     InterviewAnswer savedAnswer = interviewAnswerRepository.save(answer);
-    Interview interviewEntity = interviewRepository.findById(interviewId).orElseThrow();
-    interviewEntity.addAnswer(savedAnswer);
-    interviewRepository.save(interviewEntity);
+    sessionStateStore.recordAnswer(interviewId);
+    touchActivity(interviewId);
+    liveEventPublisher.publish(
+        InterviewLiveEvent.Type.ANSWER_SAVED,
+        interviewId,
+        Map.of("questionId", questionId, "answerId", savedAnswer.getId()));
 
     log.info(
         "Voice answer saved successfully: {} for question: {}", savedAnswer.getId(), questionId);
@@ -295,12 +397,54 @@ public class VoiceInterviewService {
       throw new ValidationException("Voice interview not enabled for this interview");
     }
 
+    closeVoiceSession(interview, "ended");
+
+    log.info("Voice session ended successfully for interview: {}", interviewId);
+  }
+
+  /**
+   * Завершает брошенную сессию: закрывает её в ElevenLabs и завершает интервью. Интервью с ответами
+   * остаётся без результата, чтобы его оценила фоновая задача, без ответов — получает ERROR
+   *
+   * @return false, если сессию уже завершили (например, другой узел)
+   */
+  public boolean expireVoiceSession(Long interviewId) {
+    if (interviewRepository.claimVoiceSessionEnd(interviewId, LocalDateTime.now()) == 0) {
+      return false;
+    }
+    Interview interview =
+        interviewRepository
+            .findById(interviewId)
+            .orElseThrow(
+                () -> new ResourceNotFoundException("Interview not found: " + interviewId));
+
+    closeVoiceSession(interview, "expired");
+    interview.setStatus(Interview.Status.FINISHED);
+    interview.setFinishedAt(interview.getVoiceFinishedAt());
+    if (interviewAnswerRepository.countByInterviewId(interviewId) == 0) {
+      interview.setResult(Interview.Result.ERROR);
+    }
+    interviewRepository.save(interview);
+
+    log.info("Stale voice session expired for interview: {}", interviewId);
+    return true;
+  }
+
+  /**
+   * Закрывает сессию в ElevenLabs и отмечает её завершение в интервью
+   *
+   * @param reason причина завершения для дашборда
+   */
+  private void closeVoiceSession(Interview interview, String reason) {
     // Завершаем сессию в ElevenLabs
     try {
       endElevenLabsSession(interview.getVoiceSessionId());
     } catch (Exception e) {
       log.error(
-          "Failed to end ElevenLabs session for interview {}: {}", interviewId, e.getMessage(), e);
+          "Failed to end ElevenLabs session for interview {}: {}",
+          interview.getId(),
+          e.getMessage(),
+          e);
     }
 
     // Обновляем интервью
@@ -312,13 +456,14 @@ public class VoiceInterviewService {
     }
 
     interviewRepository.save(interview);
-
-    log.info("Voice session ended successfully for interview: {}", interviewId);
+    sessionStateStore.evict(interview.getId());
+    liveEventPublisher.publish(
+        InterviewLiveEvent.Type.SESSION_ENDED, interview.getId(), Map.of("reason", reason));
   }
 
   /** Строит запрос для создания сессии в ElevenLabs */
   private VoiceSessionRequest buildVoiceSessionRequest(
-      Interview interview, List<Question> questions) {
+      Interview interview, List<Question> questions, String agentId) {
     // Создаем инструмент для получения следующего вопроса
     VoiceSessionRequest.Tool nextQuestionTool =
         VoiceSessionRequest.Tool.builder()
@@ -328,8 +473,16 @@ public class VoiceInterviewService {
             .webhookUrl("/api/interviews/" + interview.getId() + "/voice/next-question")
             .build();
 
+    // Агент общий для всех интервью вакансии, поэтому данные интервью передаются в сессию
+    Map<String, String> dynamicVariables =
+        Map.of(
+            "interview_id", String.valueOf(interview.getId()),
+            "position_id", String.valueOf(interview.getPosition().getId()),
+            "position_title", String.valueOf(interview.getPosition().getTitle()),
+            "questions_total", String.valueOf(questions.size()));
+
     return VoiceSessionRequest.builder()
-        .agentId(properties.getDefaultAgentId())
+        .agentId(agentId != null ? agentId : properties.getDefaultAgentId())
         .voiceId(properties.getDefaultVoiceId())
         .language(properties.getDefaultLanguage())
         .prompt(properties.getDefaultAgentPrompt())
@@ -350,6 +503,7 @@ public class VoiceInterviewService {
                 .enableAudioQualityAnalysis(properties.isEnableAudioQualityAnalysis())
                 .build())
         .tools(new VoiceSessionRequest.Tool[] {nextQuestionTool})
+        .dynamicVariables(dynamicVariables)
         .build();
   }
 
@@ -398,6 +552,19 @@ public class VoiceInterviewService {
     }
   }
 
+  /** Отмечает активность сессии для VoiceSessionReaper; в БД — не на каждый вызов инструмента */
+  private void touchActivity(Long interviewId) {
+    if (sessionStateStore.touchActivity(interviewId)) {
+      interviewRepository.touchVoiceActivity(interviewId, LocalDateTime.now());
+    }
+  }
+
+  /** Завершает в ElevenLabs подготовленную сессию, которую так и не привязали к интервью */
+  public void discardPreparedSession(
+      azhukov.service.ai.elevenlabs.dto.VoiceSessionResponse session) {
+    endElevenLabsSession(session.getSessionId());
+  }
+
   /** Завершает сессию в ElevenLabs */
   private void endElevenLabsSession(String sessionId) {
     if (sessionId == null || sessionId.trim().isEmpty()) {
@@ -0,0 +1,301 @@
+package azhukov.service;
+
+import azhukov.config.ElevenLabsProperties;
+import azhukov.repository.InterviewRepository;
+import azhukov.util.TransactionUtils;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Допуск голосовых сессий в пределах лимита одновременных сессий тарифа ElevenLabs. Занятые слоты —
+ * живые сессии из БД плюс допущенные, но ещё не активированные. Если свободных слотов нет, интервью
+ * встаёт в очередь и получает позицию и оценку ожидания; клиент повторяет запрос, и при
+ * освобождении слота первым допускается тот, кто раньше встал в очередь.
+ *
+ * <p>Если доступен Redis, резервы и очередь общие для всех узлов и меняются одним скриптом, поэтому
+ * узлы не допускают больше лимита в сумме. Иначе — в памяти узла. Кандидат, переставший повторять
+ * запрос, выбывает из очереди через queueTtl.
+ */
+@Service
+@Slf4j
+public class VoiceSessionAdmissionService {
+
+  /**
+   * Результат допуска
+   *
+   * @param queuePosition позиция в очереди, начиная с 1; 0 — сессия допущена
+   * @param estimatedWait ожидаемое время до освобождения слота
+   */
+  public record Admission(boolean admitted, int queuePosition, Duration estimatedWait) {
+
+    static Admission granted() {
+      return new Admission(true, 0, Duration.ZERO);
+    }
+  }
+
+  /**
+   * Итог попытки занять слот
+   *
+   * @param index место в очереди, начиная с 0; -1 — слот занят за интервью
+   * @param free свободные слоты до попытки
+   */
+  private record Slot(long index, long free) {
+
+    boolean granted() {
+      return index < 0;
+    }
+  }
+
+  private static final String RESERVED_KEY = "reserved";
+  private static final String WAITING_KEY = "waiting";
+  private static final String SEEN_KEY = "seen";
+
+  /**
+   * Ключи: резервы (score — срок резерва), очередь (score — время постановки), последние запросы
+   * очереди (score — время запроса). Аргументы: интервью, текущее время, срок резерва, порог
+   * выбывания из очереди, слоты за вычетом живых сессий, ставить ли в очередь. Результат — {@link
+   * Slot}
+   */
+  private static final String ADMIT_LUA =
+      """
+      local id = ARGV[1]
+      local now = tonumber(ARGV[2])
+      redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now)
+      for _, stale in ipairs(redis.call('ZRANGEBYSCORE', KEYS[3], '-inf', '(' .. ARGV[4])) do
+        redis.call('ZREM', KEYS[2], stale)
+        redis.call('ZREM', KEYS[3], stale)
+      end
+      local free = tonumber(ARGV[5]) - redis.call('ZCARD', KEYS[1])
+      if redis.call('ZSCORE', KEYS[1], id) then
+        if ARGV[6] == '0' then
+          redis.call('ZADD', KEYS[1], ARGV[3], id)
+        end
+        return {-1, free}
+      end
+      if ARGV[6] == '0' then
+        if free > 0 and redis.call('ZCARD', KEYS[2]) == 0 then
+          redis.call('ZADD', KEYS[1], ARGV[3], id)
+          return {-1, free}
+        end
+        return {0, free}
+      end
+      redis.call('ZADD', KEYS[2], 'NX', now, id)
+      redis.call('ZADD', KEYS[3], now, id)
+      local index = redis.call('ZRANK', KEYS[2], id)
+      if index < free then
+        redis.call('ZREM', KEYS[2], id)
+        redis.call('ZREM', KEYS[3], id)
+        redis.call('ZADD', KEYS[1], ARGV[3], id)
+        return {-1, free}
+      end
+      return {index, free}
+      """;
+
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> ADMIT_SCRIPT =
+      new DefaultRedisScript<>(ADMIT_LUA, List.class);
+
+  private final InterviewRepository interviewRepository;
+  private final ElevenLabsProperties properties;
+  private final ElevenLabsProperties.Admission admission;
+  private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+  /** Интервью в очереди в порядке постановки и время последнего запроса (без Redis) */
+  private final Map<Long, Instant> waiting = new LinkedHashMap<>();
+
+  /** Допущенные, но ещё не активированные сессии и срок их резерва (без Redis) */
+  private final Map<Long, Instant> reserved = new LinkedHashMap<>();
+
+  public VoiceSessionAdmissionService(
+      InterviewRepository interviewRepository,
+      ElevenLabsProperties properties,
+      ObjectProvider<StringRedisTemplate> redisTemplateProvider) {
+    this.interviewRepository = interviewRepository;
+    this.properties = properties;
+    this.admission = properties.getAdmission();
+    this.redisTemplateProvider = redisTemplateProvider;
+  }
+
+  /**
+   * Допускает сессию интервью или ставит его в очередь. Допущенная сессия держит слот до {@link
+   * #release(Long)} или истечения reservationTtl
+   */
+  public Admission tryAdmit(Long interviewId) {
+    if (!admission.isEnabled()) {
+      return Admission.granted();
+    }
+    long live = interviewRepository.countLiveVoiceSessions();
+    Slot slot = reserve(interviewId, live, admission.getReservationTtl(), true);
+    if (slot.granted()) {
+      log.debug("Voice session admitted for interview {}: {} live", interviewId, live);
+      return Admission.granted();
+    }
+
+    int position = (int) (slot.index() - Math.max(slot.free(), 0)) + 1;
+    // Сколько живых сессий должно закончиться, чтобы подошла очередь (с учётом превышения лимита)
+    Duration eta = estimateWait(position + (int) Math.max(-slot.free(), 0));
+    log.info(
+        "Voice session for interview {} queued at position {}, eta {}s ({} live sessions)",
+        interviewId,
+        position,
+        eta.toSeconds(),
+        live);
+    return new Admission(false, position, eta);
+  }
+
+  /**
+   * Занимает слот под заблаговременно подготовленную сессию, если он свободен и никто не ждёт в
+   * очереди. В очередь интервью не ставится; повторный вызов продлевает резерв
+   *
+   * @param ttl сколько держать слот, если сессию не активируют и не освободят
+   * @return true, если слот занят за интервью
+   */
+  public boolean tryReserve(Long interviewId, Duration ttl) {
+    if (!admission.isEnabled()) {
+      return true;
+    }
+    return reserve(interviewId, interviewRepository.countLiveVoiceSessions(), ttl, false)
+        .granted();
+  }
+
+  /**
+   * Освобождает резерв после активации сессии (или неудачи). Внутри транзакции резерв снимается
+   * после её завершения, когда активированная сессия уже видна в подсчёте живых
+   */
+  public void release(Long interviewId) {
+    TransactionUtils.afterCompletion(() -> removeReservation(interviewId));
+  }
+
+  private Slot reserve(Long interviewId, long live, Duration ttl, boolean enqueue) {
+    long capacity = admission.getMaxConcurrentSessions() - live;
+    StringRedisTemplate redis = redisTemplate();
+    if (redis != null) {
+      try {
+        return reserveInRedis(redis, interviewId, capacity, ttl, enqueue);
+      } catch (Exception e) {
+        log.warn("Failed to reserve voice session slot in Redis: {}", e.getMessage());
+      }
+    }
+    return reserveLocally(interviewId, capacity, ttl, enqueue);
+  }
+
+  private Slot reserveInRedis(
+      StringRedisTemplate redis, Long interviewId, long capacity, Duration ttl, boolean enqueue) {
+    Instant now = Instant.now();
+    List<?> result =
+        redis.execute(
+            ADMIT_SCRIPT,
+            List.of(key(RESERVED_KEY), key(WAITING_KEY), key(SEEN_KEY)),
+            String.valueOf(interviewId),
+            String.valueOf(now.toEpochMilli()),
+            String.valueOf(now.plus(ttl).toEpochMilli()),
+            String.valueOf(now.minus(admission.getQueueTtl()).toEpochMilli()),
+            String.valueOf(capacity),
+            enqueue ? "1" : "0");
+    return new Slot(((Number) result.get(0)).longValue(), ((Number) result.get(1)).longValue());
+  }
+
+  private synchronized Slot reserveLocally(
+      Long interviewId, long capacity, Duration ttl, boolean enqueue) {
+    Instant now = Instant.now();
+    evictExpired(now);
+    long free = capacity - reserved.size();
+    if (reserved.containsKey(interviewId)) {
+      if (!enqueue) {
+        reserved.put(interviewId, now.plus(ttl));
+      }
+      return new Slot(-1, free);
+    }
+    if (!enqueue) {
+      if (free > 0 && waiting.isEmpty()) {
+        reserved.put(interviewId, now.plus(ttl));
+        return new Slot(-1, free);
+      }
+      return new Slot(0, free);
+    }
+
+    // Повторный запрос продлевает место в очереди, не меняя порядок
+    waiting.put(interviewId, now);
+    int index = indexOf(interviewId);
+    if (index < free) {
+      waiting.remove(interviewId);
+      reserved.put(interviewId, now.plus(ttl));
+      return new Slot(-1, free);
+    }
+    return new Slot(index, free);
+  }
+
+  private void removeReservation(Long interviewId) {
+    synchronized (this) {
+      reserved.remove(interviewId);
+    }
+    StringRedisTemplate redis = redisTemplate();
+    if (redis != null) {
+      try {
+        redis.opsForZSet().remove(key(RESERVED_KEY), String.valueOf(interviewId));
+      } catch (Exception e) {
+        // Резерв истечёт сам через свой срок
+        log.warn("Failed to release voice session slot in Redis: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Оценивает, когда закончится указанное число сессий: k-я по старшинству живая сессия закончится
+   * примерно через expectedSessionDuration после своего старта, но не позже
+   * maxSessionDurationMinutes — после этого её завершит {@link VoiceSessionReaper}. Сессии, которые
+   * ещё не начались, считаются полными кругами по числу слотов
+   */
+  private Duration estimateWait(int endings) {
+    Duration expected = admission.getExpectedSessionDuration();
+    Duration max = Duration.ofMinutes(properties.getMaxSessionDurationMinutes());
+    Duration sessionLength = expected.compareTo(max) < 0 ? expected : max;
+    int capacity = Math.max(1, admission.getMaxConcurrentSessions());
+
+    List<LocalDateTime> starts =
+        interviewRepository.findLiveVoiceSessionStarts(PageRequest.of(0, endings));
+    if (starts.size() >= endings) {
+      Duration wait =
+          Duration.between(LocalDateTime.now(), starts.get(endings - 1).plus(sessionLength));
+      return wait.isNegative() ? Duration.ZERO : wait;
+    }
+    int rounds = (endings - starts.size() + capacity - 1) / capacity;
+    return sessionLength.multipliedBy(rounds);
+  }
+
+  private int indexOf(Long interviewId) {
+    int index = 0;
+    for (Long waitingId : waiting.keySet()) {
+      if (waitingId.equals(interviewId)) {
+        return index;
+      }
+      index++;
+    }
+    return -1;
+  }
+
+  private void evictExpired(Instant now) {
+    Instant waitingThreshold = now.minus(admission.getQueueTtl());
+    waiting.values().removeIf(lastRequest -> lastRequest.isBefore(waitingThreshold));
+    reserved.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+  }
+
+  private String key(String name) {
+    return admission.getRedisKeyPrefix() + name;
+  }
+
+  private StringRedisTemplate redisTemplate() {
+    return admission.isRedisEnabled() ? redisTemplateProvider.getIfAvailable() : null;
+  }
+}
@@ -0,0 +1,226 @@
+package azhukov.service;
+
+import azhukov.config.ElevenLabsProperties;
+import azhukov.entity.Agent;
+import azhukov.service.ai.elevenlabs.dto.VoiceSessionResponse;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Заблаговременная подготовка голосовых интервью. Агент вакансии и сессия ElevenLabs создаются в
+ * фоне, пока кандидат ещё не нажал «Начать», поэтому старт интервью только привязывает готовую
+ * сессию к интервью. Если подготовки нет, она устарела или не удалась, сессия создаётся синхронно
+ * как раньше.
+ *
+ * <p>Подготовленная сессия занимает слот {@link VoiceSessionAdmissionService} на время ttl
+ * подготовки. Если свободного слота нет или в очереди кто-то ждёт, подготовка не запускается.
+ *
+ * <p>Каждая созданная, но не привязанная к интервью сессия завершается в ElevenLabs — иначе она
+ * занимала бы слот аккаунта до тайм-аута на их стороне.
+ */
+@Service
+@Slf4j
+public class VoiceSessionPrewarmService {
+
+  private final ElevenLabsAgentService elevenLabsAgentService;
+  private final VoiceInterviewService voiceInterviewService;
+  private final VoiceSessionAdmissionService admissionService;
+  private final ElevenLabsProperties properties;
+  private final ElevenLabsProperties.Prewarm prewarm;
+  private final ExecutorService executor;
+  private final Map<Long, CompletableFuture<PreparedVoiceSession>> prepared =
+      new ConcurrentHashMap<>();
+
+  /** Когда открытие приглашения последний раз запускало подготовку интервью */
+  private final Map<Long, Instant> viewPrewarms = new ConcurrentHashMap<>();
+
+  /**
+   * Подготовленная сессия
+   *
+   * @param agentId ID агента вакансии; null — сессия создана с агентом по умолчанию
+   */
+  public record PreparedVoiceSession(
+      String agentId, VoiceSessionResponse session, Instant preparedAt) {}
+
+  public VoiceSessionPrewarmService(
+      ElevenLabsAgentService elevenLabsAgentService,
+      VoiceInterviewService voiceInterviewService,
+      VoiceSessionAdmissionService admissionService,
+      ElevenLabsProperties properties) {
+    this.elevenLabsAgentService = elevenLabsAgentService;
+    this.voiceInterviewService = voiceInterviewService;
+    this.admissionService = admissionService;
+    this.properties = properties;
+    this.prewarm = properties.getPrewarm();
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, prewarm.getPoolSize()),
+            new ThreadFactoryBuilder().setNameFormat("voice-prewarm-%d").setDaemon(true).build());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Запускает подготовку в фоне, если есть свободный слот; повторный вызов, пока подготовка свежая,
+   * ничего не делает
+   */
+  public void prewarm(Long interviewId) {
+    if (!prewarm.isEnabled() || !properties.isValid()) {
+      return;
+    }
+    CompletableFuture<PreparedVoiceSession> existing = prepared.get(interviewId);
+    if (existing != null && !isExpired(existing)) {
+      return;
+    }
+    if (!admissionService.tryReserve(interviewId, prewarm.getTtl())) {
+      log.debug("No free voice session slot, skipping pre-warm for interview {}", interviewId);
+      return;
+    }
+    CompletableFuture<PreparedVoiceSession> future = new CompletableFuture<>();
+    boolean registered =
+        existing == null
+            ? prepared.putIfAbsent(interviewId, future) == null
+            : prepared.replace(interviewId, existing, future);
+    if (!registered) {
+      // Параллельный вызов уже запустил подготовку
+      return;
+    }
+    if (existing != null) {
+      discard(existing);
+    }
+
+    log.debug("Pre-warming voice session for interview {}", interviewId);
+    CompletableFuture.supplyAsync(() -> prepare(interviewId, true), executor)
+        .whenComplete(
+            (session, error) -> {
+              if (error != null) {
+                log.warn(
+                    "Voice session pre-warm failed for interview {}: {}",
+                    interviewId,
+                    error.getMessage());
+                if (prepared.remove(interviewId, future)) {
+                  admissionService.release(interviewId);
+                }
+                future.completeExceptionally(error);
+              } else {
+                future.complete(session);
+              }
+            });
+  }
+
+  /**
+   * Подготовка по открытию приглашения: кандидат может открывать его сколько угодно раз, поэтому
+   * новая сессия готовится не чаще раза в viewInterval
+   */
+  public void prewarmOnView(Long interviewId) {
+    Instant now = Instant.now();
+    Instant last = viewPrewarms.putIfAbsent(interviewId, now);
+    if (last != null
+        && (last.plus(prewarm.getViewInterval()).isAfter(now)
+            || !viewPrewarms.replace(interviewId, last, now))) {
+      return;
+    }
+    prewarm(interviewId);
+  }
+
+  /**
+   * Забирает подготовленную сессию для старта интервью или создаёт её синхронно
+   *
+   * @param useInterviewAgent использовать агента вакансии (autoCreateAgent), иначе агент по
+   *     умолчанию
+   */
+  public PreparedVoiceSession take(Long interviewId, boolean useInterviewAgent) {
+    CompletableFuture<PreparedVoiceSession> future = prepared.remove(interviewId);
+    viewPrewarms.remove(interviewId);
+    if (future != null && useInterviewAgent) {
+      try {
+        PreparedVoiceSession session =
+            future.get(prewarm.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        if (!isExpired(session)) {
+          log.info("Using pre-warmed voice session for interview {}", interviewId);
+          return session;
+        }
+        discard(future);
+      } catch (TimeoutException e) {
+        log.warn("Pre-warmed voice session for interview {} is not ready", interviewId);
+        discard(future);
+      } catch (ExecutionException e) {
+        log.warn("Pre-warmed voice session for interview {} is not usable", interviewId);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        discard(future);
+        throw new IllegalStateException("Interrupted while waiting for voice session", e);
+      }
+    } else if (future != null) {
+      // Подготовка сделана с агентом вакансии, а старт просит агента по умолчанию
+      discard(future);
+    }
+    return prepare(interviewId, useInterviewAgent);
+  }
+
+  /** Отбрасывает подготовку, которую не использовали в течение ttl */
+  @Scheduled(cron = "${app.ai.transcription.elevenlabs.prewarm.cleanup-cron:0 * * * * *}")
+  public void evictExpired() {
+    int evicted = 0;
+    for (Map.Entry<Long, CompletableFuture<PreparedVoiceSession>> entry : prepared.entrySet()) {
+      if (isExpired(entry.getValue()) && prepared.remove(entry.getKey(), entry.getValue())) {
+        discard(entry.getValue());
+        admissionService.release(entry.getKey());
+        evicted++;
+      }
+    }
+    if (evicted > 0) {
+      log.info("Discarded {} unused pre-warmed voice sessions", evicted);
+    }
+    Instant viewedBefore = Instant.now().minus(prewarm.getViewInterval());
+    viewPrewarms.values().removeIf(viewedAt -> viewedAt.isBefore(viewedBefore));
+  }
+
+  /**
+   * Завершает в ElevenLabs сессию отброшенной подготовки — сразу или, если подготовка ещё идёт, по
+   * её окончании. Неудавшаяся подготовка сессии не создала
+   */
+  private void discard(CompletableFuture<PreparedVoiceSession> future) {
+    future.thenAcceptAsync(
+        session -> voiceInterviewService.discardPreparedSession(session.session()), executor);
+  }
+
+  private PreparedVoiceSession prepare(Long interviewId, boolean useInterviewAgent) {
+    String agentId = null;
+    if (useInterviewAgent) {
+      try {
+        Agent agent = elevenLabsAgentService.createAgentForInterview(interviewId);
+        agentId = agent.getElevenLabsAgentId();
+      } catch (Exception e) {
+        // Продолжаем без агента вакансии, используем дефолтный
+        log.error("Failed to create ElevenLabs agent for interview: {}", interviewId, e);
+      }
+    }
+    VoiceSessionResponse session = voiceInterviewService.prepareVoiceSession(interviewId, agentId);
+    return new PreparedVoiceSession(agentId, session, Instant.now());
+  }
+
+  private boolean isExpired(CompletableFuture<PreparedVoiceSession> future) {
+    // Незавершённая подготовка не устарела: её ждёт либо старт, либо следующая очистка
+    return future.isDone() && !future.isCompletedExceptionally() && isExpired(future.join());
+  }
+
+  private boolean isExpired(PreparedVoiceSession session) {
+    return !session.preparedAt().plus(prewarm.getTtl()).isAfter(Instant.now());
+  }
+}
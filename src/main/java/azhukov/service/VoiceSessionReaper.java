@@ -0,0 +1,55 @@
+package azhukov.service;
+
+import azhukov.config.ElevenLabsProperties;
+import azhukov.repository.InterviewRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Завершает голосовые сессии, брошенные кандидатом: они остаются IN_PROGRESS, занимают слот
+ * ElevenLabs и не попадают в оценку. Сессия считается брошенной, если длится дольше
+ * maxSessionDurationMinutes или в ней не было вопросов и ответов дольше idleTimeout. Отметка
+ * активности в БД отстаёт от последнего вызова не больше чем на activityWriteInterval
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class VoiceSessionReaper {
+
+  private final InterviewRepository interviewRepository;
+  private final VoiceInterviewService voiceInterviewService;
+  private final ElevenLabsProperties properties;
+
+  @Scheduled(cron = "${app.ai.transcription.elevenlabs.reaper.cron:30 * * * * *}")
+  public void reapStaleSessions() {
+    ElevenLabsProperties.Reaper reaper = properties.getReaper();
+    if (!reaper.isEnabled()) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> stale =
+        interviewRepository.findStaleVoiceSessionIds(
+            now.minusMinutes(properties.getMaxSessionDurationMinutes()),
+            now.minus(reaper.getIdleTimeout()).minus(reaper.getActivityWriteInterval()));
+    if (stale.isEmpty()) {
+      return;
+    }
+
+    int expired = 0;
+    for (Long interviewId : stale) {
+      try {
+        if (voiceInterviewService.expireVoiceSession(interviewId)) {
+          expired++;
+        }
+      } catch (Exception e) {
+        log.warn(
+            "Failed to expire voice session for interview {}: {}", interviewId, e.getMessage());
+      }
+    }
+    log.info("Expired {} of {} stale voice sessions", expired, stale.size());
+  }
+}
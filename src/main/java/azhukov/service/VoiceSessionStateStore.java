@@ -0,0 +1,228 @@
+package azhukov.service;
+
+import azhukov.config.ElevenLabsProperties;
+import azhukov.util.TransactionUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Состояние активных голосовых сессий для цикла инструментов агента. Снимок вопросов вакансии и
+ * число ответов загружаются из БД один раз при первом обращении, после чего getNextQuestion — это
+ * поиск по ключу, а сохранение ответа — одна вставка и инкремент счётчика.
+ *
+ * <p>Если доступен Redis, состояние хранится в нём (хэш со снимком и атомарным счётчиком ответов),
+ * чтобы вызовы инструментов одной сессии могли приходить на разные узлы. Иначе — в памяти узла.
+ * Ошибки Redis не прерывают интервью: состояние просто перечитывается из БД.
+ *
+ * <p>Здесь же отмечается активность сессии для {@link VoiceSessionReaper}: отметка в БД нужна не
+ * на каждый вызов инструмента, а раз в activityWriteInterval.
+ */
+@Component
+@Slf4j
+public class VoiceSessionStateStore {
+
+  private static final String SNAPSHOT_FIELD = "snapshot";
+  private static final String ANSWERED_FIELD = "answered";
+
+  /** Вопрос в снимке сессии */
+  public record QuestionRef(Long id, String text) {}
+
+  /** Неизменяемая часть состояния: вопросы в порядке задавания */
+  public record Snapshot(Long interviewId, String sessionId, List<QuestionRef> questions) {}
+
+  /** Состояние сессии: курсор — число уже сохранённых ответов */
+  public record State(Snapshot snapshot, int answered) {
+
+    /** Следующий вопрос или empty, если вопросы закончились */
+    public Optional<QuestionRef> nextQuestion() {
+      List<QuestionRef> questions = snapshot.questions();
+      return answered < questions.size() ? Optional.of(questions.get(answered)) : Optional.empty();
+    }
+
+    public boolean containsQuestion(Long questionId) {
+      return snapshot.questions().stream().anyMatch(question -> question.id().equals(questionId));
+    }
+  }
+
+  private final ElevenLabsProperties.SessionState properties;
+  private final ObjectMapper objectMapper;
+  private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+  private final Map<Long, LocalState> local = new ConcurrentHashMap<>();
+
+  /** Сессии, активность которых этот узел недавно записал в БД */
+  private final Cache<Long, Boolean> recentActivity;
+
+  public VoiceSessionStateStore(
+      ElevenLabsProperties elevenLabsProperties,
+      ObjectMapper objectMapper,
+      ObjectProvider<StringRedisTemplate> redisTemplateProvider) {
+    this.properties = elevenLabsProperties.getSessionState();
+    this.objectMapper = objectMapper;
+    this.redisTemplateProvider = redisTemplateProvider;
+    this.recentActivity =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(elevenLabsProperties.getReaper().getActivityWriteInterval())
+            .build();
+  }
+
+  /**
+   * Возвращает состояние сессии, при отсутствии загружает его
+   *
+   * @param loader чтение состояния из БД
+   */
+  public State getOrLoad(Long interviewId, Supplier<State> loader) {
+    StringRedisTemplate redis = redisTemplate();
+    if (redis != null) {
+      Optional<State> cached = readRedis(redis, interviewId);
+      if (cached.isPresent()) {
+        return cached.get();
+      }
+      State state = loader.get();
+      writeRedis(redis, state);
+      return state;
+    }
+
+    LocalState state =
+        local.computeIfAbsent(interviewId, id -> new LocalState(loader.get(), Instant.now()));
+    state.touch();
+    return state.toState();
+  }
+
+  /**
+   * Учитывает сохранённый ответ. Внутри транзакции счётчик меняется после коммита, чтобы откат не
+   * сдвинул курсор. Если состояния нет, оно будет загружено при следующем вопросе
+   */
+  public void recordAnswer(Long interviewId) {
+    TransactionUtils.afterCommit(() -> incrementAnswered(interviewId));
+  }
+
+  private void incrementAnswered(Long interviewId) {
+    StringRedisTemplate redis = redisTemplate();
+    if (redis != null) {
+      String key = key(interviewId);
+      try {
+        // Инкремент только существующего состояния: иначе появился бы хэш без снимка
+        if (redis.opsForHash().hasKey(key, SNAPSHOT_FIELD)) {
+          redis.opsForHash().increment(key, ANSWERED_FIELD, 1);
+          redis.expire(key, properties.getTtl().toMillis(), TimeUnit.MILLISECONDS);
+        }
+      } catch (Exception e) {
+        log.warn("Failed to update voice session state in Redis: {}", e.getMessage());
+        evict(interviewId);
+      }
+      return;
+    }
+
+    LocalState state = local.get(interviewId);
+    if (state != null) {
+      state.answered.incrementAndGet();
+      state.touch();
+    }
+  }
+
+  /**
+   * Отмечает активность сессии
+   *
+   * @return true, если активность пора записать в БД
+   */
+  public boolean touchActivity(Long interviewId) {
+    return recentActivity.asMap().putIfAbsent(interviewId, Boolean.TRUE) == null;
+  }
+
+  /** Удаляет состояние завершённой сессии */
+  public void evict(Long interviewId) {
+    local.remove(interviewId);
+    recentActivity.invalidate(interviewId);
+    StringRedisTemplate redis = redisTemplate();
+    if (redis != null) {
+      try {
+        redis.delete(key(interviewId));
+      } catch (Exception e) {
+        log.warn("Failed to delete voice session state from Redis: {}", e.getMessage());
+      }
+    }
+  }
+
+  /** Удаляет из памяти состояния сессий, к которым давно не обращались */
+  @Scheduled(fixedDelayString = "PT5M", initialDelayString = "PT5M")
+  public void evictIdle() {
+    Instant threshold = Instant.now().minus(properties.getTtl());
+    local.values().removeIf(state -> state.lastAccess.isBefore(threshold));
+  }
+
+  private Optional<State> readRedis(StringRedisTemplate redis, Long interviewId) {
+    try {
+      List<Object> values =
+          redis.opsForHash().multiGet(key(interviewId), List.of(SNAPSHOT_FIELD, ANSWERED_FIELD));
+      if (values.get(0) == null) {
+        return Optional.empty();
+      }
+      Snapshot snapshot = objectMapper.readValue((String) values.get(0), Snapshot.class);
+      int answered = values.get(1) == null ? 0 : Integer.parseInt((String) values.get(1));
+      return Optional.of(new State(snapshot, answered));
+    } catch (Exception e) {
+      log.warn("Failed to read voice session state from Redis: {}", e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private void writeRedis(StringRedisTemplate redis, State state) {
+    String key = key(state.snapshot().interviewId());
+    try {
+      redis
+          .opsForHash()
+          .putAll(
+              key,
+              Map.of(
+                  SNAPSHOT_FIELD,
+                  objectMapper.writeValueAsString(state.snapshot()),
+                  ANSWERED_FIELD,
+                  String.valueOf(state.answered())));
+      redis.expire(key, properties.getTtl().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      log.warn("Failed to write voice session state to Redis: {}", e.getMessage());
+    }
+  }
+
+  private String key(Long interviewId) {
+    return properties.getRedisKeyPrefix() + interviewId;
+  }
+
+  private StringRedisTemplate redisTemplate() {
+    return properties.isRedisEnabled() ? redisTemplateProvider.getIfAvailable() : null;
+  }
+
+  private static final class LocalState {
+    private final Snapshot snapshot;
+    private final AtomicInteger answered;
+    private volatile Instant lastAccess;
+
+    private LocalState(State state, Instant now) {
+      this.snapshot = state.snapshot();
+      this.answered = new AtomicInteger(state.answered());
+      this.lastAccess = now;
+    }
+
+    private void touch() {
+      lastAccess = Instant.now();
+    }
+
+    private State toState() {
+      return new State(snapshot, answered.get());
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package azhukov.service;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.entity.WebhookInboxEvent;
+import azhukov.exception.ResourceNotFoundException;
+import azhukov.model.ElevenLabsWebhookEvent;
+import azhukov.repository.WebhookInboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Очередь входящих webhook событий. Контроллер только сохраняет событие в {@code webhook_inbox} и
+ * сразу подтверждает получение, а обработка идёт в фоне, поэтому медленная работа с БД не вызывает
+ * повторных доставок от провайдера. Повторная доставка того же события отбрасывается по ключу
+ * идемпотентности.
+ *
+ * <p>События одного интервью обрабатываются строго по порядку поступления: они попадают в одну
+ * однопоточную очередь, а захват события в БД возможен только после обработки всех более ранних.
+ * Разные интервью обрабатываются параллельно. Неудачное событие останавливает очередь своего
+ * интервью и повторяется по расписанию, пока не закончатся попытки (статус DEAD); DEAD события
+ * можно вернуть в обработку через {@link #replay(Long)}.
+ */
+@Service
+@Slf4j
+public class WebhookInboxService {
+
+  static final String PROVIDER_ELEVENLABS = "elevenlabs";
+
+  private final WebhookInboxRepository repository;
+  private final WebhookService webhookService;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationProperties.Webhook.Inbox properties;
+  private final ExecutorService[] lanes;
+
+  public WebhookInboxService(
+      WebhookInboxRepository repository,
+      WebhookService webhookService,
+      ObjectMapper objectMapper,
+      TransactionTemplate transactionTemplate,
+      ApplicationProperties applicationProperties) {
+    this.repository = repository;
+    this.webhookService = webhookService;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = transactionTemplate;
+    this.properties = applicationProperties.getWebhook().getInbox();
+    this.lanes = new ExecutorService[Math.max(1, properties.getWorkers())];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactoryBuilder()
+                  .setNameFormat("webhook-inbox-" + i)
+                  .setDaemon(true)
+                  .build());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    for (ExecutorService lane : lanes) {
+      lane.shutdownNow();
+    }
+  }
+
+  /**
+   * Сохраняет событие ElevenLabs и ставит его в обработку
+   *
+   * @param idempotencyKey ключ из заголовка запроса; если не передан — SHA-256 тела события
+   * @return false, если событие уже было получено
+   */
+  public boolean accept(ElevenLabsWebhookEvent event, String idempotencyKey) {
+    String payload;
+    try {
+      payload = objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize webhook event", e);
+    }
+    String key =
+        idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : sha256(payload);
+
+    int inserted =
+        repository.insertIfAbsent(
+            PROVIDER_ELEVENLABS,
+            key,
+            String.valueOf(event.getType()),
+            event.getInterviewId(),
+            payload);
+    if (inserted == 0) {
+      log.info(
+          "Duplicate ElevenLabs webhook dropped: type={}, interviewId={}, key={}",
+          event.getType(),
+          event.getInterviewId(),
+          key);
+      return false;
+    }
+
+    if (event.getInterviewId() != null) {
+      dispatch(event.getInterviewId());
+    } else {
+      repository
+          .findByProviderAndIdempotencyKey(PROVIDER_ELEVENLABS, key)
+          .ifPresent(entry -> dispatchSingle(entry.getId()));
+    }
+    return true;
+  }
+
+  /** Возвращает неудачное или DEAD событие в обработку */
+  public void replay(Long eventId) {
+    WebhookInboxEvent entry =
+        repository
+            .findById(eventId)
+            .orElseThrow(() -> new ResourceNotFoundException("WebhookEvent", "id", eventId));
+    if (repository.resetForReplay(eventId) == 0) {
+      log.info("Webhook event {} is {}, nothing to replay", eventId, entry.getStatus());
+      return;
+    }
+    log.info("Webhook event {} queued for replay", eventId);
+    if (entry.getInterviewId() != null) {
+      dispatch(entry.getInterviewId());
+    } else {
+      dispatchSingle(eventId);
+    }
+  }
+
+  /** Повторяет неудачные события и подхватывает события, потерянные при падении узла */
+  @Scheduled(
+      fixedDelayString = "${app.webhook.inbox.replay-interval:PT30S}",
+      initialDelayString = "${app.webhook.inbox.replay-interval:PT30S}")
+  public void replayPending() {
+    LocalDateTime now = LocalDateTime.now();
+    int released = repository.releaseStale(now.minus(properties.getClaimTimeout()));
+    if (released > 0) {
+      log.warn("Released {} webhook events stuck in processing", released);
+    }
+
+    List<WebhookInboxEvent> pending =
+        repository.findReplayable(
+            now.minus(properties.getReplayInterval()),
+            PageRequest.of(0, properties.getReplayBatchSize()));
+    Set<String> interviews = new LinkedHashSet<>();
+    for (WebhookInboxEvent entry : pending) {
+      if (entry.getInterviewId() == null) {
+        dispatchSingle(entry.getId());
+      } else if (interviews.add(entry.getInterviewId())) {
+        dispatch(entry.getInterviewId());
+      }
+    }
+  }
+
+  /** Обрабатывает очередь интервью в его потоке */
+  private void dispatch(String interviewId) {
+    submit(interviewId.hashCode(), () -> drain(interviewId));
+  }
+
+  private void dispatchSingle(Long eventId) {
+    submit(eventId.hashCode(), () -> process(eventId));
+  }
+
+  private void submit(int hash, Runnable task) {
+    try {
+      lanes[Math.floorMod(hash, lanes.length)].execute(task);
+    } catch (RejectedExecutionException e) {
+      // Приложение останавливается — событие обработает replayPending после запуска
+      log.debug("Webhook inbox is shutting down, task postponed");
+    }
+  }
+
+  private void drain(String interviewId) {
+    for (Long eventId : repository.findPendingIds(interviewId)) {
+      if (!process(eventId)) {
+        // Более поздние события ждут, пока это не будет обработано
+        return;
+      }
+    }
+  }
+
+  /**
+   * Обрабатывает событие
+   *
+   * @return true, если событие обработано
+   */
+  boolean process(Long eventId) {
+    if (repository.claim(eventId) == 0) {
+      return false;
+    }
+    WebhookInboxEvent entry = repository.findById(eventId).orElseThrow();
+    try {
+      ElevenLabsWebhookEvent event =
+          objectMapper.readValue(entry.getPayload(), ElevenLabsWebhookEvent.class);
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            webhookService.process(event);
+            repository.markProcessed(eventId, LocalDateTime.now());
+          });
+      log.debug("Webhook event {} processed: type={}", eventId, entry.getEventType());
+      return true;
+    } catch (Exception e) {
+      repository.markFailed(eventId, String.valueOf(e.getMessage()), properties.getMaxAttempts());
+      log.warn(
+          "Webhook event {} failed (attempt {}): type={}, interviewId={}, error={}",
+          eventId,
+          entry.getAttempts(),
+          entry.getEventType(),
+          entry.getInterviewId(),
+          e.getMessage());
+      return false;
+    }
+  }
+
+  private static String sha256(String payload) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
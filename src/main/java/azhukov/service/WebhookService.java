@@ -1,19 +1,18 @@
 package azhukov.service;
 
 import azhukov.entity.Interview;
-import azhukov.entity.InterviewAnswer;
-import azhukov.entity.Question;
 import azhukov.exception.ResourceNotFoundException;
 import azhukov.model.ElevenLabsWebhookEvent;
-import azhukov.model.VoiceMessage;
 import azhukov.model.VoiceMessageTypeEnum;
-import azhukov.repository.InterviewAnswerRepository;
 import azhukov.repository.InterviewRepository;
-import azhukov.repository.QuestionRepository;
+import azhukov.service.live.InterviewLiveEvent;
+import azhukov.service.live.InterviewLiveEventPublisher;
 import jakarta.servlet.http.HttpServletRequest;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,9 +31,10 @@ import org.springframework.transaction.annotation.Transactional;
 public class WebhookService {
 
   private final InterviewRepository interviewRepository;
-  private final QuestionRepository questionRepository;
-  private final InterviewAnswerRepository interviewAnswerRepository;
   private final VoiceInterviewService voiceInterviewService;
+  private final VoiceSessionStateStore sessionStateStore;
+  private final ConversationTranscriptService transcriptService;
+  private final InterviewLiveEventPublisher liveEventPublisher;
 
   @Value("${elevenlabs.webhook.secret:}")
   private String webhookSecret;
@@ -79,6 +79,32 @@ public class WebhookService {
     }
   }
 
+  /**
+   * Обрабатывает событие из очереди входящих событий. Выполняется в транзакции вызывающего, чтобы
+   * результат обработки и отметка о ней фиксировались вместе
+   */
+  public void process(ElevenLabsWebhookEvent event) {
+    switch (event.getType()) {
+      case AGENT_MESSAGE:
+        handleAgentMessage(event);
+        break;
+      case AGENT_TOOL_CALL:
+        handleAgentToolCall(event);
+        break;
+      case CONVERSATION_STARTED:
+        handleConversationStarted(event);
+        break;
+      case CONVERSATION_ENDED:
+        handleConversationEnded(event);
+        break;
+      case ERROR:
+        handleError(event);
+        break;
+      default:
+        log.warn("Unknown webhook event type: {}", event.getType());
+    }
+  }
+
   /** Обработка сообщений от агента */
   public void handleAgentMessage(ElevenLabsWebhookEvent event) {
     log.info("Processing agent message for interview: {}", event.getInterviewId());
@@ -90,14 +116,20 @@ public class WebhookService {
       String message = (String) data.get("message");
       String agentId = (String) data.get("agentId");
 
-      // Сохраняем сообщение агента
-      VoiceMessage voiceMessage = new VoiceMessage();
-      voiceMessage.setText(message);
-      voiceMessage.setType(VoiceMessageTypeEnum.AGENT_MESSAGE);
-      voiceMessage.setTimestamp(java.time.OffsetDateTime.now());
+      // Сообщение неизвестного интервью не записать — отклоняем его до буфера
+      Long interviewId = Long.parseLong(event.getInterviewId());
+      if (!interviewRepository.existsById(interviewId)) {
+        throw new ResourceNotFoundException("Interview not found: " + interviewId);
+      }
 
-      // TODO: Сохранить в базу данных
-      log.info("Agent message saved: {}", message);
+      // Сообщение попадёт в расшифровку при ближайшем сбросе буфера
+      transcriptService.append(
+          interviewId,
+          VoiceMessageTypeEnum.AGENT_MESSAGE,
+          message,
+          agentId,
+          toLocalDateTime(event.getTimestamp()));
+      log.debug("Agent message buffered for interview: {}", event.getInterviewId());
 
     } catch (Exception e) {
       log.error("Error processing agent message", e);
@@ -121,7 +153,7 @@ public class WebhookService {
           handleGetNextQuestion(event.getInterviewId(), parameters);
           break;
         case "saveAnswer":
-          handleSaveAnswer(event.getInterviewId(), parameters);
+          handleSaveAnswer(event.getInterviewId(), parameters, event.getTimestamp());
           break;
         case "endInterview":
           handleEndInterview(event.getInterviewId(), parameters);
@@ -152,6 +184,7 @@ public class WebhookService {
       interview.setStatus(Interview.Status.IN_PROGRESS);
       interview.setStartedAt(LocalDateTime.now());
       interviewRepository.save(interview);
+      liveEventPublisher.publish(InterviewLiveEvent.Type.SESSION_STARTED, interviewId, Map.of());
 
       log.info("Interview status updated to IN_PROGRESS: {}", interviewId);
 
@@ -177,6 +210,11 @@ public class WebhookService {
       interview.setStatus(Interview.Status.FINISHED);
       interview.setFinishedAt(LocalDateTime.now());
       interviewRepository.save(interview);
+      sessionStateStore.evict(interviewId);
+      liveEventPublisher.publish(
+          InterviewLiveEvent.Type.SESSION_ENDED,
+          interviewId,
+          Map.of("reason", "conversation_ended"));
 
       // TODO: Запустить анализ результатов интервью
       log.info("Interview completed: {}", interviewId);
@@ -204,6 +242,9 @@ public class WebhookService {
       interview.setResult(Interview.Result.ERROR);
       interview.setFinishedAt(LocalDateTime.now());
       interviewRepository.save(interview);
+      sessionStateStore.evict(interviewId);
+      liveEventPublisher.publish(
+          InterviewLiveEvent.Type.SESSION_ENDED, interviewId, Map.of("reason", "error"));
 
       log.error("Interview marked as error: {}", interviewId);
 
@@ -222,7 +263,8 @@ public class WebhookService {
   }
 
   /** Обработка сохранения ответа */
-  private void handleSaveAnswer(String interviewId, Map<String, Object> parameters) {
+  private void handleSaveAnswer(
+      String interviewId, Map<String, Object> parameters, OffsetDateTime timestamp) {
     log.info("Agent requested to save answer for interview: {}", interviewId);
 
     try {
@@ -230,26 +272,14 @@ public class WebhookService {
       Long questionId = Long.parseLong((String) parameters.get("questionId"));
       String answerText = (String) parameters.get("answerText");
 
-      // Сохраняем ответ
-      Interview interview =
-          interviewRepository
-              .findById(interviewIdLong)
-              .orElseThrow(
-                  () -> new ResourceNotFoundException("Interview not found: " + interviewIdLong));
-      Question question =
-          questionRepository
-              .findById(questionId)
-              .orElseThrow(
-                  () -> new ResourceNotFoundException("Question not found: " + questionId));
-
-      InterviewAnswer answer =
-          InterviewAnswer.builder()
-              .interview(interview)
-              .question(question)
-              .answerText(answerText)
-              .build();
-
-      interviewAnswerRepository.save(answer);
+      // Сохраняем ответ через VoiceInterviewService, чтобы учесть его в состоянии сессии
+      voiceInterviewService.saveAgentAnswer(interviewIdLong, questionId, answerText);
+      transcriptService.append(
+          interviewIdLong,
+          VoiceMessageTypeEnum.USER_ANSWER,
+          answerText,
+          null,
+          toLocalDateTime(timestamp));
       log.info("Answer saved for question: {}", questionId);
 
     } catch (Exception e) {
@@ -266,6 +296,12 @@ public class WebhookService {
     voiceInterviewService.endVoiceSession(Long.parseLong(interviewId));
   }
 
+  private static LocalDateTime toLocalDateTime(OffsetDateTime timestamp) {
+    return timestamp != null
+        ? timestamp.withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime()
+        : null;
+  }
+
   /** Получение тела запроса для валидации подписи */
   private String getRequestBody(HttpServletRequest request) {
     // В реальной реализации нужно получить тело запроса
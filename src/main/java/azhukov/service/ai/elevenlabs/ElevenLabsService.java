@@ -44,17 +44,8 @@ public class ElevenLabsService {
       // Подготавливаем multipart данные согласно официальной документации ElevenLabs
       MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
 
-      // Используем ByteArrayResource для правильной сериализации
-      byte[] audioBytes = audioFile.getBytes();
-      org.springframework.core.io.ByteArrayResource audioResource =
-          new org.springframework.core.io.ByteArrayResource(audioBytes) {
-            @Override
-            public String getFilename() {
-              return audioFile.getOriginalFilename();
-            }
-          };
-
-      body.add("file", audioResource);
+      // Ресурс MultipartFile отдаёт имя файла и длину, содержимое читается потоком при отправке
+      body.add("file", audioFile.getResource());
 
       log.info("Sending multipart request to ElevenLabs STT with {} parts", body.size());
       log.info(
@@ -152,6 +143,11 @@ public class ElevenLabsService {
     }
   }
 
+  /** Код языка, с которым выполняется распознавание */
+  public String getLanguageCode() {
+    return properties.getLanguage().getCode();
+  }
+
   /**
    * Проверяет доступность ElevenLabs API
    *
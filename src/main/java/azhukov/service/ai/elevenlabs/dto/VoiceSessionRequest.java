@@ -1,6 +1,7 @@
 package azhukov.service.ai.elevenlabs.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Map;
 import lombok.Builder;
 import lombok.Data;
 
@@ -37,6 +38,10 @@ public class VoiceSessionRequest {
   @JsonProperty("tools")
   private Tool[] tools;
 
+  /** Данные интервью для подстановки в промпт агента ({{interview_id}} и т.п.) */
+  @JsonProperty("dynamic_variables")
+  private Map<String, String> dynamicVariables;
+
   @Data
   @Builder
   public static class VoiceSettings {
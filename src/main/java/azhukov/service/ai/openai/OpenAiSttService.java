@@ -17,8 +17,15 @@ import org.springframework.web.multipart.MultipartFile;
 @RequiredArgsConstructor
 public class OpenAiSttService {
 
+  private static final String LANGUAGE = "ru";
+
   private final OpenAiAudioTranscriptionModel audioTranscriptionModel;
 
+  /** Код языка, с которым выполняется распознавание */
+  public String getLanguageCode() {
+    return LANGUAGE;
+  }
+
   public String transcribeAudio(MultipartFile audioFile) {
     try {
       File tempFile = File.createTempFile("openai-upload-", "-" + audioFile.getOriginalFilename());
@@ -31,7 +38,7 @@ public class OpenAiSttService {
       OpenAiAudioTranscriptionOptions options =
           OpenAiAudioTranscriptionOptions.builder()
               .model("whisper-1")
-              .language("ru")
+              .language(LANGUAGE)
               .responseFormat(OpenAiAudioApi.TranscriptResponseFormat.JSON)
               .build();
 
@@ -0,0 +1,143 @@
+package azhukov.service.audio;
+
+import azhukov.config.TranscriptionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Приводит PCM WAV к формату, который нужен моделям распознавания речи: моно, 16 бит, 16 кГц.
+ * Браузеры пишут 44.1/48 кГц стерео, поэтому файл для STT уменьшается в 5–6 раз, а вместе с ним
+ * время загрузки к провайдеру.
+ *
+ * <p>Каналы усредняются, частота понижается усреднением окна исходных сэмплов вокруг каждой
+ * выходной точки (простой фильтр нижних частот против наложения спектра). Частота не повышается.
+ * Остальные форматы (webm, ogg, mp3) передаются без изменений.
+ */
+@Component
+@Slf4j
+public class AudioNormalizer {
+
+  private static final int TARGET_BITS = 16;
+
+  private final TranscriptionProperties.Normalization properties;
+  private final DistributionSummary bytesSaved;
+  private final Counter normalizedFiles;
+  private final Counter passthroughFiles;
+
+  public AudioNormalizer(TranscriptionProperties transcriptionProperties, MeterRegistry registry) {
+    this.properties = transcriptionProperties.getNormalization();
+    this.bytesSaved =
+        DistributionSummary.builder("transcription.audio.normalization.bytes.saved")
+            .description("Сколько байт сэкономлено нормализацией аудио перед STT")
+            .baseUnit("bytes")
+            .register(registry);
+    this.normalizedFiles =
+        Counter.builder("transcription.audio.normalization")
+            .tag("result", "normalized")
+            .register(registry);
+    this.passthroughFiles =
+        Counter.builder("transcription.audio.normalization")
+            .tag("result", "passthrough")
+            .register(registry);
+  }
+
+  /**
+   * Нормализует запись, если это PCM WAV в неоптимальном формате
+   *
+   * @param audioFile исходный файл
+   * @return нормализованный WAV или исходный файл
+   */
+  public MultipartFile normalize(MultipartFile audioFile) throws IOException {
+    if (!properties.isEnabled()) {
+      return audioFile;
+    }
+
+    // Заголовок проверяется до чтения: не-WAV записи целиком в память не поднимаются
+    if (!WavAudio.isWav(audioFile)) {
+      passthroughFiles.increment();
+      return audioFile;
+    }
+    Optional<WavAudio> parsed = WavAudio.parse(audioFile.getBytes());
+    if (parsed.isEmpty() || isAlreadyNormalized(parsed.get())) {
+      passthroughFiles.increment();
+      return audioFile;
+    }
+
+    WavAudio audio = parsed.get();
+    long startTime = System.nanoTime();
+    byte[] normalized = normalize(audio, properties.getTargetSampleRate());
+    long saved = audioFile.getSize() - normalized.length;
+
+    normalizedFiles.increment();
+    bytesSaved.record(Math.max(0, saved));
+    log.info(
+        "Audio normalized {} Hz/{} ch/{} bit -> {} Hz mono 16 bit: {} -> {} bytes in {} ms",
+        audio.getSampleRate(),
+        audio.getChannels(),
+        audio.getBitsPerSample(),
+        Math.min(audio.getSampleRate(), properties.getTargetSampleRate()),
+        audioFile.getSize(),
+        normalized.length,
+        (System.nanoTime() - startTime) / 1_000_000);
+
+    return new InMemoryAudioFile(
+        audioFile.getName(), wavFilename(audioFile.getOriginalFilename()), "audio/wav", normalized);
+  }
+
+  /**
+   * Преобразует аудио в моно 16 бит с частотой не выше заданной
+   *
+   * @param audio разобранный WAV
+   * @param targetSampleRate целевая частота дискретизации
+   * @return содержимое WAV файла
+   */
+  public static byte[] normalize(WavAudio audio, int targetSampleRate) {
+    int outputRate = Math.min(audio.getSampleRate(), targetSampleRate);
+    long inputFrames = audio.frameCount();
+    double ratio = (double) audio.getSampleRate() / outputRate;
+    int outputFrames = (int) Math.floor(inputFrames / ratio);
+    byte[] pcm = new byte[outputFrames * 2];
+
+    for (int i = 0; i < outputFrames; i++) {
+      double value;
+      if (ratio == 1.0) {
+        value = audio.monoSample(i);
+      } else {
+        // Усредняем исходные кадры, попадающие в окно выходного сэмпла
+        long from = (long) Math.floor(i * ratio);
+        long to = Math.min(inputFrames, (long) Math.floor((i + 1) * ratio));
+        double sum = 0;
+        for (long frame = from; frame < to; frame++) {
+          sum += audio.monoSample(frame);
+        }
+        value = to > from ? sum / (to - from) : audio.monoSample(from);
+      }
+
+      int sample = (int) Math.round(value * 32767);
+      sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+      pcm[2 * i] = (byte) sample;
+      pcm[2 * i + 1] = (byte) (sample >> 8);
+    }
+    return WavAudio.toWavBytes(pcm, 0, pcm.length, outputRate, 1, TARGET_BITS);
+  }
+
+  private boolean isAlreadyNormalized(WavAudio audio) {
+    return audio.getChannels() == 1
+        && audio.getBitsPerSample() == TARGET_BITS
+        && audio.getSampleRate() <= properties.getTargetSampleRate();
+  }
+
+  private static String wavFilename(String originalFilename) {
+    if (originalFilename == null) {
+      return "audio.wav";
+    }
+    int dot = originalFilename.lastIndexOf('.');
+    return (dot > 0 ? originalFilename.substring(0, dot) : originalFilename) + ".wav";
+  }
+}
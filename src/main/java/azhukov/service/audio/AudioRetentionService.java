@@ -0,0 +1,98 @@
+package azhukov.service.audio;
+
+import azhukov.entity.Position;
+import azhukov.repository.InterviewAnswerRepository;
+import azhukov.repository.PositionRepository;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Удаляет записи ответов по истечении срока хранения, заданного в вакансии ({@link
+ * Position#getAudioRetentionDays()}). Сначала у ответов очищается audioUrl, затем удаляются файлы,
+ * на которые больше не ссылается ни один ответ (одна запись может принадлежать нескольким ответам).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AudioRetentionService {
+
+  private final PositionRepository positionRepository;
+  private final InterviewAnswerRepository interviewAnswerRepository;
+  private final AudioStore audioStore;
+  private final TransactionTemplate transactionTemplate;
+
+  @Scheduled(cron = "${app.file.audio.retention-cron:0 30 3 * * *}")
+  public void purgeExpired() {
+    if (!audioStore.isEnabled()) {
+      return;
+    }
+
+    int deletedFiles = 0;
+    for (Position position : positionRepository.findByAudioRetentionDaysIsNotNull()) {
+      deletedFiles += purge(position);
+    }
+
+    try {
+      int staged = audioStore.cleanStaging();
+      if (staged > 0) {
+        log.info("Removed {} abandoned audio uploads", staged);
+      }
+    } catch (IOException e) {
+      log.warn("Failed to clean audio staging directory: {}", e.getMessage());
+    }
+
+    if (deletedFiles > 0) {
+      log.info("Audio retention: deleted {} expired recordings", deletedFiles);
+    }
+  }
+
+  /**
+   * Удаляет просроченные записи одной вакансии
+   *
+   * @return количество удалённых файлов
+   */
+  int purge(Position position) {
+    LocalDateTime cutoff = LocalDateTime.now().minusDays(position.getAudioRetentionDays());
+    List<String> audioUrls =
+        transactionTemplate.execute(
+            status -> {
+              List<String> urls =
+                  interviewAnswerRepository.findAudioUrlsCreatedBefore(position.getId(), cutoff);
+              if (!urls.isEmpty()) {
+                interviewAnswerRepository.clearAudioUrlsCreatedBefore(position.getId(), cutoff);
+              }
+              return urls;
+            });
+
+    int deleted = 0;
+    for (String audioUrl : audioUrls) {
+      String fileName = AudioStore.fileName(audioUrl).orElse(null);
+      // Внешние ссылки и записи, которые ещё используются другими ответами, не трогаем
+      if (fileName == null || interviewAnswerRepository.existsByAudioUrl(audioUrl)) {
+        continue;
+      }
+      try {
+        if (audioStore.delete(fileName)) {
+          deleted++;
+        }
+      } catch (IOException e) {
+        log.warn("Failed to delete expired audio {}: {}", fileName, e.getMessage());
+      }
+    }
+
+    if (!audioUrls.isEmpty()) {
+      log.info(
+          "Position {}: cleared {} recordings older than {} days",
+          position.getId(),
+          audioUrls.size(),
+          position.getAudioRetentionDays());
+    }
+    return deleted;
+  }
+}
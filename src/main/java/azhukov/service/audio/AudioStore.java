@@ -0,0 +1,276 @@
+package azhukov.service.audio;
+
+import azhukov.config.ApplicationProperties;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Локальное content-addressed хранилище записей ответов. Имя файла — SHA-256 содержимого и
+ * расширение, файлы раскладываются по каталогам {@code ab/cd/<sha256>.<ext>}, чтобы в одном
+ * каталоге не скапливались тысячи файлов. Повторная загрузка той же записи не создаёт копию.
+ *
+ * <p>Запись пишется во временный файл параллельно с чтением загрузки (см. {@link #stage}), а после
+ * вычисления хэша атомарно переносится на постоянное место ({@link #commit}). Запись, которая уже
+ * лежит на диске (собранная докачиваемая загрузка), не переписывается, а связывается жёсткой
+ * ссылкой ({@link #store}).
+ */
+@Component
+@Slf4j
+public class AudioStore {
+
+  /** Префикс audioUrl для записей из этого хранилища (относительно context-path API) */
+  public static final String URL_PREFIX = "/audio/";
+
+  private static final Pattern FILE_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{2,4}");
+  private static final String STAGING_DIRECTORY = "tmp";
+  private static final Duration STAGING_MAX_AGE = Duration.ofHours(24);
+
+  private static final Map<String, String> EXTENSION_BY_TYPE =
+      Map.of(
+          "audio/wav", "wav",
+          "audio/x-wav", "wav",
+          "audio/wave", "wav",
+          "audio/webm", "webm",
+          "audio/ogg", "ogg",
+          "audio/mpeg", "mp3",
+          "audio/mp3", "mp3",
+          "audio/mp4", "m4a",
+          "audio/x-m4a", "m4a",
+          "audio/aac", "aac");
+
+  private static final Map<String, String> TYPE_BY_EXTENSION =
+      Map.of(
+          "wav", "audio/wav",
+          "webm", "audio/webm",
+          "ogg", "audio/ogg",
+          "mp3", "audio/mpeg",
+          "m4a", "audio/mp4",
+          "aac", "audio/aac");
+
+  private final ApplicationProperties.File.Audio properties;
+  private final Path root;
+
+  public AudioStore(ApplicationProperties applicationProperties) {
+    this.properties = applicationProperties.getFile().getAudio();
+    this.root = Path.of(properties.getDirectory()).toAbsolutePath().normalize();
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * Создаёт временный файл для записи загрузки
+   *
+   * @param audioFile загружаемый файл (для выбора расширения)
+   * @return открытый временный файл; закрытие без {@link #commit} удаляет его
+   */
+  public Staged stage(MultipartFile audioFile) throws IOException {
+    Path staging = root.resolve(STAGING_DIRECTORY);
+    Files.createDirectories(staging);
+    Path file = Files.createTempFile(staging, "upload-", ".tmp");
+    return new Staged(file, Files.newOutputStream(file), extension(audioFile));
+  }
+
+  /**
+   * Переносит записанный файл на постоянное место
+   *
+   * @param staged временный файл с полным содержимым
+   * @param sha256 SHA-256 содержимого
+   * @return audioUrl для сохранения в InterviewAnswer
+   */
+  public String commit(Staged staged, String sha256) throws IOException {
+    staged.output.close();
+    String fileName = sha256 + "." + staged.extension;
+    Path target = path(fileName);
+    if (Files.exists(target)) {
+      log.debug("Audio {} is already stored", fileName);
+      return URL_PREFIX + fileName;
+    }
+
+    Files.createDirectories(target.getParent());
+    try {
+      Files.move(staged.file, target, StandardCopyOption.ATOMIC_MOVE);
+      staged.committed = true;
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(staged.file, target);
+      staged.committed = true;
+    } catch (FileAlreadyExistsException e) {
+      // Ту же запись параллельно сохранил другой запрос
+      log.debug("Audio {} was stored concurrently", fileName);
+      return URL_PREFIX + fileName;
+    }
+    log.info("Stored audio {} ({} bytes)", fileName, Files.size(target));
+    return URL_PREFIX + fileName;
+  }
+
+  /**
+   * Сохраняет запись, которая уже лежит на диске. На постоянное место ставится жёсткая ссылка на
+   * файл, так что содержимое не копируется; исходный файл остаётся у владельца и удаляется им. Если
+   * хранилище на другой файловой системе, файл копируется через временный файл.
+   *
+   * @param file файл с полным содержимым
+   * @param audioFile загруженный файл (для выбора расширения)
+   * @param sha256 SHA-256 содержимого
+   * @return audioUrl для сохранения в InterviewAnswer
+   */
+  public String store(Path file, MultipartFile audioFile, String sha256) throws IOException {
+    String fileName = sha256 + "." + extension(audioFile);
+    Path target = path(fileName);
+    if (Files.exists(target)) {
+      log.debug("Audio {} is already stored", fileName);
+      return URL_PREFIX + fileName;
+    }
+
+    Files.createDirectories(target.getParent());
+    try {
+      Files.createLink(target, file);
+    } catch (FileAlreadyExistsException e) {
+      log.debug("Audio {} was stored concurrently", fileName);
+      return URL_PREFIX + fileName;
+    } catch (UnsupportedOperationException | FileSystemException e) {
+      log.debug("Cannot link audio {}, copying: {}", fileName, e.getMessage());
+      try (Staged staged = stage(audioFile)) {
+        Files.copy(file, staged.output);
+        return commit(staged, sha256);
+      }
+    }
+    log.info("Stored audio {} ({} bytes)", fileName, Files.size(target));
+    return URL_PREFIX + fileName;
+  }
+
+  /**
+   * Находит файл записи
+   *
+   * @param fileName имя файла из audioUrl
+   * @return путь к файлу, если он существует
+   */
+  public Optional<Path> resolve(String fileName) {
+    if (fileName == null || !FILE_NAME.matcher(fileName).matches()) {
+      return Optional.empty();
+    }
+    Path file = path(fileName);
+    return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+  }
+
+  /**
+   * Удаляет запись из хранилища
+   *
+   * @return true, если файл был удалён
+   */
+  public boolean delete(String fileName) throws IOException {
+    if (!FILE_NAME.matcher(fileName).matches()) {
+      return false;
+    }
+    return Files.deleteIfExists(path(fileName));
+  }
+
+  /** Удаляет временные файлы, оставшиеся от прерванных загрузок */
+  public int cleanStaging() throws IOException {
+    Path staging = root.resolve(STAGING_DIRECTORY);
+    if (!Files.isDirectory(staging)) {
+      return 0;
+    }
+    Instant threshold = Instant.now().minus(STAGING_MAX_AGE);
+    int deleted = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(staging, "upload-*.tmp")) {
+      for (Path file : files) {
+        if (Files.getLastModifiedTime(file).toInstant().isBefore(threshold)
+            && Files.deleteIfExists(file)) {
+          deleted++;
+        }
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Имя файла хранилища из audioUrl
+   *
+   * @return имя файла или пустой Optional, если запись хранится не здесь
+   */
+  public static Optional<String> fileName(String audioUrl) {
+    if (audioUrl == null || !audioUrl.startsWith(URL_PREFIX)) {
+      return Optional.empty();
+    }
+    String fileName = audioUrl.substring(URL_PREFIX.length());
+    return FILE_NAME.matcher(fileName).matches() ? Optional.of(fileName) : Optional.empty();
+  }
+
+  /** MIME тип записи по расширению файла */
+  public static String contentType(String fileName) {
+    String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+    return TYPE_BY_EXTENSION.getOrDefault(extension, "application/octet-stream");
+  }
+
+  private Path path(String fileName) {
+    return root.resolve(fileName.substring(0, 2))
+        .resolve(fileName.substring(2, 4))
+        .resolve(fileName);
+  }
+
+  private static String extension(MultipartFile audioFile) {
+    String contentType = audioFile.getContentType();
+    if (contentType != null) {
+      // audio/webm;codecs=opus -> audio/webm
+      String baseType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+      String extension = EXTENSION_BY_TYPE.get(baseType);
+      if (extension != null) {
+        return extension;
+      }
+    }
+    String originalFilename = audioFile.getOriginalFilename();
+    int dot = originalFilename != null ? originalFilename.lastIndexOf('.') : -1;
+    if (dot > 0) {
+      String extension = originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT);
+      if (TYPE_BY_EXTENSION.containsKey(extension)) {
+        return extension;
+      }
+    }
+    return "bin";
+  }
+
+  /** Временный файл загрузки */
+  public static final class Staged implements Closeable {
+    private final Path file;
+    private final OutputStream output;
+    private final String extension;
+    private boolean committed;
+
+    private Staged(Path file, OutputStream output, String extension) {
+      this.file = file;
+      this.output = output;
+      this.extension = extension;
+    }
+
+    /** Поток, в который пишется содержимое загрузки */
+    public OutputStream output() {
+      return output;
+    }
+
+    @Override
+    public void close() throws IOException {
+      output.close();
+      if (!committed) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package azhukov.service.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Загруженная запись, прочитанная за один проход. SHA-256 и детектор речи считаются во время чтения
+ * потока, поэтому для ключа кэша и проверки на тишину не нужен второй проход по файлу. Multipart
+ * читается в память; собранная докачиваемая загрузка уже лежит на диске и остаётся там — её
+ * содержимое читается из файла по требованию.
+ */
+public class AudioUpload implements MultipartFile {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final MultipartFile content;
+  private final String sha256;
+  private final SpeechActivityAnalyzer.SpeechActivity speechActivity;
+
+  private AudioUpload(
+      MultipartFile content, String sha256, SpeechActivityAnalyzer.SpeechActivity speechActivity) {
+    this.content = content;
+    this.sha256 = sha256;
+    this.speechActivity = speechActivity;
+  }
+
+  /**
+   * Читает загруженный файл, одновременно вычисляя SHA-256
+   *
+   * @param file загруженный файл
+   * @return запись с хэшем содержимого
+   */
+  public static AudioUpload read(MultipartFile file) throws IOException {
+    return read(file, null);
+  }
+
+  /**
+   * Читает загруженный файл, одновременно вычисляя SHA-256 и передавая байты детектору речи
+   *
+   * @param file загруженный файл
+   * @param analyzer детектор речи или null
+   * @return запись с хэшем содержимого и результатом анализа речи
+   */
+  public static AudioUpload read(MultipartFile file, SpeechActivityAnalyzer analyzer)
+      throws IOException {
+    return read(file, analyzer, null);
+  }
+
+  /**
+   * Читает загруженный файл за один проход: считает SHA-256, передаёт байты детектору речи и
+   * копирует их в хранилище записей
+   *
+   * @param file загруженный файл
+   * @param analyzer детектор речи или null
+   * @param copyTo поток, в который копируется содержимое, или null
+   * @return запись с хэшем содержимого и результатом анализа речи
+   */
+  public static AudioUpload read(
+      MultipartFile file, SpeechActivityAnalyzer analyzer, OutputStream copyTo)
+      throws IOException {
+    if (file instanceof AudioUpload upload) {
+      if (copyTo != null) {
+        try (InputStream in = upload.getInputStream()) {
+          in.transferTo(copyTo);
+        }
+      }
+      return upload;
+    }
+
+    MessageDigest digest = sha256Digest();
+    // Файл на диске не копируется в память: хэш и анализ считаются потоком
+    ByteArrayOutputStream out =
+        file instanceof SpooledAudioFile
+            ? null
+            : new ByteArrayOutputStream(
+                (int) Math.min(Math.max(file.getSize(), 0), Integer.MAX_VALUE));
+    try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        if (out != null) {
+          out.write(buffer, 0, read);
+        }
+        if (copyTo != null) {
+          copyTo.write(buffer, 0, read);
+        }
+        if (analyzer != null) {
+          analyzer.update(buffer, 0, read);
+        }
+      }
+    }
+    MultipartFile content =
+        out != null
+            ? new InMemoryAudioFile(
+                file.getName(),
+                file.getOriginalFilename(),
+                file.getContentType(),
+                out.toByteArray())
+            : file;
+    return new AudioUpload(
+        content,
+        HexFormat.of().formatHex(digest.digest()),
+        analyzer != null ? analyzer.finish() : SpeechActivityAnalyzer.SpeechActivity.NOT_ANALYZED);
+  }
+
+  /** SHA-256 содержимого в hex */
+  public String getSha256() {
+    return sha256;
+  }
+
+  /** Результат анализа речи, выполненного во время чтения */
+  public SpeechActivityAnalyzer.SpeechActivity getSpeechActivity() {
+    return speechActivity;
+  }
+
+  @Override
+  public String getName() {
+    return content.getName();
+  }
+
+  @Override
+  public String getOriginalFilename() {
+    return content.getOriginalFilename();
+  }
+
+  @Override
+  public String getContentType() {
+    return content.getContentType();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return content.isEmpty();
+  }
+
+  @Override
+  public long getSize() {
+    return content.getSize();
+  }
+
+  @Override
+  public byte[] getBytes() throws IOException {
+    return content.getBytes();
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return content.getInputStream();
+  }
+
+  @Override
+  public void transferTo(File dest) throws IOException {
+    content.transferTo(dest);
+  }
+
+  @Override
+  public void transferTo(Path dest) throws IOException {
+    content.transferTo(dest);
+  }
+
+  static MessageDigest sha256Digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
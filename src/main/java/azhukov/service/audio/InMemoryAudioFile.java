@@ -0,0 +1,72 @@
+package azhukov.service.audio;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Аудио в памяти, представленное как {@link MultipartFile}. Нужно, чтобы передавать фрагменты и
+ * преобразованные записи в сервисы STT, которые принимают только MultipartFile.
+ */
+public class InMemoryAudioFile implements MultipartFile {
+
+  private final String name;
+  private final String originalFilename;
+  private final String contentType;
+  private final byte[] content;
+
+  public InMemoryAudioFile(String originalFilename, String contentType, byte[] content) {
+    this("audio", originalFilename, contentType, content);
+  }
+
+  public InMemoryAudioFile(
+      String name, String originalFilename, String contentType, byte[] content) {
+    this.name = name;
+    this.originalFilename = originalFilename;
+    this.contentType = contentType;
+    this.content = content != null ? content : new byte[0];
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String getOriginalFilename() {
+    return originalFilename;
+  }
+
+  @Override
+  public String getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return content.length == 0;
+  }
+
+  @Override
+  public long getSize() {
+    return content.length;
+  }
+
+  @Override
+  public byte[] getBytes() {
+    return content;
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return new ByteArrayInputStream(content);
+  }
+
+  @Override
+  public void transferTo(File dest) throws IOException {
+    Files.write(dest.toPath(), content);
+  }
+}
@@ -0,0 +1,296 @@
+package azhukov.service.audio;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.exception.ResourceNotFoundException;
+import azhukov.exception.SilentRecordingException;
+import azhukov.exception.UploadOffsetConflictException;
+import azhukov.exception.ValidationException;
+import azhukov.repository.InterviewRepository;
+import azhukov.repository.QuestionRepository;
+import azhukov.service.TranscriptionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Докачиваемые загрузки записей ответов (протокол в духе tus). Части дописываются в файл загрузки
+ * через {@link FileChannel} с проверкой смещения. Принятое смещение — размер файла на диске,
+ * поэтому состояние переживает перезапуск. Параметры загрузки хранятся рядом в {@code <id>.json}.
+ *
+ * <p>Собранный файл передаётся в {@link TranscriptionService} как {@link SpooledAudioFile} и
+ * читается оттуда потоком. Если транскрибация не удалась, загрузка остаётся на диске и её можно
+ * завершить повторно, не отправляя файл заново.
+ */
+@Service
+@Slf4j
+public class ResumableUploadService {
+
+  private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f]{32}");
+
+  private final ApplicationProperties.File.Resumable properties;
+  private final InterviewRepository interviewRepository;
+  private final QuestionRepository questionRepository;
+  private final TranscriptionService transcriptionService;
+  private final ObjectMapper objectMapper;
+  private final Path root;
+
+  /** Параметры загрузки, объявленные клиентом при создании */
+  public record Upload(
+      String id,
+      Long interviewId,
+      Long questionId,
+      long length,
+      String contentType,
+      String fileName,
+      Instant createdAt) {}
+
+  /** Загрузка и число принятых байт */
+  public record UploadState(Upload upload, long offset, long maxChunkSize, Instant expiresAt) {}
+
+  public ResumableUploadService(
+      ApplicationProperties applicationProperties,
+      InterviewRepository interviewRepository,
+      QuestionRepository questionRepository,
+      TranscriptionService transcriptionService,
+      ObjectMapper objectMapper) {
+    this.properties = applicationProperties.getFile().getResumable();
+    this.interviewRepository = interviewRepository;
+    this.questionRepository = questionRepository;
+    this.transcriptionService = transcriptionService;
+    this.objectMapper = objectMapper;
+    this.root = Path.of(properties.getDirectory()).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Создаёт загрузку
+   *
+   * @param interviewId ID интервью
+   * @param questionId ID вопроса
+   * @param length полный размер файла
+   * @param contentType MIME тип записи
+   * @param fileName исходное имя файла
+   */
+  public UploadState create(
+      Long interviewId, Long questionId, long length, String contentType, String fileName)
+      throws IOException {
+    if (length <= 0 || length > properties.getMaxSize().toBytes()) {
+      throw new ValidationException(
+          "Размер записи должен быть от 1 до " + properties.getMaxSize().toBytes() + " байт");
+    }
+    if (contentType == null || !contentType.startsWith("audio/")) {
+      throw new ValidationException("Invalid audio file type: " + contentType);
+    }
+    if (!interviewRepository.existsById(interviewId)) {
+      throw new ResourceNotFoundException("Interview", "id", interviewId);
+    }
+    if (!questionRepository.existsById(questionId)) {
+      throw new ResourceNotFoundException("Question", "id", questionId);
+    }
+
+    Upload upload =
+        new Upload(
+            UUID.randomUUID().toString().replace("-", ""),
+            interviewId,
+            questionId,
+            length,
+            contentType,
+            fileName,
+            Instant.now());
+    Files.createDirectories(root);
+    Files.createFile(dataPath(upload.id()));
+    objectMapper.writeValue(metadataPath(upload.id()).toFile(), upload);
+    log.info(
+        "Resumable upload {} created for interview {} question {} ({} bytes)",
+        upload.id(),
+        interviewId,
+        questionId,
+        length);
+    return state(upload, 0, upload.createdAt());
+  }
+
+  /** Состояние загрузки */
+  public UploadState get(String uploadId) throws IOException {
+    Upload upload = load(uploadId);
+    try {
+      Path data = dataPath(uploadId);
+      return state(upload, Files.size(data), Files.getLastModifiedTime(data).toInstant());
+    } catch (NoSuchFileException e) {
+      throw new ResourceNotFoundException("Upload", "id", uploadId);
+    }
+  }
+
+  /**
+   * Дописывает часть файла
+   *
+   * @param uploadId ID загрузки
+   * @param offset смещение, с которого клиент отправляет часть
+   * @param contentLength объявленный размер части или -1, если он неизвестен
+   * @param body содержимое части
+   * @throws UploadOffsetConflictException если смещение не совпадает с принятым
+   */
+  public UploadState append(String uploadId, long offset, long contentLength, InputStream body)
+      throws IOException {
+    Upload upload = load(uploadId);
+    // Заведомо лишнюю часть отклоняем, не читая тело
+    if (contentLength > properties.getMaxChunkSize().toBytes()
+        || contentLength > upload.length() - offset) {
+      throw new ValidationException(
+          "Часть больше допустимого размера или выходит за размер файла " + upload.length());
+    }
+    try (FileChannel channel = FileChannel.open(dataPath(uploadId), StandardOpenOption.WRITE);
+        FileLock lock = lock(uploadId, channel)) {
+      long current = channel.size();
+      if (offset != current) {
+        throw new UploadOffsetConflictException(
+            "Upload-Offset " + offset + " does not match received " + current + " bytes", current);
+      }
+
+      long limit = Math.min(properties.getMaxChunkSize().toBytes(), upload.length() - current);
+      ReadableByteChannel source = Channels.newChannel(body);
+      long written = 0;
+      while (written < limit) {
+        long transferred = channel.transferFrom(source, current + written, limit - written);
+        if (transferred <= 0) {
+          break;
+        }
+        written += transferred;
+      }
+      if (body.read() != -1) {
+        // Часть не помещается: откатываем её целиком, чтобы смещение осталось согласованным
+        channel.truncate(current);
+        throw new ValidationException(
+            "Часть больше допустимого размера или выходит за размер файла " + upload.length());
+      }
+      // Подтверждённые клиенту байты должны пережить падение процесса
+      channel.force(false);
+      log.debug("Resumable upload {}: +{} bytes at {}", uploadId, written, current);
+      return state(upload, current + written, Instant.now());
+    }
+  }
+
+  /**
+   * Завершает загрузку: транскрибирует собранный файл и сохраняет ответ
+   *
+   * @return ID созданного InterviewAnswer
+   */
+  public Long complete(String uploadId) throws IOException {
+    Upload upload = load(uploadId);
+    Path data = dataPath(uploadId);
+    Long interviewAnswerId;
+    try (FileChannel channel = FileChannel.open(data, StandardOpenOption.WRITE);
+        FileLock lock = lock(uploadId, channel)) {
+      long received = channel.size();
+      if (received != upload.length()) {
+        throw new ValidationException(
+            "Загрузка не завершена: принято " + received + " из " + upload.length() + " байт");
+      }
+      interviewAnswerId =
+          transcriptionService.processAudioTranscription(
+              new SpooledAudioFile(data, upload.fileName(), upload.contentType(), received),
+              upload.interviewId(),
+              upload.questionId());
+    } catch (SilentRecordingException e) {
+      // Повторная попытка даст тот же результат — запись нужно перезаписать
+      delete(uploadId);
+      throw e;
+    }
+    delete(uploadId);
+    log.info("Resumable upload {} completed, answer {}", uploadId, interviewAnswerId);
+    return interviewAnswerId;
+  }
+
+  /** Удаляет загрузку */
+  public void cancel(String uploadId) throws IOException {
+    load(uploadId);
+    delete(uploadId);
+    log.info("Resumable upload {} cancelled", uploadId);
+  }
+
+  /** Удаляет загрузки, в которые ничего не дописывалось дольше {@code expiration} */
+  @Scheduled(cron = "${app.file.resumable.cleanup-cron:0 */15 * * * *}")
+  public void purgeExpired() {
+    if (!Files.isDirectory(root)) {
+      return;
+    }
+    Instant threshold = Instant.now().minus(properties.getExpiration());
+    int deleted = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*.part")) {
+      for (Path file : files) {
+        String uploadId = file.getFileName().toString().replace(".part", "");
+        if (Files.getLastModifiedTime(file).toInstant().isBefore(threshold)) {
+          delete(uploadId);
+          deleted++;
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Failed to purge expired resumable uploads: {}", e.getMessage());
+    }
+    if (deleted > 0) {
+      log.info("Removed {} expired resumable uploads", deleted);
+    }
+  }
+
+  private Upload load(String uploadId) throws IOException {
+    if (uploadId == null || !UPLOAD_ID.matcher(uploadId).matches()) {
+      throw new ResourceNotFoundException("Upload", "id", uploadId);
+    }
+    try {
+      return objectMapper.readValue(metadataPath(uploadId).toFile(), Upload.class);
+    } catch (NoSuchFileException | FileNotFoundException e) {
+      throw new ResourceNotFoundException("Upload", "id", uploadId);
+    }
+  }
+
+  /** Блокировка файла загрузки: параллельные запросы к одной загрузке получают 409 */
+  private static FileLock lock(String uploadId, FileChannel channel) throws IOException {
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      lock = null;
+    }
+    if (lock == null) {
+      throw new UploadOffsetConflictException(
+          "Upload " + uploadId + " is being written by another request", channel.size());
+    }
+    return lock;
+  }
+
+  private void delete(String uploadId) throws IOException {
+    Files.deleteIfExists(dataPath(uploadId));
+    Files.deleteIfExists(metadataPath(uploadId));
+  }
+
+  private UploadState state(Upload upload, long offset, Instant lastActivity) {
+    return new UploadState(
+        upload,
+        offset,
+        properties.getMaxChunkSize().toBytes(),
+        lastActivity.plus(properties.getExpiration()));
+  }
+
+  private Path dataPath(String uploadId) {
+    return root.resolve(uploadId + ".part");
+  }
+
+  private Path metadataPath(String uploadId) {
+    return root.resolve(uploadId + ".json");
+  }
+}
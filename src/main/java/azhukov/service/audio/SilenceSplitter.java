@@ -0,0 +1,108 @@
+package azhukov.service.audio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Делит PCM аудио на фрагменты не длиннее заданной длительности, выбирая точки разреза в паузах.
+ *
+ * <p>Энергия считается по окнам 20 мс (RMS). Для каждой границы ищется самое тихое окно в интервале
+ * {@code searchSeconds} перед максимальной длиной фрагмента. Если найденное окно тише порога —
+ * режем ровно в паузе. Если пауз нет (сплошная речь), режем по максимальной длине, а следующий
+ * фрагмент начинаем раньше на {@code overlapSeconds}, чтобы не потерять слово на стыке; дубли
+ * убираются при склейке текста.
+ */
+public class SilenceSplitter {
+
+  /** Фрагмент аудио в кадрах: [startFrame, endFrame) */
+  public record Segment(long startFrame, long endFrame, boolean overlapsPrevious) {}
+
+  private static final double WINDOW_SECONDS = 0.02;
+
+  private final double maxChunkSeconds;
+  private final double searchSeconds;
+  private final double overlapSeconds;
+  private final double silenceThreshold;
+
+  /**
+   * @param maxChunkSeconds максимальная длина фрагмента
+   * @param searchSeconds длина интервала поиска паузы перед границей
+   * @param overlapSeconds перекрытие фрагментов при разрезе без паузы
+   * @param silenceThreshold порог RMS (0..1), ниже которого окно считается тишиной
+   */
+  public SilenceSplitter(
+      double maxChunkSeconds, double searchSeconds, double overlapSeconds, double silenceThreshold) {
+    if (maxChunkSeconds <= 0) {
+      throw new IllegalArgumentException("maxChunkSeconds must be positive");
+    }
+    this.maxChunkSeconds = maxChunkSeconds;
+    this.searchSeconds = Math.min(Math.max(0, searchSeconds), maxChunkSeconds / 2);
+    this.overlapSeconds = Math.min(Math.max(0, overlapSeconds), maxChunkSeconds / 4);
+    this.silenceThreshold = silenceThreshold;
+  }
+
+  /**
+   * Планирует разбиение аудио на фрагменты
+   *
+   * @param audio разобранный WAV
+   * @return упорядоченный список фрагментов; один фрагмент, если аудио короче лимита
+   */
+  public List<Segment> split(WavAudio audio) {
+    long totalFrames = audio.frameCount();
+    int sampleRate = audio.getSampleRate();
+    long maxFrames = (long) (maxChunkSeconds * sampleRate);
+    List<Segment> segments = new ArrayList<>();
+
+    if (totalFrames <= maxFrames) {
+      segments.add(new Segment(0, totalFrames, false));
+      return segments;
+    }
+
+    int windowFrames = Math.max(1, (int) (WINDOW_SECONDS * sampleRate));
+    long searchFrames = (long) (searchSeconds * sampleRate);
+    long overlapFrames = (long) (overlapSeconds * sampleRate);
+
+    long start = 0;
+    boolean overlapsPrevious = false;
+    while (totalFrames - start > maxFrames) {
+      long limit = start + maxFrames;
+      long searchFrom = Math.max(start + windowFrames, limit - searchFrames);
+
+      long bestFrame = limit;
+      double bestEnergy = Double.MAX_VALUE;
+      for (long frame = limit - windowFrames; frame >= searchFrom; frame -= windowFrames) {
+        double energy = rms(audio, frame, windowFrames);
+        if (energy < bestEnergy) {
+          bestEnergy = energy;
+          bestFrame = frame + windowFrames / 2;
+        }
+      }
+
+      if (bestEnergy <= silenceThreshold) {
+        segments.add(new Segment(start, bestFrame, overlapsPrevious));
+        start = bestFrame;
+        overlapsPrevious = false;
+      } else {
+        segments.add(new Segment(start, limit, overlapsPrevious));
+        start = limit - overlapFrames;
+        overlapsPrevious = overlapFrames > 0;
+      }
+    }
+    segments.add(new Segment(start, totalFrames, overlapsPrevious));
+    return segments;
+  }
+
+  /** Среднеквадратичная амплитуда окна, усреднённого по каналам */
+  static double rms(WavAudio audio, long fromFrame, int frames) {
+    long to = Math.min(audio.frameCount(), fromFrame + frames);
+    if (to <= fromFrame) {
+      return 0;
+    }
+    double sum = 0;
+    for (long frame = fromFrame; frame < to; frame++) {
+      double value = audio.monoSample(frame);
+      sum += value * value;
+    }
+    return Math.sqrt(sum / (to - fromFrame));
+  }
+}
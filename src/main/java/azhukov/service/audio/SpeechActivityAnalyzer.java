@@ -0,0 +1,232 @@
+package azhukov.service.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Потоковый детектор речи для PCM WAV. Получает байты по мере чтения загрузки (см. {@link
+ * AudioUpload#read(MultipartFile, SpeechActivityAnalyzer)}), разбирает заголовок на лету и считает
+ * энергию (RMS) по окнам 20 мс. Окно с энергией выше порога считается речью.
+ *
+ * <p>Результат — длительность речи и границы первого/последнего речевого окна. По ним запись без
+ * речи отклоняется до платного вызова STT, а тишина в начале и в конце обрезается.
+ *
+ * <p>Для форматов, отличных от PCM WAV, анализ не выполняется ({@link SpeechActivity#analyzed()} ==
+ * false). Объект одноразовый и не потокобезопасный.
+ */
+public class SpeechActivityAnalyzer {
+
+  /** Итог анализа записи. Кадры — номера PCM кадров от начала блока data */
+  public record SpeechActivity(
+      boolean analyzed,
+      int sampleRate,
+      long totalFrames,
+      long speechFrames,
+      long firstSpeechFrame,
+      long lastSpeechFrame) {
+
+    static final SpeechActivity NOT_ANALYZED = new SpeechActivity(false, 0, 0, 0, -1, -1);
+
+    public double totalSeconds() {
+      return sampleRate == 0 ? 0 : (double) totalFrames / sampleRate;
+    }
+
+    public double speechSeconds() {
+      return sampleRate == 0 ? 0 : (double) speechFrames / sampleRate;
+    }
+
+    public boolean hasSpeech() {
+      return firstSpeechFrame >= 0;
+    }
+  }
+
+  private static final double WINDOW_SECONDS = 0.02;
+  private static final int MAX_HEADER_BYTES = 1024 * 1024;
+
+  private final double speechThreshold;
+
+  private ByteArrayOutputStream header = new ByteArrayOutputStream(64);
+  private boolean unsupported;
+  private int sampleRate;
+  private int channels;
+  private int bitsPerSample;
+  private int frameSize;
+
+  private byte[] window;
+  private int windowFill;
+  private int windowFrames;
+  private long dataRemaining;
+  private long framesSeen;
+  private long speechFrames;
+  private long firstSpeechFrame = -1;
+  private long lastSpeechFrame = -1;
+
+  /**
+   * @param speechThreshold порог RMS (0..1), выше которого окно считается речью
+   */
+  public SpeechActivityAnalyzer(double speechThreshold) {
+    this.speechThreshold = speechThreshold;
+  }
+
+  /** Передаёт очередную порцию байт файла */
+  public void update(byte[] buffer, int offset, int length) {
+    if (unsupported || length <= 0) {
+      return;
+    }
+    if (header != null) {
+      header.write(buffer, offset, length);
+      parseHeader();
+      return;
+    }
+    processData(buffer, offset, length);
+  }
+
+  /** Завершает анализ и возвращает результат */
+  public SpeechActivity finish() {
+    if (unsupported || header != null) {
+      return SpeechActivity.NOT_ANALYZED;
+    }
+    if (windowFill >= frameSize) {
+      // Неполное последнее окно
+      processWindow(windowFill / frameSize);
+    }
+    return new SpeechActivity(
+        true, sampleRate, framesSeen, speechFrames, firstSpeechFrame, lastSpeechFrame);
+  }
+
+  /**
+   * Обрезает тишину в начале и в конце записи, оставляя запас по краям
+   *
+   * @param audioFile исходный WAV
+   * @param activity результат анализа этого файла
+   * @param paddingSeconds запас тишины вокруг речи
+   * @return обрезанный WAV или исходный файл, если обрезать нечего
+   */
+  public static MultipartFile trimSilence(
+      MultipartFile audioFile, SpeechActivity activity, double paddingSeconds) throws IOException {
+    if (!activity.analyzed() || !activity.hasSpeech()) {
+      return audioFile;
+    }
+    long padding = (long) (paddingSeconds * activity.sampleRate());
+    long from = Math.max(0, activity.firstSpeechFrame() - padding);
+    long to = Math.min(activity.totalFrames(), activity.lastSpeechFrame() + padding);
+    // Экономия меньше 100 мс не стоит копирования
+    if (from + (activity.totalFrames() - to) < activity.sampleRate() / 10) {
+      return audioFile;
+    }
+
+    Optional<WavAudio> audio = WavAudio.parse(audioFile.getBytes());
+    if (audio.isEmpty()) {
+      return audioFile;
+    }
+    return new InMemoryAudioFile(
+        audioFile.getName(),
+        audioFile.getOriginalFilename(),
+        audioFile.getContentType(),
+        audio.get().slice(from, to));
+  }
+
+  private void parseHeader() {
+    byte[] bytes = header.toByteArray();
+    if (bytes.length >= 12 && !WavAudio.isWav(bytes)) {
+      unsupported();
+      return;
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    int position = 12;
+    while (position + 8 <= bytes.length) {
+      int chunkId = buffer.getInt(position);
+      long chunkSize = Integer.toUnsignedLong(buffer.getInt(position + 4));
+      int body = position + 8;
+
+      if (chunkId == WavAudio.fourCc("fmt ")) {
+        if (body + 16 > bytes.length) {
+          break;
+        }
+        int formatTag = Short.toUnsignedInt(buffer.getShort(body));
+        channels = Short.toUnsignedInt(buffer.getShort(body + 2));
+        sampleRate = buffer.getInt(body + 4);
+        bitsPerSample = Short.toUnsignedInt(buffer.getShort(body + 14));
+        if ((formatTag != 1 && formatTag != 0xFFFE)
+            || channels == 0
+            || sampleRate <= 0
+            || !WavAudio.isSupportedDepth(bitsPerSample)) {
+          unsupported();
+          return;
+        }
+      } else if (chunkId == WavAudio.fourCc("data")) {
+        if (sampleRate == 0) {
+          unsupported();
+          return;
+        }
+        frameSize = channels * (bitsPerSample / 8);
+        windowFrames = Math.max(1, (int) (WINDOW_SECONDS * sampleRate));
+        window = new byte[windowFrames * frameSize];
+        // Браузеры при потоковой записи иногда пишут размер 0 или 0xFFFFFFFF
+        dataRemaining = chunkSize == 0 || chunkSize == 0xFFFFFFFFL ? Long.MAX_VALUE : chunkSize;
+        header = null;
+        processData(bytes, body, bytes.length - body);
+        return;
+      }
+
+      long next = body + chunkSize + (chunkSize & 1);
+      if (next > bytes.length) {
+        break;
+      }
+      position = (int) next;
+    }
+
+    if (bytes.length > MAX_HEADER_BYTES) {
+      unsupported();
+    }
+  }
+
+  private void processData(byte[] buffer, int offset, int length) {
+    int position = offset;
+    int end = offset + (int) Math.min(length, dataRemaining);
+    dataRemaining -= end - offset;
+    while (position < end) {
+      int toCopy = Math.min(window.length - windowFill, end - position);
+      System.arraycopy(buffer, position, window, windowFill, toCopy);
+      windowFill += toCopy;
+      position += toCopy;
+      if (windowFill == window.length) {
+        processWindow(windowFrames);
+      }
+    }
+  }
+
+  private void processWindow(int frames) {
+    double sum = 0;
+    int sampleBytes = bitsPerSample / 8;
+    for (int frame = 0; frame < frames; frame++) {
+      double value = 0;
+      for (int channel = 0; channel < channels; channel++) {
+        value +=
+            WavAudio.decodeSample(window, frame * frameSize + channel * sampleBytes, bitsPerSample);
+      }
+      value /= channels;
+      sum += value * value;
+    }
+
+    if (Math.sqrt(sum / frames) > speechThreshold) {
+      if (firstSpeechFrame < 0) {
+        firstSpeechFrame = framesSeen;
+      }
+      lastSpeechFrame = framesSeen + frames;
+      speechFrames += frames;
+    }
+    framesSeen += frames;
+    windowFill = 0;
+  }
+
+  private void unsupported() {
+    unsupported = true;
+    header = null;
+  }
+}
@@ -0,0 +1,79 @@
+package azhukov.service.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Файл на диске, представленный как {@link MultipartFile}. Собранная докачиваемая загрузка
+ * передаётся в пайплайн транскрибации как есть: содержимое читается потоком из файла, без
+ * промежуточной копии в памяти или во временном файле multipart.
+ */
+public class SpooledAudioFile implements MultipartFile {
+
+  private final Path file;
+  private final String originalFilename;
+  private final String contentType;
+  private final long size;
+
+  public SpooledAudioFile(Path file, String originalFilename, String contentType, long size) {
+    this.file = file;
+    this.originalFilename = originalFilename;
+    this.contentType = contentType;
+    this.size = size;
+  }
+
+  /** Файл с содержимым */
+  public Path getFile() {
+    return file;
+  }
+
+  @Override
+  public String getName() {
+    return "audio";
+  }
+
+  @Override
+  public String getOriginalFilename() {
+    return originalFilename;
+  }
+
+  @Override
+  public String getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public long getSize() {
+    return size;
+  }
+
+  @Override
+  public byte[] getBytes() throws IOException {
+    return Files.readAllBytes(file);
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return Files.newInputStream(file);
+  }
+
+  @Override
+  public void transferTo(File dest) throws IOException {
+    transferTo(dest.toPath());
+  }
+
+  @Override
+  public void transferTo(Path dest) throws IOException {
+    Files.copy(file, dest, StandardCopyOption.REPLACE_EXISTING);
+  }
+}
@@ -0,0 +1,254 @@
+package azhukov.service.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Разобранный WAV (RIFF) файл с несжатым PCM. Хранит ссылку на исходный массив байт и смещение
+ * блока data, поэтому разбор и нарезка не копируют аудио лишний раз.
+ *
+ * <p>Поддерживаются только целочисленные PCM форматы 8/16/24/32 бит (WAVE_FORMAT_PCM и
+ * WAVE_FORMAT_EXTENSIBLE). Для остальных форматов {@link #parse(byte[])} возвращает пустой
+ * Optional — такие файлы передаются провайдеру как есть.
+ */
+public final class WavAudio {
+
+  private static final int WAVE_FORMAT_PCM = 1;
+  private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+  private static final int HEADER_SIZE = 44;
+
+  private final byte[] bytes;
+  private final int dataOffset;
+  private final int dataLength;
+  private final int sampleRate;
+  private final int channels;
+  private final int bitsPerSample;
+
+  private WavAudio(
+      byte[] bytes,
+      int dataOffset,
+      int dataLength,
+      int sampleRate,
+      int channels,
+      int bitsPerSample) {
+    this.bytes = bytes;
+    this.dataOffset = dataOffset;
+    this.dataLength = dataLength;
+    this.sampleRate = sampleRate;
+    this.channels = channels;
+    this.bitsPerSample = bitsPerSample;
+  }
+
+  /**
+   * Проверяет заголовок RIFF/WAVE, не читая файл целиком
+   *
+   * @param file загруженный файл
+   * @return true, если файл начинается с заголовка WAV
+   */
+  public static boolean isWav(MultipartFile file) throws IOException {
+    try (InputStream in = file.getInputStream()) {
+      return isWav(in.readNBytes(12));
+    }
+  }
+
+  /** Быстрая проверка сигнатуры RIFF/WAVE без полного разбора */
+  public static boolean isWav(byte[] bytes) {
+    return bytes != null
+        && bytes.length >= 12
+        && bytes[0] == 'R'
+        && bytes[1] == 'I'
+        && bytes[2] == 'F'
+        && bytes[3] == 'F'
+        && bytes[8] == 'W'
+        && bytes[9] == 'A'
+        && bytes[10] == 'V'
+        && bytes[11] == 'E';
+  }
+
+  /**
+   * Разбирает WAV файл
+   *
+   * @param bytes содержимое файла
+   * @return разобранное аудио или пустой Optional, если это не PCM WAV
+   */
+  public static Optional<WavAudio> parse(byte[] bytes) {
+    if (!isWav(bytes)) {
+      return Optional.empty();
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    int position = 12;
+    Integer sampleRate = null;
+    int channels = 0;
+    int bitsPerSample = 0;
+
+    while (position + 8 <= bytes.length) {
+      int chunkId = buffer.getInt(position);
+      long chunkSize = Integer.toUnsignedLong(buffer.getInt(position + 4));
+      int body = position + 8;
+
+      if (chunkId == fourCc("fmt ")) {
+        if (chunkSize < 16 || body + 16 > bytes.length) {
+          return Optional.empty();
+        }
+        int formatTag = Short.toUnsignedInt(buffer.getShort(body));
+        if (formatTag != WAVE_FORMAT_PCM && formatTag != WAVE_FORMAT_EXTENSIBLE) {
+          return Optional.empty();
+        }
+        channels = Short.toUnsignedInt(buffer.getShort(body + 2));
+        sampleRate = buffer.getInt(body + 4);
+        bitsPerSample = Short.toUnsignedInt(buffer.getShort(body + 14));
+      } else if (chunkId == fourCc("data")) {
+        if (sampleRate == null || channels == 0 || !isSupportedDepth(bitsPerSample)) {
+          return Optional.empty();
+        }
+        // Браузеры при потоковой записи иногда пишут размер 0 или 0xFFFFFFFF
+        int available = bytes.length - body;
+        int length = chunkSize == 0 || chunkSize > available ? available : (int) chunkSize;
+        int frameSize = channels * (bitsPerSample / 8);
+        length -= length % frameSize;
+        return Optional.of(new WavAudio(bytes, body, length, sampleRate, channels, bitsPerSample));
+      }
+
+      // Блоки RIFF выравниваются по чётной границе
+      long next = body + chunkSize + (chunkSize & 1);
+      if (next > bytes.length) {
+        break;
+      }
+      position = (int) next;
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Формирует WAV файл из сырого PCM
+   *
+   * @param pcm буфер с PCM данными
+   * @param offset смещение в буфере
+   * @param length длина PCM данных в байтах
+   */
+  public static byte[] toWavBytes(
+      byte[] pcm, int offset, int length, int sampleRate, int channels, int bitsPerSample) {
+    int blockAlign = channels * (bitsPerSample / 8);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(fourCc("RIFF"));
+    header.putInt(36 + length);
+    header.putInt(fourCc("WAVE"));
+    header.putInt(fourCc("fmt "));
+    header.putInt(16);
+    header.putShort((short) WAVE_FORMAT_PCM);
+    header.putShort((short) channels);
+    header.putInt(sampleRate);
+    header.putInt(sampleRate * blockAlign);
+    header.putShort((short) blockAlign);
+    header.putShort((short) bitsPerSample);
+    header.putInt(fourCc("data"));
+    header.putInt(length);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_SIZE + length);
+    out.write(header.array(), 0, HEADER_SIZE);
+    out.write(pcm, offset, length);
+    return out.toByteArray();
+  }
+
+  /**
+   * Вырезает фрагмент аудио в отдельный WAV файл
+   *
+   * @param startFrame первый кадр (включительно)
+   * @param endFrame последний кадр (не включительно)
+   */
+  public byte[] slice(long startFrame, long endFrame) {
+    long from = Math.max(0, startFrame);
+    long to = Math.min(frameCount(), endFrame);
+    if (to <= from) {
+      throw new IllegalArgumentException("Empty slice: " + startFrame + ".." + endFrame);
+    }
+    int offset = dataOffset + (int) (from * frameSize());
+    int length = (int) ((to - from) * frameSize());
+    return toWavBytes(bytes, offset, length, sampleRate, channels, bitsPerSample);
+  }
+
+  /**
+   * Возвращает значение сэмпла в диапазоне [-1, 1]
+   *
+   * @param frame номер кадра
+   * @param channel номер канала
+   */
+  public double sample(long frame, int channel) {
+    int index = dataOffset + (int) (frame * frameSize()) + channel * (bitsPerSample / 8);
+    return decodeSample(bytes, index, bitsPerSample);
+  }
+
+  /**
+   * Декодирует один целочисленный PCM сэмпл (little-endian) в диапазон [-1, 1]
+   *
+   * @param buffer буфер с PCM данными
+   * @param index смещение сэмпла в буфере
+   * @param bitsPerSample разрядность: 8, 16, 24 или 32
+   */
+  public static double decodeSample(byte[] buffer, int index, int bitsPerSample) {
+    return switch (bitsPerSample) {
+      case 8 -> ((buffer[index] & 0xFF) - 128) / 128.0;
+      case 16 -> (short) ((buffer[index] & 0xFF) | (buffer[index + 1] << 8)) / 32768.0;
+      case 24 ->
+          ((buffer[index] & 0xFF) | ((buffer[index + 1] & 0xFF) << 8) | (buffer[index + 2] << 16))
+              / 8388608.0;
+      case 32 ->
+          ((buffer[index] & 0xFF)
+                  | ((buffer[index + 1] & 0xFF) << 8)
+                  | ((buffer[index + 2] & 0xFF) << 16)
+                  | (buffer[index + 3] << 24))
+              / 2147483648.0;
+      default -> throw new IllegalStateException("Unsupported bit depth: " + bitsPerSample);
+    };
+  }
+
+  /** Значение кадра, усреднённое по всем каналам, в диапазоне [-1, 1] */
+  public double monoSample(long frame) {
+    if (channels == 1) {
+      return sample(frame, 0);
+    }
+    double sum = 0;
+    for (int channel = 0; channel < channels; channel++) {
+      sum += sample(frame, channel);
+    }
+    return sum / channels;
+  }
+
+  public long frameCount() {
+    return dataLength / frameSize();
+  }
+
+  public double durationSeconds() {
+    return sampleRate == 0 ? 0 : (double) frameCount() / sampleRate;
+  }
+
+  public int frameSize() {
+    return channels * (bitsPerSample / 8);
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  public int getChannels() {
+    return channels;
+  }
+
+  public int getBitsPerSample() {
+    return bitsPerSample;
+  }
+
+  static boolean isSupportedDepth(int bitsPerSample) {
+    return bitsPerSample == 8 || bitsPerSample == 16 || bitsPerSample == 24 || bitsPerSample == 32;
+  }
+
+  static int fourCc(String id) {
+    return (id.charAt(0)) | (id.charAt(1) << 8) | (id.charAt(2) << 16) | (id.charAt(3) << 24);
+  }
+}
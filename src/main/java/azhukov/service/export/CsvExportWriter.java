@@ -0,0 +1,74 @@
+package azhukov.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * CSV по RFC 4180 в UTF-8 с BOM, чтобы Excel распознал кириллицу. Строки уходят в поток по мере
+ * заполнения буфера, в памяти держится только он
+ */
+public class CsvExportWriter implements ExportWriter {
+
+  private static final char BOM = '\uFEFF';
+
+  private final Writer writer;
+
+  public CsvExportWriter(OutputStream out) {
+    this.writer =
+        new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+  }
+
+  @Override
+  public void writeHeader(List<String> columns) throws IOException {
+    writer.write(BOM);
+    writeRow(columns);
+  }
+
+  @Override
+  public void writeRow(List<?> values) throws IOException {
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      Object value = values.get(i);
+      if (value != null) {
+        writer.write(value instanceof String text ? escape(text) : value.toString());
+      }
+    }
+    writer.write("\r\n");
+  }
+
+  @Override
+  public void finish() throws IOException {
+    writer.flush();
+  }
+
+  /** Строки прерванной выгрузки уже ушли клиенту, поэтому остаток буфера тоже отправляется */
+  @Override
+  public void close() throws IOException {
+    writer.flush();
+  }
+
+  /**
+   * Экранирует значение. Текст, начинающийся с символа формулы, предваряется апострофом, чтобы
+   * ответ кандидата не выполнился как формула при открытии файла в табличном редакторе
+   */
+  static String escape(String value) {
+    String text = value;
+    if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+      text = "'" + text;
+    }
+    if (text.indexOf(',') < 0
+        && text.indexOf('"') < 0
+        && text.indexOf('\n') < 0
+        && text.indexOf('\r') < 0) {
+      return text;
+    }
+    return '"' + text.replace("\"", "\"\"") + '"';
+  }
+}
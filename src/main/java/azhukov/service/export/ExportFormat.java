@@ -0,0 +1,47 @@
+package azhukov.service.export;
+
+import azhukov.exception.ValidationException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.function.Function;
+
+/** Формат выгрузки */
+public enum ExportFormat {
+  CSV("text/csv; charset=UTF-8", "csv", CsvExportWriter::new),
+  XLSX(
+      "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+      "xlsx",
+      XlsxExportWriter::new);
+
+  private final String contentType;
+  private final String extension;
+  private final Function<OutputStream, ExportWriter> writerFactory;
+
+  ExportFormat(
+      String contentType, String extension, Function<OutputStream, ExportWriter> writerFactory) {
+    this.contentType = contentType;
+    this.extension = extension;
+    this.writerFactory = writerFactory;
+  }
+
+  /** Формат по имени без учёта регистра */
+  public static ExportFormat parse(String value) {
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Unsupported export format: " + value);
+    }
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  ExportWriter open(OutputStream out) {
+    return writerFactory.apply(out);
+  }
+}
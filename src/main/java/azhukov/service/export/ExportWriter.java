@@ -0,0 +1,19 @@
+package azhukov.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Построчная запись выгрузки в поток ответа. Значения — строки, числа, даты и перечисления; null
+ * записывается пустой ячейкой. finish дописывает выгрузку после последней строки; close освобождает
+ * ресурсы и не закрывает поток ответа. Без finish выгрузка считается прерванной
+ */
+public interface ExportWriter extends Closeable {
+
+  void writeHeader(List<String> columns) throws IOException;
+
+  void writeRow(List<?> values) throws IOException;
+
+  void finish() throws IOException;
+}
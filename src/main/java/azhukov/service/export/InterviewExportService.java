@@ -0,0 +1,149 @@
+package azhukov.service.export;
+
+import azhukov.exception.ResourceNotFoundException;
+import azhukov.exception.ValidationException;
+import azhukov.repository.InterviewRepository;
+import azhukov.repository.PositionRepository;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Выгрузка собеседований с ответами. Строки читаются серверным курсором и пишутся в ответ по одной,
+ * поэтому память не зависит от размера выгрузки — ни сущности, ни DTO целиком не загружаются.
+ */
+@Service
+@Slf4j
+public class InterviewExportService {
+
+  static final List<String> COLUMNS =
+      List.of(
+          "interview_id",
+          "position_id",
+          "position_title",
+          "candidate_first_name",
+          "candidate_last_name",
+          "candidate_email",
+          "status",
+          "result",
+          "ai_score",
+          "created_at",
+          "started_at",
+          "finished_at",
+          "question_id",
+          "question_text",
+          "answer_text",
+          "transcription",
+          "answer_score",
+          "duration_seconds");
+
+  private final InterviewRepository interviewRepository;
+  private final PositionRepository positionRepository;
+
+  /**
+   * Выгрузка пишется после выхода из контроллера, в потоке асинхронной обработки запроса, поэтому
+   * курсор открывается в собственной транзакции
+   */
+  private final TransactionTemplate exportTransaction;
+
+  public InterviewExportService(
+      InterviewRepository interviewRepository,
+      PositionRepository positionRepository,
+      PlatformTransactionManager transactionManager) {
+    this.interviewRepository = interviewRepository;
+    this.positionRepository = positionRepository;
+    this.exportTransaction = new TransactionTemplate(transactionManager);
+    this.exportTransaction.setReadOnly(true);
+  }
+
+  /**
+   * Проверяет фильтры и возвращает тело ответа, которое пишет выгрузку
+   *
+   * @param positionId вакансия или null — все вакансии
+   * @param from первый день по дате создания собеседования включительно или null
+   * @param to последний день включительно или null — по сегодняшний день
+   */
+  public StreamingResponseBody exportInterviews(
+      ExportFormat format, Long positionId, LocalDate from, LocalDate to) {
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new ValidationException("Дата начала выгрузки позже даты окончания");
+    }
+    if (positionId != null && !positionRepository.existsById(positionId)) {
+      throw new ResourceNotFoundException("Position", "id", positionId);
+    }
+    LocalDateTime start = (from != null ? from : LocalDate.EPOCH).atStartOfDay();
+    LocalDateTime end = (to != null ? to : LocalDate.now()).plusDays(1).atStartOfDay();
+    return out -> write(format, positionId, start, end, out);
+  }
+
+  void write(
+      ExportFormat format,
+      Long positionId,
+      LocalDateTime start,
+      LocalDateTime end,
+      OutputStream out) {
+    long startedAt = System.nanoTime();
+    long rows =
+        exportTransaction.execute(
+            status -> {
+              try (Stream<InterviewRepository.ExportRow> stream =
+                      interviewRepository.streamExportRows(positionId, start, end);
+                  ExportWriter writer = format.open(out)) {
+                writer.writeHeader(COLUMNS);
+                long written = 0;
+                Iterator<InterviewRepository.ExportRow> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                  writer.writeRow(toValues(iterator.next()));
+                  written++;
+                }
+                writer.finish();
+                return written;
+              } catch (IOException e) {
+                // Чаще всего клиент прервал загрузку
+                throw new UncheckedIOException("Interview export interrupted", e);
+              }
+            });
+    log.info(
+        "Exported {} interview rows as {} (position: {}, {} - {}) in {} ms",
+        rows,
+        format,
+        positionId,
+        start,
+        end,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+  }
+
+  private static List<Object> toValues(InterviewRepository.ExportRow row) {
+    return Arrays.asList(
+        row.getInterviewId(),
+        row.getPositionId(),
+        row.getPositionTitle(),
+        row.getCandidateFirstName(),
+        row.getCandidateLastName(),
+        row.getCandidateEmail(),
+        row.getStatus(),
+        row.getResult(),
+        row.getAiScore(),
+        row.getCreatedAt(),
+        row.getStartedAt(),
+        row.getFinishedAt(),
+        row.getQuestionId(),
+        row.getQuestionText(),
+        row.getAnswerText(),
+        row.getTranscription(),
+        row.getAnswerScore(),
+        row.getDurationSeconds());
+  }
+}
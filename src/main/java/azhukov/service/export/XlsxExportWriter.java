@@ -0,0 +1,87 @@
+package azhukov.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * XLSX через потоковый SXSSF: в памяти держится окно из нескольких сотен строк, остальные
+ * сбрасываются во временный сжатый файл и переписываются в ответ в {@link #finish}. Когда строки не
+ * помещаются на лист, выгрузка продолжается на следующем. Прерванная выгрузка в ответ не пишется:
+ * close только удаляет временные файлы, иначе клиент получил бы корректный, но неполный файл
+ */
+public class XlsxExportWriter implements ExportWriter {
+
+  private static final int ROW_WINDOW = 500;
+
+  private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+  private static final String SHEET_NAME = "Export";
+
+  private final OutputStream out;
+  private final SXSSFWorkbook workbook;
+  private List<String> header = List.of();
+  private SXSSFSheet sheet;
+  private int rowIndex;
+
+  public XlsxExportWriter(OutputStream out) {
+    this.out = out;
+    this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+    this.workbook.setCompressTempFiles(true);
+  }
+
+  @Override
+  public void writeHeader(List<String> columns) {
+    header = List.copyOf(columns);
+    startSheet();
+  }
+
+  @Override
+  public void writeRow(List<?> values) {
+    if (sheet == null || rowIndex >= MAX_ROWS) {
+      startSheet();
+    }
+    Row row = sheet.createRow(rowIndex++);
+    for (int i = 0; i < values.size(); i++) {
+      Object value = values.get(i);
+      if (value == null) {
+        continue;
+      }
+      Cell cell = row.createCell(i);
+      if (value instanceof Number number) {
+        cell.setCellValue(number.doubleValue());
+      } else {
+        cell.setCellValue(value.toString());
+      }
+    }
+  }
+
+  @Override
+  public void finish() throws IOException {
+    workbook.write(out);
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    workbook.dispose();
+    workbook.close();
+  }
+
+  private void startSheet() {
+    int number = workbook.getNumberOfSheets() + 1;
+    sheet = workbook.createSheet(number == 1 ? SHEET_NAME : SHEET_NAME + " " + number);
+    rowIndex = 0;
+    if (!header.isEmpty()) {
+      Row row = sheet.createRow(rowIndex++);
+      for (int i = 0; i < header.size(); i++) {
+        row.createCell(i).setCellValue(header.get(i));
+      }
+    }
+  }
+}
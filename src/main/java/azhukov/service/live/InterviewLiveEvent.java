@@ -0,0 +1,26 @@
+package azhukov.service.live;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Событие живого интервью для дашборда HR
+ *
+ * @param data данные события (ID вопроса, оценка и т.п.); состав зависит от типа
+ */
+public record InterviewLiveEvent(
+    Type type, Long interviewId, Map<String, Object> data, Instant occurredAt) {
+
+  /** Типы событий */
+  public enum Type {
+    SESSION_STARTED,
+    QUESTION_ASKED,
+    ANSWER_SAVED,
+    SESSION_ENDED,
+    SCORE_READY
+  }
+
+  public static InterviewLiveEvent of(Type type, Long interviewId, Map<String, Object> data) {
+    return new InterviewLiveEvent(type, interviewId, data, Instant.now());
+  }
+}
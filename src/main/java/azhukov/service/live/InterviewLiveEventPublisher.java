@@ -0,0 +1,110 @@
+package azhukov.service.live;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.util.TransactionUtils;
+import azhukov.websocket.InterviewMonitorWebSocketHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+/**
+ * Публикует события живых интервью. Если доступен Redis, событие уходит в канал pub/sub, и каждый
+ * узел, включая отправителя, рассылает его своим WebSocket подписчикам — дашборд получает события
+ * независимо от того, к какому узлу подключён. Без Redis событие получают подписчики этого узла.
+ *
+ * <p>Внутри транзакции событие публикуется после коммита, чтобы дашборд не увидел отменённое
+ * изменение. Ошибки публикации не влияют на бизнес-операцию.
+ */
+@Service
+@Slf4j
+public class InterviewLiveEventPublisher implements MessageListener {
+
+  private final InterviewMonitorWebSocketHandler monitorHandler;
+  private final ObjectMapper objectMapper;
+  private final ApplicationProperties.Monitoring properties;
+  private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+  private final ObjectProvider<RedisConnectionFactory> connectionFactoryProvider;
+  private RedisMessageListenerContainer listenerContainer;
+
+  public InterviewLiveEventPublisher(
+      InterviewMonitorWebSocketHandler monitorHandler,
+      ObjectMapper objectMapper,
+      ApplicationProperties applicationProperties,
+      ObjectProvider<StringRedisTemplate> redisTemplateProvider,
+      ObjectProvider<RedisConnectionFactory> connectionFactoryProvider) {
+    this.monitorHandler = monitorHandler;
+    this.objectMapper = objectMapper;
+    this.properties = applicationProperties.getMonitoring();
+    this.redisTemplateProvider = redisTemplateProvider;
+    this.connectionFactoryProvider = connectionFactoryProvider;
+  }
+
+  /** Подписывается на канал событий, если Redis включён и доступен */
+  @PostConstruct
+  void subscribe() {
+    RedisConnectionFactory connectionFactory =
+        properties.isRedisEnabled() ? connectionFactoryProvider.getIfAvailable() : null;
+    if (connectionFactory == null) {
+      log.info("Live monitoring events are delivered to local subscribers only");
+      return;
+    }
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(this, new ChannelTopic(properties.getRedisChannel()));
+    container.afterPropertiesSet();
+    container.start();
+    listenerContainer = container;
+  }
+
+  @PreDestroy
+  void unsubscribe() throws Exception {
+    if (listenerContainer != null) {
+      listenerContainer.destroy();
+    }
+  }
+
+  /** Публикует событие интервью */
+  public void publish(InterviewLiveEvent.Type type, Long interviewId, Map<String, Object> data) {
+    InterviewLiveEvent event = InterviewLiveEvent.of(type, interviewId, data);
+    TransactionUtils.afterCommit(() -> send(event));
+  }
+
+  /** Событие из канала Redis — от этого или другого узла */
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    try {
+      InterviewLiveEvent event =
+          objectMapper.readValue(
+              new String(message.getBody(), StandardCharsets.UTF_8), InterviewLiveEvent.class);
+      monitorHandler.broadcast(event);
+    } catch (Exception e) {
+      log.warn("Failed to handle live monitoring event from Redis: {}", e.getMessage());
+    }
+  }
+
+  private void send(InterviewLiveEvent event) {
+    StringRedisTemplate redis =
+        listenerContainer != null ? redisTemplateProvider.getIfAvailable() : null;
+    if (redis != null) {
+      try {
+        redis.convertAndSend(properties.getRedisChannel(), objectMapper.writeValueAsString(event));
+        return;
+      } catch (Exception e) {
+        // Подписчики других узлов событие не получат, но дашборд этого узла — получит
+        log.warn("Failed to publish live monitoring event to Redis: {}", e.getMessage());
+      }
+    }
+    monitorHandler.broadcast(event);
+  }
+}
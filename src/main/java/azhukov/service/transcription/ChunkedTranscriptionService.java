@@ -0,0 +1,159 @@
+package azhukov.service.transcription;
+
+import azhukov.config.TranscriptionProperties;
+import azhukov.service.audio.InMemoryAudioFile;
+import azhukov.service.audio.SilenceSplitter;
+import azhukov.service.audio.WavAudio;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Параллельная транскрибация длинных записей. WAV длиннее {@code maxChunkSeconds} делится в паузах
+ * на фрагменты, фрагменты отправляются провайдеру одновременно, а результаты склеиваются в исходном
+ * порядке. Короткие записи и форматы, отличные от PCM WAV, передаются провайдеру целиком.
+ */
+@Service
+@Slf4j
+public class ChunkedTranscriptionService {
+
+  private final TranscriptionProperties.Chunking properties;
+  private final ExecutorService executor;
+
+  public ChunkedTranscriptionService(TranscriptionProperties transcriptionProperties) {
+    this.properties = transcriptionProperties.getChunking();
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, properties.getParallelism()), threadFactory("stt-chunk-"));
+  }
+
+  /**
+   * Транскрибирует запись, при необходимости разбивая её на фрагменты
+   *
+   * @param audioFile аудио файл
+   * @param transcriber вызов провайдера для одного файла
+   * @return склеенный текст
+   */
+  public String transcribe(MultipartFile audioFile, Function<MultipartFile, String> transcriber) {
+    if (!properties.isEnabled()) {
+      return transcriber.apply(audioFile);
+    }
+
+    Optional<WavAudio> wav = parseWav(audioFile);
+    if (wav.isEmpty() || wav.get().durationSeconds() <= properties.getMaxChunkSeconds()) {
+      return transcriber.apply(audioFile);
+    }
+
+    WavAudio audio = wav.get();
+    List<SilenceSplitter.Segment> segments = newSplitter().split(audio);
+    if (segments.size() == 1) {
+      return transcriber.apply(audioFile);
+    }
+
+    long startTime = System.currentTimeMillis();
+    log.info(
+        "Splitting {} ({} s) into {} chunks for parallel transcription",
+        audioFile.getOriginalFilename(),
+        String.format("%.1f", audio.durationSeconds()),
+        segments.size());
+
+    List<CompletableFuture<String>> futures = new ArrayList<>(segments.size());
+    for (int i = 0; i < segments.size(); i++) {
+      SilenceSplitter.Segment segment = segments.get(i);
+      MultipartFile chunk =
+          new InMemoryAudioFile(
+              chunkFilename(audioFile.getOriginalFilename(), i),
+              "audio/wav",
+              audio.slice(segment.startFrame(), segment.endFrame()));
+      futures.add(CompletableFuture.supplyAsync(() -> transcriber.apply(chunk), executor));
+    }
+
+    List<TranscriptStitcher.Part> parts = new ArrayList<>(segments.size());
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+          .get(properties.getTimeoutSeconds(), TimeUnit.SECONDS);
+      for (int i = 0; i < segments.size(); i++) {
+        parts.add(
+            new TranscriptStitcher.Part(futures.get(i).join(), segments.get(i).overlapsPrevious()));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      futures.forEach(future -> future.cancel(true));
+      throw new RuntimeException("Chunked transcription interrupted", e);
+    } catch (TimeoutException e) {
+      futures.forEach(future -> future.cancel(true));
+      throw new RuntimeException(
+          "Chunked transcription timed out after " + properties.getTimeoutSeconds() + " s", e);
+    } catch (ExecutionException | CompletionException e) {
+      futures.forEach(future -> future.cancel(true));
+      Throwable cause = e.getCause() != null ? e.getCause() : e;
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new RuntimeException("Chunked transcription failed: " + cause.getMessage(), cause);
+    }
+
+    String text = TranscriptStitcher.stitch(parts, properties.getMaxOverlapWords());
+    log.info(
+        "Chunked transcription of {} chunks completed in {} ms",
+        segments.size(),
+        System.currentTimeMillis() - startTime);
+    return text;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private SilenceSplitter newSplitter() {
+    return new SilenceSplitter(
+        properties.getMaxChunkSeconds(),
+        properties.getSilenceSearchSeconds(),
+        properties.getOverlapSeconds(),
+        properties.getSilenceThreshold());
+  }
+
+  private static Optional<WavAudio> parseWav(MultipartFile audioFile) {
+    try {
+      if (!WavAudio.isWav(audioFile)) {
+        return Optional.empty();
+      }
+      return WavAudio.parse(audioFile.getBytes());
+    } catch (IOException e) {
+      log.warn("Failed to read audio file for chunking: {}", e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private static String chunkFilename(String originalFilename, int index) {
+    String base = originalFilename != null ? originalFilename : "audio.wav";
+    int dot = base.lastIndexOf('.');
+    String stem = dot > 0 ? base.substring(0, dot) : base;
+    return stem + ".part-" + (index + 1) + ".wav";
+  }
+
+  static ThreadFactory threadFactory(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,172 @@
+package azhukov.service.transcription;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+/**
+ * Детерминированное форматирование транскрипта без LLM для русского и английского текста.
+ *
+ * <p>Делает то же, что просит {@code FORMATTING_PROMPT}, но только в безопасных случаях: убирает
+ * междометия (э-э, м-м, uh, um), повторы слов, лишние пробелы, расставляет запятые перед союзами
+ * «но», «а», «потому что», «чтобы», делает заглавной первую букву предложений и исправляет
+ * регистр латинских технических терминов. Русские слова никогда не заменяются латиницей.
+ *
+ * <p>Работает за микросекунды; объект не хранит состояния и потокобезопасен.
+ */
+@Component
+public class LocalTranscriptFormatter {
+
+  /** Результат форматирования и метрики, по которым решается, нужен ли ещё проход LLM */
+  public record Result(String text, int wordCount, int fillerCount, int repeatCount) {
+
+    public double fillerRatio() {
+      int total = wordCount + fillerCount;
+      return total == 0 ? 0 : (double) fillerCount / total;
+    }
+  }
+
+  private static final Pattern FILLER =
+      Pattern.compile(
+          "(?<![\\p{L}\\d-])(?:э(?:-?э)*м*|м(?:-?м)+|хм+|гм+|uh+|um+|erm|hmm+|ah+)"
+              + "(?![\\p{L}\\d-]),?",
+          Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+  private static final Pattern WORD = Pattern.compile("[\\p{L}\\d][\\p{L}\\d'’-]*");
+
+  private static final Pattern REPEATED_WORD =
+      Pattern.compile(
+          "(?<![\\p{L}\\d])([\\p{L}\\d]+)(?:[\\s,]+\\1)+(?![\\p{L}\\d])",
+          Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+  private static final Pattern SPACE_BEFORE_PUNCTUATION = Pattern.compile("\\s+([,.!?;:…])");
+
+  private static final Pattern MISSING_SPACE_AFTER_PUNCTUATION =
+      Pattern.compile("([,!?;:](?=\\p{L})|\\.(?=\\p{IsCyrillic}))");
+
+  private static final Pattern DUPLICATE_COMMAS = Pattern.compile(",(\\s*,)+");
+
+  private static final Pattern CONJUNCTION =
+      Pattern.compile(
+          "(?<=[\\p{L}\\d])\\s+(но|а|потому что|чтобы|однако|but)(?=\\s)",
+          Pattern.UNICODE_CASE);
+
+  private static final Pattern SENTENCE_START = Pattern.compile("(^|[.!?…]\\s+)(\\p{Ll})");
+
+  /** Слова, повтор которых обычно смысловой («очень-очень», «да да») */
+  private static final Set<String> EMPHASIS_WORDS =
+      Set.of("да", "нет", "очень", "много", "долго", "yes", "no", "very", "really", "many");
+
+  private static final Map<String, String> TECH_TERMS = techTerms();
+
+  private static final Pattern TECH_TERM =
+      Pattern.compile(
+          "(?<![\\p{L}\\d.])("
+              + String.join(
+                  "|",
+                  TECH_TERMS.keySet().stream()
+                      .sorted((a, b) -> b.length() - a.length())
+                      .map(Pattern::quote)
+                      .toList())
+              + ")(?![\\p{L}\\d])",
+          Pattern.CASE_INSENSITIVE);
+
+  /**
+   * Форматирует транскрипт
+   *
+   * @param raw сырой текст от провайдера STT
+   * @return отформатированный текст и метрики «грязности» исходника
+   */
+  public Result format(String raw) {
+    if (raw == null || raw.isBlank()) {
+      return new Result("", 0, 0, 0);
+    }
+
+    String text = raw.strip().replaceAll("\\s+", " ");
+
+    Matcher fillers = FILLER.matcher(text);
+    StringBuilder withoutFillers = new StringBuilder(text.length());
+    int fillerCount = 0;
+    while (fillers.find()) {
+      fillerCount++;
+      fillers.appendReplacement(withoutFillers, "");
+    }
+    fillers.appendTail(withoutFillers);
+    text = withoutFillers.toString();
+
+    Matcher repeats = REPEATED_WORD.matcher(text);
+    StringBuilder withoutRepeats = new StringBuilder(text.length());
+    int repeatCount = 0;
+    while (repeats.find()) {
+      String word = repeats.group(1);
+      if (EMPHASIS_WORDS.contains(word.toLowerCase(Locale.ROOT))) {
+        repeats.appendReplacement(withoutRepeats, Matcher.quoteReplacement(repeats.group()));
+      } else {
+        repeatCount++;
+        repeats.appendReplacement(withoutRepeats, Matcher.quoteReplacement(word));
+      }
+    }
+    repeats.appendTail(withoutRepeats);
+    text = withoutRepeats.toString();
+
+    text = text.replaceAll("\\s+", " ").strip();
+    text = text.replaceAll("^[,.;:…\\s]+", "");
+    text = SPACE_BEFORE_PUNCTUATION.matcher(text).replaceAll("$1");
+    text = DUPLICATE_COMMAS.matcher(text).replaceAll(",");
+    text = MISSING_SPACE_AFTER_PUNCTUATION.matcher(text).replaceAll("$1 ");
+    text = CONJUNCTION.matcher(text).replaceAll(", $1");
+    text = fixTechTerms(text);
+    text = capitalizeSentences(text);
+
+    int wordCount = 0;
+    Matcher words = WORD.matcher(text);
+    while (words.find()) {
+      wordCount++;
+    }
+    return new Result(text, wordCount, fillerCount, repeatCount);
+  }
+
+  private static String fixTechTerms(String text) {
+    Matcher matcher = TECH_TERM.matcher(text);
+    StringBuilder result = new StringBuilder(text.length());
+    while (matcher.find()) {
+      String canonical = TECH_TERMS.get(matcher.group(1).toLowerCase(Locale.ROOT));
+      matcher.appendReplacement(result, Matcher.quoteReplacement(canonical));
+    }
+    matcher.appendTail(result);
+    return result.toString();
+  }
+
+  private static String capitalizeSentences(String text) {
+    Matcher matcher = SENTENCE_START.matcher(text);
+    StringBuilder result = new StringBuilder(text.length());
+    while (matcher.find()) {
+      matcher.appendReplacement(
+          result, Matcher.quoteReplacement(matcher.group(1) + matcher.group(2).toUpperCase()));
+    }
+    matcher.appendTail(result);
+    return result.toString();
+  }
+
+  private static Map<String, String> techTerms() {
+    Map<String, String> terms = new LinkedHashMap<>();
+    for (String term :
+        new String[] {
+          "Java", "Kotlin", "Scala", "Spring", "Spring Boot", "Spring Cloud", "Hibernate", "JPA",
+          "JDBC", "JVM", "Maven", "Gradle", "Kafka", "RabbitMQ", "Redis", "PostgreSQL",
+          "Postgres", "MySQL", "MongoDB", "Elasticsearch", "ClickHouse", "SQL", "NoSQL",
+          "gRPC", "GraphQL", "API", "JSON", "XML", "HTTP", "HTTPS", "Docker", "Kubernetes",
+          "Helm", "Git", "GitHub", "GitLab", "Jenkins", "CI/CD", "Linux", "AWS", "GCP", "Azure",
+          "JavaScript", "TypeScript", "Node.js", "React", "Angular", "Vue", "Python", "Django",
+          "Golang", "OAuth", "JWT", "DevOps", "QA", "Jira", "Confluence",
+          "Prometheus", "Grafana", "Nginx", "Terraform", "Ansible"
+        }) {
+      terms.put(term.toLowerCase(Locale.ROOT), term);
+    }
+    return terms;
+  }
+}
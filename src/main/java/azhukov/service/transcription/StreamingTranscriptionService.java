@@ -0,0 +1,144 @@
+package azhukov.service.transcription;
+
+import azhukov.config.TranscriptionProperties;
+import azhukov.exception.SilentRecordingException;
+import azhukov.exception.ValidationException;
+import azhukov.service.TranscriptionService;
+import azhukov.service.audio.AudioNormalizer;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Создаёт потоковые сессии транскрибации и сохраняет их результат как ответ на вопрос интервью.
+ * Фрагменты всех сессий транскрибируются в общем пуле через маршрутизатор провайдеров.
+ */
+@Service
+@Slf4j
+public class StreamingTranscriptionService {
+
+  private static final int MIN_SAMPLE_RATE = 8000;
+  private static final int MAX_SAMPLE_RATE = 48000;
+
+  private final TranscriptionProperties properties;
+  private final TranscriptionProviderRouter transcriptionProviderRouter;
+  private final AudioNormalizer audioNormalizer;
+  private final TranscriptionService transcriptionService;
+  private final TranscriptionMetrics transcriptionMetrics;
+  private final ExecutorService executor;
+
+  public StreamingTranscriptionService(
+      TranscriptionProperties properties,
+      TranscriptionProviderRouter transcriptionProviderRouter,
+      AudioNormalizer audioNormalizer,
+      TranscriptionService transcriptionService,
+      TranscriptionMetrics transcriptionMetrics) {
+    this.properties = properties;
+    this.transcriptionProviderRouter = transcriptionProviderRouter;
+    this.audioNormalizer = audioNormalizer;
+    this.transcriptionService = transcriptionService;
+    this.transcriptionMetrics = transcriptionMetrics;
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, properties.getStreaming().getParallelism()),
+            ChunkedTranscriptionService.threadFactory("stt-stream-"));
+  }
+
+  /**
+   * Открывает потоковую сессию
+   *
+   * @param sampleRate частота дискретизации PCM от клиента
+   * @param channels число каналов
+   * @param listener получатель промежуточного текста
+   * @throws ValidationException если формат не поддерживается или потоковая транскрибация выключена
+   */
+  public StreamingTranscriptionSession open(
+      int sampleRate, int channels, Consumer<StreamingTranscriptionSession.Partial> listener) {
+    if (!properties.isEnabled() || !properties.getStreaming().isEnabled()) {
+      throw new ValidationException("Потоковая транскрибация отключена");
+    }
+    if (sampleRate < MIN_SAMPLE_RATE || sampleRate > MAX_SAMPLE_RATE) {
+      throw new ValidationException("Unsupported sample rate: " + sampleRate);
+    }
+    if (channels < 1 || channels > 2) {
+      throw new ValidationException("Unsupported channel count: " + channels);
+    }
+    return new StreamingTranscriptionSession(
+        properties, sampleRate, channels, this::transcribeChunk, executor, listener);
+  }
+
+  /**
+   * Завершает запись и сохраняет ответ на вопрос интервью
+   *
+   * @param session потоковая сессия
+   * @param interviewId ID интервью
+   * @param questionId ID вопроса
+   * @return ID созданного InterviewAnswer
+   */
+  public CompletableFuture<Long> complete(
+      StreamingTranscriptionSession session, Long interviewId, Long questionId) {
+    long startTime = System.currentTimeMillis();
+    TranscriptionProperties.Silence silence = properties.getSilence();
+    // Замер начинается с остановки записи: это время кандидат ждёт результата
+    TranscriptionMetrics.Recording metrics =
+        transcriptionMetrics.start(
+            TranscriptionMetrics.Pipeline.STREAMING, properties.getProvider());
+    metrics.bytes(session.receivedBytes());
+    metrics.audioSeconds(session.receivedSeconds());
+    metrics.stage(TranscriptionMetrics.Stage.STT);
+
+    return session
+        .finish()
+        .orTimeout(properties.getStreaming().getFinishTimeoutSeconds(), TimeUnit.SECONDS)
+        .thenApply(
+            result -> {
+              double speechSeconds = result.speechActivity().speechSeconds();
+              if (silence.isEnabled() && speechSeconds < silence.getMinSpeechSeconds()) {
+                throw new SilentRecordingException(speechSeconds);
+              }
+              log.info(
+                  "Streaming transcription for interview {} question {} finished {} ms after"
+                      + " recording stopped ({} s of audio)",
+                  interviewId,
+                  questionId,
+                  System.currentTimeMillis() - startTime,
+                  String.format("%.1f", session.receivedSeconds()));
+              return transcriptionService.saveTranscription(
+                  interviewId,
+                  questionId,
+                  result.text(),
+                  Math.max(1, (int) Math.ceil(speechSeconds)),
+                  metrics);
+            })
+        .whenComplete(
+            (interviewAnswerId, error) -> {
+              if (error == null) {
+                metrics.success();
+              } else {
+                metrics.failure(error instanceof CompletionException ? error.getCause() : error);
+              }
+            });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private String transcribeChunk(MultipartFile chunk) {
+    try {
+      return transcriptionProviderRouter.transcribe(audioNormalizer.normalize(chunk));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
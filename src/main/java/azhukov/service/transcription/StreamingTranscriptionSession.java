@@ -0,0 +1,245 @@
+package azhukov.service.transcription;
+
+import azhukov.config.TranscriptionProperties;
+import azhukov.exception.ValidationException;
+import azhukov.service.audio.InMemoryAudioFile;
+import azhukov.service.audio.SilenceSplitter;
+import azhukov.service.audio.SpeechActivityAnalyzer;
+import azhukov.service.audio.WavAudio;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Потоковая транскрибация одной записи. Принимает сырой PCM (16 бит, little-endian) порциями по
+ * мере записи, режет его в паузах на фрагменты длиной около {@code chunkSeconds} и сразу
+ * отправляет их в STT. После каждого распознанного фрагмента слушатель получает склеенный текст
+ * всех готовых фрагментов подряд от начала записи.
+ *
+ * <p>К моменту окончания записи распознано всё, кроме хвоста, поэтому ожидание после ответа
+ * сокращается до времени транскрибации последнего фрагмента. Фрагменты без речи в STT не
+ * отправляются.
+ *
+ * <p>Методы {@link #append} и {@link #finish} вызываются из одного потока (обработчика сессии
+ * WebSocket), уведомления слушателю приходят из пула транскрибации.
+ */
+public class StreamingTranscriptionSession {
+
+  private static final int BITS_PER_SAMPLE = 16;
+  private static final double MIN_TAIL_SECONDS = 0.1;
+
+  /** Текст всех распознанных подряд фрагментов от начала записи */
+  public record Partial(int chunks, String text) {}
+
+  /** Итог записи: склеенный текст и активность речи по всей записи */
+  public record Result(String text, SpeechActivityAnalyzer.SpeechActivity speechActivity) {}
+
+  private final int sampleRate;
+  private final int channels;
+  private final int frameSize;
+  private final long chunkFrames;
+  private final long maxFrames;
+  private final int maxOverlapWords;
+  private final double speechThreshold;
+  private final SilenceSplitter splitter;
+  private final Function<MultipartFile, String> transcriber;
+  private final Executor executor;
+  private final Consumer<Partial> listener;
+  private final SpeechActivityAnalyzer analyzer;
+
+  private byte[] pending = new byte[64 * 1024];
+  private int pendingLength;
+  private boolean pendingOverlapsPrevious;
+  private long receivedBytes;
+  private boolean finished;
+
+  private final List<CompletableFuture<String>> futures = new ArrayList<>();
+  private final List<Boolean> overlaps = new ArrayList<>();
+  private final List<String> texts = new ArrayList<>();
+  private int publishedChunks;
+
+  /**
+   * @param properties настройки транскрибации (streaming, chunking, silence)
+   * @param sampleRate частота дискретизации входящего PCM
+   * @param channels число каналов входящего PCM
+   * @param transcriber вызов STT для одного WAV фрагмента
+   * @param executor пул, в котором транскрибируются фрагменты
+   * @param listener получатель промежуточного текста
+   */
+  public StreamingTranscriptionSession(
+      TranscriptionProperties properties,
+      int sampleRate,
+      int channels,
+      Function<MultipartFile, String> transcriber,
+      Executor executor,
+      Consumer<Partial> listener) {
+    this.sampleRate = sampleRate;
+    this.channels = channels;
+    this.frameSize = channels * (BITS_PER_SAMPLE / 8);
+    TranscriptionProperties.Streaming streaming = properties.getStreaming();
+    this.chunkFrames = (long) (streaming.getChunkSeconds() * sampleRate);
+    this.maxFrames = (long) streaming.getMaxSessionSeconds() * sampleRate;
+    this.maxOverlapWords = properties.getChunking().getMaxOverlapWords();
+    this.speechThreshold = properties.getSilence().getSpeechThreshold();
+    this.splitter =
+        new SilenceSplitter(
+            streaming.getChunkSeconds(),
+            streaming.getSilenceSearchSeconds(),
+            streaming.getOverlapSeconds(),
+            properties.getChunking().getSilenceThreshold());
+    this.transcriber = transcriber;
+    this.executor = executor;
+    this.listener = listener;
+
+    // Анализатор речи разбирает WAV, поэтому подаём ему заголовок с размером data = 0 (поток)
+    this.analyzer = new SpeechActivityAnalyzer(speechThreshold);
+    byte[] header = WavAudio.toWavBytes(new byte[0], 0, 0, sampleRate, channels, BITS_PER_SAMPLE);
+    analyzer.update(header, 0, header.length);
+  }
+
+  /**
+   * Добавляет очередную порцию PCM. Порция не обязана содержать целое число кадров.
+   *
+   * @throws ValidationException если запись превысила максимальную длительность
+   */
+  public void append(byte[] pcm, int offset, int length) {
+    if (finished) {
+      throw new IllegalStateException("Streaming session is already finished");
+    }
+    ensureCapacity(pendingLength + length);
+    System.arraycopy(pcm, offset, pending, pendingLength, length);
+    pendingLength += length;
+    analyzer.update(pcm, offset, length);
+
+    receivedBytes += length;
+    if (receivedBytes / frameSize > maxFrames) {
+      throw new ValidationException(
+          "Запись превышает максимальную длительность " + maxFrames / sampleRate + " с");
+    }
+
+    while (pendingLength / frameSize > chunkFrames) {
+      WavAudio audio = pendingAudio();
+      List<SilenceSplitter.Segment> segments = splitter.split(audio);
+      if (segments.size() < 2) {
+        break;
+      }
+      SilenceSplitter.Segment first = segments.get(0);
+      submit(audio.slice(first.startFrame(), first.endFrame()), pendingOverlapsPrevious);
+
+      SilenceSplitter.Segment next = segments.get(1);
+      pendingOverlapsPrevious = next.overlapsPrevious();
+      drop((int) (next.startFrame() * frameSize));
+    }
+  }
+
+  /**
+   * Завершает запись: отправляет хвост в STT и ждёт все фрагменты
+   *
+   * @return склеенный текст всей записи
+   */
+  public CompletableFuture<Result> finish() {
+    if (finished) {
+      throw new IllegalStateException("Streaming session is already finished");
+    }
+    finished = true;
+
+    long tailFrames = pendingLength / frameSize;
+    if (tailFrames > 0 && (futures.isEmpty() || tailFrames >= MIN_TAIL_SECONDS * sampleRate)) {
+      WavAudio tail = pendingAudio();
+      submit(tail.slice(0, tail.frameCount()), pendingOverlapsPrevious);
+    }
+    pending = null;
+
+    SpeechActivityAnalyzer.SpeechActivity activity = analyzer.finish();
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .thenApply(ignored -> new Result(stitch(futures.size()), activity));
+  }
+
+  /** Отменяет транскрибацию фрагментов, например при обрыве соединения */
+  public void cancel() {
+    finished = true;
+    pending = null;
+    futures.forEach(future -> future.cancel(true));
+  }
+
+  /** Объём принятого PCM в байтах */
+  public long receivedBytes() {
+    return receivedBytes;
+  }
+
+  /** Длительность принятого аудио в секундах */
+  public double receivedSeconds() {
+    return (double) (receivedBytes / frameSize) / sampleRate;
+  }
+
+  private void submit(byte[] wav, boolean overlapsPrevious) {
+    int index = futures.size();
+    synchronized (texts) {
+      overlaps.add(overlapsPrevious);
+      texts.add(null);
+    }
+
+    CompletableFuture<String> future;
+    if (!hasSpeech(wav)) {
+      future = CompletableFuture.completedFuture("");
+    } else {
+      MultipartFile chunk =
+          new InMemoryAudioFile("stream.part-" + (index + 1) + ".wav", "audio/wav", wav);
+      future = CompletableFuture.supplyAsync(() -> transcriber.apply(chunk), executor);
+    }
+    futures.add(future.thenApply(text -> onTranscribed(index, text)));
+  }
+
+  private String onTranscribed(int index, String text) {
+    synchronized (texts) {
+      texts.set(index, text != null ? text : "");
+      int ready = publishedChunks;
+      while (ready < texts.size() && texts.get(ready) != null) {
+        ready++;
+      }
+      if (ready > publishedChunks) {
+        publishedChunks = ready;
+        listener.accept(new Partial(ready, stitch(ready)));
+      }
+    }
+    return text;
+  }
+
+  private String stitch(int count) {
+    synchronized (texts) {
+      List<TranscriptStitcher.Part> parts = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        parts.add(new TranscriptStitcher.Part(texts.get(i), overlaps.get(i)));
+      }
+      return TranscriptStitcher.stitch(parts, maxOverlapWords);
+    }
+  }
+
+  private boolean hasSpeech(byte[] wav) {
+    SpeechActivityAnalyzer chunkAnalyzer = new SpeechActivityAnalyzer(speechThreshold);
+    chunkAnalyzer.update(wav, 0, wav.length);
+    return chunkAnalyzer.finish().hasSpeech();
+  }
+
+  private WavAudio pendingAudio() {
+    int length = pendingLength - pendingLength % frameSize;
+    byte[] wav = WavAudio.toWavBytes(pending, 0, length, sampleRate, channels, BITS_PER_SAMPLE);
+    return WavAudio.parse(wav).orElseThrow();
+  }
+
+  private void drop(int bytes) {
+    System.arraycopy(pending, bytes, pending, 0, pendingLength - bytes);
+    pendingLength -= bytes;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > pending.length) {
+      pending = Arrays.copyOf(pending, Math.max(capacity, pending.length * 2));
+    }
+  }
+}
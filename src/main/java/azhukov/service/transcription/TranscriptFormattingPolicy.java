@@ -0,0 +1,41 @@
+package azhukov.service.transcription;
+
+import azhukov.config.TranscriptionProperties;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Решает, достаточно ли локального форматирования или транскрипт нужно отправить в LLM. Короткие и
+ * чистые ответы («да», «нет», пара предложений со знаками препинания) LLM не улучшит, а длинные или
+ * «грязные» (много слов-паразитов, повторов, нет пунктуации) — отправляются в LLM как раньше.
+ */
+@Component
+@RequiredArgsConstructor
+public class TranscriptFormattingPolicy {
+
+  private static final Pattern PUNCTUATION = Pattern.compile("[.,!?;:]");
+
+  private final TranscriptionProperties transcriptionProperties;
+
+  /**
+   * Нужен ли проход LLM
+   *
+   * @param raw исходный текст от STT
+   * @param local результат локального форматирования
+   * @return true, если локального результата недостаточно
+   */
+  public boolean requiresLlm(String raw, LocalTranscriptFormatter.Result local) {
+    TranscriptionProperties.Formatting properties = transcriptionProperties.getFormatting();
+    return switch (properties.getMode()) {
+      case LLM -> true;
+      case LOCAL -> false;
+      case AUTO ->
+          local.wordCount() > properties.getMaxLocalWords()
+              || local.fillerRatio() > properties.getMaxFillerRatio()
+              || local.repeatCount() > properties.getMaxRepeats()
+              || (local.wordCount() > properties.getMaxUnpunctuatedWords()
+                  && !PUNCTUATION.matcher(raw).find());
+    };
+  }
+}
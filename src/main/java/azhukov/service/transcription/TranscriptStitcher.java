@@ -0,0 +1,60 @@
+package azhukov.service.transcription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Склеивает тексты фрагментов в один транскрипт. На стыке перекрывающихся фрагментов одни и те же
+ * слова распознаются дважды — самый длинный совпадающий хвост/голова (без учёта регистра и
+ * пунктуации) удаляется из начала следующего фрагмента.
+ */
+public final class TranscriptStitcher {
+
+  /** Текст фрагмента и признак того, что его аудио перекрывается с предыдущим фрагментом */
+  public record Part(String text, boolean overlapsPrevious) {}
+
+  private TranscriptStitcher() {}
+
+  /**
+   * Склеивает фрагменты
+   *
+   * @param parts фрагменты в порядке следования
+   * @param maxOverlapWords максимальное число слов, которое ищется на стыке
+   * @return итоговый текст
+   */
+  public static String stitch(List<Part> parts, int maxOverlapWords) {
+    List<String> words = new ArrayList<>();
+    for (Part part : parts) {
+      if (part.text() == null || part.text().isBlank()) {
+        continue;
+      }
+      List<String> next = Arrays.asList(part.text().trim().split("\\s+"));
+      // Повторы на стыке разреза в паузе — это реальная речь, их не трогаем
+      int overlap = part.overlapsPrevious() ? findOverlap(words, next, maxOverlapWords) : 0;
+      words.addAll(next.subList(overlap, next.size()));
+    }
+    return String.join(" ", words);
+  }
+
+  /** Длина совпадения конца {@code left} с началом {@code right} в словах */
+  static int findOverlap(List<String> left, List<String> right, int maxOverlapWords) {
+    int max = Math.min(maxOverlapWords, Math.min(left.size(), right.size()));
+    for (int length = max; length > 0; length--) {
+      boolean matches = true;
+      for (int i = 0; i < length && matches; i++) {
+        matches =
+            normalize(left.get(left.size() - length + i)).equals(normalize(right.get(i)));
+      }
+      if (matches) {
+        return length;
+      }
+    }
+    return 0;
+  }
+
+  private static String normalize(String word) {
+    return word.replaceAll("[\\p{Punct}«»—…]", "").toLowerCase(Locale.ROOT);
+  }
+}
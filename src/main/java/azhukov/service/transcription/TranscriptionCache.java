@@ -0,0 +1,251 @@
+package azhukov.service.transcription;
+
+import azhukov.config.TranscriptionProperties;
+import azhukov.service.TranscriptionProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш результатов транскрибации, адресуемый содержимым аудио. Ключ — SHA-256 записи, провайдер и
+ * язык, поэтому повторная отправка той же записи (частый случай при нестабильной сети) не приводит
+ * к новым платным вызовам STT и LLM.
+ *
+ * <p>Два уровня: локальный диск (TTL по времени записи файла, вытеснение самых старых записей при
+ * превышении размера) и, опционально, Redis с TTL — общий для всех узлов. Ошибки кэша никогда не
+ * прерывают транскрибацию.
+ */
+@Component
+@Slf4j
+public class TranscriptionCache {
+
+  /** Закэшированный результат. formattedTranscription может отсутствовать */
+  public record Entry(String rawTranscription, String formattedTranscription) {}
+
+  private final TranscriptionProperties.Cache properties;
+  private final ObjectMapper objectMapper;
+  private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+  private final Path directory;
+  private final AtomicLong diskSize = new AtomicLong(-1);
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  public TranscriptionCache(
+      TranscriptionProperties transcriptionProperties,
+      ObjectMapper objectMapper,
+      ObjectProvider<StringRedisTemplate> redisTemplateProvider) {
+    this.properties = transcriptionProperties.getCache();
+    this.objectMapper = objectMapper;
+    this.redisTemplateProvider = redisTemplateProvider;
+    this.directory = Paths.get(properties.getDirectory());
+  }
+
+  /**
+   * Формирует ключ кэша
+   *
+   * @param sha256 хэш содержимого аудио
+   * @param provider провайдер транскрибации
+   * @param language код языка распознавания
+   */
+  public static String key(String sha256, TranscriptionProvider provider, String language) {
+    return sha256 + "-" + provider.name().toLowerCase() + "-" + language;
+  }
+
+  /** Ищет запись сначала на диске, затем в Redis */
+  public Optional<Entry> get(String key) {
+    if (!properties.isEnabled()) {
+      return Optional.empty();
+    }
+
+    Optional<Entry> entry = readDisk(key);
+    if (entry.isEmpty()) {
+      entry = readRedis(key);
+      entry.ifPresent(value -> writeDisk(key, value));
+    }
+    entry.ifPresent(value -> log.info("Transcription cache hit for key {}", key));
+    return entry;
+  }
+
+  /** Сохраняет запись на все уровни кэша */
+  public void put(String key, Entry entry) {
+    if (!properties.isEnabled() || entry.rawTranscription() == null) {
+      return;
+    }
+    writeDisk(key, entry);
+    writeRedis(key, entry);
+  }
+
+  /** Периодическая очистка устаревших записей и контроль размера дискового кэша */
+  @Scheduled(fixedDelayString = "PT10M", initialDelayString = "PT1M")
+  public void evictExpired() {
+    if (properties.isEnabled()) {
+      evict();
+    }
+  }
+
+  private Optional<Entry> readDisk(String key) {
+    Path file = pathFor(key);
+    try {
+      if (!Files.exists(file)) {
+        return Optional.empty();
+      }
+      if (isExpired(Files.getLastModifiedTime(file))) {
+        deleteQuietly(file);
+        return Optional.empty();
+      }
+      return Optional.of(objectMapper.readValue(file.toFile(), Entry.class));
+    } catch (IOException e) {
+      log.warn("Failed to read transcription cache entry {}: {}", file, e.getMessage());
+      deleteQuietly(file);
+      return Optional.empty();
+    }
+  }
+
+  private void writeDisk(String key, Entry entry) {
+    Path file = pathFor(key);
+    try {
+      Files.createDirectories(file.getParent());
+      // Пишем во временный файл и атомарно переименовываем, чтобы читатели не видели половину
+      Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+      objectMapper.writeValue(temp.toFile(), entry);
+      long size = Files.size(temp);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      if (diskSize.get() >= 0 && diskSize.addAndGet(size) > properties.getMaxDiskSize().toBytes()) {
+        evict();
+      }
+    } catch (IOException e) {
+      log.warn("Failed to write transcription cache entry {}: {}", file, e.getMessage());
+    }
+  }
+
+  private Optional<Entry> readRedis(String key) {
+    StringRedisTemplate redis = redisTemplate();
+    if (redis == null) {
+      return Optional.empty();
+    }
+    try {
+      String json = redis.opsForValue().get(properties.getRedisKeyPrefix() + key);
+      return json == null ? Optional.empty() : Optional.of(objectMapper.readValue(json, Entry.class));
+    } catch (Exception e) {
+      log.warn("Failed to read transcription cache entry from Redis: {}", e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private void writeRedis(String key, Entry entry) {
+    StringRedisTemplate redis = redisTemplate();
+    if (redis == null) {
+      return;
+    }
+    try {
+      redis
+          .opsForValue()
+          .set(
+              properties.getRedisKeyPrefix() + key,
+              objectMapper.writeValueAsString(entry),
+              properties.getRedisTtl().toMillis(),
+              TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      log.warn("Failed to write transcription cache entry to Redis: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Удаляет устаревшие записи, затем самые старые, пока размер кэша не станет меньше лимита.
+   * Одновременно выполняется только одна очистка.
+   */
+  private void evict() {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      if (!Files.isDirectory(directory)) {
+        diskSize.set(0);
+        return;
+      }
+
+      List<Path> files;
+      try (Stream<Path> stream = Files.walk(directory)) {
+        files = stream.filter(path -> path.toString().endsWith(".json")).toList();
+      }
+
+      List<CachedFile> alive = new ArrayList<>(files.size());
+      long total = 0;
+      for (Path file : files) {
+        try {
+          FileTime modified = Files.getLastModifiedTime(file);
+          if (isExpired(modified)) {
+            deleteQuietly(file);
+            continue;
+          }
+          long size = Files.size(file);
+          alive.add(new CachedFile(file, modified.toMillis(), size));
+          total += size;
+        } catch (IOException e) {
+          // файл удалён параллельно
+        }
+      }
+
+      long limit = properties.getMaxDiskSize().toBytes();
+      if (total > limit) {
+        alive.sort(Comparator.comparingLong(CachedFile::modifiedAt));
+        int removed = 0;
+        for (CachedFile file : alive) {
+          if (total <= limit * 9 / 10) {
+            break;
+          }
+          deleteQuietly(file.path());
+          total -= file.size();
+          removed++;
+        }
+        log.info("Transcription cache exceeded {} bytes, evicted {} entries", limit, removed);
+      }
+      diskSize.set(total);
+    } catch (IOException e) {
+      log.warn("Failed to evict transcription cache: {}", e.getMessage());
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private boolean isExpired(FileTime modified) {
+    return modified.toInstant().plus(properties.getDiskTtl()).isBefore(Instant.now());
+  }
+
+  /** Файлы раскладываются по подкаталогам по первым символам хэша */
+  private Path pathFor(String key) {
+    return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+  }
+
+  private StringRedisTemplate redisTemplate() {
+    return properties.isRedisEnabled() ? redisTemplateProvider.getIfAvailable() : null;
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.debug("Failed to delete {}: {}", file, e.getMessage());
+    }
+  }
+
+  private record CachedFile(Path path, long modifiedAt, long size) {}
+}
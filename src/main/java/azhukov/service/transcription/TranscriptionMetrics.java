@@ -0,0 +1,216 @@
+package azhukov.service.transcription;
+
+import azhukov.exception.SilentRecordingException;
+import azhukov.exception.ValidationException;
+import azhukov.service.TranscriptionProvider;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Метрики пайплайна транскрибации: время каждого этапа, объём входных данных, длительность аудио и
+ * real-time factor (время обработки / длительность аудио). Все метрики помечены пайплайном,
+ * провайдером и исходом, поэтому в Prometheus видно, какой этап определяет задержку, которую
+ * ощущает кандидат.
+ *
+ * <p>Провайдер в тегах — основной из конфигурации; на какой провайдер ушёл конкретный запрос при
+ * failover, показывает {@code transcription.provider.latency}.
+ */
+@Component
+public class TranscriptionMetrics {
+
+  /** Этапы пайплайна */
+  public enum Stage {
+    /** Проверка размера и типа файла */
+    VALIDATION,
+    /** Чтение загрузки: хэш, детектор речи, копия в хранилище записей */
+    UPLOAD,
+    /** Распознавание речи у провайдера (включая нормализацию и деление на фрагменты) */
+    STT,
+    /** Форматирование текста локально или через LLM */
+    FORMATTING,
+    /** Сохранение ответа в БД */
+    PERSIST
+  }
+
+  /** Вид пайплайна */
+  public enum Pipeline {
+    /** Загрузка записи ответа с сохранением в БД */
+    UPLOAD,
+    /** Только транскрибация, без сохранения */
+    TRANSCRIBE_ONLY,
+    /** Потоковая транскрибация по WebSocket; STT замеряется после остановки записи */
+    STREAMING
+  }
+
+  // Стандартные бакеты Micrometer начинаются с 1, а real-time factor обычно меньше единицы
+  private static final double[] REALTIME_FACTOR_BUCKETS = {
+    0.05, 0.1, 0.2, 0.3, 0.5, 0.75, 1, 1.5, 2
+  };
+
+  private final MeterRegistry registry;
+
+  public TranscriptionMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Начинает замер одного запроса
+   *
+   * @param pipeline вид пайплайна
+   * @param provider основной провайдер STT
+   */
+  public Recording start(Pipeline pipeline, TranscriptionProvider provider) {
+    return new Recording(pipeline, provider);
+  }
+
+  /** Исход запроса по исключению, которым он завершился */
+  static String outcome(Throwable error) {
+    if (error instanceof SilentRecordingException) {
+      return "silent";
+    }
+    if (error instanceof ValidationException || error instanceof IllegalArgumentException) {
+      return "invalid";
+    }
+    return "error";
+  }
+
+  private static String tag(Enum<?> value) {
+    return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+
+  /**
+   * Замер одного запроса. Этапы идут последовательно: {@link #stage} завершает текущий этап и
+   * начинает следующий. Метрики записываются один раз — в {@link #success} или {@link #failure},
+   * когда известен исход. Экземпляр не потокобезопасен, но может передаваться между потоками
+   * вместе с CompletableFuture.
+   */
+  public final class Recording {
+
+    private final Pipeline pipeline;
+    private final String provider;
+    private final long startNanos = System.nanoTime();
+    private final Map<Stage, Long> stageNanos = new EnumMap<>(Stage.class);
+    private Stage currentStage;
+    private long stageStartNanos;
+    private long bytes = -1;
+    private double audioSeconds;
+    private boolean cached;
+    private boolean finished;
+
+    private Recording(Pipeline pipeline, TranscriptionProvider provider) {
+      this.pipeline = pipeline;
+      this.provider = provider != null ? tag(provider) : "none";
+    }
+
+    /** Завершает текущий этап и начинает следующий */
+    public void stage(Stage stage) {
+      long now = System.nanoTime();
+      closeStage(now);
+      currentStage = stage;
+      stageStartNanos = now;
+    }
+
+    /** Размер входных данных в байтах */
+    public void bytes(long bytes) {
+      this.bytes = bytes;
+    }
+
+    /** Длительность аудио в секундах; без неё real-time factor не считается */
+    public void audioSeconds(double audioSeconds) {
+      this.audioSeconds = audioSeconds;
+    }
+
+    /** Результат взят из кэша транскрибаций — STT и LLM не вызывались */
+    public void cached() {
+      this.cached = true;
+    }
+
+    /** Записывает метрики успешного запроса */
+    public void success() {
+      finish(cached ? "cached" : "success");
+    }
+
+    /** Записывает метрики запроса, завершившегося ошибкой */
+    public void failure(Throwable error) {
+      finish(outcome(error));
+    }
+
+    private void finish(String outcome) {
+      if (finished) {
+        return;
+      }
+      finished = true;
+      long now = System.nanoTime();
+      closeStage(now);
+
+      String pipelineTag = tag(pipeline);
+      stageNanos.forEach(
+          (stage, nanos) ->
+              Timer.builder("transcription.pipeline.stage")
+                  .description("Время этапа пайплайна транскрибации")
+                  .tag("pipeline", pipelineTag)
+                  .tag("stage", tag(stage))
+                  .tag("provider", provider)
+                  .tag("outcome", outcome)
+                  .publishPercentileHistogram()
+                  .register(registry)
+                  .record(Duration.ofNanos(nanos)));
+
+      long totalNanos = now - startNanos;
+      Timer.builder("transcription.pipeline.duration")
+          .description("Полное время обработки запроса транскрибации")
+          .tag("pipeline", pipelineTag)
+          .tag("provider", provider)
+          .tag("outcome", outcome)
+          .publishPercentileHistogram()
+          .register(registry)
+          .record(Duration.ofNanos(totalNanos));
+
+      if (bytes >= 0) {
+        summary("transcription.pipeline.bytes", "Размер входного аудио", "bytes", outcome)
+            .record(bytes);
+      }
+      if (audioSeconds > 0) {
+        summary("transcription.pipeline.audio.duration", "Длительность аудио", "seconds", outcome)
+            .record(audioSeconds);
+        summary(
+                "transcription.pipeline.realtime.factor",
+                "Время обработки, делённое на длительность аудио",
+                null,
+                outcome,
+                REALTIME_FACTOR_BUCKETS)
+            .record(totalNanos / 1e9 / audioSeconds);
+      }
+    }
+
+    private void closeStage(long now) {
+      if (currentStage != null) {
+        stageNanos.merge(currentStage, now - stageStartNanos, Long::sum);
+        currentStage = null;
+      }
+    }
+
+    private DistributionSummary summary(
+        String name, String description, String baseUnit, String outcome, double... buckets) {
+      DistributionSummary.Builder builder =
+          DistributionSummary.builder(name)
+              .description(description)
+              .baseUnit(baseUnit)
+              .tag("pipeline", tag(pipeline))
+              .tag("provider", provider)
+              .tag("outcome", outcome);
+      if (buckets.length > 0) {
+        builder.serviceLevelObjectives(buckets);
+      } else {
+        builder.publishPercentileHistogram();
+      }
+      return builder.register(registry);
+    }
+  }
+}
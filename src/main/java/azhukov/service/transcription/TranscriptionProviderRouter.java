@@ -0,0 +1,288 @@
+package azhukov.service.transcription;
+
+import azhukov.config.TranscriptionProperties;
+import azhukov.service.TranscriptionProvider;
+import azhukov.service.ai.elevenlabs.ElevenLabsService;
+import azhukov.service.ai.openai.OpenAiSttService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Маршрутизатор запросов транскрибации между ElevenLabs и OpenAI Whisper.
+ *
+ * <p>Для каждого провайдера ведётся скользящая средняя задержки и доли ошибок, а также счётчик
+ * ошибок подряд. После {@code failureThreshold} ошибок провайдер исключается на {@code
+ * circuitOpenDuration}. Первым выбирается провайдер из конфигурации, если он доступен и не
+ * медленнее резервного более чем в {@code latencyBias} раз.
+ *
+ * <p>При ошибке или таймауте запрос уходит следующему провайдеру. Если включено хеджирование и
+ * первый провайдер не ответил за {@code hedgeDelay}, параллельно отправляется запрос второму —
+ * используется первый успешный ответ.
+ */
+@Component
+@Slf4j
+public class TranscriptionProviderRouter {
+
+  private final TranscriptionProperties transcriptionProperties;
+  private final TranscriptionProperties.Routing properties;
+  private final MeterRegistry meterRegistry;
+  private final Map<TranscriptionProvider, Function<MultipartFile, String>> providers;
+  private final Map<TranscriptionProvider, ProviderHealth> health =
+      new EnumMap<>(TranscriptionProvider.class);
+  private final ExecutorService executor;
+
+  /**
+   * Распознанный текст и провайдер, который его вернул
+   *
+   * @param provider провайдер первого успешного ответа (после переключения — резервный)
+   */
+  public record Result(TranscriptionProvider provider, String text) {}
+
+  public TranscriptionProviderRouter(
+      TranscriptionProperties transcriptionProperties,
+      ElevenLabsService elevenLabsService,
+      OpenAiSttService openAiSttService,
+      MeterRegistry meterRegistry) {
+    this.transcriptionProperties = transcriptionProperties;
+    this.properties = transcriptionProperties.getRouting();
+    this.meterRegistry = meterRegistry;
+    this.providers = new EnumMap<>(TranscriptionProvider.class);
+    this.providers.put(TranscriptionProvider.ELEVENLABS, elevenLabsService::transcribeAudio);
+    this.providers.put(TranscriptionProvider.OPENAI, openAiSttService::transcribeAudio);
+    for (TranscriptionProvider provider : TranscriptionProvider.values()) {
+      ProviderHealth providerHealth = new ProviderHealth(provider);
+      health.put(provider, providerHealth);
+      String tag = tag(provider);
+      Gauge.builder("transcription.provider.latency.ewma", providerHealth, h -> h.ewmaLatencyMs)
+          .description("Скользящая средняя задержки провайдера STT, мс")
+          .tag("provider", tag)
+          .register(meterRegistry);
+      Gauge.builder("transcription.provider.available", providerHealth, h -> h.isAvailable() ? 1 : 0)
+          .description("Провайдер STT участвует в маршрутизации")
+          .tag("provider", tag)
+          .register(meterRegistry);
+    }
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(2, properties.getPoolSize()),
+            ChunkedTranscriptionService.threadFactory("stt-provider-"));
+  }
+
+  /**
+   * Транскрибирует файл, выбирая провайдера по состоянию здоровья
+   *
+   * @param audioFile аудио файл
+   * @return распознанный текст
+   */
+  public String transcribe(MultipartFile audioFile) {
+    return transcribeWithProvider(audioFile).text();
+  }
+
+  /**
+   * Транскрибирует файл и сообщает, какой провайдер дал ответ: результат резервного провайдера
+   * нельзя выдавать за результат основного, например в кэше
+   */
+  public Result transcribeWithProvider(MultipartFile audioFile) {
+    Deque<TranscriptionProvider> pending = new ArrayDeque<>(route());
+    List<CompletableFuture<Result>> inFlight = new ArrayList<>();
+    inFlight.add(call(pending.poll(), audioFile));
+
+    try {
+      while (true) {
+        CompletableFuture<Result> race = firstSuccessful(inFlight);
+        boolean canHedge = properties.isHedgingEnabled() && !pending.isEmpty();
+        try {
+          return canHedge
+              ? race.get(properties.getHedgeDelay().toMillis(), TimeUnit.MILLISECONDS)
+              : race.get();
+        } catch (TimeoutException e) {
+          TranscriptionProvider hedge = pending.poll();
+          log.info("STT provider is slow, sending hedged request to {}", hedge);
+          counter("transcription.provider.hedged", hedge).increment();
+          inFlight.add(call(hedge, audioFile));
+        } catch (ExecutionException e) {
+          if (pending.isEmpty()) {
+            throw unwrap(e.getCause());
+          }
+          TranscriptionProvider next = pending.poll();
+          log.warn(
+              "STT provider failed ({}), failing over to {}",
+              unwrap(e.getCause()).getMessage(),
+              next);
+          counter("transcription.provider.failover", next).increment();
+          inFlight.add(call(next, audioFile));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Transcription interrupted", e);
+    } finally {
+      // Проигравшие запросы не нужны; их метрики всё равно будут записаны
+      inFlight.forEach(future -> future.cancel(false));
+    }
+  }
+
+  /** Порядок провайдеров для очередного запроса */
+  List<TranscriptionProvider> route() {
+    TranscriptionProvider primary = transcriptionProperties.getProvider();
+    if (!properties.isFailoverEnabled()) {
+      return List.of(primary);
+    }
+
+    List<TranscriptionProvider> order = new ArrayList<>(List.of(TranscriptionProvider.values()));
+    order.sort(
+        Comparator.comparing((TranscriptionProvider p) -> !health.get(p).isAvailable())
+            .thenComparingDouble(p -> score(p, p == primary))
+            .thenComparing(p -> p != primary));
+    return order;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Оценка провайдера: меньше — лучше. Основной провайдер получает бонус latencyBias, резервный без
+   * замеров выбирается только при отказе основного
+   */
+  private double score(TranscriptionProvider provider, boolean primary) {
+    ProviderHealth h = health.get(provider);
+    if (h.ewmaLatencyMs == 0) {
+      return primary ? 0 : Double.MAX_VALUE;
+    }
+    double latency = h.ewmaLatencyMs * (1 + 4 * h.errorRate);
+    return primary ? latency / Math.max(1, properties.getLatencyBias()) : latency;
+  }
+
+  private CompletableFuture<Result> call(TranscriptionProvider provider, MultipartFile audioFile) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    long start = System.nanoTime();
+    return CompletableFuture.supplyAsync(
+            () -> new Result(provider, providers.get(provider).apply(audioFile)), executor)
+        .orTimeout(properties.getAttemptTimeout().toMillis(), TimeUnit.MILLISECONDS)
+        .whenComplete(
+            (served, error) -> {
+              double latencyMs = (System.nanoTime() - start) / 1_000_000.0;
+              String outcome =
+                  error == null ? "success" : isTimeout(error) ? "timeout" : "error";
+              sample.stop(
+                  Timer.builder("transcription.provider.latency")
+                      .description("Время ответа провайдера STT")
+                      .tag("provider", tag(provider))
+                      .tag("outcome", outcome)
+                      .register(meterRegistry));
+              if (error == null) {
+                health.get(provider).recordSuccess(latencyMs);
+              } else {
+                health.get(provider).recordFailure(latencyMs);
+              }
+            });
+  }
+
+  /** Завершается первым успешным результатом или ошибкой, если все запросы упали */
+  private static CompletableFuture<Result> firstSuccessful(
+      List<CompletableFuture<Result>> futures) {
+    CompletableFuture<Result> result = new CompletableFuture<>();
+    AtomicInteger remaining = new AtomicInteger(futures.size());
+    for (CompletableFuture<Result> future : futures) {
+      future.whenComplete(
+          (value, error) -> {
+            if (error == null) {
+              result.complete(value);
+            } else if (remaining.decrementAndGet() == 0) {
+              result.completeExceptionally(error);
+            }
+          });
+    }
+    return result;
+  }
+
+  private static boolean isTimeout(Throwable error) {
+    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+    return cause instanceof TimeoutException;
+  }
+
+  private static RuntimeException unwrap(Throwable error) {
+    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+    if (cause instanceof TimeoutException) {
+      return new RuntimeException("Transcription provider timed out", cause);
+    }
+    return cause instanceof RuntimeException runtimeException
+        ? runtimeException
+        : new RuntimeException(cause.getMessage(), cause);
+  }
+
+  private Counter counter(String name, TranscriptionProvider provider) {
+    return Counter.builder(name).tag("provider", tag(provider)).register(meterRegistry);
+  }
+
+  private static String tag(TranscriptionProvider provider) {
+    return provider.name().toLowerCase();
+  }
+
+  /** Скользящие метрики провайдера, по которым принимается решение о маршруте */
+  private final class ProviderHealth {
+    private final TranscriptionProvider provider;
+    private volatile double ewmaLatencyMs;
+    private volatile double errorRate;
+    private volatile long circuitOpenUntil;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    ProviderHealth(TranscriptionProvider provider) {
+      this.provider = provider;
+    }
+
+    boolean isAvailable() {
+      return System.currentTimeMillis() >= circuitOpenUntil;
+    }
+
+    synchronized void recordSuccess(double latencyMs) {
+      ewmaLatencyMs = ewmaLatencyMs == 0 ? latencyMs : ewma(ewmaLatencyMs, latencyMs);
+      errorRate = ewma(errorRate, 0);
+      consecutiveFailures.set(0);
+    }
+
+    synchronized void recordFailure(double latencyMs) {
+      ewmaLatencyMs = ewmaLatencyMs == 0 ? latencyMs : ewma(ewmaLatencyMs, latencyMs);
+      errorRate = ewma(errorRate, 1);
+      if (consecutiveFailures.incrementAndGet() >= properties.getFailureThreshold()) {
+        circuitOpenUntil =
+            System.currentTimeMillis() + properties.getCircuitOpenDuration().toMillis();
+        consecutiveFailures.set(0);
+        log.warn(
+            "STT provider {} excluded from routing for {} after {} consecutive failures",
+            provider,
+            properties.getCircuitOpenDuration(),
+            properties.getFailureThreshold());
+      }
+    }
+
+    private double ewma(double current, double value) {
+      double alpha = properties.getEwmaAlpha();
+      return alpha * value + (1 - alpha) * current;
+    }
+  }
+}
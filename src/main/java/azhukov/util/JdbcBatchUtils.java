@@ -0,0 +1,66 @@
+package azhukov.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Пакетная вставка строк фоновыми писателями. Пачка пишется одним JDBC batch; если её отвергла
+ * проверка целостности (нет строки по внешнему ключу, слишком длинное значение, нет секции), строки
+ * пишутся по одной, и отвергнутые отбрасываются — иначе одна такая строка навсегда блокировала бы
+ * очередь. Прочие ошибки (БД недоступна, блокировки) считаются временными: незаписанные строки
+ * возвращаются вызывающему для повтора.
+ */
+@Slf4j
+public class JdbcBatchUtils {
+
+  /**
+   * Итог записи пачки
+   *
+   * @param rejected строки, отвергнутые БД окончательно
+   * @param unwritten строки, не записанные из-за временной ошибки, в исходном порядке
+   * @param failure временная ошибка или null
+   */
+  public record BatchResult<T>(List<T> rejected, List<T> unwritten, Exception failure) {}
+
+  /**
+   * Вставляет строки пачкой, при нарушении целостности — по одной
+   *
+   * @param transaction транзакция каждой записи
+   * @param toArgs параметры запроса для строки
+   */
+  public static <T> BatchResult<T> insert(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transaction,
+      String sql,
+      List<T> rows,
+      Function<T, Object[]> toArgs) {
+    try {
+      transaction.executeWithoutResult(
+          status -> jdbcTemplate.batchUpdate(sql, rows.stream().map(toArgs).toList()));
+      return new BatchResult<>(List.of(), List.of(), null);
+    } catch (DataIntegrityViolationException e) {
+      log.debug("Batch of {} rows rejected, writing one by one: {}", rows.size(), e.getMessage());
+    } catch (Exception e) {
+      return new BatchResult<>(List.of(), rows, e);
+    }
+
+    List<T> rejected = new ArrayList<>();
+    for (int i = 0; i < rows.size(); i++) {
+      T row = rows.get(i);
+      try {
+        transaction.executeWithoutResult(status -> jdbcTemplate.update(sql, toArgs.apply(row)));
+      } catch (DataIntegrityViolationException e) {
+        log.debug("Row rejected by database: {}", e.getMessage());
+        rejected.add(row);
+      } catch (Exception e) {
+        return new BatchResult<>(rejected, rows.subList(i, rows.size()), e);
+      }
+    }
+    return new BatchResult<>(rejected, List.of(), null);
+  }
+}
@@ -0,0 +1,41 @@
+package azhukov.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Утилиты для действий, привязанных к текущей транзакции: сбросы кэшей, события и фоновые записи
+ * не должны видеть изменений, которые потом откатятся. Вне транзакции действие выполняется сразу.
+ */
+public class TransactionUtils {
+
+  /** Выполняет действие после коммита текущей транзакции; при откате действие не выполняется */
+  public static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  /** Выполняет действие по завершении текущей транзакции — и после коммита, и после отката */
+  public static void afterCompletion(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+}
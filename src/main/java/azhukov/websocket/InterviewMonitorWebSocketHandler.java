@@ -0,0 +1,120 @@
+package azhukov.websocket;
+
+import azhukov.service.live.InterviewLiveEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Живая лента событий интервью для дашборда HR вместо опроса статуса.
+ *
+ * <p>Протокол: клиент подключается к {@code /ws/interviews/live?token=...} и получает события всех
+ * интервью, либо к {@code /ws/interviews/live?token=...&interviewId=...} — только одного. Сервер
+ * присылает {@code {"type": "ANSWER_SAVED", "interviewId": ..., "data": {...}, "occurredAt":
+ * ...}}; клиент ничего не отправляет. Медленный клиент, у которого переполнился буфер отправки,
+ * отключается.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InterviewMonitorWebSocketHandler extends TextWebSocketHandler {
+
+  private static final int SEND_TIME_LIMIT_MS = 5_000;
+  private static final int SEND_BUFFER_SIZE = 64 * 1024;
+
+  private final ObjectMapper objectMapper;
+
+  private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+  /**
+   * Подписка дашборда
+   *
+   * @param interviewId интервью, события которого нужны; null — все интервью
+   */
+  private record Subscriber(WebSocketSession session, Long interviewId) {
+
+    boolean accepts(InterviewLiveEvent event) {
+      return interviewId == null || interviewId.equals(event.interviewId());
+    }
+  }
+
+  @Override
+  public void afterConnectionEstablished(WebSocketSession rawSession) throws IOException {
+    String interviewId =
+        UriComponentsBuilder.fromUri(rawSession.getUri())
+            .build()
+            .getQueryParams()
+            .getFirst("interviewId");
+    Long filter;
+    try {
+      filter = interviewId != null ? Long.valueOf(interviewId) : null;
+    } catch (NumberFormatException e) {
+      rawSession.close(CloseStatus.BAD_DATA.withReason("Invalid interviewId"));
+      return;
+    }
+    WebSocketSession session =
+        new ConcurrentWebSocketSessionDecorator(rawSession, SEND_TIME_LIMIT_MS, SEND_BUFFER_SIZE);
+    subscribers.put(rawSession.getId(), new Subscriber(session, filter));
+    log.info(
+        "Live monitoring subscribed: session {}, interview {}, user {}",
+        rawSession.getId(),
+        filter != null ? filter : "all",
+        rawSession.getAttributes().get(JwtHandshakeInterceptor.USERNAME_ATTRIBUTE));
+  }
+
+  @Override
+  public void afterConnectionClosed(WebSocketSession rawSession, CloseStatus status) {
+    subscribers.remove(rawSession.getId());
+  }
+
+  /** Отправляет событие подписчикам этого узла */
+  public void broadcast(InterviewLiveEvent event) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    TextMessage message;
+    try {
+      message = new TextMessage(objectMapper.writeValueAsString(event));
+    } catch (JsonProcessingException e) {
+      log.warn("Failed to serialize live event {}: {}", event.type(), e.getMessage());
+      return;
+    }
+    for (Map.Entry<String, Subscriber> entry : subscribers.entrySet()) {
+      Subscriber subscriber = entry.getValue();
+      if (!subscriber.accepts(event)) {
+        continue;
+      }
+      try {
+        subscriber.session().sendMessage(message);
+      } catch (Exception e) {
+        // Соединение закрыто или клиент не успевает читать
+        log.debug("Dropping live monitoring session {}: {}", entry.getKey(), e.getMessage());
+        subscribers.remove(entry.getKey());
+        closeQuietly(subscriber.session());
+      }
+    }
+  }
+
+  int subscriberCount() {
+    return subscribers.size();
+  }
+
+  private static void closeQuietly(WebSocketSession session) {
+    try {
+      session.close(CloseStatus.SESSION_NOT_RELIABLE);
+    } catch (IOException e) {
+      log.debug("Failed to close session {}: {}", session.getId(), e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package azhukov.websocket;
+
+import azhukov.service.JwtService;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Проверяет JWT при установке WebSocket соединения. Браузер не может передать заголовок
+ * Authorization в WebSocket, поэтому токен принимается также из параметра {@code token}. Как и
+ * REST эндпоинты /ai, допускаются только токены администратора.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+  /** Атрибут сессии с именем пользователя из токена */
+  public static final String USERNAME_ATTRIBUTE = "username";
+
+  private final JwtService jwtService;
+
+  @Override
+  public boolean beforeHandshake(
+      ServerHttpRequest request,
+      ServerHttpResponse response,
+      WebSocketHandler wsHandler,
+      Map<String, Object> attributes) {
+    String token = extractToken(request);
+    if (token == null || !jwtService.validateToken(token)) {
+      response.setStatusCode(HttpStatus.UNAUTHORIZED);
+      return false;
+    }
+    if (!jwtService.isAdminToken(token)) {
+      response.setStatusCode(HttpStatus.FORBIDDEN);
+      return false;
+    }
+    attributes.put(USERNAME_ATTRIBUTE, jwtService.extractUsername(token));
+    return true;
+  }
+
+  @Override
+  public void afterHandshake(
+      ServerHttpRequest request,
+      ServerHttpResponse response,
+      WebSocketHandler wsHandler,
+      Exception exception) {}
+
+  private static String extractToken(ServerHttpRequest request) {
+    String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    if (authHeader != null && authHeader.startsWith("Bearer ")) {
+      return authHeader.substring(7);
+    }
+    return UriComponentsBuilder.fromUri(request.getURI())
+        .build()
+        .getQueryParams()
+        .getFirst("token");
+  }
+}
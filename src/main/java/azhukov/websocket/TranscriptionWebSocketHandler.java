@@ -0,0 +1,246 @@
+package azhukov.websocket;
+
+import azhukov.exception.ValidationException;
+import azhukov.service.TranscriptionService;
+import azhukov.service.transcription.StreamingTranscriptionService;
+import azhukov.service.transcription.StreamingTranscriptionSession;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Потоковая транскрибация ответа во время записи.
+ *
+ * <p>Протокол: клиент подключается к {@code
+ * /ws/transcription?token=...&interviewId=...&questionId=...&sampleRate=16000&channels=1} и
+ * отправляет бинарные сообщения с PCM 16 бит little-endian. Сервер присылает {@code {"type":
+ * "partial", "text": ...}} по мере распознавания фрагментов. Текстовое сообщение {@code {"type":
+ * "stop"}} завершает запись: сервер транскрибирует хвост, сохраняет ответ и присылает {@code
+ * {"type": "final", "interviewAnswerId": ..., "formattedText": ...}}. Ошибки приходят как {@code
+ * {"type": "error", "message": ...}}, после чего соединение закрывается.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TranscriptionWebSocketHandler extends AbstractWebSocketHandler {
+
+  private static final int DEFAULT_SAMPLE_RATE = 16000;
+  private static final int MAX_BINARY_MESSAGE_SIZE = 512 * 1024;
+  private static final int SEND_TIME_LIMIT_MS = 10_000;
+  private static final int SEND_BUFFER_SIZE = 256 * 1024;
+
+  private final StreamingTranscriptionService streamingTranscriptionService;
+  private final TranscriptionService transcriptionService;
+  private final ObjectMapper objectMapper;
+
+  private final Map<String, Stream> streams = new ConcurrentHashMap<>();
+
+  /** Состояние одной записи */
+  private record Stream(
+      WebSocketSession session,
+      StreamingTranscriptionSession transcription,
+      Long interviewId,
+      Long questionId) {}
+
+  @Override
+  public void afterConnectionEstablished(WebSocketSession rawSession) throws Exception {
+    rawSession.setBinaryMessageSizeLimit(MAX_BINARY_MESSAGE_SIZE);
+    WebSocketSession session =
+        new ConcurrentWebSocketSessionDecorator(rawSession, SEND_TIME_LIMIT_MS, SEND_BUFFER_SIZE);
+
+    try {
+      MultiValueMap<String, String> params =
+          UriComponentsBuilder.fromUri(rawSession.getUri()).build().getQueryParams();
+      Long interviewId = requiredLong(params, "interviewId");
+      Long questionId = requiredLong(params, "questionId");
+      int sampleRate = optionalInt(params, "sampleRate", DEFAULT_SAMPLE_RATE);
+      int channels = optionalInt(params, "channels", 1);
+
+      StreamingTranscriptionSession transcription =
+          streamingTranscriptionService.open(
+              sampleRate, channels, partial -> sendPartial(session, partial));
+      streams.put(
+          rawSession.getId(), new Stream(session, transcription, interviewId, questionId));
+      log.info(
+          "Streaming transcription started: session {}, interview {}, question {}, {} Hz/{} ch,"
+              + " user {}",
+          rawSession.getId(),
+          interviewId,
+          questionId,
+          sampleRate,
+          channels,
+          rawSession.getAttributes().get(JwtHandshakeInterceptor.USERNAME_ATTRIBUTE));
+    } catch (ValidationException e) {
+      sendError(session, e.getMessage(), CloseStatus.BAD_DATA);
+    }
+  }
+
+  @Override
+  protected void handleBinaryMessage(WebSocketSession rawSession, BinaryMessage message) {
+    Stream stream = streams.get(rawSession.getId());
+    if (stream == null) {
+      return;
+    }
+    ByteBuffer payload = message.getPayload();
+    byte[] pcm = new byte[payload.remaining()];
+    payload.get(pcm);
+    try {
+      stream.transcription().append(pcm, 0, pcm.length);
+    } catch (ValidationException e) {
+      streams.remove(rawSession.getId());
+      stream.transcription().cancel();
+      sendError(stream.session(), e.getMessage(), CloseStatus.POLICY_VIOLATION);
+    }
+  }
+
+  @Override
+  protected void handleTextMessage(WebSocketSession rawSession, TextMessage message)
+      throws IOException {
+    Stream stream = streams.get(rawSession.getId());
+    if (stream == null) {
+      return;
+    }
+    JsonNode command = objectMapper.readTree(message.getPayload());
+    String type = command.path("type").asText();
+    switch (type) {
+      case "stop" -> finish(rawSession.getId(), stream);
+      case "cancel" -> {
+        streams.remove(rawSession.getId());
+        stream.transcription().cancel();
+        stream.session().close(CloseStatus.NORMAL);
+      }
+      default -> sendError(stream.session(), "Unknown message type: " + type, CloseStatus.BAD_DATA);
+    }
+  }
+
+  @Override
+  public void handleTransportError(WebSocketSession rawSession, Throwable exception) {
+    log.warn(
+        "Transport error in streaming transcription session {}: {}",
+        rawSession.getId(),
+        exception.getMessage());
+  }
+
+  @Override
+  public void afterConnectionClosed(WebSocketSession rawSession, CloseStatus status) {
+    Stream stream = streams.remove(rawSession.getId());
+    if (stream != null) {
+      // Соединение закрыто до команды stop — распознанные фрагменты не нужны
+      stream.transcription().cancel();
+      log.info(
+          "Streaming transcription session {} closed before stop ({})", rawSession.getId(), status);
+    }
+  }
+
+  private void finish(String sessionId, Stream stream) {
+    streams.remove(sessionId);
+    streamingTranscriptionService
+        .complete(stream.transcription(), stream.interviewId(), stream.questionId())
+        .whenComplete(
+            (interviewAnswerId, error) -> {
+              if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof ValidationException) {
+                  sendError(stream.session(), cause.getMessage(), CloseStatus.NORMAL);
+                } else {
+                  log.error(
+                      "Streaming transcription failed for interview {} question {}",
+                      stream.interviewId(),
+                      stream.questionId(),
+                      cause);
+                  sendError(
+                      stream.session(),
+                      "Transcription processing failed",
+                      CloseStatus.SERVER_ERROR);
+                }
+                return;
+              }
+
+              Map<String, Object> response = new LinkedHashMap<>();
+              response.put("type", "final");
+              response.put("interviewAnswerId", interviewAnswerId);
+              response.put(
+                  "formattedText",
+                  transcriptionService.getFormattedTranscription(interviewAnswerId));
+              send(stream.session(), response);
+              close(stream.session(), CloseStatus.NORMAL);
+            });
+  }
+
+  private void sendPartial(
+      WebSocketSession session, StreamingTranscriptionSession.Partial partial) {
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("type", "partial");
+    response.put("chunks", partial.chunks());
+    response.put("text", partial.text());
+    send(session, response);
+  }
+
+  private void sendError(WebSocketSession session, String message, CloseStatus status) {
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("type", "error");
+    response.put("message", message);
+    send(session, response);
+    close(session, status);
+  }
+
+  private void send(WebSocketSession session, Map<String, Object> payload) {
+    if (!session.isOpen()) {
+      return;
+    }
+    try {
+      session.sendMessage(new TextMessage(objectMapper.writeValueAsString(payload)));
+    } catch (IOException e) {
+      log.warn("Failed to send message to session {}: {}", session.getId(), e.getMessage());
+    }
+  }
+
+  private static void close(WebSocketSession session, CloseStatus status) {
+    try {
+      session.close(status);
+    } catch (IOException e) {
+      log.debug("Failed to close session {}: {}", session.getId(), e.getMessage());
+    }
+  }
+
+  private static Long requiredLong(MultiValueMap<String, String> params, String name) {
+    String value = params.getFirst(name);
+    if (value == null) {
+      throw new ValidationException("Missing required parameter: " + name);
+    }
+    try {
+      return Long.valueOf(value);
+    } catch (NumberFormatException e) {
+      throw new ValidationException("Invalid parameter " + name + ": " + value);
+    }
+  }
+
+  private static int optionalInt(
+      MultiValueMap<String, String> params, String name, int defaultValue) {
+    String value = params.getFirst(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new ValidationException("Invalid parameter " + name + ": " + value);
+    }
+  }
+}
@@ -0,0 +1,9 @@
+-- Migration: Audio recordings storage and retention
+-- Description: Per-position retention period for stored answer recordings
+
+ALTER TABLE positions ADD COLUMN audio_retention_days INTEGER;
+
+-- Поиск ответов со сохранённой записью при очистке по сроку хранения
+CREATE INDEX idx_interview_answers_audio_url ON interview_answers(audio_url) WHERE audio_url IS NOT NULL;
+
+COMMENT ON COLUMN positions.audio_retention_days IS 'Сколько дней хранить записи ответов (NULL — бессрочно)';
@@ -0,0 +1,14 @@
+-- Migration: ElevenLabs agent pool
+-- Description: Agents are shared between interviews with identical configuration
+
+ALTER TABLE agents ADD COLUMN config_hash VARCHAR(64);
+ALTER TABLE agents ADD COLUMN last_used_at TIMESTAMP;
+
+-- Один активный агент на конфигурацию; защищает от дублей при параллельном старте интервью
+CREATE UNIQUE INDEX ux_agents_config_hash_active ON agents(config_hash) WHERE status = 'ACTIVE' AND config_hash IS NOT NULL;
+
+-- Поиск простаивающих агентов пула для удаления
+CREATE INDEX idx_agents_pool_last_used_at ON agents(last_used_at) WHERE config_hash IS NOT NULL;
+
+COMMENT ON COLUMN agents.config_hash IS 'SHA-256 конфигурации агента; агенты с хэшем переиспользуются между интервью';
+COMMENT ON COLUMN agents.last_used_at IS 'Когда агент последний раз выдавался для интервью';
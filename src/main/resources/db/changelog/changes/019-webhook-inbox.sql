@@ -0,0 +1,29 @@
+-- Migration: Webhook inbox
+-- Description: Raw provider webhook events are stored before processing; the endpoint acks right after the insert
+
+CREATE TABLE webhook_inbox (
+    id BIGSERIAL PRIMARY KEY,
+    provider VARCHAR(32) NOT NULL,
+    idempotency_key VARCHAR(128) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    interview_id VARCHAR(64),
+    payload JSONB NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'RECEIVED',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    received_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    claimed_at TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- Повторная доставка того же события не создаёт новую запись
+CREATE UNIQUE INDEX ux_webhook_inbox_idempotency ON webhook_inbox(provider, idempotency_key);
+
+-- Очередь необработанных событий интервью в порядке поступления
+CREATE INDEX idx_webhook_inbox_pending ON webhook_inbox(interview_id, id) WHERE status IN ('RECEIVED', 'PROCESSING', 'FAILED');
+
+COMMENT ON TABLE webhook_inbox IS 'Входящие webhook события (append-only), обрабатываются асинхронно';
+COMMENT ON COLUMN webhook_inbox.idempotency_key IS 'Ключ идемпотентности: заголовок Idempotency-Key или SHA-256 события';
+COMMENT ON COLUMN webhook_inbox.interview_id IS 'ID интервью из события; события одного интервью обрабатываются по порядку';
+COMMENT ON COLUMN webhook_inbox.status IS 'RECEIVED, PROCESSING, PROCESSED, FAILED, DEAD';
+COMMENT ON COLUMN webhook_inbox.attempts IS 'Число попыток обработки';
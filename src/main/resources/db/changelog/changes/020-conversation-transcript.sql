@@ -0,0 +1,19 @@
+-- Migration: Conversation transcript
+-- Description: Append-only log of voice conversation messages, written in JDBC batches by the transcript buffer
+
+CREATE TABLE conversation_transcript (
+    id BIGSERIAL PRIMARY KEY,
+    interview_id BIGINT NOT NULL REFERENCES interviews(id) ON DELETE CASCADE,
+    message_type VARCHAR(32) NOT NULL,
+    text TEXT NOT NULL,
+    agent_id VARCHAR(255),
+    occurred_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Лента разговора интервью в хронологическом порядке
+CREATE INDEX idx_conversation_transcript_timeline ON conversation_transcript(interview_id, occurred_at, id);
+
+COMMENT ON TABLE conversation_transcript IS 'Расшифровка голосовых интервью (append-only)';
+COMMENT ON COLUMN conversation_transcript.message_type IS 'AGENT_QUESTION, USER_ANSWER, AGENT_MESSAGE, SYSTEM_MESSAGE';
+COMMENT ON COLUMN conversation_transcript.occurred_at IS 'Время сообщения по данным провайдера';
@@ -0,0 +1,9 @@
+-- Migration: Voice session activity
+-- Description: Last activity of a live voice session, used by the stale session reaper and admission control
+
+ALTER TABLE interviews ADD COLUMN voice_last_activity_at TIMESTAMP;
+
+-- Живые голосовые сессии: подсчёт занятых слотов ElevenLabs и поиск брошенных сессий
+CREATE INDEX idx_interviews_live_voice_sessions ON interviews(voice_started_at) WHERE status = 'IN_PROGRESS' AND voice_enabled = TRUE AND voice_finished_at IS NULL;
+
+COMMENT ON COLUMN interviews.voice_last_activity_at IS 'Последний вопрос или ответ голосовой сессии';
@@ -0,0 +1,27 @@
+-- Migration: Interview daily stats
+-- Description: Per-day rollup of interview results and scores for monthly reports
+
+CREATE TABLE interview_daily_stats (
+    day DATE PRIMARY KEY,
+    total BIGINT NOT NULL DEFAULT 0,
+    successful BIGINT NOT NULL DEFAULT 0,
+    unsuccessful BIGINT NOT NULL DEFAULT 0,
+    score_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    score_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Заполняем агрегаты по уже существующим интервью
+INSERT INTO interview_daily_stats (day, total, successful, unsuccessful, score_sum, score_count)
+SELECT CAST(started_at AS DATE),
+       COUNT(*),
+       COUNT(*) FILTER (WHERE result = 'SUCCESSFUL'),
+       COUNT(*) FILTER (WHERE result = 'UNSUCCESSFUL'),
+       COALESCE(SUM(ai_score), 0),
+       COUNT(ai_score)
+FROM interviews
+WHERE started_at IS NOT NULL
+GROUP BY CAST(started_at AS DATE);
+
+COMMENT ON TABLE interview_daily_stats IS 'Суточные агрегаты интервью по дате начала для месячных отчётов';
+COMMENT ON COLUMN interview_daily_stats.score_sum IS 'Сумма ai_score оценённых интервью; средний балл = score_sum / score_count';
@@ -0,0 +1,65 @@
+-- Migration: Position funnel
+-- Description: Materialized per-position hiring funnel, maintained by the application, and backfill of positions.avg_score
+
+CREATE TABLE position_funnel (
+    position_id BIGINT PRIMARY KEY REFERENCES positions(id) ON DELETE CASCADE,
+    candidates_total BIGINT NOT NULL DEFAULT 0,
+    candidates_new BIGINT NOT NULL DEFAULT 0,
+    candidates_in_progress BIGINT NOT NULL DEFAULT 0,
+    candidates_finished BIGINT NOT NULL DEFAULT 0,
+    candidates_hired BIGINT NOT NULL DEFAULT 0,
+    candidates_rejected BIGINT NOT NULL DEFAULT 0,
+    interviews_total BIGINT NOT NULL DEFAULT 0,
+    interviews_not_started BIGINT NOT NULL DEFAULT 0,
+    interviews_in_progress BIGINT NOT NULL DEFAULT 0,
+    interviews_finished BIGINT NOT NULL DEFAULT 0,
+    interviews_successful BIGINT NOT NULL DEFAULT 0,
+    interviews_unsuccessful BIGINT NOT NULL DEFAULT 0,
+    score_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    score_count BIGINT NOT NULL DEFAULT 0,
+    last_activity_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Заполняем воронку по существующим вакансиям
+INSERT INTO position_funnel (
+    position_id,
+    candidates_total, candidates_new, candidates_in_progress,
+    candidates_finished, candidates_hired, candidates_rejected,
+    interviews_total, interviews_not_started, interviews_in_progress,
+    interviews_finished, interviews_successful, interviews_unsuccessful,
+    score_sum, score_count, last_activity_at)
+SELECT p.id,
+       c.total, c.new, c.in_progress, c.finished, c.hired, c.rejected,
+       i.total, i.not_started, i.in_progress, i.finished, i.successful, i.unsuccessful,
+       i.score_sum, i.score_count,
+       GREATEST(c.last_activity_at, i.last_activity_at)
+FROM positions p
+CROSS JOIN LATERAL (
+    SELECT COUNT(*) AS total,
+           COUNT(*) FILTER (WHERE status = 'NEW') AS new,
+           COUNT(*) FILTER (WHERE status = 'IN_PROGRESS') AS in_progress,
+           COUNT(*) FILTER (WHERE status = 'FINISHED') AS finished,
+           COUNT(*) FILTER (WHERE status = 'HIRED') AS hired,
+           COUNT(*) FILTER (WHERE status = 'REJECTED') AS rejected,
+           MAX(updated_at) AS last_activity_at
+    FROM candidates WHERE position_id = p.id) c
+CROSS JOIN LATERAL (
+    SELECT COUNT(*) AS total,
+           COUNT(*) FILTER (WHERE status = 'NOT_STARTED') AS not_started,
+           COUNT(*) FILTER (WHERE status = 'IN_PROGRESS') AS in_progress,
+           COUNT(*) FILTER (WHERE status = 'FINISHED') AS finished,
+           COUNT(*) FILTER (WHERE result = 'SUCCESSFUL') AS successful,
+           COUNT(*) FILTER (WHERE result = 'UNSUCCESSFUL') AS unsuccessful,
+           COALESCE(SUM(ai_score), 0) AS score_sum,
+           COUNT(ai_score) AS score_count,
+           MAX(updated_at) AS last_activity_at
+    FROM interviews WHERE position_id = p.id) i;
+
+UPDATE positions p
+SET avg_score = f.score_sum / f.score_count
+FROM position_funnel f
+WHERE f.position_id = p.id AND f.score_count > 0;
+
+COMMENT ON TABLE position_funnel IS 'Воронка найма по вакансии: кандидаты и интервью по статусам, сумма и число оценок';
+COMMENT ON COLUMN position_funnel.last_activity_at IS 'Последнее изменение кандидата или интервью вакансии';
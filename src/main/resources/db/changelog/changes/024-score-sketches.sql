@@ -0,0 +1,17 @@
+-- Migration: Score sketches
+-- Description: Mergeable score histograms per position and per question for percentile queries
+
+CREATE TABLE score_sketches (
+    scope VARCHAR(16) NOT NULL,
+    scope_id BIGINT NOT NULL,
+    sketch BYTEA NOT NULL,
+    total BIGINT NOT NULL DEFAULT 0,
+    source_snapshot TEXT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (scope, scope_id)
+);
+
+COMMENT ON TABLE score_sketches IS 'Гистограммы оценок ответов (шаг 0.1 балла) по вакансиям и вопросам';
+COMMENT ON COLUMN score_sketches.scope IS 'POSITION или QUESTION';
+COMMENT ON COLUMN score_sketches.sketch IS 'Сериализованная ScoreHistogram: версия формата и счётчики корзин в varint';
+COMMENT ON COLUMN score_sketches.source_snapshot IS 'Снимок транзакций (pg_current_snapshot), по которому гистограмма построена из interview_answers; оценки видимых в нём транзакций уже учтены';
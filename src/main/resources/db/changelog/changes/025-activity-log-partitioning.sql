@@ -0,0 +1,69 @@
+-- Migration: Partition activity_log by month
+-- Description: Recreates activity_log as a table range-partitioned by created_at (one partition per
+-- UTC month) so retention drops whole partitions and time-bounded feed queries prune old months.
+-- Runs as a single statement (splitStatements=false) because of the DO block.
+
+ALTER TABLE activity_log RENAME TO activity_log_legacy;
+ALTER TABLE activity_log_legacy RENAME CONSTRAINT activity_log_pkey TO activity_log_legacy_pkey;
+ALTER SEQUENCE activity_log_id_seq RENAME TO activity_log_legacy_id_seq;
+
+CREATE TABLE activity_log (
+    id BIGSERIAL NOT NULL,
+    user_id BIGINT REFERENCES users(id) ON DELETE SET NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    entity_id BIGINT,
+    entity_type VARCHAR(50),
+    metadata JSONB,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Партиции с месяца самой старой записи по третий месяц вперёд; дальше их создаёт
+-- ActivityLogPartitionService
+DO $$
+DECLARE
+    month_start TIMESTAMP;
+    last_month TIMESTAMP := date_trunc('month', NOW() AT TIME ZONE 'UTC') + INTERVAL '3 months';
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(created_at) AT TIME ZONE 'UTC'),
+                    date_trunc('month', NOW() AT TIME ZONE 'UTC'))
+    INTO month_start
+    FROM activity_log_legacy;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF activity_log FOR VALUES FROM (%L) TO (%L)',
+            'activity_log_p' || to_char(month_start, 'YYYY_MM'),
+            (month_start AT TIME ZONE 'UTC'),
+            ((month_start + INTERVAL '1 month') AT TIME ZONE 'UTC'));
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO activity_log (id, user_id, activity_type, title, description, entity_id, entity_type,
+                          metadata, created_at)
+SELECT id, user_id, activity_type, title, description, entity_id, entity_type, metadata,
+       COALESCE(created_at, NOW())
+FROM activity_log_legacy;
+
+SELECT setval('activity_log_id_seq', COALESCE((SELECT MAX(id) FROM activity_log), 0) + 1, false);
+
+DROP TABLE activity_log_legacy;
+
+-- Индексы создаются на родительской таблице и наследуются партициями
+CREATE INDEX idx_activity_log_created_at ON activity_log(created_at DESC);
+CREATE INDEX idx_activity_log_type ON activity_log(activity_type, created_at DESC);
+CREATE INDEX idx_activity_log_user_id ON activity_log(user_id, created_at DESC);
+CREATE INDEX idx_activity_log_entity ON activity_log(entity_type, entity_id);
+
+COMMENT ON TABLE activity_log IS 'Лента активности пользователей, партиции по месяцам (UTC) activity_log_pYYYY_MM';
+COMMENT ON COLUMN activity_log.user_id IS 'ID пользователя, совершившего действие';
+COMMENT ON COLUMN activity_log.activity_type IS 'Тип активности: interview, position, candidate, hired, report, login';
+COMMENT ON COLUMN activity_log.title IS 'Заголовок активности';
+COMMENT ON COLUMN activity_log.description IS 'Описание активности';
+COMMENT ON COLUMN activity_log.entity_id IS 'ID связанной сущности';
+COMMENT ON COLUMN activity_log.entity_type IS 'Тип связанной сущности';
+COMMENT ON COLUMN activity_log.metadata IS 'Дополнительные данные в формате JSON';
+COMMENT ON COLUMN activity_log.created_at IS 'Время создания записи, ключ партиционирования';
@@ -0,0 +1,64 @@
+package azhukov.service;
+
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ApplicationProperties;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ActivityLogPartitionServiceTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private ApplicationProperties properties;
+  private ActivityLogPartitionService service;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    properties = new ApplicationProperties();
+    service = new ActivityLogPartitionService(jdbcTemplate, properties);
+  }
+
+  @Test
+  void createsPartitionsAheadWithUtcMonthBounds() {
+    properties.getActivity().setPartitionsAhead(2);
+
+    service.createPartitions(YearMonth.of(2026, 11));
+
+    verify(jdbcTemplate)
+        .execute(
+            "CREATE TABLE IF NOT EXISTS activity_log_p2026_11 PARTITION OF activity_log"
+                + " FOR VALUES FROM ('2026-11-01 00:00:00+00') TO ('2026-12-01 00:00:00+00')");
+    verify(jdbcTemplate)
+        .execute(
+            "CREATE TABLE IF NOT EXISTS activity_log_p2027_01 PARTITION OF activity_log"
+                + " FOR VALUES FROM ('2027-01-01 00:00:00+00') TO ('2027-02-01 00:00:00+00')");
+    verify(jdbcTemplate, times(3)).execute(startsWith("CREATE TABLE"));
+  }
+
+  @Test
+  void dropsOnlyPartitionsOutsideRetention() {
+    properties.getActivity().setRetentionMonths(3);
+    when(jdbcTemplate.queryForList(ActivityLogPartitionService.LIST_PARTITIONS_SQL, String.class))
+        .thenReturn(
+            List.of(
+                "activity_log_p2026_07",
+                "activity_log_p2026_08",
+                "activity_log_p2026_09",
+                "activity_log_archive"));
+
+    service.dropExpiredPartitions(YearMonth.of(2026, 10));
+
+    verify(jdbcTemplate).execute("DROP TABLE IF EXISTS activity_log_p2026_07");
+    verify(jdbcTemplate, times(1)).execute(startsWith("DROP TABLE"));
+    verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS activity_log_archive");
+  }
+}
@@ -0,0 +1,133 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.entity.ActivityLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ActivityLogWriterTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private ApplicationProperties properties;
+  private SimpleMeterRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    properties = new ApplicationProperties();
+    registry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void writesQueuedEntriesInOneBatch() {
+    ActivityLogWriter writer = writer();
+    writer.submit(activity("first", "{\"score\":7.5}"));
+    writer.submit(activity("second", null));
+    writer.submit(activity("third", null));
+
+    verify(jdbcTemplate, never()).batchUpdate(eq(ActivityLogWriter.INSERT_SQL), anyList());
+    writer.flush();
+
+    verify(jdbcTemplate, times(1))
+        .batchUpdate(
+            eq(ActivityLogWriter.INSERT_SQL),
+            argThat(
+                (List<Object[]> rows) ->
+                    rows.size() == 3 && "{\"score\":7.5}".equals(rows.get(0)[6])));
+    assertThat(writer.queuedCount()).isZero();
+  }
+
+  @Test
+  void dropsEntriesRejectedByDatabase() {
+    when(jdbcTemplate.batchUpdate(eq(ActivityLogWriter.INSERT_SQL), anyList()))
+        .thenThrow(new DataIntegrityViolationException("activity_log_user_id_fkey"));
+    List<Object> written = new ArrayList<>();
+    when(jdbcTemplate.update(eq(ActivityLogWriter.INSERT_SQL), any(Object[].class)))
+        .thenAnswer(
+            invocation -> {
+              List<Object> args = Arrays.asList(invocation.getArguments());
+              if (args.contains("poison")) {
+                throw new DataIntegrityViolationException("activity_log_user_id_fkey");
+              }
+              written.add(args.get(3));
+              return 1;
+            });
+    ActivityLogWriter writer = writer();
+
+    writer.submit(activity("first", null));
+    writer.submit(activity("poison", null));
+    writer.submit(activity("third", null));
+    writer.flush();
+
+    assertThat(writer.queuedCount()).isZero();
+    assertThat(written).containsExactly("first", "third");
+    assertThat(registry.counter("activity.log.dropped").count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void dropsNewestEntriesWhenQueueIsFull() {
+    properties.getActivity().setCapacity(2);
+    ActivityLogWriter writer = writer();
+
+    writer.submit(activity("first", null));
+    writer.submit(activity("second", null));
+    writer.submit(activity("third", null));
+
+    assertThat(writer.queuedCount()).isEqualTo(2);
+    assertThat(registry.counter("activity.log.dropped").count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void callerRunsWritesOverflowSynchronously() {
+    properties.getActivity().setCapacity(1);
+    properties
+        .getActivity()
+        .setOverflowPolicy(ApplicationProperties.Activity.OverflowPolicy.CALLER_RUNS);
+    ActivityLogWriter writer = writer();
+
+    writer.submit(activity("first", null));
+    writer.submit(activity("second", null));
+
+    assertThat(writer.queuedCount()).isEqualTo(1);
+    verify(jdbcTemplate, times(1))
+        .batchUpdate(
+            eq(ActivityLogWriter.INSERT_SQL),
+            argThat((List<Object[]> rows) -> "second".equals(rows.get(0)[2])));
+  }
+
+  private ActivityLogWriter writer() {
+    return new ActivityLogWriter(
+        jdbcTemplate, mock(PlatformTransactionManager.class), properties, registry);
+  }
+
+  private static ActivityLogWriter.PendingActivity activity(String title, String metadata) {
+    return new ActivityLogWriter.PendingActivity(
+        ActivityLog.ActivityType.INTERVIEW,
+        title,
+        null,
+        1L,
+        10L,
+        ActivityLog.EntityType.INTERVIEW,
+        metadata,
+        Instant.now());
+  }
+}
@@ -0,0 +1,150 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ElevenLabsProperties;
+import azhukov.model.VoiceMessageTypeEnum;
+import azhukov.repository.ConversationTranscriptRepository;
+import azhukov.repository.InterviewRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ConversationTranscriptServiceTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private InterviewRepository interviewRepository;
+  private ElevenLabsProperties properties;
+  private SimpleMeterRegistry meterRegistry;
+  private ConversationTranscriptService service;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    interviewRepository = mock(InterviewRepository.class);
+    properties = new ElevenLabsProperties();
+    properties.getTranscript().setBatchSize(2);
+    properties.getTranscript().setMaxBufferedMessages(3);
+    meterRegistry = new SimpleMeterRegistry();
+    service =
+        new ConversationTranscriptService(
+            jdbcTemplate,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            mock(ConversationTranscriptRepository.class),
+            interviewRepository,
+            properties,
+            meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void writesOneBatchWhenBatchSizeReached() {
+    service.append(1L, VoiceMessageTypeEnum.AGENT_MESSAGE, "Здравствуйте", "agent", null);
+    verify(jdbcTemplate, never())
+        .batchUpdate(eq(ConversationTranscriptService.INSERT_SQL), anyList());
+
+    service.append(1L, VoiceMessageTypeEnum.USER_ANSWER, "Добрый день", null, null);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+    verify(jdbcTemplate, timeout(1000))
+        .batchUpdate(eq(ConversationTranscriptService.INSERT_SQL), batch.capture());
+    assertThat(batch.getValue())
+        .extracting(args -> args[2])
+        .containsExactly("Здравствуйте", "Добрый день");
+  }
+
+  @Test
+  void failedWriteKeepsMessagesInOrder() {
+    List<List<Object>> written = new ArrayList<>();
+    when(jdbcTemplate.batchUpdate(eq(ConversationTranscriptService.INSERT_SQL), anyList()))
+        .thenThrow(new DataAccessResourceFailureException("db is down"))
+        .thenAnswer(
+            invocation -> {
+              List<Object[]> args = invocation.getArgument(1);
+              args.forEach(row -> written.add(List.of(row[0], row[2])));
+              return new int[args.size()];
+            });
+    properties.getTranscript().setBatchSize(10);
+    LocalDateTime now = LocalDateTime.now();
+
+    service.append(1L, VoiceMessageTypeEnum.AGENT_MESSAGE, "первый", null, now);
+    service.flush();
+    assertThat(service.pendingCount()).isEqualTo(1);
+
+    service.append(1L, VoiceMessageTypeEnum.AGENT_MESSAGE, "второй", null, now);
+    service.append(2L, VoiceMessageTypeEnum.AGENT_MESSAGE, "другое", null, now);
+    service.flush();
+
+    assertThat(service.pendingCount()).isZero();
+    assertThat(written)
+        .containsExactly(List.of(1L, "первый"), List.of(1L, "второй"), List.of(2L, "другое"));
+  }
+
+  @Test
+  void dropsMessagesRejectedByDatabase() {
+    when(jdbcTemplate.batchUpdate(eq(ConversationTranscriptService.INSERT_SQL), anyList()))
+        .thenThrow(new DataIntegrityViolationException("fk_transcript_interview"));
+    List<Object> written = new ArrayList<>();
+    when(jdbcTemplate.update(eq(ConversationTranscriptService.INSERT_SQL), any(Object[].class)))
+        .thenAnswer(
+            invocation -> {
+              List<Object> args = Arrays.asList(invocation.getArguments());
+              if (args.contains(99L)) {
+                throw new DataIntegrityViolationException("fk_transcript_interview");
+              }
+              written.add(args.get(3));
+              return 1;
+            });
+    properties.getTranscript().setBatchSize(10);
+
+    service.append(1L, VoiceMessageTypeEnum.AGENT_MESSAGE, "первый", null, null);
+    service.append(99L, VoiceMessageTypeEnum.AGENT_MESSAGE, "без интервью", null, null);
+    service.append(1L, VoiceMessageTypeEnum.AGENT_MESSAGE, "второй", null, null);
+    service.flush();
+
+    assertThat(service.pendingCount()).isZero();
+    assertThat(written).containsExactly("первый", "второй");
+    assertThat(meterRegistry.counter("transcript.dropped").count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void rejectsMessagesWhenBufferIsFull() {
+    when(jdbcTemplate.batchUpdate(eq(ConversationTranscriptService.INSERT_SQL), anyList()))
+        .thenThrow(new DataAccessResourceFailureException("db is down"));
+    properties.getTranscript().setBatchSize(10);
+    for (int i = 0; i < 3; i++) {
+      service.append(1L, VoiceMessageTypeEnum.AGENT_MESSAGE, "сообщение " + i, null, null);
+    }
+    service.flush();
+
+    assertThatThrownBy(
+            () -> service.append(1L, VoiceMessageTypeEnum.AGENT_MESSAGE, "лишнее", null, null))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(service.pendingCount()).isEqualTo(3);
+  }
+}
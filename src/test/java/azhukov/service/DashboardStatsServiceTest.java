@@ -0,0 +1,84 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.model.InterviewStats;
+import azhukov.model.PositionStats;
+import azhukov.repository.CandidateRepository;
+import azhukov.repository.InterviewRepository;
+import azhukov.repository.PositionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+class DashboardStatsServiceTest {
+
+  private InterviewRepository interviewRepository;
+  private PositionRepository positionRepository;
+  private DashboardStatsService service;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    interviewRepository = mock(InterviewRepository.class);
+    positionRepository = mock(PositionRepository.class);
+    service =
+        new DashboardStatsService(
+            mock(CandidateRepository.class),
+            interviewRepository,
+            positionRepository,
+            new ObjectMapper().findAndRegisterModules(),
+            new ApplicationProperties(),
+            mock(ObjectProvider.class));
+
+    InterviewRepository.StatusCounts interviews = mock(InterviewRepository.StatusCounts.class);
+    when(interviews.getTotal()).thenReturn(10L);
+    when(interviews.getSuccessful()).thenReturn(4L);
+    when(interviews.getUnsuccessful()).thenReturn(3L);
+    when(interviews.getInProgress()).thenReturn(1L);
+    when(interviews.getNotStarted()).thenReturn(1L);
+    when(interviews.getFinished()).thenReturn(8L);
+    when(interviewRepository.countAllByStatus()).thenReturn(interviews);
+
+    PositionRepository.StatusCounts positions = mock(PositionRepository.StatusCounts.class);
+    when(positions.getTotal()).thenReturn(5L);
+    when(positions.getActive()).thenReturn(3L);
+    when(positions.getSenior()).thenReturn(2L);
+    when(positionRepository.countAllByStatusAndLevel()).thenReturn(positions);
+  }
+
+  @Test
+  void servesRepeatedLoadsFromCacheUntilEvicted() {
+    InterviewStats first = service.getInterviewStats();
+    InterviewStats second = service.getInterviewStats();
+
+    assertThat(second.getTotal()).isEqualTo(10L);
+    assertThat(second.getCancelled()).isEqualTo(1L);
+    assertThat(second).isNotSameAs(first);
+    verify(interviewRepository, times(1)).countAllByStatus();
+
+    service.evict(DashboardStatsService.Scope.INTERVIEWS);
+    service.getInterviewStats();
+
+    verify(interviewRepository, times(2)).countAllByStatus();
+  }
+
+  @Test
+  void positionStatsCombineCachedSections() {
+    PositionStats withDetails = service.getPositionStats(true);
+    PositionStats summary = service.getPositionStats(false);
+
+    assertThat(withDetails.getActive()).isEqualTo(3L);
+    assertThat(withDetails.getInterviewsSuccessful()).isEqualTo(4L);
+    assertThat(withDetails.getByLevel().getSenior()).isEqualTo(2L);
+    assertThat(summary.getByLevel()).isNull();
+    verify(positionRepository, times(1)).countAllByStatusAndLevel();
+    verify(interviewRepository, times(1)).countAllByStatus();
+  }
+}
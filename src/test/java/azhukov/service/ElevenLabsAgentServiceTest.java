@@ -0,0 +1,182 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ElevenLabsProperties;
+import azhukov.entity.Agent;
+import azhukov.entity.Interview;
+import azhukov.entity.Position;
+import azhukov.model.AgentStatusEnum;
+import azhukov.repository.AgentRepository;
+import azhukov.repository.InterviewRepository;
+import azhukov.repository.PositionRepository;
+import azhukov.service.ai.elevenlabs.dto.CreateAgentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+class ElevenLabsAgentServiceTest {
+
+  private AgentRepository agentRepository;
+  private PositionRepository positionRepository;
+  private RestTemplate restTemplate;
+  private ElevenLabsAgentService service;
+
+  @BeforeEach
+  void setUp() {
+    InterviewRepository interviewRepository = mock(InterviewRepository.class);
+    positionRepository = mock(PositionRepository.class);
+    Position position = position(7L, 1L, "Backend", interviewRepository);
+    // Вакансия с тем же названием, но другим описанием — у неё своя конфигурация агента
+    Position sibling = position(8L, 2L, "Payments", interviewRepository);
+    when(positionRepository.findByTitle("Java Developer")).thenReturn(List.of(position, sibling));
+
+    agentRepository = mock(AgentRepository.class);
+    restTemplate = mock(RestTemplate.class);
+    service =
+        new ElevenLabsAgentService(
+            agentRepository,
+            interviewRepository,
+            positionRepository,
+            new ElevenLabsProperties(),
+            new ObjectMapper().findAndRegisterModules(),
+            restTemplate);
+  }
+
+  @Test
+  void reusesActiveAgentWithSameConfiguration() {
+    Agent pooled = agent(3L, "el-pooled", null);
+    when(agentRepository.findFirstByConfigHashAndStatus(anyString(), eq(AgentStatusEnum.ACTIVE)))
+        .thenReturn(Optional.of(pooled));
+
+    assertThat(service.createAgentForInterview(1L)).isSameAs(pooled);
+    verify(agentRepository).touch(eq(3L), any());
+    verify(restTemplate, never())
+        .exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(Class.class));
+  }
+
+  @Test
+  void createsAgentForNewConfigurationAndRetiresPreviousOne() {
+    Agent previous = agent(3L, "el-old", "0".repeat(64));
+    AtomicReference<Agent> saved = stubAgentCreation();
+    when(agentRepository.findByPositionIdAndStatusAndConfigHashIsNotNull(
+            7L, AgentStatusEnum.ACTIVE))
+        .thenAnswer(invocation -> List.of(previous, saved.get()));
+
+    Agent created = service.createAgentForInterview(1L);
+
+    assertThat(created.getElevenLabsAgentId()).isEqualTo("el-new");
+    assertThat(created.getConfigHash()).hasSize(64);
+    assertThat(created.getInterviewId()).isNull();
+    assertThat(previous.getStatus()).isEqualTo(AgentStatusEnum.INACTIVE);
+    assertThat(created.getStatus()).isEqualTo(AgentStatusEnum.ACTIVE);
+  }
+
+  @Test
+  void keepsPreviousAgentWhileAnotherPositionSharesItsConfiguration() {
+    // Старая конфигурация вакансии совпадала с конфигурацией соседней вакансии
+    Agent previous = agent(3L, "el-old", configHashOf(2L));
+    AtomicReference<Agent> saved = stubAgentCreation();
+    when(agentRepository.findByPositionIdAndStatusAndConfigHashIsNotNull(
+            7L, AgentStatusEnum.ACTIVE))
+        .thenAnswer(invocation -> List.of(previous, saved.get()));
+
+    service.createAgentForInterview(1L);
+
+    assertThat(previous.getStatus()).isEqualTo(AgentStatusEnum.ACTIVE);
+  }
+
+  @Test
+  void deletesOwnRemoteAgentWhenAnotherNodeWinsTheRace() {
+    Agent winner = agent(5L, "el-winner", null);
+    when(agentRepository.findFirstByConfigHashAndStatus(anyString(), eq(AgentStatusEnum.ACTIVE)))
+        .thenReturn(Optional.empty(), Optional.of(winner));
+    when(restTemplate.exchange(
+            anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(CreateAgentResponse.class)))
+        .thenReturn(ResponseEntity.ok(CreateAgentResponse.builder().agentId("el-new").build()));
+    when(agentRepository.save(any(Agent.class)))
+        .thenThrow(new DataIntegrityViolationException("ux_agents_config_hash_active"));
+
+    assertThat(service.createAgentForInterview(1L)).isSameAs(winner);
+    verify(restTemplate)
+        .exchange(
+            endsWith("/v1/agents/el-new"),
+            eq(HttpMethod.DELETE),
+            any(HttpEntity.class),
+            eq(String.class));
+    verify(agentRepository, never())
+        .findByPositionIdAndStatusAndConfigHashIsNotNull(any(), any());
+  }
+
+  /** Создание агента в ElevenLabs и сохранение строки; возвращает ссылку на сохранённого агента */
+  private AtomicReference<Agent> stubAgentCreation() {
+    when(agentRepository.findFirstByConfigHashAndStatus(anyString(), eq(AgentStatusEnum.ACTIVE)))
+        .thenReturn(Optional.empty());
+    when(restTemplate.exchange(
+            anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(CreateAgentResponse.class)))
+        .thenReturn(ResponseEntity.ok(CreateAgentResponse.builder().agentId("el-new").build()));
+    AtomicReference<Agent> saved = new AtomicReference<>();
+    when(agentRepository.save(any(Agent.class)))
+        .thenAnswer(
+            invocation -> {
+              Agent agent = invocation.getArgument(0);
+              if (agent.getId() == null) {
+                agent.setId(4L);
+                saved.set(agent);
+              }
+              return agent;
+            });
+    return saved;
+  }
+
+  /** Хэш конфигурации, который сервис вычисляет для вакансии интервью */
+  private String configHashOf(Long interviewId) {
+    ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+    when(agentRepository.findFirstByConfigHashAndStatus(hash.capture(), eq(AgentStatusEnum.ACTIVE)))
+        .thenReturn(Optional.of(agent(9L, "el-sibling", null)));
+    service.createAgentForInterview(interviewId);
+    return hash.getValue();
+  }
+
+  private Position position(
+      Long id, Long interviewId, String description, InterviewRepository interviewRepository) {
+    Position position = new Position();
+    position.setId(id);
+    position.setTitle("Java Developer");
+    position.setLanguage("English");
+    position.setDescription(description);
+    Interview interview = new Interview();
+    interview.setId(interviewId);
+    interview.setPosition(position);
+    when(interviewRepository.findById(interviewId)).thenReturn(Optional.of(interview));
+    when(positionRepository.findById(id)).thenReturn(Optional.of(position));
+    return position;
+  }
+
+  private static Agent agent(Long id, String elevenLabsAgentId, String configHash) {
+    Agent agent = new Agent();
+    agent.setId(id);
+    agent.setElevenLabsAgentId(elevenLabsAgentId);
+    agent.setName("Interview Agent - Java Developer");
+    agent.setConfigHash(configHash);
+    agent.setStatus(AgentStatusEnum.ACTIVE);
+    return agent;
+  }
+}
@@ -0,0 +1,121 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.entity.Interview;
+import azhukov.model.MonthlyReport;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class InterviewReportServiceTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private ApplicationProperties properties;
+  private InterviewReportService service;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    properties = new ApplicationProperties();
+    service =
+        new InterviewReportService(
+            jdbcTemplate, mock(PlatformTransactionManager.class), properties);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void buildsReportFromSingleAggregateQuery() throws Exception {
+    YearMonth current = YearMonth.now();
+    ResultSet previousMonth = monthRow(current.minusMonths(1), 4, 2, 1, 20.0, 4);
+    ResultSet currentMonth = monthRow(current, 6, 3, 2, 24.0, 3);
+    doAnswer(
+            invocation -> {
+              RowCallbackHandler handler = invocation.getArgument(1);
+              handler.processRow(previousMonth);
+              handler.processRow(currentMonth);
+              return null;
+            })
+        .when(jdbcTemplate)
+        .query(
+            eq(InterviewReportService.ROLLUP_REPORT_SQL),
+            any(RowCallbackHandler.class),
+            any(),
+            any());
+
+    List<MonthlyReport> reports = service.getMonthlyReports(12);
+
+    assertThat(reports).hasSize(12);
+    assertThat(reports.get(0).getTotalInterviews()).isZero();
+    assertThat(reports.get(0).getDynamics()).isZero();
+    MonthlyReport last = reports.get(11);
+    assertThat(last.getTotalInterviews()).isEqualTo(6);
+    assertThat(last.getSuccessful()).isEqualTo(3);
+    assertThat(last.getUnsuccessful()).isEqualTo(2);
+    assertThat(last.getAvgScore()).isEqualTo(8.0f);
+    assertThat(last.getDynamics()).isEqualTo(50);
+  }
+
+  @Test
+  void refreshesDayOnlyAfterCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+    Interview interview = new Interview();
+    interview.setStartedAt(LocalDateTime.of(2026, 3, 14, 23, 50));
+
+    service.recordChange(interview);
+    verify(jdbcTemplate, never())
+        .update(eq(InterviewReportService.REFRESH_DAY_SQL), any(), any(), any());
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    verify(jdbcTemplate)
+        .update(
+            InterviewReportService.REFRESH_DAY_SQL,
+            Date.valueOf("2026-03-14"),
+            Timestamp.valueOf("2026-03-14 00:00:00"),
+            Timestamp.valueOf("2026-03-15 00:00:00"));
+  }
+
+  private static ResultSet monthRow(
+      YearMonth month,
+      long total,
+      long successful,
+      long unsuccessful,
+      double scoreSum,
+      long scoreCount)
+      throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getTimestamp("month")).thenReturn(Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+    when(rs.getLong("total")).thenReturn(total);
+    when(rs.getLong("successful")).thenReturn(successful);
+    when(rs.getLong("unsuccessful")).thenReturn(unsuccessful);
+    when(rs.getDouble("score_sum")).thenReturn(scoreSum);
+    when(rs.getLong("score_count")).thenReturn(scoreCount);
+    return rs;
+  }
+}
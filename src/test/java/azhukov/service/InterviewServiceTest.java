@@ -19,6 +19,7 @@ import azhukov.repository.InterviewAnswerRepository;
 import azhukov.repository.InterviewRepository;
 import azhukov.repository.PositionRepository;
 import azhukov.repository.QuestionRepository;
+import azhukov.service.live.InterviewLiveEventPublisher;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -54,6 +55,8 @@ class InterviewServiceTest {
 
   @Mock private QuestionMapper questionMapper;
 
+  @Mock private InterviewLiveEventPublisher liveEventPublisher;
+
   @InjectMocks private InterviewService interviewService;
 
   private Interview testInterview;
@@ -5,10 +5,12 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import azhukov.entity.Position;
+import azhukov.entity.PositionFunnel;
 import azhukov.entity.UserEntity;
 import azhukov.exception.ResourceNotFoundException;
 import azhukov.mapper.PositionMapper;
 import azhukov.model.PositionCreateRequest;
+import azhukov.model.PositionStats;
 import azhukov.model.PositionStatusEnum;
 import azhukov.model.PositionUpdateRequest;
 import azhukov.repository.PositionRepository;
@@ -36,6 +38,8 @@ class PositionServiceTest {
 
   @Mock private UserRepository userRepository;
 
+  @Mock private PositionFunnelService funnelService;
+
   @InjectMocks private PositionService positionService;
 
   private Position testPosition;
@@ -303,4 +307,31 @@ class PositionServiceTest {
     verify(positionMapper).mapStatus(status);
     verify(positionRepository).countByStatus(Position.Status.ACTIVE);
   }
+
+  @Test
+  void getPositionStats_ReadsMaterializedFunnel() {
+    // Arrange
+    PositionFunnel funnel =
+        PositionFunnel.builder()
+            .positionId(1L)
+            .candidatesTotal(4)
+            .candidatesHired(1)
+            .interviewsTotal(3)
+            .interviewsSuccessful(2)
+            .scoreSum(15.0)
+            .scoreCount(2)
+            .build();
+    when(positionRepository.existsById(1L)).thenReturn(true);
+    when(funnelService.getFunnel(1L)).thenReturn(Optional.of(funnel));
+
+    // Act
+    PositionStats result = positionService.getPositionStats(1L);
+
+    // Assert
+    assertEquals(1L, result.getPositionId());
+    assertEquals(4L, result.getCandidatesTotal());
+    assertEquals(2L, result.getInterviewsSuccessful());
+    assertEquals(7.5f, result.getAvgScore());
+    verify(positionRepository, never()).findByIdWithInterviewsAndCandidates(any());
+  }
 }
@@ -0,0 +1,91 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.repository.PositionRepository;
+import azhukov.repository.QuestionRepository;
+import java.sql.ResultSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ScoreDistributionServiceTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private ScoreDistributionService service;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    service =
+        new ScoreDistributionService(
+            jdbcTemplate,
+            mock(PlatformTransactionManager.class),
+            mock(PositionRepository.class),
+            mock(QuestionRepository.class));
+    when(jdbcTemplate.queryForObject(ScoreDistributionService.CURRENT_XID_SQL, String.class))
+        .thenReturn("1000");
+  }
+
+  @Test
+  void mergesDeltaOfTransactionNotVisibleInSnapshot() throws Exception {
+    // Транзакция оценки ещё выполнялась, когда строилась строка
+    storedSketch("990:1005:1000,1002");
+
+    service.recordScore(1L, null, null, 7.5);
+    service.flush();
+
+    verify(jdbcTemplate)
+        .update(eq(ScoreDistributionService.UPDATE_SKETCH_SQL), any(Object[].class));
+  }
+
+  @Test
+  void skipsDeltaAlreadyCountedByRebuild() throws Exception {
+    // Строку перестроили уже после коммита оценки
+    storedSketch("1001:1001:");
+
+    service.recordScore(1L, null, null, 7.5);
+    service.flush();
+
+    verify(jdbcTemplate, never())
+        .update(eq(ScoreDistributionService.UPDATE_SKETCH_SQL), any(Object[].class));
+  }
+
+  @Test
+  void snapshotVisibilityFollowsPostgresRules() {
+    ScoreDistributionService.TransactionSnapshot snapshot =
+        ScoreDistributionService.TransactionSnapshot.parse("10:20:12,15");
+
+    assertThat(snapshot.isVisible(9)).isTrue();
+    assertThat(snapshot.isVisible(11)).isTrue();
+    assertThat(snapshot.isVisible(12)).isFalse();
+    assertThat(snapshot.isVisible(15)).isFalse();
+    assertThat(snapshot.isVisible(20)).isFalse();
+  }
+
+  private void storedSketch(String snapshot) throws Exception {
+    ScoreHistogram histogram = new ScoreHistogram();
+    histogram.add(5.0, 2);
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getBytes(1)).thenReturn(histogram.toBytes());
+    when(rs.getString(2)).thenReturn(snapshot);
+    when(jdbcTemplate.query(
+            eq(ScoreDistributionService.LOCK_SKETCH_SQL),
+            any(RowMapper.class),
+            any(Object[].class)))
+        .thenAnswer(
+            invocation -> {
+              RowMapper<?> mapper = invocation.getArgument(1);
+              return List.of(mapper.mapRow(rs, 0));
+            });
+  }
+}
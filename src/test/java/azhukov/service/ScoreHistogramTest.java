@@ -0,0 +1,64 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class ScoreHistogramTest {
+
+  @Test
+  void quantilesUseNearestRank() {
+    ScoreHistogram histogram = new ScoreHistogram();
+    for (int score = 1; score <= 10; score++) {
+      histogram.add(score, 1);
+    }
+
+    assertThat(histogram.count()).isEqualTo(10);
+    assertThat(histogram.quantile(0.5)).isEqualTo(5.0);
+    assertThat(histogram.quantile(0.9)).isEqualTo(9.0);
+    assertThat(histogram.quantile(0.95)).isEqualTo(10.0);
+    assertThat(histogram.min()).isEqualTo(1.0);
+    assertThat(histogram.max()).isEqualTo(10.0);
+    assertThat(histogram.mean()).isCloseTo(5.5, within(1e-9));
+  }
+
+  @Test
+  void mergeAppliesRescoringDeltas() {
+    ScoreHistogram stored = new ScoreHistogram();
+    stored.add(4.0, 3);
+    stored.add(7.5, 1);
+
+    ScoreHistogram delta = new ScoreHistogram();
+    delta.add(4.0, -1);
+    delta.add(8.0, 1);
+    stored.merge(delta);
+
+    assertThat(stored.count()).isEqualTo(4);
+    assertThat(stored.countBetween(4, 5)).isEqualTo(2);
+    assertThat(stored.countBetween(7, 8)).isEqualTo(1);
+    assertThat(stored.countBetween(8, 10)).isEqualTo(1);
+  }
+
+  @Test
+  void roundTripsThroughBytes() {
+    ScoreHistogram histogram = new ScoreHistogram();
+    histogram.add(0.0, 2);
+    histogram.add(6.3, 300);
+    histogram.add(10.0, 1);
+    histogram.add(9.9, -1);
+
+    assertThat(ScoreHistogram.fromBytes(histogram.toBytes())).isEqualTo(histogram);
+  }
+
+  @Test
+  void topBinIncludesMaximumScore() {
+    ScoreHistogram histogram = new ScoreHistogram();
+    histogram.add(9.0, 1);
+    histogram.add(10.0, 1);
+    histogram.add(12.0, 1);
+
+    assertThat(histogram.countBetween(9, 10)).isEqualTo(3);
+    assertThat(histogram.countBetween(8, 9)).isZero();
+  }
+}
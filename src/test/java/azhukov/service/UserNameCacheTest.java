@@ -0,0 +1,53 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.entity.UserEntity;
+import azhukov.repository.UserRepository;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class UserNameCacheTest {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final UserNameCache cache = new UserNameCache(userRepository, 1800);
+
+  @Test
+  void loadsMissingNamesWithOneQueryAndCachesThem() {
+    when(userRepository.findByIds(List.of(1L, 2L)))
+        .thenReturn(List.of(user(1L, "Анна", "Иванова"), user(2L, "Пётр", "Смирнов")));
+
+    assertThat(cache.getNames(Arrays.asList(1L, 2L, 1L, null)))
+        .containsEntry(1L, "Анна Иванова")
+        .containsEntry(2L, "Пётр Смирнов");
+    assertThat(cache.getNames(List.of(2L))).containsEntry(2L, "Пётр Смирнов");
+
+    verify(userRepository, times(1)).findByIds(anyList());
+  }
+
+  @Test
+  void evictReloadsUpdatedName() {
+    when(userRepository.findByIds(List.of(1L)))
+        .thenReturn(List.of(user(1L, "Анна", "Иванова")))
+        .thenReturn(List.of(user(1L, "Анна", "Петрова")));
+
+    cache.getNames(List.of(1L));
+    cache.evict(1L);
+
+    assertThat(cache.getNames(List.of(1L))).containsEntry(1L, "Анна Петрова");
+  }
+
+  private static UserEntity user(Long id, String firstName, String lastName) {
+    UserEntity user = new UserEntity();
+    user.setId(id);
+    user.setFirstName(firstName);
+    user.setLastName(lastName);
+    return user;
+  }
+}
@@ -36,6 +36,8 @@ class UserServiceTest {
 
   @Mock private PasswordEncoder passwordEncoder;
 
+  @Mock private UserNameCache userNameCache;
+
   @InjectMocks private UserService userService;
 
   private UserEntity testUserEntity;
@@ -0,0 +1,88 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ElevenLabsProperties;
+import azhukov.repository.InterviewRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class VoiceSessionAdmissionServiceTest {
+
+  private InterviewRepository interviewRepository;
+  private VoiceSessionAdmissionService service;
+
+  @BeforeEach
+  void setUp() {
+    interviewRepository = mock(InterviewRepository.class);
+    ElevenLabsProperties properties = new ElevenLabsProperties();
+    properties.setMaxSessionDurationMinutes(60);
+    properties.getAdmission().setMaxConcurrentSessions(2);
+    properties.getAdmission().setExpectedSessionDuration(Duration.ofMinutes(20));
+    @SuppressWarnings("unchecked")
+    ObjectProvider<StringRedisTemplate> redisTemplateProvider = mock(ObjectProvider.class);
+    service =
+        new VoiceSessionAdmissionService(interviewRepository, properties, redisTemplateProvider);
+  }
+
+  @Test
+  void reservedSlotsCountUntilReleased() {
+    when(interviewRepository.countLiveVoiceSessions()).thenReturn(0L);
+
+    assertThat(service.tryAdmit(1L).admitted()).isTrue();
+    assertThat(service.tryAdmit(2L).admitted()).isTrue();
+    assertThat(service.tryAdmit(3L).admitted()).isFalse();
+
+    service.release(1L);
+
+    assertThat(service.tryAdmit(3L).admitted()).isTrue();
+  }
+
+  @Test
+  void queuesInArrivalOrderWithEta() {
+    LocalDateTime now = LocalDateTime.now();
+    when(interviewRepository.countLiveVoiceSessions()).thenReturn(2L);
+    when(interviewRepository.findLiveVoiceSessionStarts(any()))
+        .thenReturn(List.of(now.minusMinutes(15), now.minusMinutes(5)));
+
+    VoiceSessionAdmissionService.Admission first = service.tryAdmit(1L);
+    VoiceSessionAdmissionService.Admission second = service.tryAdmit(2L);
+
+    assertThat(first.admitted()).isFalse();
+    assertThat(first.queuePosition()).isEqualTo(1);
+    assertThat(first.estimatedWait()).isBetween(Duration.ofMinutes(4), Duration.ofMinutes(5));
+    assertThat(second.queuePosition()).isEqualTo(2);
+    assertThat(second.estimatedWait()).isBetween(Duration.ofMinutes(14), Duration.ofMinutes(15));
+
+    // Слот освободился: его получает первый в очереди, а не тот, кто спросил раньше
+    when(interviewRepository.countLiveVoiceSessions()).thenReturn(1L);
+    assertThat(service.tryAdmit(2L).admitted()).isFalse();
+    assertThat(service.tryAdmit(1L).admitted()).isTrue();
+  }
+
+  @Test
+  void prewarmReservesOnlyFreeSlotsAndNeverJumpsQueue() {
+    when(interviewRepository.countLiveVoiceSessions()).thenReturn(1L);
+
+    assertThat(service.tryReserve(1L, Duration.ofMinutes(10))).isTrue();
+    assertThat(service.tryReserve(2L, Duration.ofMinutes(10))).isFalse();
+    assertThat(service.tryAdmit(2L).admitted()).isFalse();
+
+    // Подготовленная сессия стартует в своём же резерве
+    assertThat(service.tryAdmit(1L).admitted()).isTrue();
+
+    service.release(1L);
+
+    // Слот достаётся ждущему в очереди, а не подготовке
+    assertThat(service.tryReserve(3L, Duration.ofMinutes(10))).isFalse();
+    assertThat(service.tryAdmit(2L).admitted()).isTrue();
+  }
+}
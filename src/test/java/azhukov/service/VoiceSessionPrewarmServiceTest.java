@@ -0,0 +1,101 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ElevenLabsProperties;
+import azhukov.entity.Agent;
+import azhukov.service.ai.elevenlabs.dto.VoiceSessionResponse;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VoiceSessionPrewarmServiceTest {
+
+  private ElevenLabsAgentService agentService;
+  private VoiceInterviewService voiceInterviewService;
+  private VoiceSessionAdmissionService admissionService;
+  private ElevenLabsProperties properties;
+  private VoiceSessionPrewarmService service;
+
+  @BeforeEach
+  void setUp() {
+    properties = new ElevenLabsProperties();
+    properties.setApiKey("key");
+    agentService = mock(ElevenLabsAgentService.class);
+    voiceInterviewService = mock(VoiceInterviewService.class);
+    admissionService = mock(VoiceSessionAdmissionService.class);
+    when(admissionService.tryReserve(eq(1L), any())).thenReturn(true);
+    Agent agent = new Agent();
+    agent.setElevenLabsAgentId("el-agent");
+    when(agentService.createAgentForInterview(1L)).thenReturn(agent);
+    when(voiceInterviewService.prepareVoiceSession(eq(1L), any()))
+        .thenAnswer(invocation -> new VoiceSessionResponse());
+    service =
+        new VoiceSessionPrewarmService(
+            agentService, voiceInterviewService, admissionService, properties);
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void startUsesPreWarmedSession() {
+    service.prewarm(1L);
+    service.prewarm(1L);
+    verify(voiceInterviewService, timeout(1000)).prepareVoiceSession(1L, "el-agent");
+
+    VoiceSessionPrewarmService.PreparedVoiceSession prepared = service.take(1L, true);
+
+    assertThat(prepared.agentId()).isEqualTo("el-agent");
+    verify(agentService, times(1)).createAgentForInterview(1L);
+    verify(voiceInterviewService, times(1)).prepareVoiceSession(1L, "el-agent");
+  }
+
+  @Test
+  void expiredPreparationIsDiscardedAndSessionCreatedOnStart() {
+    properties.getPrewarm().setTtl(Duration.ZERO);
+    service.prewarm(1L);
+    verify(voiceInterviewService, timeout(1000)).prepareVoiceSession(1L, "el-agent");
+
+    service.evictExpired();
+    service.take(1L, true);
+
+    verify(voiceInterviewService, times(2)).prepareVoiceSession(1L, "el-agent");
+    verify(voiceInterviewService, timeout(1000)).discardPreparedSession(any());
+    verify(admissionService).release(1L);
+  }
+
+  @Test
+  void skipsPreWarmWithoutFreeSlot() {
+    when(admissionService.tryReserve(eq(1L), any())).thenReturn(false);
+
+    service.prewarm(1L);
+
+    verify(agentService, after(200).never()).createAgentForInterview(1L);
+    verify(voiceInterviewService, never()).prepareVoiceSession(eq(1L), any());
+  }
+
+  @Test
+  void repeatedViewsPreWarmOnceWithinInterval() {
+    properties.getPrewarm().setTtl(Duration.ZERO);
+    service.prewarmOnView(1L);
+    verify(voiceInterviewService, timeout(1000)).prepareVoiceSession(1L, "el-agent");
+
+    service.prewarmOnView(1L);
+    service.prewarmOnView(1L);
+
+    verify(agentService, after(200).times(1)).createAgentForInterview(1L);
+  }
+}
@@ -0,0 +1,73 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import azhukov.config.ElevenLabsProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+class VoiceSessionStateStoreTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+  private VoiceSessionStateStore store;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    ElevenLabsProperties properties = new ElevenLabsProperties();
+    properties.getSessionState().setRedisEnabled(false);
+    store = new VoiceSessionStateStore(properties, new ObjectMapper(), mock(ObjectProvider.class));
+  }
+
+  @Test
+  void loadsSnapshotOnceAndAdvancesCursorOnAnswers() {
+    assertThat(next()).isEqualTo("Q1");
+    store.recordAnswer(1L);
+    assertThat(next()).isEqualTo("Q2");
+    store.recordAnswer(1L);
+
+    assertThat(store.getOrLoad(1L, this::load).nextQuestion()).isEmpty();
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void reloadsFromDatabaseAfterEviction() {
+    next();
+    store.recordAnswer(1L);
+    store.evict(1L);
+
+    assertThat(next()).isEqualTo("Q1");
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void recordsActivityOncePerWriteInterval() {
+    assertThat(store.touchActivity(1L)).isTrue();
+    assertThat(store.touchActivity(1L)).isFalse();
+    assertThat(store.touchActivity(2L)).isTrue();
+
+    store.evict(1L);
+    assertThat(store.touchActivity(1L)).isTrue();
+  }
+
+  private String next() {
+    return store.getOrLoad(1L, this::load).nextQuestion().orElseThrow().text();
+  }
+
+  private VoiceSessionStateStore.State load() {
+    loads.incrementAndGet();
+    return new VoiceSessionStateStore.State(
+        new VoiceSessionStateStore.Snapshot(
+            1L,
+            "session",
+            List.of(
+                new VoiceSessionStateStore.QuestionRef(10L, "Q1"),
+                new VoiceSessionStateStore.QuestionRef(11L, "Q2"))),
+        0);
+  }
+}
@@ -0,0 +1,114 @@
+package azhukov.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.entity.WebhookInboxEvent;
+import azhukov.model.ElevenLabsWebhookEvent;
+import azhukov.model.WebhookEventTypeEnum;
+import azhukov.repository.WebhookInboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class WebhookInboxServiceTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private WebhookInboxRepository repository;
+  private WebhookService webhookService;
+  private WebhookInboxService service;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(WebhookInboxRepository.class);
+    webhookService = mock(WebhookService.class);
+    service =
+        new WebhookInboxService(
+            repository,
+            webhookService,
+            objectMapper,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            new ApplicationProperties());
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void dropsRedeliveredEventWithoutProcessing() {
+    when(repository.insertIfAbsent(anyString(), anyString(), anyString(), any(), anyString()))
+        .thenReturn(0);
+
+    assertThat(service.accept(event("7"), "delivery-1")).isFalse();
+    verify(repository, never()).findPendingIds(any());
+  }
+
+  @Test
+  void processesAcceptedEventsOfInterviewInOrder() throws Exception {
+    when(repository.insertIfAbsent(anyString(), eq("delivery-1"), anyString(), eq("7"), any()))
+        .thenReturn(1);
+    when(repository.findPendingIds("7")).thenReturn(List.of(1L, 2L));
+    stored(1L, event("7"));
+    stored(2L, event("7"));
+
+    assertThat(service.accept(event("7"), "delivery-1")).isTrue();
+
+    verify(repository, timeout(1000)).markProcessed(eq(2L), any());
+    verify(repository).markProcessed(eq(1L), any());
+  }
+
+  @Test
+  void failedEventBlocksLaterEventsOfSameInterview() throws Exception {
+    when(repository.insertIfAbsent(anyString(), anyString(), anyString(), eq("7"), any()))
+        .thenReturn(1);
+    when(repository.findPendingIds("7")).thenReturn(List.of(1L, 2L));
+    stored(1L, event("7"));
+    stored(2L, event("7"));
+    doThrow(new IllegalStateException("db is down")).when(webhookService).process(any());
+
+    service.accept(event("7"), null);
+
+    verify(repository, timeout(1000)).markFailed(eq(1L), eq("db is down"), anyInt());
+    verify(repository, never()).claim(2L);
+  }
+
+  private void stored(Long id, ElevenLabsWebhookEvent event) throws Exception {
+    when(repository.claim(id)).thenReturn(1);
+    WebhookInboxEvent entry =
+        WebhookInboxEvent.builder()
+            .id(id)
+            .provider("elevenlabs")
+            .eventType(event.getType().name())
+            .interviewId(event.getInterviewId())
+            .payload(objectMapper.writeValueAsString(event))
+            .attempts(1)
+            .build();
+    when(repository.findById(id)).thenReturn(Optional.of(entry));
+  }
+
+  private static ElevenLabsWebhookEvent event(String interviewId) {
+    ElevenLabsWebhookEvent event = new ElevenLabsWebhookEvent();
+    event.setType(WebhookEventTypeEnum.CONVERSATION_STARTED);
+    event.setInterviewId(interviewId);
+    event.setTimestamp(OffsetDateTime.now());
+    return event;
+  }
+}
@@ -0,0 +1,74 @@
+package azhukov.service.audio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import azhukov.config.TranscriptionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.multipart.MultipartFile;
+
+class AudioNormalizerTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AudioNormalizer normalizer;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    normalizer = new AudioNormalizer(new TranscriptionProperties(), meterRegistry);
+  }
+
+  @Test
+  void downmixesAndResamplesStereo48k() throws Exception {
+    byte[] source = stereoTone(48000, 2);
+    MultipartFile input = new InMemoryAudioFile("answer.wav", "audio/wav", source);
+
+    MultipartFile output = normalizer.normalize(input);
+
+    WavAudio result = WavAudio.parse(output.getBytes()).orElseThrow();
+    assertThat(result.getSampleRate()).isEqualTo(16000);
+    assertThat(result.getChannels()).isEqualTo(1);
+    assertThat(result.getBitsPerSample()).isEqualTo(16);
+    assertThat(result.durationSeconds()).isCloseTo(2.0, within(0.01));
+    assertThat(output.getSize()).isLessThan(source.length / 5);
+    assertThat(output.getContentType()).isEqualTo("audio/wav");
+    assertThat(
+            meterRegistry.summary("transcription.audio.normalization.bytes.saved").totalAmount())
+        .isEqualTo(source.length - output.getSize());
+
+    // Тон 440 Гц должен сохранить амплитуду после фильтра
+    double peak = 0;
+    for (long frame = 0; frame < result.frameCount(); frame++) {
+      peak = Math.max(peak, Math.abs(result.sample(frame, 0)));
+    }
+    assertThat(peak).isCloseTo(0.25, within(0.02));
+  }
+
+  @Test
+  void passesThroughAlreadyNormalizedAndNonWavAudio() throws Exception {
+    byte[] pcm = new byte[16000 * 2];
+    MultipartFile mono16k =
+        new InMemoryAudioFile(
+            "a.wav", "audio/wav", WavAudio.toWavBytes(pcm, 0, pcm.length, 16000, 1, 16));
+    MultipartFile webm = new InMemoryAudioFile("a.webm", "audio/webm", new byte[] {26, 69, -33});
+
+    assertThat(normalizer.normalize(mono16k)).isSameAs(mono16k);
+    assertThat(normalizer.normalize(webm)).isSameAs(webm);
+  }
+
+  private static byte[] stereoTone(int sampleRate, int seconds) {
+    int frames = sampleRate * seconds;
+    byte[] pcm = new byte[frames * 4];
+    for (int i = 0; i < frames; i++) {
+      short sample = (short) (0.25 * 32767 * Math.sin(2 * Math.PI * 440 * i / sampleRate));
+      for (int channel = 0; channel < 2; channel++) {
+        int offset = i * 4 + channel * 2;
+        pcm[offset] = (byte) sample;
+        pcm[offset + 1] = (byte) (sample >> 8);
+      }
+    }
+    return WavAudio.toWavBytes(pcm, 0, pcm.length, sampleRate, 2, 16);
+  }
+}
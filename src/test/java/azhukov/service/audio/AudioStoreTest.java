@@ -0,0 +1,87 @@
+package azhukov.service.audio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azhukov.config.ApplicationProperties;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.multipart.MultipartFile;
+
+class AudioStoreTest {
+
+  @TempDir Path root;
+
+  private AudioStore store;
+
+  @BeforeEach
+  void setUp() {
+    ApplicationProperties properties = new ApplicationProperties();
+    properties.getFile().getAudio().setDirectory(root.toString());
+    store = new AudioStore(properties);
+  }
+
+  @Test
+  void storesUploadUnderShardedContentAddress() throws Exception {
+    MultipartFile file =
+        new InMemoryAudioFile("answer.webm", "audio/webm;codecs=opus", new byte[] {1, 2, 3, 4});
+
+    String audioUrl;
+    AudioUpload upload;
+    try (AudioStore.Staged staged = store.stage(file)) {
+      upload = AudioUpload.read(file, null, staged.output());
+      audioUrl = store.commit(staged, upload.getSha256());
+    }
+
+    String sha = upload.getSha256();
+    assertThat(audioUrl).isEqualTo("/audio/" + sha + ".webm");
+    Path stored =
+        root.resolve(sha.substring(0, 2)).resolve(sha.substring(2, 4)).resolve(sha + ".webm");
+    assertThat(stored).hasBinaryContent(new byte[] {1, 2, 3, 4});
+    assertThat(store.resolve(sha + ".webm")).contains(stored);
+    assertThat(AudioStore.fileName(audioUrl)).contains(sha + ".webm");
+    assertThat(AudioStore.contentType(sha + ".webm")).isEqualTo("audio/webm");
+    assertThat(root.resolve("tmp")).isEmptyDirectory();
+  }
+
+  @Test
+  void deduplicatesIdenticalRecordings() throws Exception {
+    MultipartFile file = new InMemoryAudioFile("a.wav", "audio/wav", new byte[] {9, 9, 9});
+
+    String first = storeFile(file);
+    String second = storeFile(new InMemoryAudioFile("b.wav", "audio/wav", new byte[] {9, 9, 9}));
+
+    assertThat(second).isEqualTo(first);
+    try (var files = Files.walk(root)) {
+      assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void discardsStagedFileWhenNotCommitted() throws Exception {
+    MultipartFile file = new InMemoryAudioFile("a.wav", "audio/wav", new byte[] {1});
+
+    try (AudioStore.Staged staged = store.stage(file)) {
+      staged.output().write(1);
+    }
+
+    assertThat(root.resolve("tmp")).isEmptyDirectory();
+  }
+
+  @Test
+  void rejectsForeignAndMalformedNames() {
+    assertThat(store.resolve("../../etc/passwd")).isEmpty();
+    assertThat(store.resolve("abc.wav")).isEmpty();
+    assertThat(AudioStore.fileName("https://cdn.example.com/answer.mp3")).isEmpty();
+    assertThat(AudioStore.fileName(null)).isEmpty();
+  }
+
+  private String storeFile(MultipartFile file) throws Exception {
+    try (AudioStore.Staged staged = store.stage(file)) {
+      AudioUpload upload = AudioUpload.read(file, null, staged.output());
+      return store.commit(staged, upload.getSha256());
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package azhukov.service.audio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.exception.ResourceNotFoundException;
+import azhukov.exception.UploadOffsetConflictException;
+import azhukov.exception.ValidationException;
+import azhukov.repository.InterviewRepository;
+import azhukov.repository.QuestionRepository;
+import azhukov.service.TranscriptionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+class ResumableUploadServiceTest {
+
+  @TempDir Path root;
+
+  private TranscriptionService transcriptionService;
+  private ResumableUploadService service;
+
+  @BeforeEach
+  void setUp() {
+    ApplicationProperties properties = new ApplicationProperties();
+    properties.getFile().getResumable().setDirectory(root.toString());
+    properties.getFile().getResumable().setMaxChunkSize(DataSize.ofBytes(4));
+
+    InterviewRepository interviewRepository = mock(InterviewRepository.class);
+    QuestionRepository questionRepository = mock(QuestionRepository.class);
+    when(interviewRepository.existsById(anyLong())).thenReturn(true);
+    when(questionRepository.existsById(anyLong())).thenReturn(true);
+    transcriptionService = mock(TranscriptionService.class);
+
+    service =
+        new ResumableUploadService(
+            properties,
+            interviewRepository,
+            questionRepository,
+            transcriptionService,
+            new ObjectMapper().findAndRegisterModules());
+  }
+
+  @Test
+  void resumesFromReceivedOffsetAndHandsAssembledFileToTranscription() throws Exception {
+    String uploadId = create(6);
+
+    assertThat(append(uploadId, 0, 1, 2, 3, 4).offset()).isEqualTo(4);
+    // Клиент потерял ответ и повторил ту же часть — смещение уже другое
+    assertThatThrownBy(() -> append(uploadId, 0, 1, 2, 3, 4))
+        .isInstanceOf(UploadOffsetConflictException.class)
+        .hasFieldOrPropertyWithValue("offset", 4L);
+    assertThat(service.get(uploadId).offset()).isEqualTo(4);
+    assertThat(append(uploadId, 4, 5, 6).offset()).isEqualTo(6);
+
+    AtomicReference<byte[]> transcribed = new AtomicReference<>();
+    when(transcriptionService.processAudioTranscription(any(), eq(10L), eq(20L)))
+        .thenAnswer(
+            invocation -> {
+              MultipartFile file = invocation.getArgument(0);
+              transcribed.set(file.getInputStream().readAllBytes());
+              return 42L;
+            });
+
+    assertThat(service.complete(uploadId)).isEqualTo(42L);
+    assertThat(transcribed.get()).containsExactly(1, 2, 3, 4, 5, 6);
+    assertThatThrownBy(() -> service.get(uploadId))
+        .isInstanceOf(ResourceNotFoundException.class);
+  }
+
+  @Test
+  void rejectsChunkLargerThanLimitWithoutAdvancingOffset() throws Exception {
+    String uploadId = create(10);
+
+    // Размер части не объявлен (chunked) — лишнее обнаруживается при чтении
+    assertThatThrownBy(() -> service.append(uploadId, 0, -1, new ByteArrayInputStream(new byte[5])))
+        .isInstanceOf(ValidationException.class);
+    assertThat(service.get(uploadId).offset()).isZero();
+  }
+
+  @Test
+  void rejectsDeclaredOversizedChunkWithoutReadingBody() throws Exception {
+    String uploadId = create(10);
+    InputStream body = mock(InputStream.class);
+
+    assertThatThrownBy(() -> service.append(uploadId, 0, 5, body))
+        .isInstanceOf(ValidationException.class);
+    verifyNoInteractions(body);
+    assertThat(service.get(uploadId).offset()).isZero();
+  }
+
+  @Test
+  void keepsUploadForRetryWhenTranscriptionFails() throws Exception {
+    String uploadId = create(2);
+    append(uploadId, 0, 1, 2);
+    when(transcriptionService.processAudioTranscription(any(), anyLong(), anyLong()))
+        .thenThrow(new RuntimeException("Transcription processing failed"));
+
+    assertThatThrownBy(() -> service.complete(uploadId)).isInstanceOf(RuntimeException.class);
+    assertThat(service.get(uploadId).offset()).isEqualTo(2);
+  }
+
+  @Test
+  void refusesToCompleteIncompleteUpload() throws Exception {
+    String uploadId = create(8);
+    append(uploadId, 0, 1, 2, 3);
+
+    assertThatThrownBy(() -> service.complete(uploadId)).isInstanceOf(ValidationException.class);
+  }
+
+  private String create(long length) throws Exception {
+    return service.create(10L, 20L, length, "audio/webm", "answer.webm").upload().id();
+  }
+
+  private ResumableUploadService.UploadState append(String uploadId, long offset, int... bytes)
+      throws Exception {
+    byte[] chunk = new byte[bytes.length];
+    for (int i = 0; i < bytes.length; i++) {
+      chunk[i] = (byte) bytes[i];
+    }
+    return service.append(uploadId, offset, chunk.length, new ByteArrayInputStream(chunk));
+  }
+}
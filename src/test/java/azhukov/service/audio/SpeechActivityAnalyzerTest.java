@@ -0,0 +1,90 @@
+package azhukov.service.audio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.multipart.MultipartFile;
+
+class SpeechActivityAnalyzerTest {
+
+  private static final int SAMPLE_RATE = 16000;
+
+  @Test
+  void detectsSpeechBetweenSilenceWhileStreaming() throws Exception {
+    // 1 с тишины, 2 с тона, 1.5 с тишины
+    byte[] wav = wav(1.0, 2.0, 1.5);
+
+    SpeechActivityAnalyzer.SpeechActivity activity = analyzeInChunks(wav, 333);
+
+    assertThat(activity.analyzed()).isTrue();
+    assertThat(activity.totalSeconds()).isCloseTo(4.5, within(0.001));
+    assertThat(activity.speechSeconds()).isCloseTo(2.0, within(0.02));
+    assertThat(activity.firstSpeechFrame()).isEqualTo(SAMPLE_RATE);
+    assertThat(activity.lastSpeechFrame()).isEqualTo(3 * SAMPLE_RATE);
+  }
+
+  @Test
+  void trimsLeadingAndTrailingSilenceWithPadding() throws Exception {
+    byte[] wav = wav(1.0, 2.0, 1.5);
+    MultipartFile file = new InMemoryAudioFile("answer.wav", "audio/wav", wav);
+    AudioUpload upload = AudioUpload.read(file, new SpeechActivityAnalyzer(0.02));
+
+    MultipartFile trimmed =
+        SpeechActivityAnalyzer.trimSilence(upload, upload.getSpeechActivity(), 0.3);
+
+    WavAudio result = WavAudio.parse(trimmed.getBytes()).orElseThrow();
+    assertThat(result.durationSeconds()).isCloseTo(2.6, within(0.001));
+    assertThat(trimmed.getOriginalFilename()).isEqualTo("answer.wav");
+  }
+
+  @Test
+  void reportsNoSpeechForSilentRecording() {
+    SpeechActivityAnalyzer.SpeechActivity activity = analyzeInChunks(wav(3.0, 0, 0), 4096);
+
+    assertThat(activity.analyzed()).isTrue();
+    assertThat(activity.hasSpeech()).isFalse();
+    assertThat(activity.speechSeconds()).isZero();
+  }
+
+  @Test
+  void skipsAnalysisForNonWavAudio() throws Exception {
+    MultipartFile webm =
+        new InMemoryAudioFile("a.webm", "audio/webm", new byte[] {26, 69, -33, -93, 1, 2, 3, 4});
+
+    AudioUpload upload = AudioUpload.read(webm, new SpeechActivityAnalyzer(0.02));
+
+    assertThat(upload.getSpeechActivity().analyzed()).isFalse();
+    assertThat(SpeechActivityAnalyzer.trimSilence(upload, upload.getSpeechActivity(), 0.3))
+        .isSameAs(upload);
+  }
+
+  private static SpeechActivityAnalyzer.SpeechActivity analyzeInChunks(byte[] wav, int chunkSize) {
+    SpeechActivityAnalyzer analyzer = new SpeechActivityAnalyzer(0.02);
+    try (InputStream in = new ByteArrayInputStream(wav)) {
+      byte[] buffer = new byte[chunkSize];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        analyzer.update(buffer, 0, read);
+      }
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    return analyzer.finish();
+  }
+
+  private static byte[] wav(double silenceBefore, double tone, double silenceAfter) {
+    int before = (int) (silenceBefore * SAMPLE_RATE);
+    int toneFrames = (int) (tone * SAMPLE_RATE);
+    int frames = before + toneFrames + (int) (silenceAfter * SAMPLE_RATE);
+    byte[] pcm = new byte[frames * 2];
+    for (int i = before; i < before + toneFrames; i++) {
+      short sample = (short) (0.3 * 32767 * Math.sin(2 * Math.PI * 300 * i / SAMPLE_RATE));
+      pcm[2 * i] = (byte) sample;
+      pcm[2 * i + 1] = (byte) (sample >> 8);
+    }
+    return WavAudio.toWavBytes(pcm, 0, pcm.length, SAMPLE_RATE, 1, 16);
+  }
+}
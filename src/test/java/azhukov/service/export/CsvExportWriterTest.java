@@ -0,0 +1,35 @@
+package azhukov.service.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CsvExportWriterTest {
+
+  @Test
+  void writesBomHeaderAndEscapedRows() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (CsvExportWriter writer = new CsvExportWriter(out)) {
+      writer.writeHeader(List.of("id", "answer", "score"));
+      writer.writeRow(Arrays.asList(1L, "Да, \"конечно\"\nс переносом", -2.5));
+      writer.writeRow(Arrays.asList(2L, null, null));
+    }
+
+    assertThat(out.toString(StandardCharsets.UTF_8))
+        .isEqualTo(
+            "\uFEFFid,answer,score\r\n"
+                + "1,\"Да, \"\"конечно\"\"\nс переносом\",-2.5\r\n"
+                + "2,,\r\n");
+  }
+
+  @Test
+  void neutralizesSpreadsheetFormulas() {
+    assertThat(CsvExportWriter.escape("=HYPERLINK(\"x\")")).isEqualTo("\"'=HYPERLINK(\"\"x\"\")\"");
+    assertThat(CsvExportWriter.escape("@SUM")).isEqualTo("'@SUM");
+    assertThat(CsvExportWriter.escape("обычный текст")).isEqualTo("обычный текст");
+  }
+}
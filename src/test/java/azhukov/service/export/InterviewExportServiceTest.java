@@ -0,0 +1,67 @@
+package azhukov.service.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import azhukov.repository.InterviewRepository;
+import azhukov.repository.PositionRepository;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class InterviewExportServiceTest {
+
+  private final LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+  private final LocalDateTime end = LocalDateTime.of(2026, 2, 1, 0, 0);
+
+  private InterviewRepository interviewRepository;
+  private InterviewExportService service;
+
+  @BeforeEach
+  void setUp() {
+    interviewRepository = mock(InterviewRepository.class);
+    service =
+        new InterviewExportService(
+            interviewRepository,
+            mock(PositionRepository.class),
+            mock(PlatformTransactionManager.class));
+  }
+
+  @Test
+  void writesXlsxWorkbookWhenAllRowsAreRead() {
+    when(interviewRepository.streamExportRows(any(), any(), any()))
+        .thenReturn(Stream.of(mock(InterviewRepository.ExportRow.class)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    service.write(ExportFormat.XLSX, null, start, end, out);
+
+    // XLSX — zip-архив
+    assertThat(out.toByteArray()).startsWith((byte) 'P', (byte) 'K');
+  }
+
+  @Test
+  void doesNotWriteTruncatedXlsxWhenCursorFails() {
+    when(interviewRepository.streamExportRows(any(), any(), any()))
+        .thenReturn(
+            Stream.of(1, 2)
+                .map(
+                    i -> {
+                      if (i == 2) {
+                        throw new DataAccessResourceFailureException("cursor lost");
+                      }
+                      return mock(InterviewRepository.ExportRow.class);
+                    }));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    assertThatThrownBy(() -> service.write(ExportFormat.XLSX, null, start, end, out))
+        .isInstanceOf(DataAccessResourceFailureException.class);
+    assertThat(out.size()).isZero();
+  }
+}
@@ -0,0 +1,46 @@
+package azhukov.service.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+class XlsxExportWriterTest {
+
+  @Test
+  void writesHeaderAndTypedCells() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (XlsxExportWriter writer = new XlsxExportWriter(out)) {
+      writer.writeHeader(List.of("id", "answer", "score"));
+      writer.writeRow(Arrays.asList(1L, "Да", 7.5));
+      writer.writeRow(Arrays.asList(2L, null, null));
+      writer.finish();
+    }
+
+    try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+      Sheet sheet = workbook.getSheet("Export");
+      assertThat(sheet.getLastRowNum()).isEqualTo(2);
+      assertThat(sheet.getRow(0).getCell(1).getStringCellValue()).isEqualTo("answer");
+      assertThat(sheet.getRow(1).getCell(0).getNumericCellValue()).isEqualTo(1.0);
+      assertThat(sheet.getRow(1).getCell(1).getStringCellValue()).isEqualTo("Да");
+      assertThat(sheet.getRow(1).getCell(2).getNumericCellValue()).isEqualTo(7.5);
+      assertThat(sheet.getRow(2).getCell(1)).isNull();
+    }
+  }
+
+  @Test
+  void writesNothingWhenExportIsNotFinished() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (XlsxExportWriter writer = new XlsxExportWriter(out)) {
+      writer.writeHeader(List.of("id"));
+      writer.writeRow(List.of(1L));
+    }
+
+    assertThat(out.size()).isZero();
+  }
+}
@@ -0,0 +1,82 @@
+package azhukov.service.live;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import azhukov.config.ApplicationProperties;
+import azhukov.websocket.InterviewMonitorWebSocketHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class InterviewLiveEventPublisherTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private InterviewMonitorWebSocketHandler handler;
+  private InterviewLiveEventPublisher publisher;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    handler = mock(InterviewMonitorWebSocketHandler.class);
+    publisher =
+        new InterviewLiveEventPublisher(
+            handler,
+            objectMapper,
+            new ApplicationProperties(),
+            mock(ObjectProvider.class),
+            mock(ObjectProvider.class));
+    publisher.subscribe();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void deliversLocallyWithoutRedis() {
+    publisher.publish(InterviewLiveEvent.Type.ANSWER_SAVED, 7L, Map.of("questionId", 3L));
+
+    ArgumentCaptor<InterviewLiveEvent> event = ArgumentCaptor.forClass(InterviewLiveEvent.class);
+    verify(handler).broadcast(event.capture());
+    assertThat(event.getValue().type()).isEqualTo(InterviewLiveEvent.Type.ANSWER_SAVED);
+    assertThat(event.getValue().interviewId()).isEqualTo(7L);
+  }
+
+  @Test
+  void publishesOnlyAfterCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+
+    publisher.publish(InterviewLiveEvent.Type.SESSION_ENDED, 7L, Map.of("reason", "ended"));
+    verify(handler, never()).broadcast(any());
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    verify(handler).broadcast(any());
+  }
+
+  @Test
+  void broadcastsEventsReceivedFromOtherNodes() throws Exception {
+    InterviewLiveEvent sent =
+        InterviewLiveEvent.of(InterviewLiveEvent.Type.SCORE_READY, 9L, Map.of("score", 7.5));
+    byte[] body = objectMapper.writeValueAsString(sent).getBytes(StandardCharsets.UTF_8);
+
+    publisher.onMessage(new DefaultMessage("interviews:live".getBytes(), body), null);
+
+    verify(handler).broadcast(sent);
+  }
+}
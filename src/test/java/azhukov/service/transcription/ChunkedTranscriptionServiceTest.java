@@ -0,0 +1,131 @@
+package azhukov.service.transcription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azhukov.config.TranscriptionProperties;
+import azhukov.service.audio.InMemoryAudioFile;
+import azhukov.service.audio.SilenceSplitter;
+import azhukov.service.audio.WavAudio;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.multipart.MultipartFile;
+
+class ChunkedTranscriptionServiceTest {
+
+  private static final int SAMPLE_RATE = 8000;
+
+  private ChunkedTranscriptionService service;
+
+  @BeforeEach
+  void setUp() {
+    TranscriptionProperties properties = new TranscriptionProperties();
+    properties.getChunking().setMaxChunkSeconds(10);
+    properties.getChunking().setSilenceSearchSeconds(4);
+    properties.getChunking().setParallelism(2);
+    service = new ChunkedTranscriptionService(properties);
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void splitCutsInsideSilence() {
+    // 8 с речи, 1 с тишины, 8 с речи
+    byte[] wav = wav(tone(8), silence(1), tone(8));
+    WavAudio audio = WavAudio.parse(wav).orElseThrow();
+
+    List<SilenceSplitter.Segment> segments = new SilenceSplitter(10, 4, 1, 0.01).split(audio);
+
+    assertThat(segments).hasSize(2);
+    long cut = segments.get(0).endFrame();
+    assertThat(cut).isBetween(8L * SAMPLE_RATE, 9L * SAMPLE_RATE);
+    assertThat(segments.get(1).startFrame()).isEqualTo(cut);
+    assertThat(segments.get(1).overlapsPrevious()).isFalse();
+    assertThat(segments.get(1).endFrame()).isEqualTo(audio.frameCount());
+  }
+
+  @Test
+  void splitOverlapsWhenThereIsNoSilence() {
+    WavAudio audio = WavAudio.parse(wav(tone(25))).orElseThrow();
+
+    List<SilenceSplitter.Segment> segments = new SilenceSplitter(10, 4, 1, 0.01).split(audio);
+
+    assertThat(segments).hasSize(3);
+    assertThat(segments.get(0).endFrame()).isEqualTo(10L * SAMPLE_RATE);
+    assertThat(segments.get(1).startFrame()).isEqualTo(9L * SAMPLE_RATE);
+    assertThat(segments.get(1).overlapsPrevious()).isTrue();
+  }
+
+  @Test
+  void stitchRemovesDuplicatedWordsOnlyForOverlappingParts() {
+    String text =
+        TranscriptStitcher.stitch(
+            List.of(
+                new TranscriptStitcher.Part("я работал с Spring Boot", false),
+                new TranscriptStitcher.Part("spring boot, и Kafka да", true),
+                new TranscriptStitcher.Part("да, именно так", false)),
+            8);
+
+    assertThat(text).isEqualTo("я работал с Spring Boot и Kafka да да, именно так");
+  }
+
+  @Test
+  void transcribeKeepsChunkOrder() {
+    byte[] wav = wav(tone(8), silence(1), tone(8), silence(1), tone(8));
+    AtomicInteger calls = new AtomicInteger();
+
+    String text =
+        service.transcribe(
+            new InMemoryAudioFile("answer.wav", "audio/wav", wav),
+            chunk -> {
+              calls.incrementAndGet();
+              return chunk.getOriginalFilename().replace(".wav", "");
+            });
+
+    assertThat(calls.get()).isEqualTo(3);
+    assertThat(text).isEqualTo("answer.part-1 answer.part-2 answer.part-3");
+  }
+
+  @Test
+  void shortAndNonWavAudioIsSentAsIs() {
+    InMemoryAudioFile shortWav = new InMemoryAudioFile("short.wav", "audio/wav", wav(tone(3)));
+    InMemoryAudioFile webm = new InMemoryAudioFile("a.webm", "audio/webm", new byte[] {1, 2, 3});
+
+    assertThat(service.transcribe(shortWav, MultipartFile::getOriginalFilename))
+        .isEqualTo("short.wav");
+    assertThat(service.transcribe(webm, MultipartFile::getOriginalFilename)).isEqualTo("a.webm");
+  }
+
+  private static short[] tone(int seconds) {
+    short[] samples = new short[seconds * SAMPLE_RATE];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = (short) (8000 * Math.sin(2 * Math.PI * 440 * i / SAMPLE_RATE));
+    }
+    return samples;
+  }
+
+  private static short[] silence(int seconds) {
+    return new short[seconds * SAMPLE_RATE];
+  }
+
+  private static byte[] wav(short[]... parts) {
+    int total = 0;
+    for (short[] part : parts) {
+      total += part.length;
+    }
+    byte[] pcm = new byte[total * 2];
+    int index = 0;
+    for (short[] part : parts) {
+      for (short sample : part) {
+        pcm[index++] = (byte) sample;
+        pcm[index++] = (byte) (sample >> 8);
+      }
+    }
+    return WavAudio.toWavBytes(pcm, 0, pcm.length, SAMPLE_RATE, 1, 16);
+  }
+}
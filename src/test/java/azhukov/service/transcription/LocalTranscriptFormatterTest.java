@@ -0,0 +1,84 @@
+package azhukov.service.transcription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azhukov.config.TranscriptionProperties;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class LocalTranscriptFormatterTest {
+
+  private final LocalTranscriptFormatter formatter = new LocalTranscriptFormatter();
+  private final TranscriptionProperties properties = new TranscriptionProperties();
+  private final TranscriptFormattingPolicy policy = new TranscriptFormattingPolicy(properties);
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = '|',
+      value = {
+        "да|Да",
+        "нет|Нет",
+        "java|Java",
+        "spring boot|Spring Boot",
+        "я работал с джава|Я работал с джава",
+        "использовал спринг|Использовал спринг",
+        "э-э ну я работал в компании э-э в общем|Ну я работал в компании в общем",
+        "я я думаю мм это хорошо но сложно|Я думаю это хорошо, но сложно",
+        "это эмоции , э, сложно|Это эмоции, сложно",
+        "писал на kafka.потом ушёл|Писал на Kafka. Потом ушёл",
+        "um I used postgresql but it was slow|I used PostgreSQL, but it was slow"
+      })
+  void formatsLikeThePrompt(String raw, String expected) {
+    assertThat(formatter.format(raw).text()).isEqualTo(expected);
+  }
+
+  @Test
+  void keepsEmphasisRepeats() {
+    assertThat(formatter.format("да да, очень очень хорошо").text())
+        .isEqualTo("Да да, очень очень хорошо");
+  }
+
+  @Test
+  void countsFillersAndRepeats() {
+    LocalTranscriptFormatter.Result result = formatter.format("э-э я я м-м знаю");
+
+    assertThat(result.fillerCount()).isEqualTo(2);
+    assertThat(result.repeatCount()).isEqualTo(1);
+    assertThat(result.wordCount()).isEqualTo(2);
+  }
+
+  @Test
+  void shortCleanAnswersSkipLlm() {
+    assertThat(policy.requiresLlm("да", formatter.format("да"))).isFalse();
+    assertThat(policy.requiresLlm("Работал с Java три года.", formatter.format("работал с Java")))
+        .isFalse();
+  }
+
+  @Test
+  void longOrMessyAnswersGoToLlm() {
+    String messy = "э-э ну э-э я м-м думаю";
+    String unpunctuated = "я работал в компании где мы писали сервисы на джава и потом ушли в облако";
+    String longAnswer = longAnswer();
+
+    assertThat(policy.requiresLlm(messy, formatter.format(messy))).isTrue();
+    assertThat(policy.requiresLlm(unpunctuated, formatter.format(unpunctuated))).isTrue();
+    assertThat(policy.requiresLlm(longAnswer, formatter.format(longAnswer))).isTrue();
+  }
+
+  @Test
+  void modeOverridesHeuristics() {
+    properties.getFormatting().setMode(TranscriptionProperties.Formatting.Mode.LLM);
+    assertThat(policy.requiresLlm("да", formatter.format("да"))).isTrue();
+
+    properties.getFormatting().setMode(TranscriptionProperties.Formatting.Mode.LOCAL);
+    String longAnswer = longAnswer();
+    assertThat(policy.requiresLlm(longAnswer, formatter.format(longAnswer))).isFalse();
+  }
+
+  private static String longAnswer() {
+    return IntStream.range(0, 40).mapToObj(i -> "слово" + i).collect(Collectors.joining(" "));
+  }
+}
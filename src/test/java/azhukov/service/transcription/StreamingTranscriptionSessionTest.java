@@ -0,0 +1,112 @@
+package azhukov.service.transcription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import azhukov.config.TranscriptionProperties;
+import azhukov.exception.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.multipart.MultipartFile;
+
+class StreamingTranscriptionSessionTest {
+
+  private static final int SAMPLE_RATE = 16000;
+  private static final String[] WORDS = {"один", "два", "три", "четыре"};
+
+  private final TranscriptionProperties properties = new TranscriptionProperties();
+  private final AtomicInteger calls = new AtomicInteger();
+  private final Function<MultipartFile, String> transcriber =
+      file -> WORDS[calls.getAndIncrement()];
+  private final List<StreamingTranscriptionSession.Partial> partials = new ArrayList<>();
+
+  @Test
+  void transcribesChunksWhileRecordingAndOnlyTailAfterStop() {
+    StreamingTranscriptionSession session = newSession();
+    // Три фразы по 8 с, разделённые секундными паузами, затем короткий хвост
+    byte[] pcm = pcm(tone(8), silence(1), tone(8), silence(1), tone(5));
+
+    appendInPackets(session, pcm);
+
+    assertThat(calls).hasValue(2);
+    assertThat(partials)
+        .extracting(StreamingTranscriptionSession.Partial::text)
+        .containsExactly("один", "один два");
+
+    StreamingTranscriptionSession.Result result = session.finish().join();
+
+    assertThat(calls).hasValue(3);
+    assertThat(result.text()).isEqualTo("один два три");
+    assertThat(result.speechActivity().speechSeconds()).isBetween(20.5, 21.5);
+    assertThat(partials)
+        .last()
+        .extracting(StreamingTranscriptionSession.Partial::chunks)
+        .isEqualTo(3);
+  }
+
+  @Test
+  void doesNotSendSilenceToProvider() {
+    StreamingTranscriptionSession session = newSession();
+
+    appendInPackets(session, pcm(silence(25)));
+    StreamingTranscriptionSession.Result result = session.finish().join();
+
+    assertThat(calls).hasValue(0);
+    assertThat(result.text()).isEmpty();
+    assertThat(result.speechActivity().hasSpeech()).isFalse();
+  }
+
+  @Test
+  void rejectsRecordingLongerThanLimit() {
+    properties.getStreaming().setMaxSessionSeconds(5);
+    StreamingTranscriptionSession session = newSession();
+
+    assertThatThrownBy(() -> appendInPackets(session, pcm(silence(6))))
+        .isInstanceOf(ValidationException.class);
+  }
+
+  private StreamingTranscriptionSession newSession() {
+    return new StreamingTranscriptionSession(
+        properties, SAMPLE_RATE, 1, transcriber, Runnable::run, partials::add);
+  }
+
+  /** Отправляет PCM пакетами по 100 мс нечётной длины, как это делает браузер */
+  private static void appendInPackets(StreamingTranscriptionSession session, byte[] pcm) {
+    int packet = SAMPLE_RATE / 10 * 2 + 1;
+    for (int offset = 0; offset < pcm.length; offset += packet) {
+      session.append(pcm, offset, Math.min(packet, pcm.length - offset));
+    }
+  }
+
+  private static short[] tone(int seconds) {
+    short[] samples = new short[seconds * SAMPLE_RATE];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = (short) (0.3 * 32767 * Math.sin(2 * Math.PI * 300 * i / SAMPLE_RATE));
+    }
+    return samples;
+  }
+
+  private static short[] silence(int seconds) {
+    return new short[seconds * SAMPLE_RATE];
+  }
+
+  private static byte[] pcm(short[]... parts) {
+    int total = 0;
+    for (short[] part : parts) {
+      total += part.length;
+    }
+    byte[] pcm = new byte[total * 2];
+    int index = 0;
+    for (short[] part : parts) {
+      for (short sample : part) {
+        pcm[2 * index] = (byte) sample;
+        pcm[2 * index + 1] = (byte) (sample >> 8);
+        index++;
+      }
+    }
+    return pcm;
+  }
+}
@@ -0,0 +1,79 @@
+package azhukov.service.transcription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import azhukov.config.TranscriptionProperties;
+import azhukov.service.TranscriptionProvider;
+import azhukov.service.audio.AudioUpload;
+import azhukov.service.audio.InMemoryAudioFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class TranscriptionCacheTest {
+
+  @TempDir Path directory;
+
+  private ObjectProvider<StringRedisTemplate> redisProvider;
+  private TranscriptionCache cache;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    TranscriptionProperties properties = new TranscriptionProperties();
+    properties.getCache().setDirectory(directory.toString());
+    properties.getCache().setDiskTtl(Duration.ofHours(1));
+    redisProvider = mock(ObjectProvider.class);
+    cache = new TranscriptionCache(properties, new ObjectMapper(), redisProvider);
+  }
+
+  @Test
+  void sameAudioProducesSameKey() throws Exception {
+    byte[] audio = "RIFF....WAVE".getBytes(StandardCharsets.US_ASCII);
+    AudioUpload first = AudioUpload.read(new InMemoryAudioFile("a.wav", "audio/wav", audio));
+    AudioUpload second = AudioUpload.read(new InMemoryAudioFile("b.wav", "audio/wav", audio));
+
+    assertThat(first.getSha256()).hasSize(64).isEqualTo(second.getSha256());
+    assertThat(first.getBytes()).isEqualTo(audio);
+    assertThat(TranscriptionCache.key(first.getSha256(), TranscriptionProvider.OPENAI, "ru"))
+        .isNotEqualTo(
+            TranscriptionCache.key(first.getSha256(), TranscriptionProvider.ELEVENLABS, "ru"));
+  }
+
+  @Test
+  void putThenGetReturnsEntryFromDisk() {
+    String key = TranscriptionCache.key("ab".repeat(32), TranscriptionProvider.ELEVENLABS, "ru");
+
+    cache.put(key, new TranscriptionCache.Entry("э-э ну да", "Ну да"));
+
+    assertThat(cache.get(key)).contains(new TranscriptionCache.Entry("э-э ну да", "Ну да"));
+    verifyNoInteractions(redisProvider);
+  }
+
+  @Test
+  void expiredEntryIsIgnoredAndRemoved() throws Exception {
+    String key = TranscriptionCache.key("cd".repeat(32), TranscriptionProvider.OPENAI, "ru");
+    cache.put(key, new TranscriptionCache.Entry("да", null));
+
+    Path file;
+    try (Stream<Path> files = Files.walk(directory)) {
+      file = files.filter(path -> path.toString().endsWith(".json")).findFirst().orElseThrow();
+    }
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+    assertThat(cache.get(key)).isEmpty();
+    assertThat(file).doesNotExist();
+  }
+}
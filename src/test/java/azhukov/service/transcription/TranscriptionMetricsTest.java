@@ -0,0 +1,104 @@
+package azhukov.service.transcription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azhukov.exception.SilentRecordingException;
+import azhukov.service.TranscriptionProvider;
+import azhukov.service.transcription.TranscriptionMetrics.Pipeline;
+import azhukov.service.transcription.TranscriptionMetrics.Stage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TranscriptionMetricsTest {
+
+  private SimpleMeterRegistry registry;
+  private TranscriptionMetrics metrics;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    metrics = new TranscriptionMetrics(registry);
+  }
+
+  @Test
+  void recordsEachStageAndRealTimeFactor() {
+    TranscriptionMetrics.Recording recording =
+        metrics.start(Pipeline.UPLOAD, TranscriptionProvider.ELEVENLABS);
+    recording.stage(Stage.VALIDATION);
+    recording.stage(Stage.UPLOAD);
+    recording.bytes(320_000);
+    recording.audioSeconds(10);
+    recording.stage(Stage.STT);
+    recording.stage(Stage.FORMATTING);
+    recording.stage(Stage.PERSIST);
+    recording.success();
+
+    for (String stage : new String[] {"validation", "upload", "stt", "formatting", "persist"}) {
+      assertThat(stageTimer(stage, "success").count()).as(stage).isEqualTo(1);
+    }
+    assertThat(
+            registry
+                .get("transcription.pipeline.duration")
+                .tag("pipeline", "upload")
+                .tag("provider", "elevenlabs")
+                .timer()
+                .count())
+        .isEqualTo(1);
+    assertThat(summary("transcription.pipeline.bytes").totalAmount()).isEqualTo(320_000);
+    assertThat(summary("transcription.pipeline.audio.duration").totalAmount()).isEqualTo(10);
+    DistributionSummary realTimeFactor = summary("transcription.pipeline.realtime.factor");
+    assertThat(realTimeFactor.count()).isEqualTo(1);
+    assertThat(realTimeFactor.max()).isLessThan(1);
+  }
+
+  @Test
+  void tagsOutcomeAndSkipsStagesThatDidNotRun() {
+    TranscriptionMetrics.Recording recording =
+        metrics.start(Pipeline.UPLOAD, TranscriptionProvider.OPENAI);
+    recording.stage(Stage.VALIDATION);
+    recording.stage(Stage.UPLOAD);
+    recording.failure(new SilentRecordingException(0.1));
+    // Повторное завершение не записывает метрики второй раз
+    recording.success();
+
+    assertThat(stageTimer("upload", "silent").count()).isEqualTo(1);
+    assertThat(registry.find("transcription.pipeline.stage").tag("stage", "stt").timer()).isNull();
+    assertThat(registry.find("transcription.pipeline.stage").tag("outcome", "success").timer())
+        .isNull();
+    // Длительность аудио неизвестна — real-time factor не считается
+    assertThat(registry.find("transcription.pipeline.realtime.factor").summary()).isNull();
+  }
+
+  @Test
+  void marksCacheHits() {
+    TranscriptionMetrics.Recording recording =
+        metrics.start(Pipeline.TRANSCRIBE_ONLY, TranscriptionProvider.ELEVENLABS);
+    recording.stage(Stage.UPLOAD);
+    recording.cached();
+    recording.success();
+
+    assertThat(
+            registry
+                .get("transcription.pipeline.duration")
+                .tag("pipeline", "transcribe-only")
+                .tag("outcome", "cached")
+                .timer()
+                .count())
+        .isEqualTo(1);
+  }
+
+  private Timer stageTimer(String stage, String outcome) {
+    return registry
+        .get("transcription.pipeline.stage")
+        .tag("stage", stage)
+        .tag("outcome", outcome)
+        .timer();
+  }
+
+  private DistributionSummary summary(String name) {
+    return registry.get(name).summary();
+  }
+}
@@ -0,0 +1,119 @@
+package azhukov.service.transcription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azhukov.config.TranscriptionProperties;
+import azhukov.service.TranscriptionProvider;
+import azhukov.service.ai.elevenlabs.ElevenLabsService;
+import azhukov.service.ai.openai.OpenAiSttService;
+import azhukov.service.audio.InMemoryAudioFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TranscriptionProviderRouterTest {
+
+  @Mock private ElevenLabsService elevenLabsService;
+  @Mock private OpenAiSttService openAiSttService;
+
+  private final InMemoryAudioFile audio =
+      new InMemoryAudioFile("answer.webm", "audio/webm", new byte[] {1, 2, 3});
+
+  private TranscriptionProperties properties;
+  private SimpleMeterRegistry meterRegistry;
+  private TranscriptionProviderRouter router;
+
+  @BeforeEach
+  void setUp() {
+    properties = new TranscriptionProperties();
+    properties.setProvider(TranscriptionProvider.ELEVENLABS);
+    properties.getRouting().setFailureThreshold(2);
+    meterRegistry = new SimpleMeterRegistry();
+    router =
+        new TranscriptionProviderRouter(
+            properties, elevenLabsService, openAiSttService, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    router.shutdown();
+  }
+
+  @Test
+  void usesConfiguredProviderWhenHealthy() {
+    when(elevenLabsService.transcribeAudio(any())).thenReturn("привет");
+
+    assertThat(router.transcribe(audio)).isEqualTo("привет");
+    verify(openAiSttService, never()).transcribeAudio(any());
+  }
+
+  @Test
+  void failsOverToSecondProviderOnError() {
+    when(elevenLabsService.transcribeAudio(any())).thenThrow(new RuntimeException("503"));
+    when(openAiSttService.transcribeAudio(any())).thenReturn("привет");
+
+    TranscriptionProviderRouter.Result result = router.transcribeWithProvider(audio);
+
+    assertThat(result.text()).isEqualTo("привет");
+    assertThat(result.provider()).isEqualTo(TranscriptionProvider.OPENAI);
+    assertThat(meterRegistry.counter("transcription.provider.failover", "provider", "openai").count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void throwsWhenAllProvidersFail() {
+    when(elevenLabsService.transcribeAudio(any())).thenThrow(new RuntimeException("503"));
+    when(openAiSttService.transcribeAudio(any())).thenThrow(new RuntimeException("429"));
+
+    assertThatThrownBy(() -> router.transcribe(audio)).hasMessage("429");
+  }
+
+  @Test
+  void excludesProviderAfterConsecutiveFailures() {
+    when(elevenLabsService.transcribeAudio(any())).thenThrow(new RuntimeException("503"));
+    when(openAiSttService.transcribeAudio(any())).thenReturn("привет");
+
+    router.transcribe(audio);
+    router.transcribe(audio);
+
+    assertThat(router.route())
+        .containsExactly(TranscriptionProvider.OPENAI, TranscriptionProvider.ELEVENLABS);
+  }
+
+  @Test
+  void hedgedRequestWinsWhenPrimaryIsSlow() {
+    properties.getRouting().setHedgingEnabled(true);
+    properties.getRouting().setHedgeDelay(Duration.ofMillis(50));
+    when(elevenLabsService.transcribeAudio(any()))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(2000);
+              return "медленно";
+            });
+    when(openAiSttService.transcribeAudio(any())).thenReturn("быстро");
+
+    assertThat(router.transcribe(audio)).isEqualTo("быстро");
+    assertThat(meterRegistry.counter("transcription.provider.hedged", "provider", "openai").count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void failoverDisabledUsesOnlyConfiguredProvider() {
+    properties.getRouting().setFailoverEnabled(false);
+    properties.setProvider(TranscriptionProvider.OPENAI);
+
+    assertThat(router.route()).isEqualTo(List.of(TranscriptionProvider.OPENAI));
+  }
+}